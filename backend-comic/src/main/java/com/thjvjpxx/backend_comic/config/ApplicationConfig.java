@@ -4,13 +4,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
- * Cấu hình ứng dụng cho crawler và async processing
+ * Cấu hình ứng dụng cho crawler, async processing và các tác vụ định kỳ
  */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class ApplicationConfig {
 
     /**
@@ -1,5 +1,8 @@
 package com.thjvjpxx.backend_comic.config;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.function.Function;
 
@@ -8,7 +11,10 @@ import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.thjvjpxx.backend_comic.model.User;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
@@ -28,28 +34,73 @@ public class JwtConfig {
 
     final SecretKey SIGNING_KEY = Jwts.SIG.HS256.key().build();
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_VIP = "vip";
+    static final String CLAIM_VIP_EXPIRES_AT = "vipExp";
+
     private SecretKey getSigningKey() {
         return SIGNING_KEY;
     }
 
-    public String generateToken(String username) {
-        return Jwts.builder()
-                .subject(username)
+    /**
+     * Tạo access token kèm claims của user để filter không phải query lại DB
+     * 
+     * @param user         User đăng nhập
+     * @param vipExpiresAt Thời điểm hết hạn VIP hiện tại (null nếu không có)
+     * @return Access token
+     */
+    public String generateToken(User user, LocalDateTime vipExpiresAt) {
+        var builder = Jwts.builder()
+                .subject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().getName())
+                .claim(CLAIM_VIP, Boolean.TRUE.equals(user.getVip()));
+        if (vipExpiresAt != null) {
+            builder.claim(CLAIM_VIP_EXPIRES_AT, vipExpiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return builder
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSigningKey())
                 .compact();
     }
 
-    public String generateRefreshToken(String username) {
+    public String generateRefreshToken(User user) {
         return Jwts.builder()
-                .subject(username)
+                .subject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + refreshExpiration))
                 .signWith(getSigningKey())
                 .compact();
     }
 
+    /**
+     * Xác thực chữ ký, hạn dùng và đọc claims chỉ với 1 lần parse
+     * 
+     * @param token JWT
+     * @return Principal đọc từ claims, null nếu token không hợp lệ hoặc hết hạn
+     */
+    public JwtPrincipal parseToken(String token) {
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        Long vipExpiresAt = claims.get(CLAIM_VIP_EXPIRES_AT, Long.class);
+        return JwtPrincipal.builder()
+                .userId(claims.get(CLAIM_USER_ID, String.class))
+                .username(claims.getSubject())
+                .role(claims.get(CLAIM_ROLE, String.class))
+                .vip(Boolean.TRUE.equals(claims.get(CLAIM_VIP, Boolean.class)))
+                .vipExpiresAt(vipExpiresAt == null ? null
+                        : LocalDateTime.ofInstant(Instant.ofEpochMilli(vipExpiresAt), ZoneId.systemDefault()))
+                .build();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -76,14 +127,7 @@ public class JwtConfig {
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
+        // parseSignedClaims đã tự kiểm tra hạn dùng (ExpiredJwtException)
+        return parseToken(token) != null;
     }
 }
\ No newline at end of file
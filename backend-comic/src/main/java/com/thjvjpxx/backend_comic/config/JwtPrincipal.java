@@ -0,0 +1,37 @@
+package com.thjvjpxx.backend_comic.config;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Thông tin người dùng đọc từ claims của JWT, dùng làm principal trong
+ * SecurityContext thay cho chuỗi username
+ */
+@Getter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class JwtPrincipal implements Principal {
+    String userId;
+    String username;
+    String role;
+    boolean vip;
+    /**
+     * Thời điểm hết hạn VIP tại lúc cấp token, null nếu không có VIP
+     */
+    LocalDateTime vipExpiresAt;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
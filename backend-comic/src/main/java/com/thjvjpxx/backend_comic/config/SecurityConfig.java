@@ -53,6 +53,8 @@ public class SecurityConfig {
 								"/",
 								"/category",
 								"/search",
+								"/search/suggest",
+								"/browse",
 								"/category/*",
 								"/comments/comic/*/count",
 								"/comments/chapter/*/count",
@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.thjvjpxx.backend_comic.dto.response.AdminStatisticsResponse;
 import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
 import com.thjvjpxx.backend_comic.service.AdminStatisticsService;
+import com.thjvjpxx.backend_comic.service.VipExpirationService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -16,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 public class AdminStatisticsController {
 
     private final AdminStatisticsService adminStatisticsService;
+    private final VipExpirationService vipExpirationService;
 
     /**
      * Lấy tất cả thống kê cho Admin dashboard
@@ -27,4 +29,15 @@ public class AdminStatisticsController {
         AdminStatisticsResponse statistics = adminStatisticsService.getAllStatistics();
         return BaseResponse.success(statistics, "Lấy thống kê thành công");
     }
+
+    /**
+     * Lấy thống kê bộ quét hết hạn VIP (số lượng chờ, độ trễ xử lý)
+     * GET /admin/statistics/vip-expiry
+     *
+     * @return Response chứa thống kê bộ quét hết hạn VIP
+     */
+    @GetMapping("/vip-expiry")
+    public BaseResponse<?> getVipExpiryStatistics() {
+        return BaseResponse.success(vipExpirationService.getExpiryStats());
+    }
 }
\ No newline at end of file
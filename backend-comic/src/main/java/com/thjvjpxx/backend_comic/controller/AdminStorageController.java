@@ -0,0 +1,51 @@
+package com.thjvjpxx.backend_comic.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
+import com.thjvjpxx.backend_comic.service.StorageService;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Duyệt file trên storage, chỉ dành cho admin
+ */
+@RestController
+@RequestMapping("/admin/storage")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AdminStorageController {
+    StorageService storageService;
+
+    /**
+     * Lấy 1 trang file trong thư mục, dùng nextCursor của response để lấy trang kế tiếp
+     * GET /admin/storage/files?folder=comics&cursor=...&limit=100
+     */
+    @GetMapping("/files")
+    public BaseResponse<?> listFilesPage(
+            @RequestParam(defaultValue = "") String folder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        return storageService.listFiles(folder, cursor, limit);
+    }
+
+    /**
+     * Stream toàn bộ file trong thư mục dạng NDJSON, mỗi dòng 1 phần tử
+     * GET /admin/storage/files/stream?folder=comics
+     */
+    @GetMapping(value = "/files/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamFiles(@RequestParam(defaultValue = "") String folder) {
+        StreamingResponseBody body = outputStream -> storageService.streamFiles(folder, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+}
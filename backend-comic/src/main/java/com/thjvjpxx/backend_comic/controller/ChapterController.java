@@ -37,6 +37,7 @@ public class ChapterController {
      * @param limit   Số lượng mỗi trang
      * @param search  Tìm kiếm theo tên
      * @param comicId ID comic
+     * @param cursor  Cursor phân trang keyset (truyền rỗng để lấy trang đầu), bỏ qua page
      * @return Response chứa danh sách chương
      */
     @GetMapping
@@ -44,8 +45,9 @@ public class ChapterController {
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "5") int limit,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String comicId) {
-        return chapterService.getAllChapters(page, limit, search, comicId);
+            @RequestParam(required = false) String comicId,
+            @RequestParam(required = false) String cursor) {
+        return chapterService.getAllChapters(page, limit, search, comicId, cursor);
     }
 
     /**
@@ -36,6 +36,7 @@ public class ComicController {
      * @param search   Tìm kiếm theo tên
      * @param status   Trạng thái
      * @param category ID danh mục
+     * @param cursor   Cursor phân trang keyset (truyền rỗng để lấy trang đầu), bỏ qua page
      * @return Response chứa danh sách comic
      */
     @GetMapping
@@ -44,8 +45,9 @@ public class ComicController {
             @RequestParam(defaultValue = "5") int limit,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String category) {
-        return comicService.getAllComics(page, limit, search, status, category);
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor) {
+        return comicService.getAllComics(page, limit, search, status, category, cursor);
     }
 
     /**
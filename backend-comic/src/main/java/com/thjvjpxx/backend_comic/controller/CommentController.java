@@ -43,6 +43,7 @@ public class CommentController {
      * @param chapterId ID chapter
      * @param userId    ID user
      * @param status    Trạng thái
+     * @param cursor    Cursor phân trang keyset (truyền rỗng để lấy trang đầu), bỏ qua page
      * @return Response chứa danh sách comment
      */
     @GetMapping
@@ -53,25 +54,28 @@ public class CommentController {
             @RequestParam(required = false) String comicId,
             @RequestParam(required = false) String chapterId,
             @RequestParam(required = false) String userId,
-            @RequestParam(required = false) CommentStatus status) {
-        return commentService.getAllComments(page, limit, search, comicId, chapterId, userId, status);
+            @RequestParam(required = false) CommentStatus status,
+            @RequestParam(required = false) String cursor) {
+        return commentService.getAllComments(page, limit, search, comicId, chapterId, userId, status, cursor);
     }
 
     /**
      * Lấy comment cha (parent comments) theo comic ID - bao gồm reply
-     * GET /comments/comic/{comicId}/parents?page=0&limit=10
+     * GET /comments/comic/{comicId}/parents?page=0&limit=10&cursor=
      * 
      * @param comicId ID comic
      * @param page    Trang hiện tại
      * @param limit   Số lượng mỗi trang
+     * @param cursor  Cursor trang kế tiếp (nextCursor của response trước)
      * @return Response chứa danh sách comment cha
      */
     @GetMapping("/comic/{comicId}/parents")
     public BaseResponse<List<CommentResponse>> getParentCommentsByComic(
             @PathVariable String comicId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int limit) {
-        return commentService.getParentCommentsByComic(comicId, page, limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor) {
+        return commentService.getParentCommentsByComic(comicId, page, limit, cursor);
     }
 
     /**
@@ -93,14 +97,19 @@ public class CommentController {
 
     /**
      * Lấy reply comments theo parent comment ID
-     * GET /comments/{parentId}/replies
+     * GET /comments/{parentId}/replies?cursor=&limit=
      * 
      * @param parentId ID parent comment
+     * @param cursor   Cursor tải thêm reply (repliesNextCursor hoặc nextCursor)
+     * @param limit    Số reply mỗi lần tải
      * @return Response chứa danh sách reply comment
      */
     @GetMapping("/{parentId}/replies")
-    public BaseResponse<List<CommentResponse>> getRepliesByParentId(@PathVariable String parentId) {
-        return commentService.getRepliesByParentId(parentId);
+    public BaseResponse<List<CommentResponse>> getRepliesByParentId(
+            @PathVariable String parentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return commentService.getRepliesByParentId(parentId, cursor, limit);
     }
 
     /**
@@ -1,13 +1,20 @@
 package com.thjvjpxx.backend_comic.controller;
 
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.thjvjpxx.backend_comic.dto.request.CrawlerComicListRequest;
 import com.thjvjpxx.backend_comic.dto.request.CrawlerComicRequest;
 import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
+import com.thjvjpxx.backend_comic.dto.response.CrawlEngineStatsResponse;
+import com.thjvjpxx.backend_comic.dto.response.CrawlJobProgressResponse;
+import com.thjvjpxx.backend_comic.service.CrawlJobService;
 import com.thjvjpxx.backend_comic.service.CrawlerService;
 
 import lombok.RequiredArgsConstructor;
@@ -17,6 +24,7 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/crawler")
 public class CrawlerController {
     private final CrawlerService crawlerService;
+    private final CrawlJobService crawlJobService;
 
     /**
      * Bắt đầu crawl comic từ page x đến y
@@ -41,4 +49,75 @@ public class CrawlerController {
     public BaseResponse<?> startCrawlComicFromList(@RequestBody CrawlerComicListRequest request) {
         return crawlerService.crawlComicFromList(request);
     }
+
+    /**
+     * Lấy số liệu trực tiếp của crawl engine
+     * GET /crawler/stats
+     * 
+     * @return Response chứa số task đang chờ, đang chạy, đã xong theo từng tầng
+     */
+    @GetMapping("/stats")
+    public BaseResponse<CrawlEngineStatsResponse> getEngineStats() {
+        return crawlerService.getEngineStats();
+    }
+
+    /**
+     * Tạo crawl job chạy nền cho các trang từ x đến y, trả về ngay
+     * POST /crawler/jobs
+     * 
+     * @param request DTO chứa thông tin page range
+     * @return Response chứa ID và tiến độ ban đầu của job
+     */
+    @PostMapping("/jobs")
+    public BaseResponse<CrawlJobProgressResponse> createPageJob(@RequestBody CrawlerComicRequest request) {
+        return crawlJobService.createPageJob(request);
+    }
+
+    /**
+     * Tạo crawl job chạy nền cho danh sách OTruyenComic, trả về ngay
+     * POST /crawler/jobs/from-list
+     * 
+     * @param request DTO chứa danh sách comic cần crawl
+     * @return Response chứa ID và tiến độ ban đầu của job
+     */
+    @PostMapping("/jobs/from-list")
+    public BaseResponse<CrawlJobProgressResponse> createListJob(@RequestBody CrawlerComicListRequest request) {
+        return crawlJobService.createListJob(request);
+    }
+
+    /**
+     * Lấy tiến độ crawl job
+     * GET /crawler/jobs/{id}
+     * 
+     * @param id ID job
+     * @return Response chứa số item theo loại và trạng thái
+     */
+    @GetMapping("/jobs/{id}")
+    public BaseResponse<CrawlJobProgressResponse> getJobProgress(@PathVariable String id) {
+        return crawlJobService.getProgress(id);
+    }
+
+    /**
+     * Theo dõi tiến độ crawl job qua Server-Sent Events
+     * GET /crawler/jobs/{id}/events
+     * 
+     * @param id ID job
+     * @return Luồng sự kiện "progress", đóng khi job kết thúc
+     */
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobProgress(@PathVariable String id) {
+        return crawlJobService.subscribe(id);
+    }
+
+    /**
+     * Huỷ crawl job
+     * POST /crawler/jobs/{id}/cancel
+     * 
+     * @param id ID job
+     * @return Response chứa tiến độ job sau khi huỷ
+     */
+    @PostMapping("/jobs/{id}/cancel")
+    public BaseResponse<CrawlJobProgressResponse> cancelJob(@PathVariable String id) {
+        return crawlJobService.cancel(id);
+    }
 }
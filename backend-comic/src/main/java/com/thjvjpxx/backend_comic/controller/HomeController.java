@@ -3,11 +3,17 @@ package com.thjvjpxx.backend_comic.controller;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,7 +25,10 @@ import com.thjvjpxx.backend_comic.dto.response.HomeResponse.ComicHistory;
 import com.thjvjpxx.backend_comic.enums.ErrorCode;
 import com.thjvjpxx.backend_comic.exception.BaseException;
 import com.thjvjpxx.backend_comic.model.User;
+import com.thjvjpxx.backend_comic.service.ComicSuggestService;
 import com.thjvjpxx.backend_comic.service.HomeService;
+import com.thjvjpxx.backend_comic.service.HomeSnapshotService;
+import com.thjvjpxx.backend_comic.service.HomeSnapshotService.HomeSnapshot;
 import com.thjvjpxx.backend_comic.service.PublisherRequestService;
 import com.thjvjpxx.backend_comic.service.PurchaseService;
 import com.thjvjpxx.backend_comic.service.VipPackageService;
@@ -35,20 +44,38 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class HomeController {
     HomeService homeService;
+    HomeSnapshotService homeSnapshotService;
     SecurityUtils securityUtils;
     VipPackageService vipPackageService;
     PurchaseService purchaseService;
     PublisherRequestService publisherRequestService;
+    ComicSuggestService comicSuggestService;
 
     /**
      * API lấy danh sách comic mới nhất
      * GET /
+     * Trả về snapshot JSON dựng sẵn, hỗ trợ If-None-Match (304)
      * 
+     * @param ifNoneMatch ETag client đang giữ
      * @return Response chứa danh sách comic mới nhất
      */
     @GetMapping
-    public BaseResponse<?> getHomeComic() {
-        return homeService.getHomeComic();
+    public ResponseEntity<byte[]> getHomeComic(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        HomeSnapshot snapshot = homeSnapshotService.getSnapshot();
+
+        if (snapshot.getEtag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.getBody());
     }
 
     /**
@@ -78,6 +105,26 @@ public class HomeController {
         return homeService.getComicByCategory(slug, page, size);
     }
 
+    /**
+     * API lọc comic theo nhiều category và trạng thái
+     * GET /browse?categories=action,romance&match=all&status=ONGOING
+     * 
+     * @param categories Danh sách slug category
+     * @param match      "all": thuộc mọi category, "any": thuộc ít nhất 1
+     * @param status     Trạng thái comic
+     * @param page       Số trang
+     * @param size       Số lượng trong 1 trang
+     * @return Response chứa danh sách comic, lượt xem giảm dần
+     */
+    @GetMapping("browse")
+    public BaseResponse<?> browseComics(@RequestParam(required = false) List<String> categories,
+            @RequestParam(defaultValue = "all") String match,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return homeService.browseComics(categories, match, status, page, size);
+    }
+
     /**
      * API tìm kiếm comic
      * GET /search
@@ -94,6 +141,20 @@ public class HomeController {
         return homeService.searchComic(query, page, size);
     }
 
+    /**
+     * API gợi ý comic khi đang gõ ô tìm kiếm, trả lời từ bộ nhớ (không truy vấn DB)
+     * GET /search/suggest
+     * 
+     * @param query Chuỗi đang gõ
+     * @param limit Số lượng tối đa
+     * @return Response chứa danh sách comic, lượt xem giảm dần
+     */
+    @GetMapping("search/suggest")
+    public BaseResponse<?> suggestComic(@RequestParam String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        return BaseResponse.success(comicSuggestService.suggest(query, limit));
+    }
+
     /**
      * API lấy danh sách yêu thích
      * GET /favorites
@@ -0,0 +1,121 @@
+package com.thjvjpxx.backend_comic.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.thjvjpxx.backend_comic.utils.ImageDiskCache;
+import com.thjvjpxx.backend_comic.utils.ImageDiskCache.CachedImage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Proxy ảnh qua cache đĩa local, chỉ bật khi app.image-cache.enabled = true
+ */
+@RestController
+@RequestMapping("/public/images")
+@ConditionalOnProperty(prefix = "app.image-cache", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ImageProxyController {
+
+    // Các attribute Tomcat dùng để gửi file bằng sendfile (kernel copy thẳng file ra socket)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    ImageDiskCache imageDiskCache;
+
+    /**
+     * Lấy ảnh theo key trong bucket, hỗ trợ Range (1 đoạn) và If-None-Match
+     * GET /public/images/comics/{slug}/chapter-1.0/1.jpg
+     *
+     * @param key Key của ảnh trong bucket
+     */
+    @GetMapping("/{*key}")
+    public void getImage(@PathVariable String key, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // {*key} luôn bắt đầu bằng "/"
+        CachedImage image = imageDiskCache.get(key.substring(1));
+        long length = image.size();
+
+        response.setHeader(HttpHeaders.ETAG, image.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=86400");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (image.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Nhiều đoạn (multipart/byteranges) thì trả cả file, được phép theo RFC 9110
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    // Đoạn bắt đầu sau cuối file: HttpRange không báo lỗi mà trả end < start
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range nằm ngoài file: " + rangeHeader);
+                    }
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(image.contentType().toString());
+        response.setContentLengthLong(count);
+        if (count <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat mở và gửi file sau khi method trả về, không copy dữ liệu qua heap.
+            // File của 1 phiên bản không bị ghi đè và chỉ bị xoá sau delete-delay nên vẫn còn lúc đó
+            request.setAttribute(SENDFILE_FILENAME, image.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        // Connector không hỗ trợ sendfile: dùng transferTo từ FileChannel
+        try (FileChannel channel = FileChannel.open(image.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long transferred = channel.transferTo(position, end + 1 - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+}
@@ -78,15 +78,17 @@ public class TransactionController {
      * 
      * @param page  Trang hiện tại
      * @param limit Số lượng mỗi trang
+     * @param cursor Cursor phân trang keyset (truyền rỗng để lấy trang đầu), bỏ qua page
      * @return Response chứa danh sách giao dịch của user
      */
     @GetMapping("/me")
     public BaseResponse<List<TransactionResponse>> getMyTransactions(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor) {
 
         User currentUser = securityUtils.getCurrentUser();
-        return transactionService.getUserTransactions(currentUser, page, limit);
+        return transactionService.getUserTransactions(currentUser, page, limit, cursor);
     }
 
     /**
@@ -98,6 +100,7 @@ public class TransactionController {
      * @param search        Từ khóa tìm kiếm
      * @param status        Trạng thái giao dịch
      * @param paymentMethod Phương thức thanh toán
+     * @param cursor        Cursor phân trang keyset (truyền rỗng để lấy trang đầu), bỏ qua page
      * @return Response chứa danh sách giao dịch đã lọc
      */
     @GetMapping("/filter")
@@ -106,8 +109,10 @@ public class TransactionController {
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String paymentMethod) {
-        return transactionService.getAllTransactionsWithFilter(page, limit, search, status, paymentMethod);
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) String cursor) {
+        return transactionService.getAllTransactionsWithFilter(page, limit, search, status, paymentMethod,
+                cursor);
     }
 
     /**
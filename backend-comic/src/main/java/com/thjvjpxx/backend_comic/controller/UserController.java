@@ -39,6 +39,7 @@ public class UserController {
      * @param roleId  ID vai trò
      * @param search  Từ khóa tìm kiếm
      * @param deleted Trạng thái xóa
+     * @param cursor  Cursor phân trang keyset (truyền rỗng để lấy trang đầu), bỏ qua page
      * @return Response chứa danh sách user
      */
     @GetMapping
@@ -47,8 +48,9 @@ public class UserController {
             @RequestParam(defaultValue = "5") Integer limit,
             @RequestParam(required = false) String roleId,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) Boolean deleted) {
-        return userService.getUsers(page, limit, search, roleId, deleted);
+            @RequestParam(required = false) Boolean deleted,
+            @RequestParam(required = false) String cursor) {
+        return userService.getUsers(page, limit, search, roleId, deleted, cursor);
     }
 
     /**
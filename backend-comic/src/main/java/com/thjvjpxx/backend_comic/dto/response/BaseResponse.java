@@ -27,6 +27,9 @@ public class BaseResponse<T> {
     Integer limit;
     Integer totalPages;
 
+    // Cursor của trang kế tiếp khi phân trang keyset, null nếu đã hết dữ liệu
+    String nextCursor;
+
     public static <T> BaseResponse<T> success(T data) {
         return BaseResponse.<T>builder()
                 .status(200)
@@ -64,6 +67,23 @@ public class BaseResponse<T> {
                 .build();
     }
 
+    public static <T> BaseResponse<T> successWithCursor(T data, int limit, String nextCursor) {
+        return BaseResponse.<T>builder()
+                .status(200)
+                .data(data)
+                .limit(limit)
+                .nextCursor(nextCursor)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    public static <T> BaseResponse<T> successWithCursor(T data, int limit, String nextCursor, Integer total) {
+        BaseResponse<T> response = successWithCursor(data, limit, nextCursor);
+        // Tổng số bản ghi xấp xỉ (lấy từ cache), có thể null
+        response.setTotal(total);
+        return response;
+    }
+
     public static <T> BaseResponse<T> error(int status, String message) {
         return BaseResponse.<T>builder()
                 .status(status)
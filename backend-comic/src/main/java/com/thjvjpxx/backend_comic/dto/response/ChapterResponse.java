@@ -2,6 +2,8 @@ package com.thjvjpxx.backend_comic.dto.response;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
 import com.thjvjpxx.backend_comic.enums.ChapterStatus;
 import com.thjvjpxx.backend_comic.model.Level;
 
@@ -49,6 +51,14 @@ public class ChapterResponse {
         int orderNumber;
         String ttsUrl;
         Boolean hasBubble;
+
+        // Các bản ảnh nhỏ hơn/định dạng khác để client tự chọn (mảng ImageVariant), null nếu chưa có
+        @JsonRawValue
+        String variants;
+
+        // Các đoạn cắt của ảnh dài để client tải dần đoạn đang hiển thị (mảng ImageSegment), null nếu không cắt
+        @JsonRawValue
+        String segments;
     }
 
     @Data
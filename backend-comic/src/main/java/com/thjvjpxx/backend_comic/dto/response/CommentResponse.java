@@ -48,6 +48,9 @@ public class CommentResponse {
     // Số lượng reply
     Long repliesCount;
 
+    // Cursor để tải thêm reply khi replies chỉ chứa một phần
+    String repliesNextCursor;
+
     @Data
     @Builder
     @NoArgsConstructor
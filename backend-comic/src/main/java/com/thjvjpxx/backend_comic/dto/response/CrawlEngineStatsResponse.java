@@ -0,0 +1,55 @@
+package com.thjvjpxx.backend_comic.dto.response;
+
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * DTO response số liệu trực tiếp của crawl engine
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CrawlEngineStatsResponse {
+
+    // Số liệu theo từng tầng: COMIC, CHAPTER, IMAGE
+    Map<String, StageStats> stages;
+
+    // Số request đang chạy tới từng host nguồn
+    Map<String, Integer> activeRequestsByHost;
+
+    // Số request đồng thời tối đa cho mỗi host
+    int perHostConcurrency;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class StageStats {
+        // Số task chạy đồng thời tối đa
+        int concurrency;
+
+        // Số task tối đa được chờ trong hàng đợi
+        int queueCapacity;
+
+        // Số task đang chờ
+        long queued;
+
+        // Số task đang chạy
+        long active;
+
+        // Số task đã xong (thành công)
+        long completed;
+
+        // Số task bị lỗi
+        long failed;
+    }
+}
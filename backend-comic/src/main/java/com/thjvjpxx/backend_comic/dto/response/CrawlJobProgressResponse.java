@@ -0,0 +1,69 @@
+package com.thjvjpxx.backend_comic.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * DTO response tiến độ của crawl job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CrawlJobProgressResponse {
+
+    String jobId;
+
+    // RUNNING, COMPLETED, CANCELLED
+    String status;
+
+    String source;
+
+    boolean saveDrive;
+
+    // Số item theo loại: PAGE, COMIC, CHAPTER
+    Map<String, ItemCounts> items;
+
+    // Các item lỗi gần nhất
+    List<FailedItem> recentFailures;
+
+    LocalDateTime createdAt;
+
+    LocalDateTime startedAt;
+
+    LocalDateTime finishedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class ItemCounts {
+        long pending;
+        long running;
+        long done;
+        long failed;
+        long total;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class FailedItem {
+        String type;
+        String target;
+        int attempts;
+        String lastError;
+    }
+}
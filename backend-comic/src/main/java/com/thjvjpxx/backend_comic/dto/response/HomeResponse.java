@@ -80,5 +80,8 @@ public class HomeResponse {
     @SuperBuilder
     public static class ComicHistory extends PopulerToday {
         Double alreadyRead;
+        // Chương đọc gần nhất, dùng cho nút "đọc tiếp"
+        String lastChapterId;
+        Double lastChapterNumber;
     }
 }
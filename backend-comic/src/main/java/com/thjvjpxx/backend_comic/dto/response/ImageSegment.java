@@ -0,0 +1,37 @@
+package com.thjvjpxx.backend_comic.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * 1 đoạn cắt ngang của ảnh trang truyện dài
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImageSegment {
+
+    // Thứ tự đoạn, bắt đầu từ 0
+    int index;
+
+    // Vị trí dòng đầu tiên của đoạn trong ảnh gốc (px)
+    int offsetY;
+
+    // Chiều rộng (px)
+    int width;
+
+    // Chiều cao (px)
+    int height;
+
+    // Đường dẫn tương đối với chapterPath, ghép giống imgUrl của ảnh gốc (vd: seg/page_1_000.jpg)
+    String imgUrl;
+
+    // Kích thước file (byte)
+    long size;
+}
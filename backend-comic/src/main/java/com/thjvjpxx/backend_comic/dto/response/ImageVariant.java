@@ -0,0 +1,34 @@
+package com.thjvjpxx.backend_comic.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * 1 bản resize/chuyển định dạng của ảnh trang truyện
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImageVariant {
+
+    // Chiều rộng (px)
+    int width;
+
+    // Chiều cao (px)
+    int height;
+
+    // Định dạng file (vd: jpg)
+    String format;
+
+    // Đường dẫn tương đối với chapterPath, ghép giống imgUrl của ảnh gốc (vd: w720/page_1.jpg)
+    String imgUrl;
+
+    // Kích thước file (byte)
+    long size;
+}
@@ -0,0 +1,48 @@
+package com.thjvjpxx.backend_comic.dto.response;
+
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * DTO response kết quả thao tác trên cả thư mục storage (xoá, đổi tên, chuyển)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StorageOperationReport {
+
+    // Loại thao tác: DELETE, RENAME, MOVE
+    String operation;
+
+    // Prefix thư mục nguồn
+    String sourcePrefix;
+
+    // Prefix thư mục đích, null với thao tác xoá
+    String targetPrefix;
+
+    // Tổng số object tìm thấy trong thư mục nguồn
+    int totalObjects;
+
+    // Số object đã copy sang thư mục đích
+    int copied;
+
+    // Số object đã xoá
+    int deleted;
+
+    // Số object bị lỗi (copy hoặc xoá)
+    int failed;
+
+    // Một phần key bị lỗi kèm lý do, giới hạn số lượng để log/response không quá lớn
+    List<String> failedKeys;
+
+    // Thời gian thực hiện (ms)
+    long durationMillis;
+}
@@ -0,0 +1,39 @@
+package com.thjvjpxx.backend_comic.dto.response;
+
+import java.time.LocalDateTime;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * DTO response thống kê bộ quét hết hạn VIP
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class VipExpiryStatsResponse {
+
+    // Số user đang chờ hết hạn trong hàng đợi
+    int pendingExpirations;
+
+    // Thời điểm hết hạn sớm nhất đang chờ
+    LocalDateTime nextExpiration;
+
+    // Tổng số user đã bị tắt VIP kể từ khi khởi động
+    long totalExpiredUsers;
+
+    // Độ trễ (ms) giữa thời điểm hết hạn và lúc xử lý ở lượt quét gần nhất
+    long lastLagMillis;
+
+    // Độ trễ lớn nhất (ms) kể từ khi khởi động
+    long maxLagMillis;
+
+    // Thời điểm lượt quét gần nhất có xử lý hết hạn
+    LocalDateTime lastSweepAt;
+}
@@ -0,0 +1,8 @@
+package com.thjvjpxx.backend_comic.enums;
+
+public enum CrawlItemStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED
+}
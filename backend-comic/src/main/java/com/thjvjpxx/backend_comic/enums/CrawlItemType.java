@@ -0,0 +1,11 @@
+package com.thjvjpxx.backend_comic.enums;
+
+/**
+ * Loại công việc trong crawl job:
+ * PAGE - 1 trang danh sách truyện, COMIC - 1 truyện, CHAPTER - 1 chapter
+ */
+public enum CrawlItemType {
+    PAGE,
+    COMIC,
+    CHAPTER
+}
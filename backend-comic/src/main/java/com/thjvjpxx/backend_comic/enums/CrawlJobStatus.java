@@ -0,0 +1,7 @@
+package com.thjvjpxx.backend_comic.enums;
+
+public enum CrawlJobStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED
+}
@@ -93,6 +93,7 @@ public enum ErrorCode {
     // Handle File
     FILE_NOT_FOUND(HttpStatus.NOT_FOUND, "File không tồn tại!"),
     INVALID_ARGUMENT(HttpStatus.BAD_REQUEST, "Tham số không hợp lệ!"),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "Cursor phân trang không hợp lệ!"),
     TYPE_NOT_FOUND(HttpStatus.BAD_REQUEST, "Loại không tồn tại!"),
     UPLOAD_FILE_FAILED(HttpStatus.BAD_REQUEST, "Lưu file thất bại!"),
     DELETE_FILE_FAILED(HttpStatus.BAD_REQUEST, "Xoá file thất bại!"),
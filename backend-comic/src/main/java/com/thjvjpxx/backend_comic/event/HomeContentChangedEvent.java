@@ -0,0 +1,20 @@
+package com.thjvjpxx.backend_comic.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Sự kiện phát ra khi dữ liệu hiển thị ở trang chủ thay đổi
+ * (thêm/sửa/xóa comic, chapter, crawl xong...)
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class HomeContentChangedEvent {
+    /**
+     * Nguồn phát sinh thay đổi, dùng để log
+     */
+    String source;
+}
@@ -11,8 +11,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.thjvjpxx.backend_comic.config.JwtConfig;
+import com.thjvjpxx.backend_comic.config.JwtPrincipal;
 import com.thjvjpxx.backend_comic.model.User;
-import com.thjvjpxx.backend_comic.repository.UserRepository;
+import com.thjvjpxx.backend_comic.utils.SecurityUtils;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -31,7 +32,7 @@ import lombok.experimental.FieldDefaults;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     JwtConfig jwtConfig;
-    UserRepository userRepository;
+    SecurityUtils securityUtils;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -44,15 +45,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String jwt = authHeader.substring(7);
-        final String username = jwtConfig.extractUsername(jwt);
+        // Parse token 1 lần duy nhất: kiểm tra chữ ký, hạn dùng và đọc claims
+        final JwtPrincipal principal = jwtConfig.parseToken(authHeader.substring(7));
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            User user = userRepository.findByUsername(username).orElse(null);
+        if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // User lấy từ cache, chỉ query DB khi cache miss
+            User user = securityUtils.loadUserById(principal.getUserId());
 
-            if (user != null && jwtConfig.validateToken(jwt)) {
+            if (user != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username,
+                        principal,
                         null,
                         Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().getName())));
 
@@ -63,4 +65,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
@@ -5,49 +5,35 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import com.thjvjpxx.backend_comic.model.User;
+import com.thjvjpxx.backend_comic.config.JwtPrincipal;
 import com.thjvjpxx.backend_comic.service.VipExpirationService;
-import com.thjvjpxx.backend_comic.utils.SecurityUtils;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import lombok.extern.slf4j.Slf4j;
 
 /**
- * Interceptor cho VIP status để kiểm tra và cập nhật status VIP của user
+ * Interceptor cho VIP status: chỉ đưa mốc hết hạn VIP trong token vào bộ quét
+ * (thao tác bộ nhớ), việc tắt VIP do VipExpirationService xử lý định kỳ
  */
 @Component
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
-@Slf4j
 public class VipStatusInterceptor implements HandlerInterceptor {
 
     VipExpirationService vipExpirationService;
-    SecurityUtils securityUtils;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        try {
-            // Chỉ kiểm tra với các request có authentication
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-            if (authentication != null && authentication.isAuthenticated()
-                    && !"anonymousUser".equals(authentication.getPrincipal())) {
-
-                // Lấy user hiện tại và kiểm tra VIP status
-                User currentUser = securityUtils.getCurrentUser();
-                if (currentUser != null && currentUser.getVip()) {
-                    vipExpirationService.checkAndUpdateUserVipStatus(currentUser);
-                }
-            }
-        } catch (Exception e) {
-            // Log lỗi nhưng không block request
-            log.warn("Lỗi khi kiểm tra VIP status: {}", e.getMessage());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal
+                && principal.isVip()) {
+            vipExpirationService.trackExpiry(principal.getUserId(), principal.getVipExpiresAt());
         }
 
         return true; // Luôn cho phép request tiếp tục
     }
-}
\ No newline at end of file
+}
@@ -45,7 +45,9 @@ import lombok.experimental.FieldDefaults;
         // Index cho MAX(ch.updated_at) trong findLastUpdateComics
         @Index(name = "idx_chapter_comic_updated", columnList = "comic_id, updated_at"),
         // Index cho sắp xếp theo updated_at DESC
-        @Index(name = "idx_chapter_updated_at", columnList = "updated_at")
+        @Index(name = "idx_chapter_updated_at", columnList = "updated_at"),
+        // Số thứ tự đọc không trùng trong 1 comic (NULL: chưa được cấp)
+        @Index(name = "uk_chapter_comic_read_ordinal", columnList = "comic_id, read_ordinal", unique = true)
 })
 public class Chapter {
 
@@ -93,6 +95,12 @@ public class Chapter {
     @JsonIgnore
     List<ReadingHistory> readingHistories;
 
+    // Vị trí bit của chương trong ReadingProgress.readChapters, cấp khi chương được đọc lần đầu
+    // và không đổi kể cả khi thêm/xoá chương khác. Chỉ ghi bằng UPDATE trực tiếp.
+    @Column(name = "read_ordinal", insertable = false, updatable = false)
+    @JsonIgnore
+    Integer readOrdinal;
+
     @Column(name = "has_audio")
     Boolean hasAudio;
 
@@ -79,10 +79,16 @@ public class Comic {
     @Builder.Default
     int followersCount = 0;
 
-    @Column(name = "views_count")
+    // Chỉ được cộng dồn bằng UPDATE trực tiếp (ViewCounterService), save entity không ghi đè
+    @Column(name = "views_count", updatable = false)
     @Builder.Default
     int viewsCount = 0;
 
+    // Bộ đếm cấp số thứ tự đọc (Chapter.readOrdinal), chỉ tăng bằng UPDATE trực tiếp
+    @Column(name = "chapter_ordinal_seq", columnDefinition = "INT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    @JsonIgnore
+    int chapterOrdinalSeq;
+
     @Column(name = "description", columnDefinition = "TEXT")
     String description;
 
@@ -13,6 +13,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,7 +27,10 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(indexes = {
+@Table(uniqueConstraints = {
+        // Mỗi comic chỉ có 1 dòng cho mỗi ngày, cần cho INSERT ... ON DUPLICATE KEY UPDATE
+        @UniqueConstraint(name = "uk_comic_views_comic_date", columnNames = { "comic_id", "view_date" })
+}, indexes = {
         // Index cho LEFT JOIN comic_views_history cvh ON c.id = cvh.comic_id
         @Index(name = "idx_comic_views_comic_id", columnList = "comic_id"),
         // Index cho WHERE DATE(view_date) BETWEEN :startDate AND :endDate
@@ -30,7 +30,11 @@ import lombok.experimental.FieldDefaults;
         @Index(name = "idx_comment_chapter_id", columnList = "chapter_id"),
         @Index(name = "idx_comment_comic_id", columnList = "comic_id"),
         @Index(name = "idx_comment_parent_id", columnList = "parent_id"),
-        @Index(name = "idx_comment_created_at", columnList = "created_at")
+        @Index(name = "idx_comment_created_at", columnList = "created_at"),
+        // Keyset cho comment cha theo comic: (comic_id, parent_id, status) + (created_at, id)
+        @Index(name = "idx_comment_comic_thread", columnList = "comic_id, parent_id, status, created_at, id"),
+        // Lấy reply theo nhiều parent_id và phân trang reply
+        @Index(name = "idx_comment_parent_thread", columnList = "parent_id, status, created_at, id")
 })
 public class Comment {
     @Id
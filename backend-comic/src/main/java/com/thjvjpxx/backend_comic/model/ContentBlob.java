@@ -0,0 +1,56 @@
+package com.thjvjpxx.backend_comic.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Ảnh lưu theo nội dung (SHA-256). Mỗi nội dung chỉ được upload 1 lần, các DetailChapter
+ * tham chiếu qua content_hash. Ảnh không còn DetailChapter nào tham chiếu sẽ bị dọn.
+ */
+@Entity(name = "content_blobs")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = {
+        // Bộ dọn dẹp quét các ảnh lâu không được tham chiếu mới
+        @Index(name = "idx_content_blob_last_referenced", columnList = "last_referenced_at")
+})
+public class ContentBlob {
+
+    // SHA-256 dạng hex của nội dung file
+    @Id
+    @Column(columnDefinition = "VARCHAR(64)")
+    String hash;
+
+    @Column(name = "storage_key", nullable = false, length = 255)
+    String storageKey;
+
+    @Column(nullable = false)
+    long size;
+
+    @Column(name = "content_type")
+    String contentType;
+
+    // Lần cuối có upload trùng nội dung, dùng để không dọn ảnh vừa được dùng lại
+    @Column(name = "last_referenced_at", nullable = false)
+    LocalDateTime lastReferencedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,68 @@
+package com.thjvjpxx.backend_comic.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import com.thjvjpxx.backend_comic.enums.CrawlJobStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Crawl job chạy nền. Công việc cụ thể nằm ở bảng crawl_job_items
+ * để có thể tiếp tục sau khi khởi động lại.
+ */
+@Entity(name = "crawl_jobs")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = {
+        @Index(name = "idx_crawl_job_status", columnList = "status")
+})
+public class CrawlJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    CrawlJobStatus status;
+
+    // Mô tả nguồn của job, vd: "pages 1-10" hoặc "list 25 comics"
+    String source;
+
+    @Column(name = "save_drive", nullable = false)
+    boolean saveDrive;
+
+    @Column(name = "started_at")
+    LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    LocalDateTime finishedAt;
+
+    @Column(name = "created_at")
+    @CreationTimestamp
+    LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    @UpdateTimestamp
+    LocalDateTime updatedAt;
+}
@@ -0,0 +1,103 @@
+package com.thjvjpxx.backend_comic.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import com.thjvjpxx.backend_comic.enums.CrawlItemStatus;
+import com.thjvjpxx.backend_comic.enums.CrawlItemType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * 1 đơn vị công việc của crawl job (1 trang, 1 truyện hoặc 1 chapter).
+ * Worker nhận item bằng cách đặt lease, item có lease hết hạn sẽ được nhận lại.
+ */
+@Entity(name = "crawl_job_items")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = {
+        // Worker nhận item theo trạng thái, lease và thứ tự tạo
+        @Index(name = "idx_crawl_item_claim", columnList = "status, lease_until, created_at"),
+        @Index(name = "idx_crawl_item_lease_owner", columnList = "lease_owner"),
+        // Đếm tiến độ theo job
+        @Index(name = "idx_crawl_item_job_status", columnList = "job_id, status")
+})
+public class CrawlJobItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    @ToString.Exclude
+    CrawlJob job;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    CrawlItemType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    CrawlItemStatus status;
+
+    // PAGE: số trang, COMIC: slug truyện, CHAPTER: URL API chi tiết chapter
+    @Column(nullable = false, length = 512)
+    String target;
+
+    // Chỉ dùng cho CHAPTER
+    @Column(name = "comic_id", columnDefinition = "VARCHAR(36)")
+    String comicId;
+
+    @Column(name = "chapter_name")
+    String chapterName;
+
+    @Column(name = "chapter_title")
+    String chapterTitle;
+
+    @Column(name = "save_drive", nullable = false)
+    boolean saveDrive;
+
+    @Column(nullable = false)
+    int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    String lastError;
+
+    @Column(name = "lease_owner", length = 64)
+    String leaseOwner;
+
+    @Column(name = "lease_until")
+    LocalDateTime leaseUntil;
+
+    @Column(name = "created_at")
+    @CreationTimestamp
+    LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    @UpdateTimestamp
+    LocalDateTime updatedAt;
+}
@@ -2,6 +2,7 @@ package com.thjvjpxx.backend_comic.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -27,7 +28,8 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Table(indexes = {
-        @Index(name = "idx_chapter_id", columnList = "chapter_id")
+        @Index(name = "idx_chapter_id", columnList = "chapter_id"),
+        @Index(name = "idx_content_hash", columnList = "content_hash")
 })
 public class DetailChapter {
 
@@ -39,6 +41,11 @@ public class DetailChapter {
     @Column(name = "img_url")
     String imgUrl;
 
+    // SHA-256 nội dung ảnh (khoá của content_blobs), null với ảnh lưu theo đường dẫn chương hoặc link ngoài
+    @Column(name = "content_hash", columnDefinition = "VARCHAR(64)")
+    @JsonIgnore
+    String contentHash;
+
     @Column(name = "order_number")
     int orderNumber;
 
@@ -55,4 +62,14 @@ public class DetailChapter {
 
     @Column(name = "has_bubble")
     Boolean hasBubble;
+
+    // Danh sách bản resize/chuyển định dạng của ảnh (JSON mảng ImageVariant), null nếu chưa xử lý
+    @Column(name = "variants", columnDefinition = "JSON")
+    @JsonRawValue
+    String variants;
+
+    // Các đoạn cắt ngang của ảnh dài (JSON mảng ImageSegment), null nếu ảnh không bị cắt
+    @Column(name = "segments", columnDefinition = "JSON")
+    @JsonRawValue
+    String segments;
 }
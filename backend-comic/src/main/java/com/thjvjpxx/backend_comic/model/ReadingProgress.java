@@ -0,0 +1,71 @@
+package com.thjvjpxx.backend_comic.model;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Tiến độ đọc của 1 user với 1 comic: bitmap các chương đã đọc (theo Chapter.readOrdinal),
+ * chương đọc gần nhất và thời điểm đọc. Thay cho 1 dòng reading_histories mỗi chương.
+ * Chỉ được ghi qua ReadingProgressService (upsert theo lô).
+ */
+@Entity(name = "reading_progress")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = {
+        @Index(name = "uk_reading_progress_user_comic", columnList = "user_id, comic_id", unique = true),
+        // Trang lịch sử đọc: comic đọc gần nhất trước
+        @Index(name = "idx_reading_progress_user_updated", columnList = "user_id, updated_at")
+})
+public class ReadingProgress {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    String id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "VARCHAR(36)")
+    String userId;
+
+    @Column(name = "comic_id", nullable = false, columnDefinition = "VARCHAR(36)")
+    String comicId;
+
+    // BitSet.toByteArray() (little-endian), bit i = chương có readOrdinal i đã đọc
+    @Column(name = "read_chapters", nullable = false, columnDefinition = "BLOB")
+    byte[] readChapters;
+
+    @Column(name = "last_chapter_id", columnDefinition = "VARCHAR(36)")
+    String lastChapterId;
+
+    @Column(name = "last_chapter_number")
+    Double lastChapterNumber;
+
+    @Column(name = "max_chapter_number")
+    Double maxChapterNumber;
+
+    @Column(name = "updated_at", nullable = false)
+    LocalDateTime updatedAt;
+
+    /**
+     * Bitmap các chương đã đọc (bản sao, sửa không ảnh hưởng entity)
+     */
+    public BitSet readChapterBits() {
+        return readChapters == null ? new BitSet() : BitSet.valueOf(readChapters);
+    }
+}
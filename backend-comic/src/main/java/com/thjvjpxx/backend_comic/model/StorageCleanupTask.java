@@ -0,0 +1,56 @@
+package com.thjvjpxx.backend_comic.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * File/thư mục trên storage cần xoá sau khi dữ liệu DB đã bị xoá.
+ * Được ghi cùng transaction xoá DB, xử lý nền và thử lại khi lỗi.
+ */
+@Entity(name = "storage_cleanup_tasks")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = {
+        @Index(name = "idx_storage_cleanup_next_attempt", columnList = "next_attempt_at")
+})
+public class StorageCleanupTask {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "VARCHAR(36)")
+    String id;
+
+    // URL hoặc key của file/thư mục (thư mục kết thúc bằng "/")
+    @Column(nullable = false, length = 1024)
+    String target;
+
+    @Column(nullable = false)
+    int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    String lastError;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at")
+    @CreationTimestamp
+    LocalDateTime createdAt;
+}
@@ -38,7 +38,8 @@ import lombok.experimental.FieldDefaults;
         @Index(name = "idx_transaction_user", columnList = "user_id"),
         @Index(name = "idx_transaction_status", columnList = "status"),
         @Index(name = "idx_transaction_created", columnList = "created_at"),
-        @Index(name = "idx_transaction_payos_order", columnList = "payos_order_code")
+        @Index(name = "idx_transaction_payos_order", columnList = "payos_order_code"),
+        @Index(name = "idx_transaction_user_updated", columnList = "user_id, updated_at")
 })
 public class Transaction {
 
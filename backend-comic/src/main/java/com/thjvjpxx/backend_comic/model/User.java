@@ -7,9 +7,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.thjvjpxx.backend_comic.utils.UserCacheEvictionListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -23,8 +25,10 @@ import lombok.Data;
 import lombok.experimental.FieldDefaults;
 
 @Entity(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Table(indexes = {
-        @Index(name = "idx_verification_token", columnList = "verification_token")
+        @Index(name = "idx_verification_token", columnList = "verification_token"),
+        @Index(name = "idx_user_deleted_updated", columnList = "deleted, updated_at")
 })
 @Data
 @FieldDefaults(level = AccessLevel.PRIVATE)
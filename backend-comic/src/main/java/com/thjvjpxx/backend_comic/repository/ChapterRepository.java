@@ -1,21 +1,25 @@
 package com.thjvjpxx.backend_comic.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.thjvjpxx.backend_comic.dto.response.HomeResponse.ChapterHome;
 import com.thjvjpxx.backend_comic.model.Chapter;
 import com.thjvjpxx.backend_comic.model.Comic;
 
 @Repository
-public interface ChapterRepository extends JpaRepository<Chapter, String> {
+public interface ChapterRepository extends JpaRepository<Chapter, String>, JpaSpecificationExecutor<Chapter> {
 
 	/**
 	 * Tìm tất cả chapter
@@ -110,6 +114,15 @@ public interface ChapterRepository extends JpaRepository<Chapter, String> {
 	@Query("SELECT MAX(c.chapterNumber) FROM chapters c WHERE c.comic.id = :comicId")
 	Double findMaxChapterNumberByComicId(@Param("comicId") String comicId);
 
+	/**
+	 * Tìm chapterNumber lớn nhất của nhiều comic trong 1 query
+	 * 
+	 * @param comicIds Danh sách comicId
+	 * @return List<Object[]> với thứ tự: [comicId, maxChapterNumber]
+	 */
+	@Query("SELECT c.comic.id, MAX(c.chapterNumber) FROM chapters c WHERE c.comic.id IN :comicIds GROUP BY c.comic.id")
+	List<Object[]> findMaxChapterNumberByComicIds(@Param("comicIds") Collection<String> comicIds);
+
 	/**
 	 * Tìm 4 chapter mới nhất theo comicId
 	 * 
@@ -145,6 +158,32 @@ public interface ChapterRepository extends JpaRepository<Chapter, String> {
 	 */
 	boolean existsByComicAndChapterNumber(Comic comic, Double chapterNumber);
 
+	/**
+	 * Cấp số thứ tự đọc cho chapter từ bộ đếm của comic (phải chạy sau
+	 * ComicRepository.incrementChapterOrdinalSeq trong cùng transaction)
+	 * 
+	 * @param chapterId ID chapter
+	 * @return 1 nếu đã cấp, 0 nếu chapter đã có số thứ tự
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = """
+			UPDATE chapters c
+			JOIN comics m ON m.id = c.comic_id
+			SET c.read_ordinal = m.chapter_ordinal_seq - 1
+			WHERE c.id = :chapterId AND c.read_ordinal IS NULL
+			""", nativeQuery = true)
+	int assignReadOrdinal(@Param("chapterId") String chapterId);
+
+	/**
+	 * Lấy số thứ tự đọc của chapter
+	 * 
+	 * @param chapterId ID chapter
+	 * @return Số thứ tự (null nếu chưa được cấp)
+	 */
+	@Query(value = "SELECT read_ordinal FROM chapters WHERE id = :chapterId", nativeQuery = true)
+	Integer findReadOrdinal(@Param("chapterId") String chapterId);
+
 	// === QUERIES CHO ADMIN STATISTICS ===
 
 	/**
@@ -7,9 +7,12 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.thjvjpxx.backend_comic.dto.response.HomeResponse.PopulerToday;
 import com.thjvjpxx.backend_comic.enums.ComicStatus;
@@ -17,7 +20,7 @@ import com.thjvjpxx.backend_comic.model.Comic;
 import com.thjvjpxx.backend_comic.model.User;
 
 @Repository
-public interface ComicRepository extends JpaRepository<Comic, String> {
+public interface ComicRepository extends JpaRepository<Comic, String>, JpaSpecificationExecutor<Comic> {
 
     /**
      * Tìm comic theo slug
@@ -45,6 +48,62 @@ public interface ComicRepository extends JpaRepository<Comic, String> {
      */
     Page<Comic> findBySlugContainingOrNameContaining(String slug, String name, Pageable pageable);
 
+    /**
+     * Lấy các trường văn bản của comic để dựng chỉ mục tìm kiếm, phân trang keyset theo id
+     * 
+     * @param afterId Chỉ lấy comic có id lớn hơn giá trị này
+     * @param limit   Số lượng tối đa
+     * @return List<Object[]> với thứ tự: [id, name, originName, author, description]
+     */
+    @Query(value = """
+            SELECT c.id, c.name, c.origin_name, c.author, c.description
+            FROM comics c
+            WHERE c.id > :afterId
+            ORDER BY c.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findSearchDocuments(@Param("afterId") String afterId, @Param("limit") int limit);
+
+    /**
+     * Lấy thông tin cần cho gợi ý tìm kiếm, phân trang keyset theo id
+     * 
+     * @param afterId Chỉ lấy comic có id lớn hơn giá trị này
+     * @param limit   Số lượng tối đa
+     * @return List<Object[]> với thứ tự: [id, name, slug, author, thumbUrl, viewsCount]
+     */
+    @Query(value = """
+            SELECT c.id, c.name, c.slug, c.author, c.thumb_url, c.views_count
+            FROM comics c
+            WHERE c.id > :afterId
+            ORDER BY c.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findSuggestDocuments(@Param("afterId") String afterId, @Param("limit") int limit);
+
+    /**
+     * Lấy trạng thái và lượt xem của comic để dựng chỉ mục bitmap, phân trang keyset theo id
+     * 
+     * @param afterId Chỉ lấy comic có id lớn hơn giá trị này
+     * @param limit   Số lượng tối đa
+     * @return List<Object[]> với thứ tự: [id, status, viewsCount]
+     */
+    @Query(value = """
+            SELECT c.id, c.status, c.views_count
+            FROM comics c
+            WHERE c.id > :afterId
+            ORDER BY c.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findFacetDocuments(@Param("afterId") String afterId, @Param("limit") int limit);
+
+    /**
+     * Lấy toàn bộ liên kết comic - category (bảng nối chỉ có 2 cột id nên đọc 1 lần)
+     * 
+     * @return List<Object[]> với thứ tự: [comicId, categoryId]
+     */
+    @Query(value = "SELECT cc.comic_id, cc.category_id FROM comic_categories cc", nativeQuery = true)
+    List<Object[]> findAllCategoryLinks();
+
     /**
      * Tìm comic theo trạng thái
      * 
@@ -190,6 +249,15 @@ public interface ComicRepository extends JpaRepository<Comic, String> {
             """, nativeQuery = true)
     List<PopulerToday> findLastUpdateComics();
 
+    /**
+     * Tăng bộ đếm số thứ tự đọc của comic, khoá dòng comic tới hết transaction
+     * để các chương của cùng comic được cấp số lần lượt
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE comics SET chapter_ordinal_seq = chapter_ordinal_seq + 1 WHERE id = :comicId", nativeQuery = true)
+    int incrementChapterOrdinalSeq(@Param("comicId") String comicId);
+
     // === QUERIES CHO PUBLISHER ===
 
     /**
@@ -1,10 +1,13 @@
 package com.thjvjpxx.backend_comic.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,7 +16,7 @@ import com.thjvjpxx.backend_comic.enums.CommentStatus;
 import com.thjvjpxx.backend_comic.model.Comment;
 
 @Repository
-public interface CommentRepository extends JpaRepository<Comment, String> {
+public interface CommentRepository extends JpaRepository<Comment, String>, JpaSpecificationExecutor<Comment> {
 
 	/**
 	 * Tìm tất cả comment có phân trang
@@ -108,6 +111,102 @@ public interface CommentRepository extends JpaRepository<Comment, String> {
 	 */
 	List<Comment> findByParentIdAndStatus(String parentId, CommentStatus status);
 
+	/**
+	 * Tìm comment cha theo comic sau vị trí cursor (keyset theo created_at, id giảm dần)
+	 * 
+	 * @param comicId   id của comic
+	 * @param status    trạng thái comment
+	 * @param createdAt created_at của comment cuối trang trước
+	 * @param id        id của comment cuối trang trước
+	 * @param pageable  chỉ dùng để giới hạn số lượng
+	 * @return danh sách comment cha kế tiếp
+	 */
+	@Query("""
+			SELECT c FROM comments c
+			WHERE c.comic.id = :comicId AND c.parent IS NULL AND c.status = :status
+			AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id))
+			ORDER BY c.createdAt DESC, c.id DESC
+			""")
+	List<Comment> findParentsByComicAfterCursor(
+			@Param("comicId") String comicId,
+			@Param("status") CommentStatus status,
+			@Param("createdAt") LocalDateTime createdAt,
+			@Param("id") String id,
+			Pageable pageable);
+
+	/**
+	 * Lấy tối đa :limit reply đầu tiên (cũ nhất trước) của nhiều comment cha trong 1 query
+	 * 
+	 * @param parentIds danh sách id comment cha
+	 * @param status    trạng thái comment (tên enum)
+	 * @param limit     số reply tối đa mỗi comment cha
+	 * @return danh sách reply, sắp xếp theo parent_id, created_at, id
+	 */
+	@Query(value = """
+			SELECT c.* FROM comments c
+			INNER JOIN (
+			    SELECT r.id,
+			        ROW_NUMBER() OVER (PARTITION BY r.parent_id ORDER BY r.created_at, r.id) AS rn
+			    FROM comments r
+			    WHERE r.parent_id IN (:parentIds) AND r.status = :status
+			) ranked ON ranked.id = c.id
+			WHERE ranked.rn <= :limit
+			ORDER BY c.parent_id, c.created_at, c.id
+			""", nativeQuery = true)
+	List<Comment> findFirstRepliesByParentIds(
+			@Param("parentIds") Collection<String> parentIds,
+			@Param("status") String status,
+			@Param("limit") int limit);
+
+	/**
+	 * Đếm số reply của nhiều comment cha trong 1 query
+	 * 
+	 * @param parentIds danh sách id comment cha
+	 * @param status    trạng thái comment
+	 * @return List<Object[]> với thứ tự: [parentId, count]
+	 */
+	@Query("SELECT c.parent.id, COUNT(c) FROM comments c WHERE c.parent.id IN :parentIds AND c.status = :status GROUP BY c.parent.id")
+	List<Object[]> countRepliesByParentIds(
+			@Param("parentIds") Collection<String> parentIds,
+			@Param("status") CommentStatus status);
+
+	/**
+	 * Tìm reply của 1 comment cha sau vị trí cursor (keyset theo created_at, id tăng dần)
+	 * 
+	 * @param parentId  id của comment cha
+	 * @param status    trạng thái comment
+	 * @param createdAt created_at của reply cuối trang trước
+	 * @param id        id của reply cuối trang trước
+	 * @param pageable  chỉ dùng để giới hạn số lượng
+	 * @return danh sách reply kế tiếp
+	 */
+	@Query("""
+			SELECT c FROM comments c
+			WHERE c.parent.id = :parentId AND c.status = :status
+			AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id))
+			ORDER BY c.createdAt ASC, c.id ASC
+			""")
+	List<Comment> findRepliesAfterCursor(
+			@Param("parentId") String parentId,
+			@Param("status") CommentStatus status,
+			@Param("createdAt") LocalDateTime createdAt,
+			@Param("id") String id,
+			Pageable pageable);
+
+	/**
+	 * Tìm reply đầu tiên của 1 comment cha (trang đầu của keyset)
+	 * 
+	 * @param parentId id của comment cha
+	 * @param status   trạng thái comment
+	 * @param pageable chỉ dùng để giới hạn số lượng
+	 * @return danh sách reply cũ nhất trước
+	 */
+	@Query("SELECT c FROM comments c WHERE c.parent.id = :parentId AND c.status = :status ORDER BY c.createdAt ASC, c.id ASC")
+	List<Comment> findFirstReplies(
+			@Param("parentId") String parentId,
+			@Param("status") CommentStatus status,
+			Pageable pageable);
+
 	/**
 	 * Tìm comment theo trạng thái
 	 * 
@@ -0,0 +1,76 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.thjvjpxx.backend_comic.model.ContentBlob;
+
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    /**
+     * Đánh dấu ảnh vừa được dùng lại
+     *
+     * @param hash SHA-256 của nội dung
+     * @param now  Thời điểm hiện tại
+     * @return 1 nếu ảnh đã có, 0 nếu chưa có (hoặc vừa bị dọn)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE content_blobs SET last_referenced_at = :now WHERE hash = :hash", nativeQuery = true)
+    int touch(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    /**
+     * Ghi nhận ảnh mới, bỏ qua nếu request khác đã ghi cùng nội dung
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO content_blobs (hash, storage_key, size, content_type, last_referenced_at, created_at)
+            VALUES (:hash, :storageKey, :size, :contentType, :now, :now)
+            ON DUPLICATE KEY UPDATE last_referenced_at = :now
+            """, nativeQuery = true)
+    void upsert(@Param("hash") String hash, @Param("storageKey") String storageKey, @Param("size") long size,
+            @Param("contentType") String contentType, @Param("now") LocalDateTime now);
+
+    /**
+     * Lấy các ảnh không còn DetailChapter nào tham chiếu và lâu không được dùng lại.
+     * detail_chapters.content_hash là cột duy nhất tham chiếu tới content_blobs (ảnh bìa,
+     * avatar... lưu theo đường dẫn riêng qua StorageService); thêm cột tham chiếu mới thì
+     * phải bổ sung vào cả câu lệnh này lẫn deleteIfUnreferenced.
+     *
+     * @param before Mốc thời gian dùng lại cuối cùng
+     * @param limit  Số lượng tối đa
+     * @return Danh sách hash
+     */
+    @Query(value = """
+            SELECT b.hash FROM content_blobs b
+            WHERE b.last_referenced_at < :before
+              AND NOT EXISTS (SELECT 1 FROM detail_chapters dc WHERE dc.content_hash = b.hash)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findUnreferencedHashes(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * Xoá ảnh nếu vẫn không có tham chiếu. Kiểm tra lại trong cùng câu lệnh để không xoá
+     * ảnh vừa được upload trùng hoặc vừa được gắn vào chương.
+     *
+     * @return 1 nếu đã xoá
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM content_blobs
+            WHERE hash = :hash
+              AND last_referenced_at < :before
+              AND NOT EXISTS (SELECT 1 FROM detail_chapters dc WHERE dc.content_hash = :hash)
+            """, nativeQuery = true)
+    int deleteIfUnreferenced(@Param("hash") String hash, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,128 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.thjvjpxx.backend_comic.enums.CrawlItemStatus;
+import com.thjvjpxx.backend_comic.model.CrawlJobItem;
+
+@Repository
+public interface CrawlJobItemRepository extends JpaRepository<CrawlJobItem, String> {
+
+    /**
+     * Nhận tối đa limit item: item PENDING đã hết thời gian chờ retry hoặc item RUNNING
+     * có lease đã hết hạn (worker cũ đã chết), chỉ lấy item của job đang chạy.
+     * Item được nhận sẽ chuyển sang RUNNING với lease_owner = owner.
+     *
+     * @param owner       Token của lượt nhận
+     * @param now         Thời điểm hiện tại
+     * @param leaseUntil  Thời điểm hết hạn lease
+     * @param maxAttempts Số lần thử tối đa
+     * @param limit       Số item tối đa
+     * @return Số item đã nhận
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE crawl_job_items
+            SET status = 'RUNNING', lease_owner = :owner, lease_until = :leaseUntil,
+                attempts = attempts + 1, updated_at = :now
+            WHERE job_id IN (SELECT j.id FROM crawl_jobs j WHERE j.status = 'RUNNING')
+              AND attempts < :maxAttempts
+              AND ((status = 'PENDING' AND (lease_until IS NULL OR lease_until < :now))
+                   OR (status = 'RUNNING' AND lease_until < :now))
+            ORDER BY created_at
+            LIMIT :limit
+            """, nativeQuery = true)
+    int claim(@Param("owner") String owner, @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil, @Param("maxAttempts") int maxAttempts,
+            @Param("limit") int limit);
+
+    /**
+     * Lấy các item theo token lease và trạng thái
+     */
+    List<CrawlJobItem> findByLeaseOwnerAndStatus(String leaseOwner, CrawlItemStatus status);
+
+    /**
+     * Gia hạn lease cho các item đang được instance này xử lý. Item đã hết lease và bị
+     * instance khác nhận lại (token khác) không bị gia hạn.
+     *
+     * @param ids        ID các item đang xử lý
+     * @param owners     Token lease của các lượt nhận đang xử lý
+     * @param now        Thời điểm hiện tại
+     * @param leaseUntil Thời điểm hết hạn lease mới
+     * @return Số item được gia hạn
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE crawl_job_items
+            SET lease_until = :leaseUntil, updated_at = :now
+            WHERE id IN (:ids) AND lease_owner IN (:owners) AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int renewLeases(@Param("ids") Collection<String> ids, @Param("owners") Collection<String> owners,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Kết thúc 1 item nếu lease vẫn thuộc về owner (chưa bị instance khác nhận lại)
+     *
+     * @param id         ID item
+     * @param owner      Token lease
+     * @param status     Trạng thái mới (DONE, PENDING hoặc FAILED)
+     * @param lastError  Lỗi gần nhất, null nếu thành công
+     * @param retryAfter Thời điểm được thử lại (chỉ dùng khi status = PENDING)
+     * @param now        Thời điểm hiện tại
+     * @return 1 nếu cập nhật thành công, 0 nếu đã mất lease
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE crawl_job_items
+            SET status = :status, last_error = :lastError, lease_owner = NULL,
+                lease_until = :retryAfter, updated_at = :now
+            WHERE id = :id AND lease_owner = :owner AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int finish(@Param("id") String id, @Param("owner") String owner, @Param("status") String status,
+            @Param("lastError") String lastError, @Param("retryAfter") LocalDateTime retryAfter,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Đánh dấu FAILED các item có lease hết hạn nhưng đã hết số lần thử
+     *
+     * @param now         Thời điểm hiện tại
+     * @param maxAttempts Số lần thử tối đa
+     * @return Số item bị đánh dấu
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE crawl_job_items
+            SET status = 'FAILED', last_error = COALESCE(last_error, 'Lease expired'),
+                lease_owner = NULL, updated_at = :now
+            WHERE status = 'RUNNING' AND lease_until < :now AND attempts >= :maxAttempts
+            """, nativeQuery = true)
+    int failExhausted(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Đếm item của job theo loại và trạng thái
+     *
+     * @param jobId ID job
+     * @return List<Object[]> với thứ tự: [type, status, count]
+     */
+    @Query("SELECT i.type, i.status, COUNT(i) FROM crawl_job_items i WHERE i.job.id = :jobId GROUP BY i.type, i.status")
+    List<Object[]> countByJobGroupByTypeAndStatus(@Param("jobId") String jobId);
+
+    /**
+     * Lấy các item lỗi gần nhất của job
+     */
+    List<CrawlJobItem> findTop20ByJobIdAndStatusOrderByUpdatedAtDesc(String jobId, CrawlItemStatus status);
+}
@@ -0,0 +1,45 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.thjvjpxx.backend_comic.enums.CrawlJobStatus;
+import com.thjvjpxx.backend_comic.model.CrawlJob;
+
+@Repository
+public interface CrawlJobRepository extends JpaRepository<CrawlJob, String> {
+
+    /**
+     * Lấy ID các job đang ở trạng thái cho trước
+     *
+     * @param status Trạng thái job
+     * @return Danh sách ID job
+     */
+    @Query("SELECT j.id FROM crawl_jobs j WHERE j.status = :status")
+    List<String> findIdsByStatus(@Param("status") CrawlJobStatus status);
+
+    /**
+     * Đánh dấu hoàn thành các job đang chạy không còn item chờ hoặc đang xử lý
+     *
+     * @param now Thời điểm hiện tại
+     * @return Số job vừa hoàn thành
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE crawl_jobs j
+            SET j.status = 'COMPLETED', j.finished_at = :now, j.updated_at = :now
+            WHERE j.status = 'RUNNING'
+              AND NOT EXISTS (
+                  SELECT 1 FROM crawl_job_items i
+                  WHERE i.job_id = j.id AND i.status IN ('PENDING', 'RUNNING'))
+            """, nativeQuery = true)
+    int completeFinishedJobs(@Param("now") LocalDateTime now);
+}
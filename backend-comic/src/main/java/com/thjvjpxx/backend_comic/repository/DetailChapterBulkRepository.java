@@ -0,0 +1,21 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.util.List;
+
+import com.thjvjpxx.backend_comic.model.DetailChapter;
+
+/**
+ * Đường ghi hàng loạt cho detail_chapters, bỏ qua persistence context của Hibernate
+ */
+public interface DetailChapterBulkRepository {
+    /**
+     * Insert nhiều ảnh chương bằng JDBC batch. ID được sinh phía client (UUID)
+     * và gán lại vào từng entity. Với rewriteBatchedStatements=true, MySQL driver
+     * gộp mỗi batch thành câu INSERT nhiều dòng.
+     * Tham gia transaction hiện tại nếu có.
+     *
+     * @param detailChapters Danh sách ảnh cần insert (chapter phải đã có id)
+     * @return Số dòng đã insert
+     */
+    int insertAll(List<DetailChapter> detailChapters);
+}
@@ -0,0 +1,70 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.thjvjpxx.backend_comic.model.DetailChapter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cài đặt DetailChapterBulkRepository bằng JdbcTemplate.batchUpdate
+ * (Spring Data tự ghép vào DetailChapterRepository theo hậu tố Impl)
+ */
+@Slf4j
+public class DetailChapterBulkRepositoryImpl implements DetailChapterBulkRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO detail_chapters (id, img_url, order_number, chapter_id, tts_url, ocr_content, has_bubble,
+                    content_hash)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public DetailChapterBulkRepositoryImpl(JdbcTemplate jdbcTemplate,
+            @Value("${app.bulk-insert.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public int insertAll(List<DetailChapter> detailChapters) {
+        if (detailChapters == null || detailChapters.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        for (DetailChapter detailChapter : detailChapters) {
+            if (detailChapter.getId() == null) {
+                detailChapter.setId(UUID.randomUUID().toString());
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, detailChapters, batchSize,
+                (PreparedStatement ps, DetailChapter detailChapter) -> {
+                    ps.setString(1, detailChapter.getId());
+                    ps.setString(2, detailChapter.getImgUrl());
+                    ps.setInt(3, detailChapter.getOrderNumber());
+                    ps.setString(4, detailChapter.getChapter().getId());
+                    ps.setString(5, detailChapter.getTtsUrl());
+                    ps.setString(6, detailChapter.getOcrContent());
+                    if (detailChapter.getHasBubble() != null) {
+                        ps.setBoolean(7, detailChapter.getHasBubble());
+                    } else {
+                        ps.setNull(7, Types.BOOLEAN);
+                    }
+                    ps.setString(8, detailChapter.getContentHash());
+                });
+
+        log.debug("Bulk insert {} detail chapter trong {} ms", detailChapters.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return detailChapters.size();
+    }
+}
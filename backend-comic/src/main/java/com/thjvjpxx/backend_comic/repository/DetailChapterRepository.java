@@ -3,12 +3,16 @@ package com.thjvjpxx.backend_comic.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.thjvjpxx.backend_comic.model.DetailChapter;
 
 @Repository
-public interface DetailChapterRepository extends JpaRepository<DetailChapter, String> {
+public interface DetailChapterRepository extends JpaRepository<DetailChapter, String>, DetailChapterBulkRepository {
     /**
      * Tìm các ảnh trong chapter
      * 
@@ -16,4 +20,51 @@ public interface DetailChapterRepository extends JpaRepository<DetailChapter, St
      * @return danh sách ảnh trong chapter
      */
     List<DetailChapter> findByChapterId(String chapterId);
+
+    /**
+     * Lấy 1 lô ảnh chưa có variants của các chapter lưu trên storage của hệ thống,
+     * phân trang keyset theo id
+     *
+     * @param afterId   Chỉ lấy id lớn hơn giá trị này ("" để lấy từ đầu)
+     * @param domainCdn Domain CDN của storage hệ thống
+     * @param limit     Số lượng tối đa
+     * @return List<Object[]> với thứ tự: [id, imgUrl, chapterPath]
+     */
+    @Query(value = """
+            SELECT dc.id, dc.img_url, c.chapter_path
+            FROM detail_chapters dc
+            JOIN chapters c ON c.id = dc.chapter_id
+            WHERE dc.variants IS NULL
+              AND dc.id > :afterId
+              AND c.domain_cdn = :domainCdn
+            ORDER BY dc.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findPendingVariantPages(@Param("afterId") String afterId, @Param("domainCdn") String domainCdn,
+            @Param("limit") int limit);
+
+    /**
+     * Lưu danh sách variants của ảnh
+     *
+     * @param id       ID detail chapter
+     * @param variants JSON mảng ImageVariant
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE detail_chapters SET variants = :variants WHERE id = :id", nativeQuery = true)
+    void updateVariants(@Param("id") String id, @Param("variants") String variants);
+
+    /**
+     * Lưu danh sách variants và các đoạn cắt của ảnh dài
+     *
+     * @param id       ID detail chapter
+     * @param variants JSON mảng ImageVariant
+     * @param segments JSON mảng ImageSegment
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE detail_chapters SET variants = :variants, segments = :segments WHERE id = :id",
+            nativeQuery = true)
+    void updateVariantsAndSegments(@Param("id") String id, @Param("variants") String variants,
+            @Param("segments") String segments);
 }
@@ -37,6 +37,16 @@ public interface PurchasedChapterRepository extends JpaRepository<PurchasedChapt
 	@Query("SELECT pc FROM purchased_chapters pc WHERE pc.user = :user AND pc.chapter.comic = :comic ORDER BY pc.chapter.chapterNumber ASC")
 	List<PurchasedChapter> findByUserAndComic(@Param("user") User user, @Param("comic") Comic comic);
 
+	/**
+	 * Lấy id các chapter của 1 comic mà người dùng đã mua
+	 * 
+	 * @param userId  id người dùng
+	 * @param comicId id truyện
+	 * @return danh sách id chapter đã mua
+	 */
+	@Query("SELECT pc.chapter.id FROM purchased_chapters pc WHERE pc.user.id = :userId AND pc.chapter.comic.id = :comicId")
+	List<String> findPurchasedChapterIds(@Param("userId") String userId, @Param("comicId") String comicId);
+
 	// === QUERIES CHO THỐNG KÊ PUBLISHER ===
 
 	/**
@@ -0,0 +1,21 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.util.List;
+
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
+
+/**
+ * Đường ghi hàng loạt cho reading_progress
+ */
+public interface ReadingProgressBulkRepository {
+    /**
+     * Upsert nhiều tiến độ đọc bằng JDBC batch. Khi (user_id, comic_id) đã có, bitmap được
+     * OR với bitmap cũ ngay trong MySQL, chương đọc gần nhất lấy theo updated_at mới hơn,
+     * nên không cần đọc trước và các lượt ghi trùng không làm mất dữ liệu.
+     * Tham gia transaction hiện tại nếu có.
+     *
+     * @param progresses Danh sách tiến độ cần ghi (chỉ chứa phần mới, id bị bỏ qua)
+     * @return Số dòng đã gửi
+     */
+    int upsertAll(List<ReadingProgress> progresses);
+}
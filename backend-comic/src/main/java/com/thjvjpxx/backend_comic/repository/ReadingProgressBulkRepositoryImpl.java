@@ -0,0 +1,81 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cài đặt ReadingProgressBulkRepository bằng JdbcTemplate.batchUpdate
+ * (Spring Data tự ghép vào ReadingProgressRepository theo hậu tố Impl)
+ */
+@Slf4j
+public class ReadingProgressBulkRepositoryImpl implements ReadingProgressBulkRepository {
+
+    // Phép OR trên chuỗi nhị phân của MySQL 8 cần 2 vế cùng độ dài nên bitmap ngắn hơn được
+    // đệm byte 0 bên phải (bit cao hơn = chưa đọc). Cột updated_at được gán cuối cùng vì các
+    // vế trước còn so sánh với giá trị cũ.
+    private static final String UPSERT_SQL = """
+            INSERT INTO reading_progress (id, user_id, comic_id, read_chapters, last_chapter_id, last_chapter_number,
+                    max_chapter_number, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                last_chapter_id = IF(VALUES(updated_at) >= updated_at, VALUES(last_chapter_id), last_chapter_id),
+                last_chapter_number = IF(VALUES(updated_at) >= updated_at, VALUES(last_chapter_number),
+                        last_chapter_number),
+                max_chapter_number = GREATEST(COALESCE(max_chapter_number, VALUES(max_chapter_number)),
+                        COALESCE(VALUES(max_chapter_number), max_chapter_number)),
+                read_chapters = RPAD(read_chapters, GREATEST(LENGTH(read_chapters), LENGTH(VALUES(read_chapters))), X'00')
+                        | RPAD(VALUES(read_chapters), GREATEST(LENGTH(read_chapters), LENGTH(VALUES(read_chapters))), X'00'),
+                updated_at = GREATEST(updated_at, VALUES(updated_at))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public ReadingProgressBulkRepositoryImpl(JdbcTemplate jdbcTemplate,
+            @Value("${app.reading-progress.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public int upsertAll(List<ReadingProgress> progresses) {
+        if (progresses == null || progresses.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, progresses, batchSize,
+                (PreparedStatement ps, ReadingProgress progress) -> {
+                    ps.setString(1, UUID.randomUUID().toString());
+                    ps.setString(2, progress.getUserId());
+                    ps.setString(3, progress.getComicId());
+                    ps.setBytes(4, progress.getReadChapters() != null ? progress.getReadChapters() : new byte[0]);
+                    ps.setString(5, progress.getLastChapterId());
+                    setDouble(ps, 6, progress.getLastChapterNumber());
+                    setDouble(ps, 7, progress.getMaxChapterNumber());
+                    ps.setTimestamp(8, Timestamp.valueOf(progress.getUpdatedAt()));
+                });
+
+        log.debug("Upsert {} tiến độ đọc trong {} ms", progresses.size(), (System.nanoTime() - start) / 1_000_000);
+        return progresses.size();
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+}
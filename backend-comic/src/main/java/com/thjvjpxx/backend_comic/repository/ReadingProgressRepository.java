@@ -0,0 +1,46 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
+
+@Repository
+public interface ReadingProgressRepository
+        extends JpaRepository<ReadingProgress, String>, ReadingProgressBulkRepository {
+
+    /**
+     * Tìm tiến độ đọc của user với 1 comic
+     *
+     * @param userId  ID user
+     * @param comicId ID comic
+     * @return ReadingProgress
+     */
+    Optional<ReadingProgress> findByUserIdAndComicId(String userId, String comicId);
+
+    /**
+     * Lịch sử đọc của user, mỗi comic 1 dòng, đọc gần nhất trước.
+     * Bỏ qua comic đã bị xoá.
+     *
+     * @param userId   ID user
+     * @param pageable Pageable
+     * @return Page<ReadingProgress>
+     */
+    @Query(value = """
+            SELECT rp.* FROM reading_progress rp
+            INNER JOIN comics c ON c.id = rp.comic_id
+            WHERE rp.user_id = :userId
+            ORDER BY rp.updated_at DESC
+            """, countQuery = """
+            SELECT COUNT(*) FROM reading_progress rp
+            INNER JOIN comics c ON c.id = rp.comic_id
+            WHERE rp.user_id = :userId
+            """, nativeQuery = true)
+    Page<ReadingProgress> findHistoryByUserId(@Param("userId") String userId, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.thjvjpxx.backend_comic.model.StorageCleanupTask;
+
+@Repository
+public interface StorageCleanupTaskRepository extends JpaRepository<StorageCleanupTask, String> {
+    /**
+     * Lấy các task đến hạn xử lý và chưa hết số lần thử
+     *
+     * @param now         Thời điểm hiện tại
+     * @param maxAttempts Số lần thử tối đa
+     * @param pageable    Giới hạn số lượng
+     * @return Danh sách task
+     */
+    List<StorageCleanupTask> findByNextAttemptAtBeforeAndAttemptsLessThanOrderByNextAttemptAtAsc(
+            LocalDateTime now, int maxAttempts, Pageable pageable);
+}
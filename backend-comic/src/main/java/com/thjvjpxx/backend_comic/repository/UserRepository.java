@@ -1,20 +1,26 @@
 package com.thjvjpxx.backend_comic.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.thjvjpxx.backend_comic.model.Level;
 import com.thjvjpxx.backend_comic.model.Role;
 import com.thjvjpxx.backend_comic.model.User;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, JpaSpecificationExecutor<User> {
 
 	/**
 	 * Tìm người dùng theo mã token đặt lại mật khẩu
@@ -209,4 +215,97 @@ public interface UserRepository extends JpaRepository<User, String> {
 			    AND r.name = 'PUBLISHER'
 			""", nativeQuery = true)
 	Long countTotalPublishers();
+
+	/**
+	 * Tắt cờ VIP của các user không còn gói VIP nào hiệu lực (dùng cho bộ quét hết hạn VIP)
+	 * 
+	 * @param userIds danh sách ID user cần kiểm tra
+	 * @param now     thời điểm hiện tại
+	 * @return số user bị tắt VIP
+	 */
+	@Modifying
+	@Query(value = """
+			UPDATE users u
+			SET u.vip = false
+			WHERE u.id IN (:userIds)
+			    AND u.vip = true
+			    AND NOT EXISTS (
+			        SELECT 1 FROM user_vip_subscriptions s
+			        WHERE s.user_id = u.id AND s.status = 'ACTIVE' AND s.end_date > :now
+			    )
+			""", nativeQuery = true)
+	int clearVipWithoutActiveSubscription(@Param("userIds") Collection<String> userIds,
+			@Param("now") LocalDateTime now);
+
+	/**
+	 * Cộng exp cho user bằng 1 câu lệnh (không ghi đè các cột khác)
+	 * 
+	 * @param userId ID user
+	 * @param amount Số exp cộng thêm
+	 * @return số dòng được cập nhật
+	 */
+	@Modifying
+	@Transactional
+	@Query("UPDATE users u SET u.currentExp = u.currentExp + :amount WHERE u.id = :userId")
+	int addExp(@Param("userId") String userId, @Param("amount") int amount);
+
+	/**
+	 * Lấy exp hiện tại của user từ DB
+	 * 
+	 * @param userId ID user
+	 * @return exp hiện tại, null nếu user không tồn tại
+	 */
+	@Query("SELECT u.currentExp FROM users u WHERE u.id = :userId")
+	Integer findCurrentExpById(@Param("userId") String userId);
+
+	/**
+	 * Nâng level cho user nếu level trong DB vẫn là level đã dùng để tính
+	 * 
+	 * @param userId       ID user
+	 * @param currentLevel Level đã dùng để tính
+	 * @param newLevel     Level mới
+	 * @return số dòng được cập nhật (0 nếu level đã bị đổi bởi request khác)
+	 */
+	@Modifying
+	@Transactional
+	@Query("UPDATE users u SET u.level = :newLevel WHERE u.id = :userId AND u.level = :currentLevel")
+	int upgradeLevel(@Param("userId") String userId, @Param("currentLevel") Level currentLevel,
+			@Param("newLevel") Level newLevel);
+
+	/**
+	 * Trừ số dư nếu đủ, kiểm tra và trừ trong cùng 1 câu lệnh nên 2 lần mua song song không
+	 * cùng trừ trên 1 số dư
+	 * 
+	 * @param userId ID user
+	 * @param amount Số linh thạch cần trừ
+	 * @return số dòng được cập nhật (0 nếu không đủ số dư)
+	 */
+	@Modifying
+	@Transactional
+	@Query("UPDATE users u SET u.balance = u.balance - :amount WHERE u.id = :userId AND u.balance >= :amount")
+	int debitBalance(@Param("userId") String userId, @Param("amount") double amount);
+
+	/**
+	 * Trừ số dư nếu đủ và bật cờ VIP trong cùng 1 câu lệnh
+	 * 
+	 * @param userId ID user
+	 * @param amount Giá gói VIP
+	 * @return số dòng được cập nhật (0 nếu không đủ số dư)
+	 */
+	@Modifying
+	@Transactional
+	@Query("UPDATE users u SET u.balance = u.balance - :amount, u.vip = true WHERE u.id = :userId AND u.balance >= :amount")
+	int debitBalanceAndActivateVip(@Param("userId") String userId, @Param("amount") double amount);
+
+	/**
+	 * Cộng số dư bằng 1 câu lệnh (nạp tiền)
+	 * 
+	 * @param userId ID user
+	 * @param amount Số linh thạch cộng thêm
+	 * @return số dòng được cập nhật
+	 */
+	@Modifying
+	@Transactional
+	@Query("UPDATE users u SET u.balance = u.balance + :amount WHERE u.id = :userId")
+	int creditBalance(@Param("userId") String userId, @Param("amount") double amount);
 }
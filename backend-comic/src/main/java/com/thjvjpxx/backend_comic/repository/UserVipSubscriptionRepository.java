@@ -1,10 +1,12 @@
 package com.thjvjpxx.backend_comic.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -49,4 +51,26 @@ public interface UserVipSubscriptionRepository extends JpaRepository<UserVipSubs
      */
     @Query("SELECT COUNT(uvs) > 0 FROM user_vip_subscriptions uvs WHERE uvs.user = :user AND uvs.status = 'ACTIVE' AND uvs.endDate > :now")
     boolean hasActiveVip(@Param("user") User user, @Param("now") LocalDateTime now);
+
+    /**
+     * Lấy (userId, endDate) của các gói VIP đang ACTIVE sẽ hết hạn trước một thời điểm
+     * @param until mốc thời gian cần lấy (bao gồm cả các gói đã quá hạn)
+     * @return danh sách Object[] với thứ tự: [userId, endDate]
+     */
+    @Query("SELECT uvs.user.id, MAX(uvs.endDate) FROM user_vip_subscriptions uvs WHERE uvs.status = 'ACTIVE' AND uvs.endDate <= :until GROUP BY uvs.user.id")
+    List<Object[]> findActiveExpiriesBefore(@Param("until") LocalDateTime until);
+
+    /**
+     * Chuyển các gói VIP đã quá hạn của nhiều user sang EXPIRED bằng 1 câu UPDATE
+     * @param userIds danh sách ID user
+     * @param now thời điểm hiện tại
+     * @return số gói bị cập nhật
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE user_vip_subscriptions
+            SET status = 'EXPIRED', updated_at = :now
+            WHERE user_id IN (:userIds) AND status = 'ACTIVE' AND end_date <= :now
+            """, nativeQuery = true)
+    int expireSubscriptionsOfUsers(@Param("userIds") Collection<String> userIds, @Param("now") LocalDateTime now);
 }
@@ -22,7 +22,7 @@ public interface ChapterService {
      * @param comicId ID comic
      * @return Response chứa danh sách chương
      */
-    BaseResponse<?> getAllChapters(int page, int limit, String search, String comicId);
+    BaseResponse<?> getAllChapters(int page, int limit, String search, String comicId, String cursor);
 
     /**
      * Tạo chương mới
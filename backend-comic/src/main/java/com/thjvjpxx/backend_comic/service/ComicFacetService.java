@@ -0,0 +1,51 @@
+package com.thjvjpxx.backend_comic.service;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.thjvjpxx.backend_comic.enums.ComicStatus;
+import com.thjvjpxx.backend_comic.model.Comic;
+
+/**
+ * Lọc comic theo category và trạng thái bằng chỉ mục bitmap trong bộ nhớ
+ * (1 bitmap cho mỗi category, mỗi trạng thái). Kết quả xếp theo lượt xem giảm dần,
+ * tổng số lấy từ số bit nên không cần truy vấn COUNT.
+ * Chỉ mục được dựng ở nền sau khi khởi động, trước đó các hàm đọc truy vấn thẳng DB.
+ */
+public interface ComicFacetService {
+    /**
+     * Lọc comic, chỉ nạp từ DB các comic của trang kết quả
+     *
+     * @param categoryIds Danh sách id category (null hoặc rỗng: không lọc)
+     * @param matchAll    true: comic phải thuộc mọi category, false: thuộc ít nhất 1
+     * @param status      Trạng thái (null: không lọc)
+     * @param pageable    Phân trang (bỏ qua sort)
+     * @return Page<Comic>
+     */
+    Page<Comic> browse(List<String> categoryIds, boolean matchAll, ComicStatus status, Pageable pageable);
+
+    /**
+     * Chuyển slug category thành id
+     *
+     * @param slugs Danh sách slug
+     * @return Danh sách id (slug không tồn tại được giữ nguyên nên không khớp comic nào)
+     */
+    List<String> resolveCategorySlugs(List<String> slugs);
+
+    /**
+     * Thêm hoặc cập nhật comic (trạng thái, category)
+     */
+    void index(Comic comic);
+
+    /**
+     * Xóa comic khỏi chỉ mục
+     */
+    void remove(String comicId);
+
+    /**
+     * Dựng lại toàn bộ chỉ mục từ DB (cập nhật thứ tự theo lượt xem)
+     */
+    void rebuild();
+}
@@ -0,0 +1,61 @@
+package com.thjvjpxx.backend_comic.service;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.thjvjpxx.backend_comic.model.Comic;
+
+/**
+ * Tìm kiếm comic bằng chỉ mục đảo ngược trong bộ nhớ (name, originName, author, description),
+ * xếp hạng theo BM25. Chỉ mục được dựng lúc khởi động, cập nhật khi thêm/sửa/xóa comic
+ * và dựng lại định kỳ.
+ */
+public interface ComicSearchService {
+    /**
+     * Tìm comic, xếp theo độ liên quan
+     *
+     * @param query    Từ khóa
+     * @param pageable Phân trang (bỏ qua sort)
+     * @return Page<Comic>, dùng truy vấn LIKE khi chỉ mục chưa sẵn sàng
+     */
+    Page<Comic> searchComics(String query, Pageable pageable);
+
+    /**
+     * Tìm id comic, xếp theo độ liên quan
+     *
+     * @param query  Từ khóa
+     * @param offset Vị trí bắt đầu
+     * @param limit  Số lượng tối đa
+     * @return Kết quả tìm kiếm
+     */
+    SearchResult search(String query, int offset, int limit);
+
+    /**
+     * Chỉ mục đã dựng xong lần đầu chưa
+     */
+    boolean isReady();
+
+    /**
+     * Thêm hoặc cập nhật comic trong chỉ mục
+     */
+    void index(Comic comic);
+
+    /**
+     * Xóa comic khỏi chỉ mục
+     */
+    void remove(String comicId);
+
+    /**
+     * Dựng lại toàn bộ chỉ mục từ DB
+     */
+    void rebuild();
+
+    /**
+     * @param comicIds Id comic theo thứ tự độ liên quan giảm dần
+     * @param total    Tổng số comic khớp
+     */
+    record SearchResult(List<String> comicIds, int total) {
+    }
+}
@@ -20,7 +20,7 @@ public interface ComicService {
      * @param category Lọc theo danh mục truyện
      * @return Response chứa danh sách truyện tranh
      */
-    BaseResponse<?> getAllComics(int page, int limit, String search, String status, String category);
+    BaseResponse<?> getAllComics(int page, int limit, String search, String status, String category, String cursor);
 
     /**
      * Tạo truyện tranh mới
@@ -0,0 +1,36 @@
+package com.thjvjpxx.backend_comic.service;
+
+import java.util.List;
+
+import com.thjvjpxx.backend_comic.dto.response.HomeResponse.PopulerToday;
+import com.thjvjpxx.backend_comic.model.Comic;
+
+/**
+ * Gợi ý comic khi đang gõ ô tìm kiếm, trả lời hoàn toàn từ bộ nhớ.
+ * Khớp tiền tố (đã bỏ dấu) của tên, slug, tác giả, xếp theo lượt xem.
+ */
+public interface ComicSuggestService {
+    /**
+     * Gợi ý comic theo tiền tố
+     *
+     * @param query Chuỗi đang gõ
+     * @param limit Số lượng tối đa
+     * @return Danh sách comic, lượt xem giảm dần
+     */
+    List<PopulerToday> suggest(String query, int limit);
+
+    /**
+     * Thêm hoặc cập nhật comic
+     */
+    void index(Comic comic);
+
+    /**
+     * Xóa comic khỏi danh sách gợi ý
+     */
+    void remove(String comicId);
+
+    /**
+     * Nạp lại toàn bộ từ DB (cập nhật lượt xem)
+     */
+    void reload();
+}
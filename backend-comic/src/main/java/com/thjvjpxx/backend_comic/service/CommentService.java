@@ -22,11 +22,12 @@ public interface CommentService {
      * @param chapterId ID chapter
      * @param userId    ID user
      * @param status    Trạng thái
+     * @param cursor    Cursor phân trang keyset (null thì phân trang theo page)
      * @return Response chứa danh sách comment
      */
     BaseResponse<List<CommentResponse>> getAllComments(int page, int limit, String search,
             String comicId, String chapterId,
-            String userId, CommentStatus status);
+            String userId, CommentStatus status, String cursor);
 
     /**
      * Lấy comment theo chapter với phân trang
@@ -39,22 +40,28 @@ public interface CommentService {
     BaseResponse<List<CommentResponse>> getCommentsByChapter(String chapterId, int page, int limit);
 
     /**
-     * Lấy comment cha (parent comments) theo comic
+     * Lấy comment cha (parent comments) theo comic, mỗi comment cha kèm vài reply đầu
+     * và tổng số reply. Nếu có cursor thì phân trang keyset, bỏ qua page.
      * 
      * @param comicId ID comic
      * @param page    Trang hiện tại
      * @param limit   Số lượng mỗi trang
+     * @param cursor  Cursor của trang trước (có thể null)
      * @return Response chứa danh sách comment cha
      */
-    BaseResponse<List<CommentResponse>> getParentCommentsByComic(String comicId, int page, int limit);
+    BaseResponse<List<CommentResponse>> getParentCommentsByComic(String comicId, int page, int limit,
+            String cursor);
 
     /**
-     * Lấy reply comments theo parent comment id
+     * Lấy reply comments theo parent comment id.
+     * Không truyền cursor và limit thì trả về toàn bộ reply.
      * 
      * @param parentId ID parent comment
+     * @param cursor   Cursor của trang reply trước (có thể null)
+     * @param limit    Số reply mỗi lần tải (có thể null)
      * @return Response chứa danh sách reply comment
      */
-    BaseResponse<List<CommentResponse>> getRepliesByParentId(String parentId);
+    BaseResponse<List<CommentResponse>> getRepliesByParentId(String parentId, String cursor, Integer limit);
 
     /**
      * Lấy chi tiết comment theo id
@@ -0,0 +1,62 @@
+package com.thjvjpxx.backend_comic.service;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Service lưu ảnh trang truyện theo nội dung (content-addressed).
+ * Nội dung được băm SHA-256 trong lúc đọc; nội dung đã có thì không upload lại,
+ * các chương dùng chung 1 file. File không còn chương nào tham chiếu sẽ được dọn nền.
+ * <p>
+ * Đây cũng là pha 1 của publish 2 pha (ChapterServiceImpl, CrawlerServiceImpl): ảnh được lưu
+ * ngoài transaction, pha 2 chỉ ghi DB trong transaction ngắn. Thay cho thư mục staging và bộ
+ * reconcile riêng trước đây: ảnh đã lưu mà transaction ghi DB không commit sẽ không có
+ * DetailChapter nào tham chiếu và bị {@link #collectGarbage()} dọn sau khoảng gc-grace,
+ * nên không cần bước di chuyển file từ staging sang thư mục chương.
+ */
+public interface ContentBlobService {
+
+    /**
+     * Kết quả lưu 1 ảnh
+     *
+     * @param hash     SHA-256 của nội dung (gán vào DetailChapter.contentHash)
+     * @param url      URL công khai của file (gán vào DetailChapter.imgUrl)
+     * @param size     Kích thước (byte)
+     * @param uploaded false nếu nội dung đã có sẵn và không phải upload
+     */
+    record StoredBlob(String hash, String url, long size, boolean uploaded) {
+    }
+
+    /**
+     * Lưu ảnh từ stream. Stream được đọc hết nhưng không được đóng bởi method này.
+     *
+     * @param inputStream Dữ liệu ảnh
+     * @param extension   Đuôi file (vd: jpg)
+     * @param contentType Content type của ảnh
+     * @return Thông tin ảnh đã lưu
+     */
+    StoredBlob store(InputStream inputStream, String extension, String contentType);
+
+    /**
+     * Lưu song song nhiều file upload, kết quả cùng thứ tự với files
+     *
+     * @param files Danh sách file theo thứ tự trang
+     * @return Thông tin các ảnh đã lưu
+     */
+    List<StoredBlob> storeAll(List<MultipartFile> files);
+
+    /**
+     * Lấy hash từ URL ảnh lưu theo nội dung
+     *
+     * @param url URL ảnh (imgUrl)
+     * @return Hash, null nếu không phải URL ảnh lưu theo nội dung
+     */
+    String hashFromUrl(String url);
+
+    /**
+     * Dọn các ảnh không còn được tham chiếu
+     */
+    void collectGarbage();
+}
@@ -0,0 +1,25 @@
+package com.thjvjpxx.backend_comic.service;
+
+import com.thjvjpxx.backend_comic.model.Chapter;
+import com.thjvjpxx.backend_comic.model.Comic;
+
+/**
+ * Service xoá truyện/chương bằng các câu DELETE theo tập (bảng con trước, bảng cha sau)
+ * trong 1 transaction ngắn, thay cho cascade REMOVE nạp và xoá từng entity con.
+ * File trên storage được đưa vào hàng đợi dọn dẹp chạy nền.
+ */
+public interface ContentDeletionService {
+    /**
+     * Xoá truyện cùng toàn bộ chương, ảnh, bình luận, lịch sử đọc/xem, lượt mua, theo dõi
+     *
+     * @param comic Truyện cần xoá
+     */
+    void deleteComic(Comic comic);
+
+    /**
+     * Xoá chương cùng ảnh, bình luận, lịch sử đọc, lượt mua
+     *
+     * @param chapter Chương cần xoá
+     */
+    void deleteChapter(Chapter chapter);
+}
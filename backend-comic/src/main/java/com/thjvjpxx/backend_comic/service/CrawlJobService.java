@@ -0,0 +1,50 @@
+package com.thjvjpxx.backend_comic.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.thjvjpxx.backend_comic.dto.request.CrawlerComicListRequest;
+import com.thjvjpxx.backend_comic.dto.request.CrawlerComicRequest;
+import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
+import com.thjvjpxx.backend_comic.dto.response.CrawlJobProgressResponse;
+
+public interface CrawlJobService {
+    /**
+     * Tạo crawl job chạy nền cho các trang từ startPage đến endPage
+     * 
+     * @param request Thông tin khoảng trang
+     * @return Tiến độ ban đầu của job
+     */
+    BaseResponse<CrawlJobProgressResponse> createPageJob(CrawlerComicRequest request);
+
+    /**
+     * Tạo crawl job chạy nền cho danh sách truyện
+     * 
+     * @param request Danh sách truyện cần crawl
+     * @return Tiến độ ban đầu của job
+     */
+    BaseResponse<CrawlJobProgressResponse> createListJob(CrawlerComicListRequest request);
+
+    /**
+     * Lấy tiến độ của job
+     * 
+     * @param jobId ID job
+     * @return Tiến độ job
+     */
+    BaseResponse<CrawlJobProgressResponse> getProgress(String jobId);
+
+    /**
+     * Huỷ job, các item đang chạy sẽ chạy nốt nhưng không nhận thêm item mới
+     * 
+     * @param jobId ID job
+     * @return Tiến độ job sau khi huỷ
+     */
+    BaseResponse<CrawlJobProgressResponse> cancel(String jobId);
+
+    /**
+     * Đăng ký nhận tiến độ job qua Server-Sent Events
+     * 
+     * @param jobId ID job
+     * @return SseEmitter gửi sự kiện "progress" sau mỗi lượt xử lý
+     */
+    SseEmitter subscribe(String jobId);
+}
@@ -1,8 +1,12 @@
 package com.thjvjpxx.backend_comic.service;
 
+import java.util.List;
+
 import com.thjvjpxx.backend_comic.dto.request.CrawlerComicListRequest;
 import com.thjvjpxx.backend_comic.dto.request.CrawlerComicRequest;
 import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
+import com.thjvjpxx.backend_comic.dto.response.CrawlEngineStatsResponse;
+import com.thjvjpxx.backend_comic.model.CrawlJobItem;
 
 public interface CrawlerService {
     /**
@@ -20,4 +24,23 @@ public interface CrawlerService {
      * @return Kết quả crawl
      */
     BaseResponse<?> crawlComicFromList(CrawlerComicListRequest request);
+
+    /**
+     * Lấy số liệu trực tiếp của crawl engine (task đang chờ, đang chạy, đã xong)
+     * 
+     * @return Số liệu crawl engine
+     */
+    BaseResponse<CrawlEngineStatsResponse> getEngineStats();
+
+    /**
+     * Xử lý 1 item của crawl job.
+     * PAGE: lấy danh sách truyện của trang, trả về các item COMIC.
+     * COMIC: lấy chi tiết truyện, tạo truyện nếu chưa có, trả về các item CHAPTER còn thiếu.
+     * CHAPTER: tải và lưu chapter, không sinh item con.
+     * 
+     * @param item Item cần xử lý
+     * @return Các item con (chưa lưu) cần xử lý tiếp
+     * @throws Exception nếu xử lý lỗi, item sẽ được thử lại
+     */
+    List<CrawlJobItem> processJobItem(CrawlJobItem item) throws Exception;
 }
@@ -37,6 +37,18 @@ public interface HomeService {
      */
     public BaseResponse<?> getComicByCategory(String slug, int page, int size);
 
+    /**
+     * Lọc comic theo nhiều category và trạng thái
+     * 
+     * @param categories Danh sách slug category
+     * @param match      "all": thuộc mọi category, "any": thuộc ít nhất 1
+     * @param status     Trạng thái comic (có thể null)
+     * @param page       Số trang
+     * @param size       Số lượng trong 1 trang
+     * @return Response chứa danh sách comic, lượt xem giảm dần
+     */
+    public BaseResponse<?> browseComics(List<String> categories, String match, String status, int page, int size);
+
     /**
      * Tìm kiếm comic
      * 
@@ -0,0 +1,44 @@
+package com.thjvjpxx.backend_comic.service;
+
+import java.time.LocalDateTime;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Service quản lý bản chụp (snapshot) dựng sẵn của trang chủ.
+ * Snapshot được build nền theo lịch hoặc khi có sự kiện thay đổi,
+ * request trang chủ chỉ đọc từ bộ nhớ.
+ */
+public interface HomeSnapshotService {
+    /**
+     * Lấy snapshot hiện tại, build đồng bộ nếu chưa có
+     *
+     * @return Snapshot trang chủ
+     */
+    HomeSnapshot getSnapshot();
+
+    /**
+     * Build lại snapshot ngay lập tức
+     */
+    void refresh();
+
+    /**
+     * Đánh dấu snapshot đã cũ, sẽ được build lại ở lượt kiểm tra kế tiếp
+     */
+    void markStale();
+
+    /**
+     * Snapshot trang chủ đã serialize sẵn thành JSON
+     */
+    @Getter
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    class HomeSnapshot {
+        byte[] body;
+        String etag;
+        LocalDateTime builtAt;
+    }
+}
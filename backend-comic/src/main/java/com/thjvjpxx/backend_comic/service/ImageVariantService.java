@@ -0,0 +1,14 @@
+package com.thjvjpxx.backend_comic.service;
+
+/**
+ * Service tạo các bản resize/chuyển định dạng cho ảnh trang truyện ở chế độ nền.
+ * Ảnh mới (upload hoặc crawl về storage hệ thống) có variants = null sẽ được xử lý dần,
+ * mỗi ảnh chỉ giải mã 1 lần rồi thu nhỏ lần lượt từ bản lớn nhất.
+ * Ảnh quá dài được cắt thành các đoạn cao cố định thay vì tạo variant.
+ */
+public interface ImageVariantService {
+    /**
+     * Xử lý 1 lô ảnh chưa có variants
+     */
+    void processPendingPages();
+}
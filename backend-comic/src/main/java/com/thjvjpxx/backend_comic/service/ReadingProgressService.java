@@ -0,0 +1,47 @@
+package com.thjvjpxx.backend_comic.service;
+
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.thjvjpxx.backend_comic.model.Chapter;
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
+
+/**
+ * Tiến độ đọc theo (user, comic): 1 dòng gồm bitmap chương đã đọc, chương đọc gần nhất.
+ * Ghi kiểu write-behind: gộp trong bộ nhớ, định kỳ upsert xuống DB theo lô.
+ * Các hàm đọc đã cộng phần chưa ghi nên user luôn thấy ngay chương vừa đọc.
+ */
+public interface ReadingProgressService {
+    /**
+     * Ghi nhận user vừa đọc 1 chương (chỉ truy cập DB nếu chương chưa có số thứ tự đọc)
+     *
+     * @param userId  ID user
+     * @param chapter Chương vừa đọc
+     */
+    void recordRead(String userId, Chapter chapter);
+
+    /**
+     * Tiến độ đọc của user với 1 comic
+     *
+     * @param userId  ID user
+     * @param comicId ID comic
+     * @return Tiến độ (empty nếu chưa đọc chương nào)
+     */
+    Optional<ReadingProgress> getProgress(String userId, String comicId);
+
+    /**
+     * Lịch sử đọc của user, mỗi comic 1 dòng, đọc gần nhất trước
+     *
+     * @param userId   ID user
+     * @param pageable Phân trang
+     * @return Page<ReadingProgress>
+     */
+    Page<ReadingProgress> getHistory(String userId, Pageable pageable);
+
+    /**
+     * Ghi các tiến độ đang chờ xuống DB
+     */
+    void flush();
+}
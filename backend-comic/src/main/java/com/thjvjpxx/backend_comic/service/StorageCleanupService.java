@@ -0,0 +1,20 @@
+package com.thjvjpxx.backend_comic.service;
+
+/**
+ * Service dọn file trên storage ở chế độ nền.
+ * Task được ghi vào DB (cùng transaction với thao tác xoá dữ liệu) nên không bị mất
+ * khi khởi động lại, lỗi sẽ được thử lại với thời gian chờ tăng dần.
+ */
+public interface StorageCleanupService {
+    /**
+     * Thêm file/thư mục cần xoá. Nên gọi bên trong transaction xoá dữ liệu.
+     *
+     * @param target URL hoặc key của file, thư mục thì kết thúc bằng "/"
+     */
+    void enqueue(String target);
+
+    /**
+     * Xử lý các task đã đến hạn
+     */
+    void processDueTasks();
+}
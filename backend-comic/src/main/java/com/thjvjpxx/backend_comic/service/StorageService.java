@@ -1,5 +1,10 @@
 package com.thjvjpxx.backend_comic.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
 import org.springframework.web.multipart.MultipartFile;
 
 import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
@@ -18,6 +23,21 @@ public interface StorageService {
      */
     BaseResponse<?> uploadFile(MultipartFile file, String typeFolder, String fileName);
 
+    /**
+     * Upload dữ liệu dạng stream lên hệ thống lưu trữ mà không đọc hết vào bộ nhớ.
+     * Biết trước kích thước thì upload 1 lần, không biết thì upload multipart theo từng phần.
+     * Stream không được đóng bởi method này.
+     * 
+     * @param inputStream   Stream dữ liệu nguồn
+     * @param contentLength Kích thước dữ liệu (byte), -1 nếu không biết
+     * @param contentType   Content type của file
+     * @param typeFolder    Loại thư mục để phân loại file (ví dụ: images, documents)
+     * @param fileName      Tên file sau khi upload
+     * @return BaseResponse chứa URL file đã upload
+     */
+    BaseResponse<?> uploadStream(InputStream inputStream, long contentLength, String contentType,
+            String typeFolder, String fileName);
+
     /**
      * Xóa file khỏi hệ thống lưu trữ
      * 
@@ -36,10 +56,42 @@ public interface StorageService {
     BaseResponse<?> rename(String url, String newName);
 
     /**
-     * Lấy danh sách tất cả file trong thư mục
+     * Tải 1 object từ hệ thống lưu trữ về file local (ghi đè nếu đã có)
+     * 
+     * @param key    Key của object (vd: comics/slug/chapter-1.0/1.jpg)
+     * @param target File đích
+     * @return Số byte đã tải
+     * @throws BaseException với ErrorCode.FILE_NOT_FOUND nếu object không tồn tại
+     */
+    long downloadFile(String key, Path target);
+
+    /**
+     * Lấy danh sách tất cả file và thư mục con trực tiếp trong thư mục.
+     * Toàn bộ kết quả được giữ trong bộ nhớ, với thư mục lớn nên dùng listFiles hoặc streamFiles.
      * 
      * @param folder Tên thư mục cần lấy danh sách file
      * @return BaseResponse chứa danh sách file trong thư mục
      */
     BaseResponse<?> getAllFiles(String folder);
+
+    /**
+     * Lấy 1 trang file và thư mục con trực tiếp trong thư mục
+     * 
+     * @param folder Tên thư mục cần lấy danh sách file
+     * @param cursor Continuation token của trang trước (null/rỗng để lấy trang đầu)
+     * @param limit  Số phần tử tối đa mỗi trang (1 - 1000)
+     * @return BaseResponse chứa danh sách file và nextCursor (null nếu đã hết)
+     */
+    BaseResponse<?> listFiles(String folder, String cursor, int limit);
+
+    /**
+     * Ghi toàn bộ file và thư mục con trực tiếp trong thư mục ra stream dạng NDJSON
+     * (mỗi dòng 1 FileItemResponse), đọc và ghi lần lượt từng trang list.
+     * Stream không được đóng bởi method này.
+     * 
+     * @param folder       Tên thư mục cần lấy danh sách file
+     * @param outputStream Stream đích
+     * @throws IOException nếu ghi ra stream lỗi (vd: client ngắt kết nối)
+     */
+    void streamFiles(String folder, OutputStream outputStream) throws IOException;
 }
\ No newline at end of file
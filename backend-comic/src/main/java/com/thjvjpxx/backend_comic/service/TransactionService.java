@@ -46,10 +46,11 @@ public interface TransactionService {
      * 
      * @param user  Người dùng
      * @param page  Trang hiện tại
-     * @param limit Số lượng mỗi trang
+     * @param limit  Số lượng mỗi trang
+     * @param cursor Cursor phân trang keyset (null thì phân trang theo page)
      * @return Danh sách giao dịch
      */
-    BaseResponse<List<TransactionResponse>> getUserTransactions(User user, int page, int limit);
+    BaseResponse<List<TransactionResponse>> getUserTransactions(User user, int page, int limit, String cursor);
 
     /**
      * Lấy thông tin giao dịch theo ID
@@ -87,10 +88,11 @@ public interface TransactionService {
      * @param search        Tìm kiếm theo username hoặc description
      * @param status        Lọc theo trạng thái
      * @param paymentMethod Lọc theo phương thức thanh toán
+     * @param cursor        Cursor phân trang keyset (null thì phân trang theo page)
      * @return Danh sách giao dịch đã lọc
      */
     BaseResponse<List<TransactionResponse>> getAllTransactionsWithFilter(
-            int page, int limit, String search, String status, String paymentMethod);
+            int page, int limit, String search, String status, String paymentMethod, String cursor);
 
     /**
      * Lấy thống kê giao dịch
@@ -20,9 +20,11 @@ public interface UserService {
      * @param search  Từ khóa tìm kiếm
      * @param roleId  ID vai trò
      * @param deleted Trạng thái xóa
+     * @param cursor  Cursor phân trang keyset (null thì phân trang theo page)
      * @return Response chứa danh sách user
      */
-    BaseResponse<List<User>> getUsers(int page, int limit, String search, String roleId, Boolean deleted);
+    BaseResponse<List<User>> getUsers(int page, int limit, String search, String roleId, Boolean deleted,
+            String cursor);
 
     /**
      * Tạo user mới
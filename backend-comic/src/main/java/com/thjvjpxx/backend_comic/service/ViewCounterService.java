@@ -0,0 +1,19 @@
+package com.thjvjpxx.backend_comic.service;
+
+/**
+ * Service đếm lượt xem comic theo kiểu write-behind:
+ * cộng dồn trong bộ nhớ, định kỳ ghi xuống DB theo lô
+ */
+public interface ViewCounterService {
+    /**
+     * Ghi nhận 1 lượt xem của comic (không truy cập DB)
+     *
+     * @param comicId ID của comic
+     */
+    void recordView(String comicId);
+
+    /**
+     * Ghi các lượt xem đang chờ xuống DB
+     */
+    void flush();
+}
@@ -1,15 +1,32 @@
 package com.thjvjpxx.backend_comic.service;
 
-import com.thjvjpxx.backend_comic.model.User;
+import java.time.LocalDateTime;
+
+import com.thjvjpxx.backend_comic.dto.response.VipExpiryStatsResponse;
 
 /**
- * Service xử lý việc kiểm tra và cập nhật trạng thái VIP của user
+ * Service quét và xử lý hết hạn VIP của user.
+ * Các mốc hết hạn được giữ trong bộ nhớ, bộ quét định kỳ tắt VIP theo lô
+ * thay vì kiểm tra ở mỗi request.
  */
 public interface VipExpirationService {
     /**
-     * Kiểm tra và cập nhật trạng thái VIP của user
-     * 
-     * @param user Người dùng cần kiểm tra và cập nhật
+     * Đưa mốc hết hạn VIP của user vào hàng đợi (chỉ thao tác bộ nhớ, mốc đã qua bị bỏ qua)
+     *
+     * @param userId    ID user
+     * @param expiresAt Thời điểm hết hạn VIP
+     */
+    void trackExpiry(String userId, LocalDateTime expiresAt);
+
+    /**
+     * Tắt VIP của các user đã đến hạn trong hàng đợi
+     */
+    void sweepExpired();
+
+    /**
+     * Lấy thống kê của bộ quét (số lượng chờ, độ trễ...)
+     *
+     * @return Thống kê bộ quét hết hạn VIP
      */
-    void checkAndUpdateUserVipStatus(User user);
-}
\ No newline at end of file
+    VipExpiryStatsResponse getExpiryStats();
+}
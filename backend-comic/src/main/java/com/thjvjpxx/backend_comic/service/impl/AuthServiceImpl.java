@@ -8,6 +8,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.thjvjpxx.backend_comic.config.JwtConfig;
+import com.thjvjpxx.backend_comic.config.JwtPrincipal;
 import com.thjvjpxx.backend_comic.dto.request.LoginRequest;
 import com.thjvjpxx.backend_comic.dto.request.RegisterRequest;
 import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
@@ -17,8 +18,10 @@ import com.thjvjpxx.backend_comic.exception.BaseException;
 import com.thjvjpxx.backend_comic.model.Level;
 import com.thjvjpxx.backend_comic.model.Role;
 import com.thjvjpxx.backend_comic.model.User;
+import com.thjvjpxx.backend_comic.model.UserVipSubscription;
 import com.thjvjpxx.backend_comic.repository.RoleRepository;
 import com.thjvjpxx.backend_comic.repository.UserRepository;
+import com.thjvjpxx.backend_comic.repository.UserVipSubscriptionRepository;
 import com.thjvjpxx.backend_comic.service.AuthService;
 import com.thjvjpxx.backend_comic.service.EmailService;
 import com.thjvjpxx.backend_comic.service.LevelService;
@@ -40,6 +43,7 @@ public class AuthServiceImpl implements AuthService {
     final BCryptPasswordEncoder passwordEncoder;
     final LevelService levelService;
     final EmailService emailService;
+    final UserVipSubscriptionRepository userVipSubscriptionRepository;
 
     @Value("${app.frontend-url}")
     String frontendUrl;
@@ -79,8 +83,8 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // Tạo token
-        String accessToken = jwtConfig.generateToken(user.getUsername());
-        String refreshToken = jwtConfig.generateRefreshToken(user.getUsername());
+        String accessToken = generateAccessToken(user);
+        String refreshToken = jwtConfig.generateRefreshToken(user);
 
         // Tạo response
         LoginResponse loginResponse = LoginResponse.builder()
@@ -103,17 +107,17 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // Xác thực refresh token
-        if (!jwtConfig.validateToken(refreshToken)) {
+        JwtPrincipal principal = jwtConfig.parseToken(refreshToken);
+        if (principal == null) {
             throw new BaseException(ErrorCode.REFRESH_TOKEN_INVALID);
         }
 
-        // Lấy username từ refresh token
-        String username = jwtConfig.extractUsername(refreshToken);
-        User user = userRepository.findByUsername(username)
+        // Lấy user mới nhất từ DB để claims của access token mới là chính xác
+        User user = userRepository.findByUsername(principal.getUsername())
                 .orElseThrow(() -> new BaseException(ErrorCode.USER_NOT_FOUND));
 
         // Tạo access token mới
-        String newAccessToken = jwtConfig.generateToken(username);
+        String newAccessToken = generateAccessToken(user);
 
         // Tạo response
         LoginResponse loginResponse = LoginResponse.builder()
@@ -282,4 +286,18 @@ public class AuthServiceImpl implements AuthService {
         long veriSeconds = verificationTokenExpiration / 1000;
         return time.plusSeconds(veriSeconds).isBefore(LocalDateTime.now());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tạo access token kèm thời điểm hết hạn VIP hiện tại của user
+     * 
+     * @param user User cần cấp token
+     * @return Access token
+     */
+    private String generateAccessToken(User user) {
+        LocalDateTime vipExpiresAt = userVipSubscriptionRepository
+                .findActiveSubscriptionByUser(user, LocalDateTime.now())
+                .map(UserVipSubscription::getEndDate)
+                .orElse(null);
+        return jwtConfig.generateToken(user, vipExpiresAt);
+    }
+}
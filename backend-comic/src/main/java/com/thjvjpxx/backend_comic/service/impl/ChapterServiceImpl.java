@@ -5,11 +5,14 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.thjvjpxx.backend_comic.constant.B2Constants;
@@ -19,6 +22,7 @@ import com.thjvjpxx.backend_comic.dto.response.ChapterResponse;
 import com.thjvjpxx.backend_comic.dto.response.ChapterResponse.DetailChapterResponse;
 import com.thjvjpxx.backend_comic.enums.ChapterStatus;
 import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.event.HomeContentChangedEvent;
 import com.thjvjpxx.backend_comic.exception.BaseException;
 import com.thjvjpxx.backend_comic.model.Chapter;
 import com.thjvjpxx.backend_comic.model.Comic;
@@ -27,26 +31,42 @@ import com.thjvjpxx.backend_comic.model.Level;
 import com.thjvjpxx.backend_comic.model.User;
 import com.thjvjpxx.backend_comic.repository.ChapterRepository;
 import com.thjvjpxx.backend_comic.repository.ComicRepository;
+import com.thjvjpxx.backend_comic.repository.DetailChapterRepository;
 import com.thjvjpxx.backend_comic.service.ChapterService;
+import com.thjvjpxx.backend_comic.service.ContentBlobService.StoredBlob;
+import com.thjvjpxx.backend_comic.service.ContentBlobService;
+import com.thjvjpxx.backend_comic.service.ContentDeletionService;
 import com.thjvjpxx.backend_comic.service.StorageService;
+import com.thjvjpxx.backend_comic.specification.ChapterSpecifications;
+import com.thjvjpxx.backend_comic.utils.ApproximateCountCache;
 import com.thjvjpxx.backend_comic.utils.ChapterUtils;
+import com.thjvjpxx.backend_comic.utils.ComicDetailCache;
 import com.thjvjpxx.backend_comic.utils.ComicUtils;
+import com.thjvjpxx.backend_comic.utils.CursorUtils;
 import com.thjvjpxx.backend_comic.utils.PaginationUtils;
 import com.thjvjpxx.backend_comic.utils.ValidationUtils;
 
-import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
 public class ChapterServiceImpl implements ChapterService {
     final ChapterRepository chapterRepository;
     final ComicRepository comicRepository;
     final StorageService b2StorageService;
     final ComicUtils comicUtils;
+    final ApplicationEventPublisher eventPublisher;
+    final ApproximateCountCache approximateCountCache;
+    final DetailChapterRepository detailChapterRepository;
+    final ContentBlobService contentBlobService;
+    final ContentDeletionService contentDeletionService;
+    final TransactionTemplate transactionTemplate;
+    final ComicDetailCache comicDetailCache;
 
     @Value("${b2.bucketName}")
     String bucketName;
@@ -60,10 +80,14 @@ public class ChapterServiceImpl implements ChapterService {
      * @param limit   số lượng phần tử trên mỗi trang
      * @param search  từ khóa tìm kiếm
      * @param comicId id của comic
+     * @param cursor  cursor phân trang keyset (null thì phân trang theo page)
      * @return BaseResponse<?>
      */
     @Override
-    public BaseResponse<?> getAllChapters(int page, int limit, String search, String comicId) {
+    public BaseResponse<?> getAllChapters(int page, int limit, String search, String comicId, String cursor) {
+        if (cursor != null) {
+            return getChaptersByCursor(limit, search, comicId, cursor);
+        }
         Pageable pageForQuery = PaginationUtils.createPageableWithSort(page, limit, "updatedAt",
                 Sort.Direction.DESC);
         int originalPage = page;
@@ -91,8 +115,39 @@ public class ChapterServiceImpl implements ChapterService {
                     0);
         }
 
+        List<ChapterResponse> chapterResponses = toChapterResponses(chapterList);
+
+        return BaseResponse.success(
+                chapterResponses,
+                originalPage,
+                (int) chapters.getTotalElements(),
+                limit,
+                chapters.getTotalPages());
+    }
+
+    /**
+     * Phân trang keyset theo (updatedAt, id), không chạy COUNT ở mỗi trang
+     */
+    private BaseResponse<?> getChaptersByCursor(int limit, String search, String comicId, String cursor) {
+        limit = limit < 1 ? 5 : limit;
+        Specification<Chapter> spec = Specification.where(ChapterSpecifications.titleContains(search))
+                .and(ChapterSpecifications.ofComic(comicId));
+
+        Window<Chapter> chapters = CursorUtils.scroll(chapterRepository, spec, "updatedAt", cursor, limit);
+        Integer total = approximateCountCache.get(
+                ApproximateCountCache.key("chapters", search, comicId),
+                () -> chapterRepository.count(spec));
+
+        return BaseResponse.successWithCursor(
+                toChapterResponses(chapters.getContent()),
+                limit,
+                CursorUtils.nextCursor(chapters, "updatedAt"),
+                total);
+    }
+
+    private List<ChapterResponse> toChapterResponses(List<Chapter> chapters) {
         List<ChapterResponse> chapterResponses = new ArrayList<>();
-        for (Chapter chapter : chapterList) {
+        for (Chapter chapter : chapters) {
             List<DetailChapterResponse> detailChapterResponses = chapter.getDetailChapters().stream()
                     .map(detailChapter -> DetailChapterResponse.builder()
                             .id(detailChapter.getId())
@@ -113,13 +168,7 @@ public class ChapterServiceImpl implements ChapterService {
 
             chapterResponses.add(chapterResponse);
         }
-
-        return BaseResponse.success(
-                chapterResponses,
-                originalPage,
-                (int) chapters.getTotalElements(),
-                limit,
-                chapters.getTotalPages());
+        return chapterResponses;
     }
 
     /**
@@ -176,7 +225,6 @@ public class ChapterServiceImpl implements ChapterService {
      * @return BaseResponse<?>
      */
     @Override
-    @Transactional
     public BaseResponse<?> createChapter(ChapterRequest chapterRequest, List<MultipartFile> files, User publisher) {
 
         if (publisher != null) {
@@ -207,7 +255,9 @@ public class ChapterServiceImpl implements ChapterService {
                     "%s/chapter-%s",
                     comic.getSlug(),
                     chapterRequest.getChapterNumber());
-            detailChapters = handleIsFileUploaded(files, path, chapter);
+
+            // Pha 1: lưu ảnh theo hash nội dung, ngoài transaction
+            detailChapters = toDetailChapters(contentBlobService.storeAll(files), 1, chapter);
 
             domainCdn = B2Constants.URL_PREFIX + bucketName + "/" + B2Constants.FOLDER_KEY_COMIC;
         } else {
@@ -219,41 +269,45 @@ public class ChapterServiceImpl implements ChapterService {
         chapter.setChapterPath(path);
         chapter.setDomainCdn(domainCdn);
 
-        chapterRepository.save(chapter);
+        List<DetailChapter> finalDetailChapters = detailChapters;
+        publish(() -> {
+            // Flush chapter trước để khóa ngoại của detail_chapters hợp lệ
+            chapterRepository.saveAndFlush(chapter);
+            detailChapterRepository.insertAll(finalDetailChapters);
+        });
+        comicDetailCache.evict(comic.getSlug());
+        eventPublisher.publishEvent(new HomeContentChangedEvent("chapter.create"));
 
         return BaseResponse.success("Thêm chương " + chapter.getChapterNumber() + " thành công");
     }
 
     /**
-     * Xử lý khi là dạng file
+     * Pha 2 của publish: ghi DB trong 1 transaction ngắn (không có I/O mạng).
+     * Ảnh đã lưu ở pha 1 mà transaction lỗi sẽ không được tham chiếu và bị dọn bởi
+     * ContentBlobService.collectGarbage (thay cho bộ reconcile thư mục staging).
      * 
-     * @param files
-     * @param key
-     * @param chapter
-     * @return List<DetailChapter>
+     * @param writes Các thao tác ghi DB
      */
-    private List<DetailChapter> handleIsFileUploaded(List<MultipartFile> files, String slugChapter, Chapter chapter) {
-        List<DetailChapter> detailChapters = new ArrayList<>();
-
-        String fileName = null;
-        String pathName = null;
-        int orderNumber = 1;
-
-        for (var file : files) {
-            fileName = file.getOriginalFilename();
-            pathName = slugChapter + "/" + fileName;
-
-            var response = b2StorageService.uploadFile(file, B2Constants.FOLDER_KEY_COMIC, pathName);
-
-            if (response.getStatus() != HttpStatus.OK.value()) {
-                throw new BaseException(ErrorCode.UPLOAD_FILE_FAILED);
-            }
+    private void publish(Runnable writes) {
+        transactionTemplate.executeWithoutResult(status -> writes.run());
+    }
 
-            var splitUrl = response.getMessage().split("/");
-            fileName = splitUrl[splitUrl.length - 1];
+    /**
+     * Tạo danh sách ảnh của chương từ các ảnh đã lưu
+     * 
+     * @param blobs            Ảnh đã lưu theo thứ tự trang
+     * @param firstOrderNumber Số thứ tự của ảnh đầu tiên
+     * @param chapter          Chương chứa ảnh
+     * @return List<DetailChapter>
+     */
+    private List<DetailChapter> toDetailChapters(List<StoredBlob> blobs, int firstOrderNumber, Chapter chapter) {
+        List<DetailChapter> detailChapters = new ArrayList<>(blobs.size());
+        int orderNumber = firstOrderNumber;
 
+        for (StoredBlob blob : blobs) {
             detailChapters.add(DetailChapter.builder()
-                    .imgUrl(fileName)
+                    .imgUrl(blob.url())
+                    .contentHash(blob.hash())
                     .orderNumber(orderNumber)
                     .chapter(chapter)
                     .build());
@@ -309,6 +363,11 @@ public class ChapterServiceImpl implements ChapterService {
             return null;
         }
 
+        // Ảnh lưu theo hash nội dung dùng URL đầy đủ, giữ nguyên
+        if (contentBlobService.hashFromUrl(fullUrl) != null) {
+            return fullUrl;
+        }
+
         // Kiểm tra nếu là CDN URL
         if (fullUrl.contains(B2Constants.URL_PREFIX)) {
             // Tìm vị trí cuối cùng của dấu "/"
@@ -336,7 +395,6 @@ public class ChapterServiceImpl implements ChapterService {
      * @return BaseResponse<?>
      */
     @Override
-    @Transactional
     public BaseResponse<?> updateChapter(String id, ChapterRequest chapterRequest, List<MultipartFile> files,
             User publisher) {
         if (publisher != null) {
@@ -360,12 +418,12 @@ public class ChapterServiceImpl implements ChapterService {
             validateChapterNumberForUpdate(chapterRequest, id);
         }
 
-        // Cập nhật thông tin cơ bản
-        existingChapter.setTitle(chapterRequest.getTitle());
-        existingChapter.setStatus(chapterRequest.getStatus());
-        existingChapter.setPrice(chapterRequest.getStatus() == ChapterStatus.FREE ? 0.0 : chapterRequest.getPrice());
+        // Chương có thể được chuyển sang comic khác: xoá cache trang chi tiết của cả 2
+        String oldComicSlug = existingChapter.getComic().getSlug();
 
-        String path = existingChapter.getChapterPath();
+        // Chưa sửa entity ở đây: các transaction nhỏ trong pha 1 sẽ flush thay đổi lên DB quá sớm
+        String oldPath = existingChapter.getChapterPath();
+        String path = oldPath;
         String domainCdn = existingChapter.getDomainCdn();
         List<DetailChapter> newDetailChapters = new ArrayList<>();
 
@@ -397,9 +455,6 @@ public class ChapterServiceImpl implements ChapterService {
             }
         }
 
-        // Cập nhật chapterNumber sau khi xử lý path
-        existingChapter.setChapterNumber(chapterRequest.getChapterNumber());
-
         // Xử lý detail chapters từ URL (ảnh cũ đã có)
         if (chapterRequest.getDetailChapters() != null && !chapterRequest.getDetailChapters().isEmpty()) {
             for (var item : chapterRequest.getDetailChapters()) {
@@ -410,6 +465,7 @@ public class ChapterServiceImpl implements ChapterService {
                     DetailChapter detailChapter = DetailChapter.builder()
                             .chapter(existingChapter)
                             .imgUrl(extractedFilename)
+                            .contentHash(contentBlobService.hashFromUrl(extractedFilename))
                             .orderNumber(item.getOrderNumber())
                             .build();
                     newDetailChapters.add(detailChapter);
@@ -417,47 +473,75 @@ public class ChapterServiceImpl implements ChapterService {
             }
         }
 
-        // Nếu có file upload mới, thêm vào cuối danh sách
-        if (chapterRequest.getIsFileUploaded() != null && chapterRequest.getIsFileUploaded()
-                && files != null && !files.isEmpty()) {
-
-            // Tạo hoặc cập nhật path cho chapter nếu chưa có
-            if (path == null) {
-                path = String.format(
-                        "%s/chapter-%s",
-                        comic.getSlug(),
-                        chapterRequest.getChapterNumber());
-                domainCdn = B2Constants.URL_PREFIX + bucketName + "/" + B2Constants.FOLDER_KEY_COMIC;
-            }
+        try {
+            // Nếu có file upload mới, thêm vào cuối danh sách
+            if (chapterRequest.getIsFileUploaded() != null && chapterRequest.getIsFileUploaded()
+                    && files != null && !files.isEmpty()) {
+
+                // Tạo hoặc cập nhật path cho chapter nếu chưa có
+                if (path == null) {
+                    path = String.format(
+                            "%s/chapter-%s",
+                            comic.getSlug(),
+                            chapterRequest.getChapterNumber());
+                    domainCdn = B2Constants.URL_PREFIX + bucketName + "/" + B2Constants.FOLDER_KEY_COMIC;
+                }
 
-            // Tìm orderNumber lớn nhất hiện tại để thêm ảnh mới vào cuối
-            int maxOrderNumber = newDetailChapters.stream()
-                    .mapToInt(DetailChapter::getOrderNumber)
-                    .max()
-                    .orElse(0);
+                // Tìm orderNumber lớn nhất hiện tại để thêm ảnh mới vào cuối
+                int maxOrderNumber = newDetailChapters.stream()
+                        .mapToInt(DetailChapter::getOrderNumber)
+                        .max()
+                        .orElse(0);
 
-            // Upload và thêm file mới vào cuối danh sách
-            List<DetailChapter> uploadedDetailChapters = handleIsFileUploaded(files, path, existingChapter);
+                // Pha 1: lưu ảnh mới theo hash nội dung, ngoài transaction
+                newDetailChapters.addAll(toDetailChapters(contentBlobService.storeAll(files), maxOrderNumber + 1,
+                        existingChapter));
+            }
 
-            // Cập nhật orderNumber cho các ảnh mới
-            for (DetailChapter uploadedDetail : uploadedDetailChapters) {
-                uploadedDetail.setOrderNumber(++maxOrderNumber);
-                newDetailChapters.add(uploadedDetail);
+            String finalPath = path;
+            String finalDomainCdn = domainCdn;
+            publish(() -> {
+                Chapter chapter = chapterRepository.findById(id)
+                        .orElseThrow(() -> new BaseException(ErrorCode.CHAPTER_NOT_FOUND));
+
+                // Cập nhật thông tin cơ bản
+                chapter.setTitle(chapterRequest.getTitle());
+                chapter.setStatus(chapterRequest.getStatus());
+                chapter.setPrice(chapterRequest.getStatus() == ChapterStatus.FREE ? 0.0 : chapterRequest.getPrice());
+                chapter.setChapterNumber(chapterRequest.getChapterNumber());
+
+                // Xóa tất cả detail chapters cũ và thêm mới (sử dụng collection hiện có)
+                newDetailChapters.forEach(detailChapter -> detailChapter.setChapter(chapter));
+                chapter.getDetailChapters().clear();
+                chapter.getDetailChapters().addAll(newDetailChapters);
+
+                // Cập nhật thông tin chapter
+                chapter.setChapterPath(finalPath);
+                chapter.setDomainCdn(finalDomainCdn);
+
+                // Lưu chapter đã cập nhật
+                chapterRepository.save(chapter);
+                detailChapterRepository.saveAll(newDetailChapters);
+            });
+        } catch (RuntimeException e) {
+            // Đổi tên folder về như cũ vì DB vẫn giữ path cũ
+            if (oldPath != null && !oldPath.equals(path)) {
+                try {
+                    String[] oldPathParts = oldPath.split("/");
+                    b2StorageService.rename(B2Constants.FOLDER_KEY_COMIC + "/" + path + "/",
+                            oldPathParts[oldPathParts.length - 1]);
+                } catch (Exception renameError) {
+                    log.error("Không thể đổi tên folder {} về {}: {}", path, oldPath, renameError.getMessage());
+                }
             }
+            throw e;
         }
 
-        // Xóa tất cả detail chapters cũ và thêm mới (sử dụng collection hiện có)
-        existingChapter.getDetailChapters().clear();
-        existingChapter.getDetailChapters().addAll(newDetailChapters);
+        comicDetailCache.evict(oldComicSlug);
+        comicDetailCache.evict(comic.getSlug());
+        eventPublisher.publishEvent(new HomeContentChangedEvent("chapter.update"));
 
-        // Cập nhật thông tin chapter
-        existingChapter.setChapterPath(path);
-        existingChapter.setDomainCdn(domainCdn);
-
-        // Lưu chapter đã cập nhật
-        chapterRepository.save(existingChapter);
-
-        return BaseResponse.success("Cập nhật chương " + existingChapter.getChapterNumber() + " thành công");
+        return BaseResponse.success("Cập nhật chương " + chapterRequest.getChapterNumber() + " thành công");
     }
 
     /**
@@ -467,7 +551,6 @@ public class ChapterServiceImpl implements ChapterService {
      * @return BaseResponse<?>
      */
     @Override
-    @Transactional
     public BaseResponse<?> deleteChapter(String id, User publisher) {
 
         ValidationUtils.checkNullId(id);
@@ -478,10 +561,10 @@ public class ChapterServiceImpl implements ChapterService {
             comicUtils.validateComicOwnershipByComicId(publisher, chapter.getComic().getId());
         }
 
-        String key = B2Constants.FOLDER_KEY_COMIC + "/" + chapter.getChapterPath() + "/";
-        b2StorageService.remove(key);
-
-        chapterRepository.delete(chapter);
+        // Xoá theo tập trong 1 transaction ngắn, thư mục ảnh được dọn nền sau khi commit
+        contentDeletionService.deleteChapter(chapter);
+        comicDetailCache.evict(chapter.getComic().getSlug());
+        eventPublisher.publishEvent(new HomeContentChangedEvent("chapter.delete"));
 
         return BaseResponse.success(ChapterResponse.builder()
                 .chapterNumber(chapter.getChapterNumber())
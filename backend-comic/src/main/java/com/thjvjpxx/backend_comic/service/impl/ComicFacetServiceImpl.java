@@ -0,0 +1,346 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.thjvjpxx.backend_comic.enums.ComicStatus;
+import com.thjvjpxx.backend_comic.model.Category;
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.repository.CategoryRepository;
+import com.thjvjpxx.backend_comic.repository.ComicRepository;
+import com.thjvjpxx.backend_comic.service.ComicFacetService;
+import com.thjvjpxx.backend_comic.specification.ComicSpecifications;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ComicFacetServiceImpl implements ComicFacetService {
+
+    // Bitmap rỗng dùng chung, chỉ được đọc
+    static final BitSet NO_COMICS = new BitSet();
+
+    ComicRepository comicRepository;
+    CategoryRepository categoryRepository;
+
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    ReentrantLock rebuildLock = new ReentrantLock();
+
+    // null cho tới khi dựng xong lần đầu, trong lúc đó truy vấn thẳng DB
+    @NonFinal
+    volatile Index index;
+
+    // Thay đổi xảy ra trong lúc đang dựng lại, được áp vào chỉ mục mới trước khi thay thế
+    @NonFinal
+    List<Consumer<Index>> pendingChanges;
+
+    @NonFinal
+    @Value("${app.facets.rebuild-batch-size:1000}")
+    int rebuildBatchSize;
+
+    @Override
+    public Page<Comic> browse(List<String> categoryIds, boolean matchAll, ComicStatus status, Pageable pageable) {
+        Index current = index;
+        if (current == null) {
+            return browseFromDatabase(categoryIds, matchAll, status, pageable);
+        }
+        int offset = (int) pageable.getOffset();
+        int pageSize = pageable.getPageSize();
+
+        List<String> comicIds = new ArrayList<>(pageSize);
+        int total;
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) current.alive.clone();
+            if (categoryIds != null && !categoryIds.isEmpty()) {
+                BitSet categories = null;
+                for (String categoryId : categoryIds) {
+                    BitSet bits = current.byCategory.getOrDefault(categoryId, NO_COMICS);
+                    if (categories == null) {
+                        categories = (BitSet) bits.clone();
+                    } else if (matchAll) {
+                        categories.and(bits);
+                    } else {
+                        categories.or(bits);
+                    }
+                }
+                result.and(categories);
+            }
+            if (status != null) {
+                result.and(current.byStatus.getOrDefault(status, NO_COMICS));
+            }
+
+            total = result.cardinality();
+            // Số thứ tự comic trong chỉ mục theo lượt xem giảm dần nên duyệt bit là đã sắp xếp
+            int skipped = 0;
+            for (int doc = result.nextSetBit(0); doc >= 0 && comicIds.size() < pageSize; doc = result
+                    .nextSetBit(doc + 1)) {
+                if (skipped++ >= offset) {
+                    comicIds.add(current.comicIds.get(doc));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Comic> comicsById = comicRepository.findAllById(comicIds).stream()
+                .collect(Collectors.toMap(Comic::getId, Function.identity()));
+        List<Comic> comics = comicIds.stream()
+                .map(comicsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(comics, pageable, total);
+    }
+
+    @Override
+    public List<String> resolveCategorySlugs(List<String> slugs) {
+        if (slugs == null || slugs.isEmpty()) {
+            return List.of();
+        }
+        Index current = index;
+        List<String> categoryIds = new ArrayList<>(slugs.size());
+        for (String slug : slugs) {
+            String categoryId = current != null ? current.categoryIdsBySlug.get(slug) : null;
+            if (categoryId == null) {
+                // Chỉ mục chưa dựng xong hoặc category mới tạo sau lượt dựng gần nhất
+                categoryId = categoryRepository.findBySlug(slug).map(Category::getId).orElse(slug);
+            }
+            categoryIds.add(categoryId);
+        }
+        return categoryIds;
+    }
+
+    @Override
+    public void index(Comic comic) {
+        if (comic == null || comic.getId() == null) {
+            return;
+        }
+        String comicId = comic.getId();
+        ComicStatus status = comic.getStatus();
+        List<String> categoryIds = comic.getCategories() == null
+                ? List.of()
+                : comic.getCategories().stream().map(Category::getId).toList();
+        apply(target -> target.put(comicId, status, categoryIds));
+    }
+
+    @Override
+    public void remove(String comicId) {
+        if (comicId == null) {
+            return;
+        }
+        apply(target -> target.remove(comicId));
+    }
+
+    @Override
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index rebuilt;
+            try {
+                rebuilt = load();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                pendingChanges = null;
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Đã dựng chỉ mục bitmap: {} comic, {} category trong {} ms", rebuilt.comicIds.size(),
+                    rebuilt.byCategory.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Dựng chỉ mục lần đầu ở nền sau khi ứng dụng khởi động xong, không chặn request
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Async("asyncExecutor")
+    public void onApplicationReady() {
+        scheduledRebuild();
+    }
+
+    /**
+     * Dựng lại định kỳ để thứ tự theo lượt xem không bị cũ
+     */
+    @Scheduled(initialDelayString = "${app.facets.rebuild-interval:600000}", fixedDelayString = "${app.facets.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Giữ chỉ mục cũ, lượt sau sẽ thử lại
+            log.error("Lỗi khi dựng chỉ mục bitmap: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lọc bằng truy vấn DB khi chỉ mục chưa dựng xong lần đầu (cùng thứ tự theo lượt xem)
+     */
+    private Page<Comic> browseFromDatabase(List<String> categoryIds, boolean matchAll, ComicStatus status,
+            Pageable pageable) {
+        Specification<Comic> spec = Specification.where(ComicSpecifications.hasStatus(status));
+        if (categoryIds != null && !categoryIds.isEmpty()) {
+            if (matchAll) {
+                for (String categoryId : categoryIds) {
+                    spec = spec.and(ComicSpecifications.inCategory(categoryId));
+                }
+            } else {
+                spec = spec.and(ComicSpecifications.inAnyCategory(categoryIds));
+            }
+        }
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(Sort.Direction.DESC, "viewsCount").and(Sort.by("id")));
+        return comicRepository.findAll(spec, sorted);
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Đọc comic, liên kết category từ DB; comic được đánh số theo lượt xem giảm dần
+     */
+    private Index load() {
+        List<FacetRow> rows = new ArrayList<>();
+        String afterId = "";
+        List<Object[]> batch;
+        do {
+            batch = comicRepository.findFacetDocuments(afterId, rebuildBatchSize);
+            for (Object[] row : batch) {
+                rows.add(new FacetRow((String) row[0], row[1] != null ? ComicStatus.valueOf((String) row[1]) : null,
+                        row[2] != null ? ((Number) row[2]).longValue() : 0));
+            }
+            if (!batch.isEmpty()) {
+                afterId = (String) batch.get(batch.size() - 1)[0];
+            }
+        } while (batch.size() >= rebuildBatchSize);
+        rows.sort(Comparator.comparingLong(FacetRow::viewsCount).reversed().thenComparing(FacetRow::id));
+
+        Map<String, List<String>> categoriesByComic = new HashMap<>();
+        for (Object[] link : comicRepository.findAllCategoryLinks()) {
+            categoriesByComic.computeIfAbsent((String) link[0], key -> new ArrayList<>()).add((String) link[1]);
+        }
+
+        Map<String, String> categoryIdsBySlug = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoryIdsBySlug.put(category.getSlug(), category.getId());
+        }
+
+        Index loaded = new Index(categoryIdsBySlug);
+        for (FacetRow row : rows) {
+            loaded.put(row.id(), row.status(), categoriesByComic.getOrDefault(row.id(), List.of()));
+        }
+        return loaded;
+    }
+
+    private record FacetRow(String id, ComicStatus status, long viewsCount) {
+    }
+
+    /**
+     * Số thứ tự comic -> id, và các bitmap theo số thứ tự. Comic thêm sau lượt dựng được đánh số
+     * cuối (lượt xem bằng 0 nên vẫn đúng thứ tự), comic bị xoá chỉ bị tắt bit tới lượt dựng sau.
+     * Không thread-safe, mọi truy cập đi qua lock của service.
+     */
+    private static final class Index {
+        final List<String> comicIds = new ArrayList<>();
+        final Map<String, Integer> docs = new HashMap<>();
+        final BitSet alive = new BitSet();
+        final Map<String, BitSet> byCategory = new HashMap<>();
+        final Map<ComicStatus, BitSet> byStatus = new EnumMap<>(ComicStatus.class);
+        final Map<String, String> categoryIdsBySlug;
+
+        Index(Map<String, String> categoryIdsBySlug) {
+            this.categoryIdsBySlug = categoryIdsBySlug;
+        }
+
+        void put(String comicId, ComicStatus status, Collection<String> categoryIds) {
+            int doc = docs.computeIfAbsent(comicId, key -> {
+                comicIds.add(key);
+                return comicIds.size() - 1;
+            });
+            clear(doc);
+            alive.set(doc);
+            if (status != null) {
+                byStatus.computeIfAbsent(status, key -> new BitSet()).set(doc);
+            }
+            for (String categoryId : categoryIds) {
+                byCategory.computeIfAbsent(categoryId, key -> new BitSet()).set(doc);
+            }
+        }
+
+        void remove(String comicId) {
+            Integer doc = docs.get(comicId);
+            if (doc != null) {
+                clear(doc);
+            }
+        }
+
+        private void clear(int doc) {
+            alive.clear(doc);
+            byStatus.values().forEach(bits -> bits.clear(doc));
+            byCategory.values().forEach(bits -> bits.clear(doc));
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.repository.ComicRepository;
+import com.thjvjpxx.backend_comic.service.ComicSearchService;
+import com.thjvjpxx.backend_comic.utils.StringUtils;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ComicSearchServiceImpl implements ComicSearchService {
+
+    // Tham số BM25
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    // Trọng số theo trường: khớp tên quan trọng hơn khớp mô tả
+    static final float NAME_WEIGHT = 3f;
+    static final float ORIGIN_NAME_WEIGHT = 2f;
+    static final float AUTHOR_WEIGHT = 1.5f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Từ cuối của câu truy vấn được khớp theo tiền tố (người dùng có thể chưa gõ xong)
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_PREFIX_EXPANSIONS = 50;
+    static final double PREFIX_BOOST = 0.5;
+
+    ComicRepository comicRepository;
+
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    ReentrantLock rebuildLock = new ReentrantLock();
+
+    @NonFinal
+    Index index = new Index();
+
+    // Thay đổi xảy ra trong lúc đang dựng lại, được áp vào chỉ mục mới trước khi thay thế
+    @NonFinal
+    List<Consumer<Index>> pendingChanges;
+
+    @NonFinal
+    volatile boolean ready;
+
+    @NonFinal
+    @Value("${app.search.rebuild-batch-size:1000}")
+    int rebuildBatchSize;
+
+    @Override
+    public Page<Comic> searchComics(String query, Pageable pageable) {
+        if (!ready) {
+            return comicRepository.findBySlugContainingOrNameContaining(query, query, pageable);
+        }
+
+        SearchResult result = search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        Map<String, Comic> comicsById = comicRepository.findAllById(result.comicIds()).stream()
+                .collect(Collectors.toMap(Comic::getId, Function.identity()));
+        List<Comic> comics = result.comicIds().stream()
+                .map(comicsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(comics, pageable, result.total());
+    }
+
+    @Override
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(StringUtils.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        Map<String, Match> matches = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = index.documents.size();
+            if (documentCount == 0) {
+                return new SearchResult(List.of(), 0);
+            }
+            double avgLength = index.totalLength / documentCount;
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean prefix = i == terms.size() - 1 && term.length() >= MIN_PREFIX_LENGTH;
+                scoreTerm(term, prefix, documentCount, avgLength)
+                        .forEach((id, score) -> matches.computeIfAbsent(id, Match::new).add(score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Chỉ giữ offset + limit kết quả tốt nhất thay vì sắp xếp toàn bộ
+        int keep = Math.max(0, offset) + limit;
+        PriorityQueue<Match> top = new PriorityQueue<>(Match.ORDER);
+        for (Match match : matches.values()) {
+            top.offer(match);
+            if (top.size() > keep) {
+                top.poll();
+            }
+        }
+        List<Match> ranked = new ArrayList<>(top);
+        ranked.sort(Match.ORDER.reversed());
+
+        List<String> comicIds = ranked.subList(Math.min(Math.max(0, offset), ranked.size()), ranked.size())
+                .stream()
+                .map(match -> match.comicId)
+                .toList();
+        return new SearchResult(comicIds, matches.size());
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void index(Comic comic) {
+        if (comic == null || comic.getId() == null) {
+            return;
+        }
+        String comicId = comic.getId();
+        Document document = analyze(comic.getName(), comic.getOriginName(), comic.getAuthor(),
+                comic.getDescription());
+        apply(target -> target.put(comicId, document));
+    }
+
+    @Override
+    public void remove(String comicId) {
+        if (comicId == null) {
+            return;
+        }
+        apply(target -> target.remove(comicId));
+    }
+
+    @Override
+    public void rebuild() {
+        // Lượt dựng lại đang chạy đã bao gồm dữ liệu mới nhất
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index rebuilt = new Index();
+            try {
+                String afterId = "";
+                List<Object[]> rows;
+                do {
+                    rows = comicRepository.findSearchDocuments(afterId, rebuildBatchSize);
+                    for (Object[] row : rows) {
+                        rebuilt.put((String) row[0],
+                                analyze((String) row[1], (String) row[2], (String) row[3], (String) row[4]));
+                    }
+                    if (!rows.isEmpty()) {
+                        afterId = (String) rows.get(rows.size() - 1)[0];
+                    }
+                } while (rows.size() >= rebuildBatchSize);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                pendingChanges = null;
+                index = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Đã dựng chỉ mục tìm kiếm: {} comic, {} từ trong {} ms", rebuilt.documents.size(),
+                    rebuilt.postings.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Dựng chỉ mục lần đầu sau khi ứng dụng khởi động xong, trong lúc dựng search dùng truy vấn LIKE
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Async("asyncExecutor")
+    public void onApplicationReady() {
+        scheduledRebuild();
+    }
+
+    /**
+     * Dựng lại định kỳ để đồng bộ các thay đổi không đi qua service (sửa trực tiếp DB, instance khác...)
+     */
+    @Scheduled(initialDelayString = "${app.search.rebuild-interval:3600000}", fixedDelayString = "${app.search.rebuild-interval:3600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Giữ chỉ mục cũ, lượt sau sẽ thử lại
+            log.error("Lỗi khi dựng chỉ mục tìm kiếm: {}", e.getMessage(), e);
+        }
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Điểm BM25 của 1 từ truy vấn cho từng comic. Với khớp tiền tố, mỗi comic lấy điểm
+     * của từ mở rộng tốt nhất để 1 từ truy vấn không được cộng nhiều lần.
+     */
+    private Map<String, Double> scoreTerm(String term, boolean prefix, int documentCount, double avgLength) {
+        NavigableMap<String, Map<String, Float>> candidates = prefix
+                ? index.postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : index.postings.subMap(term, true, term, true);
+
+        Map<String, Double> scores = new HashMap<>();
+        int expanded = 0;
+        for (Map.Entry<String, Map<String, Float>> entry : candidates.entrySet()) {
+            if (expanded++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            double boost = entry.getKey().equals(term) ? 1 : PREFIX_BOOST;
+            Map<String, Float> posting = entry.getValue();
+            double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+
+            for (Map.Entry<String, Float> hit : posting.entrySet()) {
+                double tf = hit.getValue();
+                double length = index.documents.get(hit.getKey()).length();
+                double score = boost * idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+                scores.merge(hit.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static Document analyze(String name, String originName, String author, String description) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        float length = addField(termFrequencies, name, NAME_WEIGHT)
+                + addField(termFrequencies, originName, ORIGIN_NAME_WEIGHT)
+                + addField(termFrequencies, author, AUTHOR_WEIGHT)
+                + addField(termFrequencies, description, DESCRIPTION_WEIGHT);
+        return new Document(termFrequencies, length);
+    }
+
+    private static float addField(Map<String, Float> termFrequencies, String text, float weight) {
+        List<String> tokens = StringUtils.tokenize(text);
+        for (String token : tokens) {
+            termFrequencies.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * Tần suất từ (đã nhân trọng số trường) và độ dài có trọng số của 1 comic
+     */
+    private record Document(Map<String, Float> termFrequencies, float length) {
+    }
+
+    /**
+     * Chỉ mục đảo ngược: từ -> (id comic -> tần suất). Từ điển được sắp xếp để khớp tiền tố.
+     * Không thread-safe, mọi truy cập đi qua lock của service.
+     */
+    private static final class Index {
+        final TreeMap<String, Map<String, Float>> postings = new TreeMap<>();
+        final Map<String, Document> documents = new HashMap<>();
+        double totalLength;
+
+        void put(String comicId, Document document) {
+            remove(comicId);
+            documents.put(comicId, document);
+            totalLength += document.length();
+            document.termFrequencies().forEach((term, frequency) -> postings
+                    .computeIfAbsent(term, key -> new HashMap<>())
+                    .put(comicId, frequency));
+        }
+
+        void remove(String comicId) {
+            Document document = documents.remove(comicId);
+            if (document == null) {
+                return;
+            }
+            totalLength -= document.length();
+            for (String term : document.termFrequencies().keySet()) {
+                Map<String, Float> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(comicId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Điểm cộng dồn của 1 comic. Comic khớp nhiều từ truy vấn hơn luôn đứng trước.
+     */
+    private static final class Match {
+        static final Comparator<Match> ORDER = Comparator.<Match>comparingInt(match -> match.matchedTerms)
+                .thenComparingDouble(match -> match.score)
+                .thenComparing(match -> match.comicId, Comparator.reverseOrder());
+
+        final String comicId;
+        int matchedTerms;
+        double score;
+
+        Match(String comicId) {
+            this.comicId = comicId;
+        }
+
+        void add(double termScore) {
+            matchedTerms++;
+            score += termScore;
+        }
+    }
+}
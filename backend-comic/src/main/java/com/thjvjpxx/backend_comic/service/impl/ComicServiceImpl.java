@@ -3,9 +3,12 @@ package com.thjvjpxx.backend_comic.service.impl;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -13,12 +16,21 @@ import com.thjvjpxx.backend_comic.dto.request.ComicRequest;
 import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
 import com.thjvjpxx.backend_comic.dto.response.ComicResponse;
 import com.thjvjpxx.backend_comic.enums.ComicStatus;
+import com.thjvjpxx.backend_comic.event.HomeContentChangedEvent;
 import com.thjvjpxx.backend_comic.model.Category;
 import com.thjvjpxx.backend_comic.model.Comic;
 import com.thjvjpxx.backend_comic.model.User;
 import com.thjvjpxx.backend_comic.repository.ComicRepository;
+import com.thjvjpxx.backend_comic.service.ComicFacetService;
+import com.thjvjpxx.backend_comic.service.ComicSearchService;
 import com.thjvjpxx.backend_comic.service.ComicService;
+import com.thjvjpxx.backend_comic.service.ComicSuggestService;
+import com.thjvjpxx.backend_comic.service.ContentDeletionService;
+import com.thjvjpxx.backend_comic.specification.ComicSpecifications;
+import com.thjvjpxx.backend_comic.utils.ApproximateCountCache;
+import com.thjvjpxx.backend_comic.utils.ComicDetailCache;
 import com.thjvjpxx.backend_comic.utils.ComicUtils;
+import com.thjvjpxx.backend_comic.utils.CursorUtils;
 import com.thjvjpxx.backend_comic.utils.PaginationUtils;
 import com.thjvjpxx.backend_comic.utils.StorageUtils;
 import com.thjvjpxx.backend_comic.utils.ValidationUtils;
@@ -36,14 +48,26 @@ public class ComicServiceImpl implements ComicService {
     // Utility classes
     ComicUtils comicUtils;
     StorageUtils storageUtils;
+    ApplicationEventPublisher eventPublisher;
+    ApproximateCountCache approximateCountCache;
+    ContentDeletionService contentDeletionService;
+    ComicSearchService comicSearchService;
+    ComicSuggestService comicSuggestService;
+    ComicFacetService comicFacetService;
+    ComicDetailCache comicDetailCache;
 
     @Override
-    public BaseResponse<?> getAllComics(int page, int limit, String search, String status, String category) {
+    public BaseResponse<?> getAllComics(int page, int limit, String search, String status, String category,
+            String cursor) {
+        if (cursor != null) {
+            return getComicsByCursor(limit, search, status, category, cursor);
+        }
         Pageable pageable = PaginationUtils.createPageableWithSort(page, limit, "updatedAt", Sort.Direction.DESC);
         int originalPage = page;
         Page<Comic> comics = null;
         if (search != null && !search.isEmpty()) {
-            comics = comicRepository.findBySlugContainingOrNameContaining(search, search, pageable);
+            // Xếp theo độ liên quan thay vì updatedAt
+            comics = comicSearchService.searchComics(search, pageable);
         } else if (status != null && !status.isEmpty()) {
             ComicStatus comicStatus = ComicStatus.valueOf(status.toUpperCase());
             comics = comicRepository.findByStatus(comicStatus, pageable);
@@ -65,6 +89,34 @@ public class ComicServiceImpl implements ComicService {
                 comics.getTotalPages());
     }
 
+    /**
+     * Phân trang keyset theo (updatedAt, id), không chạy COUNT ở mỗi trang
+     */
+    private BaseResponse<?> getComicsByCursor(int limit, String search, String status, String category,
+            String cursor) {
+        limit = limit < 1 ? 5 : limit;
+        ComicStatus comicStatus = status != null && !status.isEmpty()
+                ? ComicStatus.valueOf(status.toUpperCase())
+                : null;
+        Specification<Comic> spec = Specification.where(ComicSpecifications.slugOrNameContains(search))
+                .and(ComicSpecifications.hasStatus(comicStatus))
+                .and(ComicSpecifications.inCategory(category));
+
+        Window<Comic> comics = CursorUtils.scroll(comicRepository, spec, "updatedAt", cursor, limit);
+        List<ComicResponse> comicResponses = comics.getContent().stream()
+                .map(comicUtils::convertComicToComicResponse)
+                .collect(Collectors.toList());
+        Integer total = approximateCountCache.get(
+                ApproximateCountCache.key("comics", search, comicStatus, category),
+                () -> comicRepository.count(spec));
+
+        return BaseResponse.successWithCursor(
+                comicResponses,
+                limit,
+                CursorUtils.nextCursor(comics, "updatedAt"),
+                total);
+    }
+
     @Override
     public BaseResponse<Comic> createComic(ComicRequest comicRequest, MultipartFile cover, User publisher) {
         // Validate slug uniqueness
@@ -89,6 +141,10 @@ public class ComicServiceImpl implements ComicService {
                 .build();
 
         comicRepository.save(comic);
+        comicSearchService.index(comic);
+        comicSuggestService.index(comic);
+        comicFacetService.index(comic);
+        eventPublisher.publishEvent(new HomeContentChangedEvent("comic.create"));
         return BaseResponse.success(comic);
     }
 
@@ -101,6 +157,8 @@ public class ComicServiceImpl implements ComicService {
         ValidationUtils.checkNullId(id);
 
         Comic comic = comicUtils.findComicById(id);
+        // Đổi slug thì cache trang chi tiết vẫn còn dưới slug cũ
+        String oldSlug = comic.getSlug();
 
         // Validate slug nếu có thay đổi
         if (comicRequest.getIsSlugChanged()) {
@@ -119,6 +177,12 @@ public class ComicServiceImpl implements ComicService {
         updateComicFields(comic, comicRequest, newThumbUrl);
 
         comicRepository.save(comic);
+        comicSearchService.index(comic);
+        comicSuggestService.index(comic);
+        comicFacetService.index(comic);
+        comicDetailCache.evict(oldSlug);
+        comicDetailCache.evict(comic.getSlug());
+        eventPublisher.publishEvent(new HomeContentChangedEvent("comic.update"));
         return BaseResponse.success(comic);
     }
 
@@ -132,13 +196,14 @@ public class ComicServiceImpl implements ComicService {
 
         Comic comic = comicUtils.findComicById(id);
 
-        // Xóa tất cả categories
-        comicUtils.removeAllCategories(comic);
-
-        // Xóa thumbnail từ storage
-        storageUtils.removeOldThumbnail(comic.getThumbUrl());
-
-        comicRepository.delete(comic);
+        // Xoá theo tập (bảng con trước) trong 1 transaction ngắn thay vì nạp và xoá từng entity con,
+        // thumbnail và thư mục ảnh chương được dọn nền sau khi commit
+        contentDeletionService.deleteComic(comic);
+        comicSearchService.remove(comic.getId());
+        comicSuggestService.remove(comic.getId());
+        comicFacetService.remove(comic.getId());
+        comicDetailCache.evict(comic.getSlug());
+        eventPublisher.publishEvent(new HomeContentChangedEvent("comic.delete"));
 
         return BaseResponse.success(comic);
     }
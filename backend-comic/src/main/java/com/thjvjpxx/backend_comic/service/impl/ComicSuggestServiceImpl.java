@@ -0,0 +1,473 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.thjvjpxx.backend_comic.dto.response.HomeResponse.PopulerToday;
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.repository.ComicRepository;
+import com.thjvjpxx.backend_comic.service.ComicSuggestService;
+import com.thjvjpxx.backend_comic.utils.StringUtils;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ComicSuggestServiceImpl implements ComicSuggestService {
+
+    // Tiền tố ngắn khớp quá nhiều khoá nên kết quả được tính sẵn khi dựng
+    static final int SHORT_PREFIX_LENGTH = 2;
+
+    static final Comparator<Entry> BY_VIEWS = Comparator.<Entry>comparingLong(entry -> entry.viewsCount())
+            .thenComparing(entry -> entry.id(), Comparator.reverseOrder());
+
+    ComicRepository comicRepository;
+
+    // Dữ liệu gốc, chỉ đọc/ghi trong synchronized (lock)
+    Map<String, Entry> entries = new HashMap<>();
+    Object lock = new Object();
+
+    // Comic đã đổi -> số thứ tự của lần đổi cuối, giữ tới khi có trong snapshot. Ghi trong lock
+    Map<String, Long> dirty = new HashMap<>();
+
+    // Số thứ tự của thay đổi mới nhất, tăng ở mỗi lần index/remove. Ghi trong lock
+    @NonFinal
+    long version;
+
+    // Bản dựng sẵn chỉ đọc, request gợi ý không cần khoá. Chỉ được gán trong lock
+    @NonFinal
+    volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // Comic đổi trong lúc nạp lại từ DB, được áp lại sau khi nạp xong (null khi không nạp)
+    @NonFinal
+    Set<String> changedDuringReload;
+
+    @NonFinal
+    @Value("${app.suggest.max-limit:10}")
+    int maxLimit;
+
+    @NonFinal
+    @Value("${app.suggest.reload-batch-size:1000}")
+    int reloadBatchSize;
+
+    @Override
+    public List<PopulerToday> suggest(String query, int limit) {
+        String prefix = StringUtils.generateSlug(query);
+        if (prefix == null || prefix.isEmpty()) {
+            return List.of();
+        }
+        limit = Math.max(1, Math.min(limit, maxLimit));
+        Snapshot current = snapshot;
+
+        if (prefix.length() <= SHORT_PREFIX_LENGTH) {
+            Entry[] top = current.shortPrefixTop.getOrDefault(prefix, Snapshot.NO_ENTRIES);
+            List<PopulerToday> result = new ArrayList<>(Math.min(limit, top.length));
+            for (int i = 0; i < top.length && i < limit; i++) {
+                result.add(top[i].comic());
+            }
+            return result;
+        }
+
+        Entry[] ranked = rank(current.keys, current.owners, prefix, limit);
+        List<PopulerToday> result = new ArrayList<>(ranked.length);
+        for (Entry entry : ranked) {
+            result.add(entry.comic());
+        }
+        return result;
+    }
+
+    @Override
+    public void index(Comic comic) {
+        if (comic == null || comic.getId() == null) {
+            return;
+        }
+        Entry entry = toEntry(comic.getId(), comic.getName(), comic.getSlug(), comic.getAuthor(),
+                comic.getThumbUrl(), comic.getViewsCount());
+        apply(entry.id(), entry);
+    }
+
+    @Override
+    public void remove(String comicId) {
+        if (comicId == null) {
+            return;
+        }
+        apply(comicId, null);
+    }
+
+    @Override
+    public void reload() {
+        synchronized (lock) {
+            if (changedDuringReload != null) {
+                // Đang có lượt nạp khác
+                return;
+            }
+            changedDuringReload = new HashSet<>();
+        }
+
+        Map<String, Entry> loaded = new HashMap<>();
+        try {
+            String afterId = "";
+            List<Object[]> rows;
+            do {
+                rows = comicRepository.findSuggestDocuments(afterId, reloadBatchSize);
+                for (Object[] row : rows) {
+                    Entry entry = toEntry((String) row[0], (String) row[1], (String) row[2], (String) row[3],
+                            (String) row[4], row[5] != null ? ((Number) row[5]).longValue() : 0);
+                    loaded.put(entry.id(), entry);
+                }
+                if (!rows.isEmpty()) {
+                    afterId = (String) rows.get(rows.size() - 1)[0];
+                }
+            } while (rows.size() >= reloadBatchSize);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changedDuringReload = null;
+            }
+            throw e;
+        }
+
+        Collection<Entry> values;
+        long loadedVersion;
+        synchronized (lock) {
+            for (String comicId : changedDuringReload) {
+                Entry entry = entries.get(comicId);
+                if (entry != null) {
+                    loaded.put(comicId, entry);
+                } else {
+                    loaded.remove(comicId);
+                }
+            }
+            // Chưa gán null: tới khi công bố, thay đổi sau loadedVersion phải còn trong dirty
+            changedDuringReload.clear();
+            entries.clear();
+            entries.putAll(loaded);
+            values = new ArrayList<>(entries.values());
+            loadedVersion = version;
+        }
+
+        // Dựng ngoài khoá, rồi áp các thay đổi xảy ra trong lúc dựng trước khi thay bản đang dùng.
+        // Bản nạp lại luôn được công bố vì có lượt xem mới nhất từ DB.
+        Snapshot next = Snapshot.build(values, loadedVersion, maxLimit);
+        while (true) {
+            Map<String, Entry> changed;
+            long changedVersion;
+            synchronized (lock) {
+                changed = changesSince(next.version);
+                if (changed.isEmpty()) {
+                    snapshot = next;
+                    changedDuringReload = null;
+                    pruneDirty();
+                    break;
+                }
+                changedVersion = version;
+            }
+            next = next.apply(changed, changedVersion, maxLimit);
+        }
+        log.info("Đã nạp {} comic cho gợi ý tìm kiếm", values.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Async("asyncExecutor")
+    public void onApplicationReady() {
+        scheduledReload();
+    }
+
+    /**
+     * Nạp lại định kỳ vì lượt xem chỉ được cộng dồn trực tiếp trong DB
+     */
+    @Scheduled(initialDelayString = "${app.suggest.reload-interval:600000}", fixedDelayString = "${app.suggest.reload-interval:600000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Giữ bản cũ, lượt sau sẽ thử lại
+            log.error("Lỗi khi nạp dữ liệu gợi ý tìm kiếm: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gom các thay đổi trong một khoảng ngắn rồi áp 1 lần lên bản chỉ đọc (không truy vấn DB).
+     * Chỉ trộn khoá của các comic đã đổi và tính lại top của các tiền tố ngắn bị ảnh hưởng.
+     */
+    @Scheduled(fixedDelayString = "${app.suggest.debounce:1000}")
+    public void rebuildIfStale() {
+        Snapshot base;
+        Map<String, Entry> changed;
+        long changedVersion;
+        synchronized (lock) {
+            base = snapshot;
+            changed = changesSince(base.version);
+            if (changed.isEmpty()) {
+                return;
+            }
+            changedVersion = version;
+        }
+        Snapshot next = base.apply(changed, changedVersion, maxLimit);
+        synchronized (lock) {
+            // Lượt nạp lại đã thay bản khác trong lúc dựng: bỏ kết quả, lượt sau áp lên bản mới
+            if (snapshot == base) {
+                snapshot = next;
+                pruneDirty();
+            }
+        }
+    }
+
+    private void apply(String comicId, Entry entry) {
+        synchronized (lock) {
+            if (entry != null) {
+                entries.put(comicId, entry);
+            } else {
+                entries.remove(comicId);
+            }
+            dirty.put(comicId, ++version);
+            if (changedDuringReload != null) {
+                changedDuringReload.add(comicId);
+            }
+        }
+    }
+
+    /**
+     * Các comic đổi sau thay đổi thứ since, giá trị null là comic đã bị xoá. Gọi trong lock
+     */
+    private Map<String, Entry> changesSince(long since) {
+        Map<String, Entry> changed = new HashMap<>();
+        dirty.forEach((comicId, changedAt) -> {
+            if (changedAt > since) {
+                changed.put(comicId, entries.get(comicId));
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * Bỏ các thay đổi đã có trong snapshot. Gọi trong lock; trong lúc nạp lại thì giữ nguyên
+     * để lượt nạp còn áp được các thay đổi sau khi nó đọc xong dữ liệu
+     */
+    private void pruneDirty() {
+        if (changedDuringReload == null) {
+            long published = snapshot.version;
+            dirty.values().removeIf(changedAt -> changedAt <= published);
+        }
+    }
+
+    /**
+     * Khoá của 1 comic: tên, slug, tác giả đã bỏ dấu và mọi hậu tố bắt đầu từ 1 từ,
+     * để gõ "khung" vẫn ra "Đấu Phá Thương Khung"
+     */
+    private static Entry toEntry(String id, String name, String slug, String author, String thumbUrl,
+            long viewsCount) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWordSuffixes(keys, StringUtils.generateSlug(name));
+        addWordSuffixes(keys, StringUtils.generateSlug(author));
+        if (slug != null && !slug.isEmpty()) {
+            keys.add(slug);
+        }
+
+        PopulerToday comic = PopulerToday.builder()
+                .id(id)
+                .name(name)
+                .slug(slug)
+                .thumbUrl(thumbUrl)
+                .viewCount(viewsCount)
+                .build();
+        return new Entry(id, viewsCount, keys.toArray(String[]::new), comic);
+    }
+
+    private static void addWordSuffixes(Set<String> keys, String folded) {
+        if (folded == null || folded.isEmpty()) {
+            return;
+        }
+        keys.add(folded);
+        for (int i = folded.indexOf('-'); i != -1; i = folded.indexOf('-', i + 1)) {
+            keys.add(folded.substring(i + 1));
+        }
+    }
+
+    private static void offer(PriorityQueue<Entry> top, Entry entry, int limit) {
+        if (top.size() < limit) {
+            top.offer(entry);
+        } else if (BY_VIEWS.compare(entry, top.peek()) > 0) {
+            top.poll();
+            top.offer(entry);
+        }
+    }
+
+    /**
+     * Top comic có khoá bắt đầu bằng prefix, xếp theo lượt xem giảm dần.
+     * Các khoá cùng tiền tố nằm liền nhau trong mảng đã sắp xếp.
+     */
+    private static Entry[] rank(String[] keys, Entry[] owners, String prefix, int limit) {
+        PriorityQueue<Entry> top = new PriorityQueue<>(BY_VIEWS);
+        Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = lowerBound(keys, prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            if (seen.add(owners[i])) {
+                offer(top, owners[i], limit);
+            }
+        }
+        Entry[] ranked = top.toArray(Entry[]::new);
+        Arrays.sort(ranked, BY_VIEWS.reversed());
+        return ranked;
+    }
+
+    /**
+     * Vị trí đầu tiên có khoá >= key (binarySearch có thể trả về bất kỳ khoá trùng nào)
+     */
+    private static int lowerBound(String[] keys, String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void addShortPrefixes(Set<String> prefixes, String key) {
+        for (int length = 1; length <= SHORT_PREFIX_LENGTH && length <= key.length(); length++) {
+            prefixes.add(key.substring(0, length));
+        }
+    }
+
+    /**
+     * 1 comic trong danh sách gợi ý, comic là response dựng sẵn (không được sửa sau khi tạo)
+     */
+    private record Entry(String id, long viewsCount, String[] keys, PopulerToday comic) {
+    }
+
+    /**
+     * Mảng khoá đã sắp xếp cùng comic sở hữu từng khoá, và kết quả tính sẵn cho tiền tố ngắn.
+     * version: mọi thay đổi có số thứ tự tới version đều đã có trong bản này.
+     */
+    private static final class Snapshot {
+        static final Entry[] NO_ENTRIES = new Entry[0];
+        static final Snapshot EMPTY = new Snapshot(0, new String[0], NO_ENTRIES, Map.of());
+
+        final long version;
+        final String[] keys;
+        final Entry[] owners;
+        final Map<String, Entry[]> shortPrefixTop;
+
+        Snapshot(long version, String[] keys, Entry[] owners, Map<String, Entry[]> shortPrefixTop) {
+            this.version = version;
+            this.keys = keys;
+            this.owners = owners;
+            this.shortPrefixTop = shortPrefixTop;
+        }
+
+        static Snapshot build(Collection<Entry> entries, long version, int topSize) {
+            List<Map.Entry<String, Entry>> pairs = new ArrayList<>();
+            Map<String, PriorityQueue<Entry>> shortPrefixes = new HashMap<>();
+            for (Entry entry : entries) {
+                Set<String> prefixes = new LinkedHashSet<>();
+                for (String key : entry.keys()) {
+                    pairs.add(Map.entry(key, entry));
+                    addShortPrefixes(prefixes, key);
+                }
+                for (String prefix : prefixes) {
+                    offer(shortPrefixes.computeIfAbsent(prefix, key -> new PriorityQueue<>(BY_VIEWS)), entry,
+                            topSize);
+                }
+            }
+            pairs.sort(Map.Entry.comparingByKey());
+
+            String[] keys = new String[pairs.size()];
+            Entry[] owners = new Entry[pairs.size()];
+            for (int i = 0; i < pairs.size(); i++) {
+                keys[i] = pairs.get(i).getKey();
+                owners[i] = pairs.get(i).getValue();
+            }
+
+            Map<String, Entry[]> shortPrefixTop = new HashMap<>(shortPrefixes.size() * 2);
+            shortPrefixes.forEach((prefix, top) -> {
+                Entry[] ranked = top.toArray(Entry[]::new);
+                Arrays.sort(ranked, BY_VIEWS.reversed());
+                shortPrefixTop.put(prefix, ranked);
+            });
+            return new Snapshot(version, keys, owners, shortPrefixTop);
+        }
+
+        /**
+         * Bản mới sau khi áp thay đổi của 1 số comic: bỏ khoá cũ, trộn khoá mới (đã sắp xếp) vào mảng
+         * trong 1 lượt và chỉ tính lại top của các tiền tố ngắn có comic thay đổi
+         *
+         * @param changed Comic đã đổi, giá trị null là comic đã bị xoá
+         */
+        Snapshot apply(Map<String, Entry> changed, long version, int topSize) {
+            Set<String> affectedPrefixes = new HashSet<>();
+            List<Map.Entry<String, Entry>> added = new ArrayList<>();
+            for (Entry entry : changed.values()) {
+                if (entry == null) {
+                    continue;
+                }
+                for (String key : entry.keys()) {
+                    added.add(Map.entry(key, entry));
+                    addShortPrefixes(affectedPrefixes, key);
+                }
+            }
+            added.sort(Map.Entry.comparingByKey());
+
+            String[] mergedKeys = new String[keys.length + added.size()];
+            Entry[] mergedOwners = new Entry[mergedKeys.length];
+            int size = 0;
+            int next = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (changed.containsKey(owners[i].id())) {
+                    addShortPrefixes(affectedPrefixes, keys[i]);
+                    continue;
+                }
+                for (; next < added.size() && added.get(next).getKey().compareTo(keys[i]) < 0; next++, size++) {
+                    mergedKeys[size] = added.get(next).getKey();
+                    mergedOwners[size] = added.get(next).getValue();
+                }
+                mergedKeys[size] = keys[i];
+                mergedOwners[size] = owners[i];
+                size++;
+            }
+            for (; next < added.size(); next++, size++) {
+                mergedKeys[size] = added.get(next).getKey();
+                mergedOwners[size] = added.get(next).getValue();
+            }
+            mergedKeys = Arrays.copyOf(mergedKeys, size);
+            mergedOwners = Arrays.copyOf(mergedOwners, size);
+
+            Map<String, Entry[]> top = new HashMap<>(shortPrefixTop);
+            for (String prefix : affectedPrefixes) {
+                Entry[] ranked = rank(mergedKeys, mergedOwners, prefix, topSize);
+                if (ranked.length == 0) {
+                    top.remove(prefix);
+                } else {
+                    top.put(prefix, ranked);
+                }
+            }
+            return new Snapshot(version, mergedKeys, mergedOwners, top);
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.thjvjpxx.backend_comic.service.impl;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.thjvjpxx.backend_comic.dto.request.CommentRequest;
@@ -28,6 +36,9 @@ import com.thjvjpxx.backend_comic.repository.ComicRepository;
 import com.thjvjpxx.backend_comic.repository.CommentRepository;
 import com.thjvjpxx.backend_comic.repository.UserRepository;
 import com.thjvjpxx.backend_comic.service.CommentService;
+import com.thjvjpxx.backend_comic.specification.CommentSpecifications;
+import com.thjvjpxx.backend_comic.utils.ApproximateCountCache;
+import com.thjvjpxx.backend_comic.utils.CursorUtils;
 import com.thjvjpxx.backend_comic.utils.PaginationUtils;
 import com.thjvjpxx.backend_comic.utils.SecurityUtils;
 import com.thjvjpxx.backend_comic.utils.ValidationUtils;
@@ -35,22 +46,34 @@ import com.thjvjpxx.backend_comic.utils.ValidationUtils;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class CommentServiceImpl implements CommentService {
 
+	// Thứ tự comment cha: mới nhất trước, id để phân định khi trùng created_at
+	static Sort PARENT_ORDER = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
 	CommentRepository commentRepository;
 	ComicRepository comicRepository;
 	ChapterRepository chapterRepository;
 	UserRepository userRepository;
 	SecurityUtils securityUtils;
+	ApproximateCountCache approximateCountCache;
+
+	@NonFinal
+	@Value("${app.comment.reply-preview-size:3}")
+	int replyPreviewSize;
 
 	@Override
 	public BaseResponse<List<CommentResponse>> getAllComments(int page, int limit, String search,
 			String comicId, String chapterId,
-			String userId, CommentStatus status) {
+			String userId, CommentStatus status, String cursor) {
+		if (cursor != null) {
+			return getAllCommentsByCursor(limit, search, comicId, chapterId, userId, status, cursor);
+		}
 		Pageable pageable = PaginationUtils.createPageable(page, limit);
 		Page<Comment> comments = commentRepository.findCommentsByCriteria(
 				comicId, chapterId, userId, status, search, pageable);
@@ -67,6 +90,33 @@ public class CommentServiceImpl implements CommentService {
 				comments.getTotalPages());
 	}
 
+	/**
+	 * Phân trang keyset theo (createdAt, id), không chạy COUNT ở mỗi trang
+	 */
+	private BaseResponse<List<CommentResponse>> getAllCommentsByCursor(int limit, String search,
+			String comicId, String chapterId, String userId, CommentStatus status, String cursor) {
+		limit = limit < 1 ? 5 : limit;
+		Specification<Comment> spec = Specification.where(CommentSpecifications.ofComic(comicId))
+				.and(CommentSpecifications.ofChapter(chapterId))
+				.and(CommentSpecifications.ofUser(userId))
+				.and(CommentSpecifications.hasStatus(status))
+				.and(CommentSpecifications.contentContains(search));
+
+		Window<Comment> comments = CursorUtils.scroll(commentRepository, spec, "createdAt", cursor, limit);
+		List<CommentResponse> commentResponses = comments.getContent().stream()
+				.map(this::convertToResponse)
+				.collect(Collectors.toList());
+		Integer total = approximateCountCache.get(
+				ApproximateCountCache.key("comments", search, comicId, chapterId, userId, status),
+				() -> commentRepository.count(spec));
+
+		return BaseResponse.successWithCursor(
+				commentResponses,
+				limit,
+				CursorUtils.nextCursor(comments, "createdAt"),
+				total);
+	}
+
 	@Override
 	public BaseResponse<List<CommentResponse>> getCommentsByChapter(String chapterId, int page, int limit) {
 		ValidationUtils.checkNullId(chapterId);
@@ -88,47 +138,124 @@ public class CommentServiceImpl implements CommentService {
 	}
 
 	@Override
-	public BaseResponse<List<CommentResponse>> getParentCommentsByComic(String comicId, int page, int limit) {
+	public BaseResponse<List<CommentResponse>> getParentCommentsByComic(String comicId, int page, int limit,
+			String cursor) {
 		ValidationUtils.checkNullId(comicId);
+		limit = limit < 1 ? 5 : limit;
+
+		CursorUtils.Cursor position = CursorUtils.decode(cursor);
+		if (position != null) {
+			// Keyset: lấy dư 1 phần tử để biết còn trang sau hay không, không cần COUNT
+			List<Comment> comments = commentRepository.findParentsByComicAfterCursor(
+					comicId, CommentStatus.ACTIVE, position.keyAsDateTime(), position.id(),
+					PageRequest.of(0, limit + 1));
+			boolean hasNext = comments.size() > limit;
+			List<Comment> pageContent = hasNext ? comments.subList(0, limit) : comments;
+
+			return BaseResponse.successWithCursor(
+					buildThreads(pageContent),
+					limit,
+					hasNext ? toCursor(pageContent.get(pageContent.size() - 1)) : null);
+		}
+
 		Pageable pageable = PaginationUtils.createPageable(page, limit);
+		pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), PARENT_ORDER);
 		Page<Comment> comments = commentRepository.findByComicIdAndParentIsNullAndStatus(
 				comicId, CommentStatus.ACTIVE, pageable);
 
-		List<CommentResponse> commentResponses = comments.getContent().stream()
-				.map(comment -> {
-					CommentResponse response = convertToResponse(comment);
-					// Lấy replies cho mỗi parent comment
-					List<Comment> replies = commentRepository.findByParentIdAndStatus(
-							comment.getId(),
-							CommentStatus.ACTIVE);
-					List<CommentResponse> replyResponses = replies.stream()
-							.map(this::convertToResponse)
-							.collect(Collectors.toList());
-					response.setReplies(replyResponses);
-					response.setRepliesCount((long) replies.size());
-					return response;
-				})
-				.sorted(Comparator.comparing(CommentResponse::getCreatedAt).reversed())
-				.collect(Collectors.toList());
-
-		return BaseResponse.success(
-				commentResponses,
+		BaseResponse<List<CommentResponse>> response = BaseResponse.success(
+				buildThreads(comments.getContent()),
 				page,
 				(int) comments.getTotalElements(),
 				limit,
 				comments.getTotalPages());
+		// Trả kèm cursor để client có thể chuyển sang keyset từ trang kế tiếp
+		if (comments.hasNext()) {
+			response.setNextCursor(toCursor(comments.getContent().get(comments.getNumberOfElements() - 1)));
+		}
+		return response;
 	}
 
 	@Override
-	public BaseResponse<List<CommentResponse>> getRepliesByParentId(String parentId) {
+	public BaseResponse<List<CommentResponse>> getRepliesByParentId(String parentId, String cursor, Integer limit) {
 		ValidationUtils.checkNullId(parentId);
-		List<Comment> replies = commentRepository.findByParentIdAndStatus(parentId, CommentStatus.ACTIVE);
 
-		List<CommentResponse> replyResponses = replies.stream()
+		if (limit == null && (cursor == null || cursor.isBlank())) {
+			List<Comment> replies = commentRepository.findByParentIdAndStatus(parentId, CommentStatus.ACTIVE);
+
+			List<CommentResponse> replyResponses = replies.stream()
+					.map(this::convertToResponse)
+					.collect(Collectors.toList());
+
+			return BaseResponse.success(replyResponses);
+		}
+
+		int size = limit == null || limit < 1 ? replyPreviewSize : limit;
+		CursorUtils.Cursor position = CursorUtils.decode(cursor);
+		Pageable pageable = PageRequest.of(0, size + 1);
+		List<Comment> replies = position == null
+				? commentRepository.findFirstReplies(parentId, CommentStatus.ACTIVE, pageable)
+				: commentRepository.findRepliesAfterCursor(parentId, CommentStatus.ACTIVE,
+						position.keyAsDateTime(), position.id(), pageable);
+		boolean hasNext = replies.size() > size;
+		List<Comment> pageContent = hasNext ? replies.subList(0, size) : replies;
+
+		List<CommentResponse> replyResponses = pageContent.stream()
 				.map(this::convertToResponse)
 				.collect(Collectors.toList());
 
-		return BaseResponse.success(replyResponses);
+		return BaseResponse.successWithCursor(
+				replyResponses,
+				size,
+				hasNext ? toCursor(pageContent.get(pageContent.size() - 1)) : null);
+	}
+
+	/**
+	 * Gắn reply cho một trang comment cha bằng số query cố định:
+	 * 1 query lấy tối đa replyPreviewSize reply đầu của mỗi comment cha,
+	 * 1 query đếm tổng reply theo từng comment cha
+	 */
+	private List<CommentResponse> buildThreads(List<Comment> parents) {
+		if (parents.isEmpty()) {
+			return new ArrayList<>();
+		}
+		List<String> parentIds = parents.stream().map(Comment::getId).toList();
+
+		Map<String, List<Comment>> repliesByParent = new HashMap<>();
+		if (replyPreviewSize > 0) {
+			for (Comment reply : commentRepository.findFirstRepliesByParentIds(
+					parentIds, CommentStatus.ACTIVE.name(), replyPreviewSize)) {
+				repliesByParent.computeIfAbsent(reply.getParent().getId(), k -> new ArrayList<>()).add(reply);
+			}
+		}
+
+		Map<String, Long> countByParent = new HashMap<>();
+		for (Object[] row : commentRepository.countRepliesByParentIds(parentIds, CommentStatus.ACTIVE)) {
+			countByParent.put((String) row[0], ((Number) row[1]).longValue());
+		}
+
+		return parents.stream()
+				.map(parent -> {
+					CommentResponse response = convertToResponse(parent);
+					List<Comment> replies = repliesByParent.getOrDefault(parent.getId(), List.of());
+					long total = countByParent.getOrDefault(parent.getId(), 0L);
+					response.setReplies(replies.stream()
+							.map(this::convertToResponse)
+							.collect(Collectors.toList()));
+					response.setRepliesCount(total);
+					// Còn reply chưa tải: client gọi /comments/{parentId}/replies?cursor=... để tải thêm
+					if (total > replies.size()) {
+						response.setRepliesNextCursor(replies.isEmpty()
+								? null
+								: toCursor(replies.get(replies.size() - 1)));
+					}
+					return response;
+				})
+				.collect(Collectors.toList());
+	}
+
+	private String toCursor(Comment comment) {
+		return CursorUtils.encode(comment.getCreatedAt(), comment.getId());
 	}
 
 	@Override
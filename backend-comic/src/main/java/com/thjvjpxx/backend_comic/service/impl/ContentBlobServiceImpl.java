@@ -0,0 +1,209 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.thjvjpxx.backend_comic.constant.B2Constants;
+import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.exception.BaseException;
+import com.thjvjpxx.backend_comic.model.ContentBlob;
+import com.thjvjpxx.backend_comic.repository.ContentBlobRepository;
+import com.thjvjpxx.backend_comic.service.ContentBlobService;
+import com.thjvjpxx.backend_comic.service.StorageCleanupService;
+import com.thjvjpxx.backend_comic.service.StorageService;
+import com.thjvjpxx.backend_comic.utils.ParallelUploader;
+import com.thjvjpxx.backend_comic.utils.StringUtils;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ContentBlobServiceImpl implements ContentBlobService {
+
+    // Thư mục con trong FOLDER_KEY_COMIC chứa ảnh lưu theo nội dung
+    static final String BLOB_FOLDER = "_blobs";
+    static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+    static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    ContentBlobRepository contentBlobRepository;
+    StorageService storageService;
+    StorageCleanupService storageCleanupService;
+    TransactionTemplate transactionTemplate;
+    ParallelUploader parallelUploader;
+
+    @NonFinal
+    @Value("${b2.bucketName}")
+    String bucketName;
+
+    // Ảnh không được tham chiếu trong khoảng này chưa bị dọn (chương đang crawl/upload dở chưa ghi DB)
+    @NonFinal
+    @Value("${app.content-blobs.gc-grace:86400000}")
+    long gcGraceMillis;
+
+    @NonFinal
+    @Value("${app.content-blobs.gc-batch-size:100}")
+    int gcBatchSize;
+
+    @Override
+    public StoredBlob store(InputStream inputStream, String extension, String contentType) {
+        Path temp = null;
+        try {
+            // Ghi ra file tạm trong lúc băm: phải biết hash trước mới quyết định có upload hay không
+            temp = Files.createTempFile("blob-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                size = new DigestInputStream(inputStream, digest).transferTo(output);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            LocalDateTime now = LocalDateTime.now();
+
+            if (contentBlobRepository.touch(hash, now) > 0) {
+                ContentBlob existing = contentBlobRepository.findById(hash).orElse(null);
+                if (existing != null) {
+                    return new StoredBlob(hash, publicUrl(existing.getStorageKey()), existing.getSize(), false);
+                }
+            }
+
+            // Mỗi lần upload dùng key riêng (hash + hậu tố ngẫu nhiên): GC xoá file của dòng cũ
+            // sau khi commit nên không thể xoá nhầm file vừa upload lại cho cùng nội dung
+            String fileName = BLOB_FOLDER + "/" + hash.substring(0, 2) + "/" + hash + "-" + randomSuffix() + "."
+                    + normalizeExtension(extension);
+            try (InputStream data = Files.newInputStream(temp)) {
+                var response = storageService.uploadStream(data, size, contentType, B2Constants.FOLDER_KEY_COMIC,
+                        fileName);
+                if (response.getStatus() != 200) {
+                    throw new BaseException(ErrorCode.UPLOAD_FILE_FAILED);
+                }
+            }
+            String storageKey = B2Constants.FOLDER_KEY_COMIC + "/" + fileName;
+            contentBlobRepository.upsert(hash, storageKey, size, contentType, now);
+            // 2 request cùng nội dung có thể cùng upload, chỉ dòng ghi trước được giữ; file thừa đưa vào hàng đợi dọn
+            ContentBlob saved = contentBlobRepository.findById(hash).orElse(null);
+            if (saved != null && !storageKey.equals(saved.getStorageKey())) {
+                storageCleanupService.enqueue(storageKey);
+                return new StoredBlob(hash, publicUrl(saved.getStorageKey()), saved.getSize(), false);
+            }
+            return new StoredBlob(hash, publicUrl(storageKey), size, true);
+        } catch (IOException e) {
+            log.error("Lỗi khi lưu ảnh theo nội dung: {}", e.getMessage());
+            throw new BaseException(ErrorCode.UPLOAD_FILE_FAILED);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Không xoá được file tạm {}: {}", temp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<StoredBlob> storeAll(List<MultipartFile> files) {
+        return parallelUploader.uploadAll(files, file -> {
+            try (InputStream inputStream = file.getInputStream()) {
+                return store(inputStream, StringUtils.getExtension(file.getOriginalFilename()), file.getContentType());
+            } catch (IOException e) {
+                log.error("Lỗi khi đọc file upload {}: {}", file.getOriginalFilename(), e.getMessage());
+                throw new BaseException(ErrorCode.UPLOAD_FILE_FAILED);
+            }
+        });
+    }
+
+    @Override
+    public String hashFromUrl(String url) {
+        String prefix = publicUrl(B2Constants.FOLDER_KEY_COMIC + "/" + BLOB_FOLDER + "/");
+        if (url == null || !url.startsWith(prefix)) {
+            return null;
+        }
+        // Tên file: <hash>-<hậu tố>.<đuôi>, file cũ không có hậu tố
+        String fileName = url.substring(url.lastIndexOf('/') + 1);
+        int endIndex = fileName.indexOf('-');
+        if (endIndex == -1) {
+            endIndex = fileName.indexOf('.');
+        }
+        String hash = endIndex != -1 ? fileName.substring(0, endIndex) : fileName;
+        return HASH.matcher(hash).matches() ? hash : null;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.content-blobs.gc-interval:3600000}")
+    public void collectGarbage() {
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(gcGraceMillis));
+        int removed = 0;
+        for (String hash : contentBlobRepository.findUnreferencedHashes(before, gcBatchSize)) {
+            ContentBlob deleted;
+            try {
+                // Chỉ xoá dòng trong transaction, không gọi storage khi còn giữ khoá dòng
+                deleted = transactionTemplate.execute(status -> {
+                    ContentBlob blob = contentBlobRepository.findById(hash).orElse(null);
+                    if (blob == null || contentBlobRepository.deleteIfUnreferenced(hash, before) == 0) {
+                        return null;
+                    }
+                    return blob;
+                });
+            } catch (Exception e) {
+                log.warn("Không dọn được ảnh {}: {}", hash, e.getMessage());
+                continue;
+            }
+            if (deleted == null) {
+                continue;
+            }
+            // Dòng đã commit xoá: upload lại cùng nội dung sẽ tạo dòng mới với key khác,
+            // nên file cũ chắc chắn không còn ai dùng. Xoá lỗi thì để hàng đợi dọn storage thử lại.
+            try {
+                storageService.remove(deleted.getStorageKey());
+            } catch (Exception e) {
+                log.warn("Xoá file ảnh {} lỗi, chuyển vào hàng đợi dọn: {}", deleted.getStorageKey(), e.getMessage());
+                storageCleanupService.enqueue(deleted.getStorageKey());
+            }
+            removed++;
+        }
+        if (removed > 0) {
+            log.info("Đã dọn {} ảnh không còn được tham chiếu", removed);
+        }
+    }
+
+    private String publicUrl(String storageKey) {
+        // Nội dung theo hash không đổi nên không cần tham số phiên bản như StorageService
+        return B2Constants.URL_PREFIX + bucketName + "/" + storageKey;
+    }
+
+    private static String randomSuffix() {
+        byte[] bytes = new byte[4];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private static String normalizeExtension(String extension) {
+        String normalized = extension == null ? "" : extension.toLowerCase();
+        return EXTENSION.matcher(normalized).matches() ? normalized : "bin";
+    }
+}
@@ -0,0 +1,99 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thjvjpxx.backend_comic.constant.B2Constants;
+import com.thjvjpxx.backend_comic.model.Chapter;
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.service.ContentDeletionService;
+import com.thjvjpxx.backend_comic.service.StorageCleanupService;
+import com.thjvjpxx.backend_comic.utils.StorageUtils;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ContentDeletionServiceImpl implements ContentDeletionService {
+
+    /**
+     * Các câu xoá 1 truyện, theo thứ tự bảng con trước. Tham số duy nhất là comic_id.
+     * Bình luận được gỡ quan hệ cha/con trước để xoá trong 1 câu mà không vướng khóa ngoại tự tham chiếu.
+     */
+    static final List<String> DELETE_COMIC_STATEMENTS = List.of(
+            "DELETE dc FROM detail_chapters dc JOIN chapters ch ON dc.chapter_id = ch.id WHERE ch.comic_id = ?",
+            "DELETE pc FROM purchased_chapters pc JOIN chapters ch ON pc.chapter_id = ch.id WHERE ch.comic_id = ?",
+            "DELETE rh FROM reading_histories rh JOIN chapters ch ON rh.chapter_id = ch.id WHERE ch.comic_id = ?",
+            "UPDATE comments SET parent_id = NULL WHERE comic_id = ? AND parent_id IS NOT NULL",
+            "DELETE FROM comments WHERE comic_id = ?",
+            "DELETE FROM chapters WHERE comic_id = ?",
+            "DELETE FROM user_follows WHERE comic_id = ?",
+            "DELETE FROM reading_progress WHERE comic_id = ?",
+            "DELETE FROM comic_views_history WHERE comic_id = ?",
+            "DELETE FROM comic_categories WHERE comic_id = ?",
+            "DELETE FROM comics WHERE id = ?");
+
+    /**
+     * Các câu xoá 1 chương, theo thứ tự bảng con trước. Tham số duy nhất là chapter_id.
+     * Trả lời của bình luận trong chương bị xoá trước bình luận gốc.
+     */
+    static final List<String> DELETE_CHAPTER_STATEMENTS = List.of(
+            "DELETE FROM detail_chapters WHERE chapter_id = ?",
+            "DELETE FROM purchased_chapters WHERE chapter_id = ?",
+            "DELETE FROM reading_histories WHERE chapter_id = ?",
+            "DELETE r FROM comments r JOIN comments p ON r.parent_id = p.id WHERE p.chapter_id = ?",
+            "DELETE FROM comments WHERE chapter_id = ?",
+            "DELETE FROM chapters WHERE id = ?");
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    StorageCleanupService storageCleanupService;
+    StorageUtils storageUtils;
+
+    @Override
+    public void deleteComic(Comic comic) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int rows = execute(DELETE_COMIC_STATEMENTS, comic.getId());
+
+            // Ảnh các chương nằm trong comics/{slug}/, dọn sau khi commit
+            if (comic.getSlug() != null && !comic.getSlug().isBlank()) {
+                storageCleanupService.enqueue(B2Constants.FOLDER_KEY_COMIC + "/" + comic.getSlug() + "/");
+            }
+            if (storageUtils.isB2StorageUrl(comic.getThumbUrl())) {
+                storageCleanupService.enqueue(comic.getThumbUrl());
+            }
+
+            log.info("Đã xoá truyện {} ({} dòng)", comic.getId(), rows);
+        });
+    }
+
+    @Override
+    public void deleteChapter(Chapter chapter) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int rows = execute(DELETE_CHAPTER_STATEMENTS, chapter.getId());
+
+            // Chỉ dọn thư mục nằm trên storage của mình (chương crawl không lưu drive trỏ về CDN nguồn)
+            if (chapter.getChapterPath() != null && storageUtils.isB2StorageUrl(chapter.getDomainCdn())) {
+                storageCleanupService.enqueue(B2Constants.FOLDER_KEY_COMIC + "/" + chapter.getChapterPath() + "/");
+            }
+
+            log.info("Đã xoá chương {} ({} dòng)", chapter.getId(), rows);
+        });
+    }
+
+    private int execute(List<String> statements, String id) {
+        int rows = 0;
+        for (String sql : statements) {
+            rows += jdbcTemplate.update(sql, id);
+        }
+        return rows;
+    }
+}
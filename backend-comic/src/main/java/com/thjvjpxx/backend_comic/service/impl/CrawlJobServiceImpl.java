@@ -0,0 +1,395 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.thjvjpxx.backend_comic.dto.otruyen.OTruyenResponse.OTruyenComic;
+import com.thjvjpxx.backend_comic.dto.request.CrawlerComicListRequest;
+import com.thjvjpxx.backend_comic.dto.request.CrawlerComicRequest;
+import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
+import com.thjvjpxx.backend_comic.dto.response.CrawlJobProgressResponse;
+import com.thjvjpxx.backend_comic.dto.response.CrawlJobProgressResponse.FailedItem;
+import com.thjvjpxx.backend_comic.dto.response.CrawlJobProgressResponse.ItemCounts;
+import com.thjvjpxx.backend_comic.enums.CrawlItemStatus;
+import com.thjvjpxx.backend_comic.enums.CrawlItemType;
+import com.thjvjpxx.backend_comic.enums.CrawlJobStatus;
+import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.event.HomeContentChangedEvent;
+import com.thjvjpxx.backend_comic.exception.BaseException;
+import com.thjvjpxx.backend_comic.model.CrawlJob;
+import com.thjvjpxx.backend_comic.model.CrawlJobItem;
+import com.thjvjpxx.backend_comic.repository.CrawlJobItemRepository;
+import com.thjvjpxx.backend_comic.repository.CrawlJobRepository;
+import com.thjvjpxx.backend_comic.service.CrawlJobService;
+import com.thjvjpxx.backend_comic.service.CrawlerService;
+import com.thjvjpxx.backend_comic.utils.CrawlEngine;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hàng đợi crawl bền vững: mỗi trang, truyện, chapter là 1 dòng trong crawl_job_items.
+ * Bộ lập lịch nhận item bằng lease rồi gửi vào CrawlEngine, kết quả và item con
+ * được ghi lại trong DB nên job tiếp tục được sau khi khởi động lại
+ * (item RUNNING có lease hết hạn sẽ được nhận lại).
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class CrawlJobServiceImpl implements CrawlJobService {
+
+    static final int MAX_ERROR_LENGTH = 1000;
+
+    CrawlJobRepository crawlJobRepository;
+    CrawlJobItemRepository crawlJobItemRepository;
+    CrawlerService crawlerService;
+    CrawlEngine crawlEngine;
+    TransactionTemplate transactionTemplate;
+    ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Các item instance này đang xử lý (ID item -> token lease), dùng để gia hạn lease
+     */
+    Map<String, String> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Số item hoàn thành kể từ lượt poll trước, để biết có cần đẩy tiến độ qua SSE hay không
+     */
+    AtomicInteger finishedSinceLastPoll = new AtomicInteger();
+
+    Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    // Chỉ gia hạn lease khi đã trôi qua 1/3 thời gian lease, tránh ghi DB mỗi lượt poll
+    @NonFinal
+    long lastRenewAt;
+
+    @NonFinal
+    @Value("${app.crawl-job.lease:600000}")
+    long leaseMillis;
+
+    @NonFinal
+    @Value("${app.crawl-job.max-in-flight:50}")
+    int maxInFlight;
+
+    @NonFinal
+    @Value("${app.crawl-job.max-attempts:3}")
+    int maxAttempts;
+
+    @NonFinal
+    @Value("${app.crawl-job.retry-delay:30000}")
+    long retryDelayMillis;
+
+    @NonFinal
+    @Value("${app.crawl-job.sse-timeout:1800000}")
+    long sseTimeoutMillis;
+
+    @Override
+    public BaseResponse<CrawlJobProgressResponse> createPageJob(CrawlerComicRequest request) {
+        if (request.getStartPage() < 1 || request.getEndPage() < request.getStartPage()) {
+            throw new BaseException(ErrorCode.INVALID_ARGUMENT);
+        }
+
+        List<String> pages = new ArrayList<>();
+        for (int page = request.getStartPage(); page <= request.getEndPage(); page++) {
+            pages.add(String.valueOf(page));
+        }
+
+        String source = String.format("pages %d-%d", request.getStartPage(), request.getEndPage());
+        CrawlJob job = createJob(source, request.isSaveDrive(), CrawlItemType.PAGE, pages);
+        return BaseResponse.success(buildProgress(job));
+    }
+
+    @Override
+    public BaseResponse<CrawlJobProgressResponse> createListJob(CrawlerComicListRequest request) {
+        List<String> slugs = request.getComics() == null ? List.of()
+                : request.getComics().stream()
+                        .map(OTruyenComic::getSlug)
+                        .filter(slug -> slug != null && !slug.isEmpty())
+                        .distinct()
+                        .collect(Collectors.toList());
+        if (slugs.isEmpty()) {
+            throw new BaseException(ErrorCode.INVALID_ARGUMENT);
+        }
+
+        String source = String.format("list %d comics", slugs.size());
+        CrawlJob job = createJob(source, request.isSaveDrive(), CrawlItemType.COMIC, slugs);
+        return BaseResponse.success(buildProgress(job));
+    }
+
+    @Override
+    public BaseResponse<CrawlJobProgressResponse> getProgress(String jobId) {
+        return BaseResponse.success(buildProgress(findJob(jobId)));
+    }
+
+    @Override
+    public BaseResponse<CrawlJobProgressResponse> cancel(String jobId) {
+        CrawlJob job = findJob(jobId);
+        if (job.getStatus() == CrawlJobStatus.RUNNING) {
+            job.setStatus(CrawlJobStatus.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+            job = crawlJobRepository.save(job);
+            log.info("Đã huỷ crawl job {}", jobId);
+        }
+        CrawlJobProgressResponse progress = buildProgress(job);
+        completeEmitters(jobId, progress);
+        return BaseResponse.success(progress);
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        CrawlJobProgressResponse progress = buildProgress(findJob(jobId));
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        if (!sendProgress(emitter, progress)) {
+            return emitter;
+        }
+        if (!CrawlJobStatus.RUNNING.name().equals(progress.getStatus())) {
+            emitter.complete();
+            return emitter;
+        }
+
+        List<SseEmitter> jobEmitters = emitters.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        jobEmitters.add(emitter);
+        Runnable remove = () -> jobEmitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    /**
+     * Lượt poll: gia hạn lease cho item đang chạy, nhận thêm item mới gửi vào engine,
+     * hoàn thành các job đã xong và đẩy tiến độ cho client SSE
+     */
+    @Scheduled(fixedDelayString = "${app.crawl-job.poll-interval:2000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(Duration.ofMillis(leaseMillis));
+
+        if (!inFlight.isEmpty() && System.currentTimeMillis() - lastRenewAt >= leaseMillis / 3) {
+            crawlJobItemRepository.renewLeases(List.copyOf(inFlight.keySet()), Set.copyOf(inFlight.values()), now,
+                    leaseUntil);
+            lastRenewAt = System.currentTimeMillis();
+        }
+        crawlJobItemRepository.failExhausted(now, maxAttempts);
+
+        int capacity = maxInFlight - inFlight.size();
+        if (capacity > 0) {
+            String owner = UUID.randomUUID().toString();
+            int claimed = crawlJobItemRepository.claim(owner, now, leaseUntil, maxAttempts, capacity);
+            if (claimed > 0) {
+                List<CrawlJobItem> items = crawlJobItemRepository.findByLeaseOwnerAndStatus(owner,
+                        CrawlItemStatus.RUNNING);
+                log.debug("Nhận {} crawl item", items.size());
+                items.forEach(item -> dispatch(item, owner));
+            }
+        }
+
+        if (crawlJobRepository.completeFinishedJobs(LocalDateTime.now()) > 0) {
+            eventPublisher.publishEvent(new HomeContentChangedEvent("crawler"));
+        }
+
+        if (finishedSinceLastPoll.getAndSet(0) > 0 || !emitters.isEmpty()) {
+            pushProgress();
+        }
+    }
+
+    /**
+     * Gửi item vào tầng tương ứng của engine, ghi kết quả khi xong
+     */
+    private void dispatch(CrawlJobItem item, String owner) {
+        String jobId = item.getJob().getId();
+        inFlight.put(item.getId(), owner);
+        crawlEngine.submit(stageOf(item.getType()), () -> crawlerService.processJobItem(item))
+                .whenComplete((children, error) -> {
+                    try {
+                        if (error == null) {
+                            complete(item, owner, jobId, children);
+                        } else {
+                            fail(item, owner, error.getCause() != null ? error.getCause() : error);
+                        }
+                    } catch (Exception e) {
+                        // Lease sẽ hết hạn và item được nhận lại ở lượt sau
+                        log.error("Lỗi khi ghi kết quả crawl item {}: {}", item.getId(), e.getMessage(), e);
+                    } finally {
+                        inFlight.remove(item.getId());
+                        finishedSinceLastPoll.incrementAndGet();
+                    }
+                });
+    }
+
+    private void complete(CrawlJobItem item, String owner, String jobId, List<CrawlJobItem> children) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int updated = crawlJobItemRepository.finish(item.getId(), owner, CrawlItemStatus.DONE.name(),
+                    null, null, LocalDateTime.now());
+            // Lease đã bị instance khác nhận lại, không sinh item con trùng lặp
+            if (updated == 0 || children == null || children.isEmpty()) {
+                return;
+            }
+            CrawlJob job = crawlJobRepository.getReferenceById(jobId);
+            children.forEach(child -> {
+                child.setJob(job);
+                child.setStatus(CrawlItemStatus.PENDING);
+                child.setSaveDrive(item.isSaveDrive());
+            });
+            crawlJobItemRepository.saveAll(children);
+        });
+    }
+
+    private void fail(CrawlJobItem item, String owner, Throwable error) {
+        boolean exhausted = item.getAttempts() >= maxAttempts;
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // Chờ lâu dần giữa các lần thử lại
+        LocalDateTime retryAfter = exhausted ? null
+                : now.plus(Duration.ofMillis(retryDelayMillis * item.getAttempts()));
+        crawlJobItemRepository.finish(item.getId(), owner,
+                (exhausted ? CrawlItemStatus.FAILED : CrawlItemStatus.PENDING).name(),
+                message, retryAfter, now);
+
+        log.warn("Crawl item {} {} lỗi lần {}: {}", item.getType(), item.getTarget(), item.getAttempts(), message);
+    }
+
+    private CrawlJob createJob(String source, boolean saveDrive, CrawlItemType type, List<String> targets) {
+        CrawlJob job = transactionTemplate.execute(status -> {
+            CrawlJob saved = crawlJobRepository.save(CrawlJob.builder()
+                    .status(CrawlJobStatus.RUNNING)
+                    .source(source)
+                    .saveDrive(saveDrive)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+
+            crawlJobItemRepository.saveAll(targets.stream()
+                    .map(target -> CrawlJobItem.builder()
+                            .job(saved)
+                            .type(type)
+                            .status(CrawlItemStatus.PENDING)
+                            .target(target)
+                            .saveDrive(saveDrive)
+                            .build())
+                    .collect(Collectors.toList()));
+            return saved;
+        });
+
+        log.info("Đã tạo crawl job {} ({}) với {} item", job.getId(), source, targets.size());
+        return job;
+    }
+
+    private CrawlJob findJob(String jobId) {
+        return crawlJobRepository.findById(jobId)
+                .orElseThrow(() -> new BaseException(ErrorCode.CRAWLER_NOT_FOUND));
+    }
+
+    private CrawlJobProgressResponse buildProgress(CrawlJob job) {
+        Map<String, ItemCounts> items = new LinkedHashMap<>();
+        for (CrawlItemType type : CrawlItemType.values()) {
+            items.put(type.name(), new ItemCounts());
+        }
+
+        for (Object[] row : crawlJobItemRepository.countByJobGroupByTypeAndStatus(job.getId())) {
+            ItemCounts counts = items.get(((CrawlItemType) row[0]).name());
+            long count = ((Number) row[2]).longValue();
+            switch ((CrawlItemStatus) row[1]) {
+                case PENDING -> counts.setPending(count);
+                case RUNNING -> counts.setRunning(count);
+                case DONE -> counts.setDone(count);
+                case FAILED -> counts.setFailed(count);
+            }
+            counts.setTotal(counts.getTotal() + count);
+        }
+
+        List<FailedItem> failures = crawlJobItemRepository
+                .findTop20ByJobIdAndStatusOrderByUpdatedAtDesc(job.getId(), CrawlItemStatus.FAILED).stream()
+                .map(item -> FailedItem.builder()
+                        .type(item.getType().name())
+                        .target(item.getTarget())
+                        .attempts(item.getAttempts())
+                        .lastError(item.getLastError())
+                        .build())
+                .collect(Collectors.toList());
+
+        return CrawlJobProgressResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus().name())
+                .source(job.getSource())
+                .saveDrive(job.isSaveDrive())
+                .items(items)
+                .recentFailures(failures)
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private void pushProgress() {
+        emitters.forEach((jobId, jobEmitters) -> {
+            if (jobEmitters.isEmpty()) {
+                emitters.remove(jobId);
+                return;
+            }
+            crawlJobRepository.findById(jobId).ifPresentOrElse(job -> {
+                CrawlJobProgressResponse progress = buildProgress(job);
+                if (job.getStatus() == CrawlJobStatus.RUNNING) {
+                    jobEmitters.forEach(emitter -> sendProgress(emitter, progress));
+                } else {
+                    completeEmitters(jobId, progress);
+                }
+            }, () -> emitters.remove(jobId));
+        });
+    }
+
+    private void completeEmitters(String jobId, CrawlJobProgressResponse progress) {
+        List<SseEmitter> jobEmitters = emitters.remove(jobId);
+        if (jobEmitters == null) {
+            return;
+        }
+        jobEmitters.forEach(emitter -> {
+            if (sendProgress(emitter, progress)) {
+                emitter.complete();
+            }
+        });
+    }
+
+    private boolean sendProgress(SseEmitter emitter, CrawlJobProgressResponse progress) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(progress));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static CrawlEngine.Stage stageOf(CrawlItemType type) {
+        return switch (type) {
+            case PAGE, COMIC -> CrawlEngine.Stage.COMIC;
+            case CHAPTER -> CrawlEngine.Stage.CHAPTER;
+        };
+    }
+}
@@ -1,9 +1,9 @@
 package com.thjvjpxx.backend_comic.service.impl;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -12,18 +12,17 @@ import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.multipart.MultipartFile;
 
 import com.thjvjpxx.backend_comic.constant.B2Constants;
 import com.thjvjpxx.backend_comic.dto.otruyen.OTruyenChapterDetail;
@@ -36,24 +35,34 @@ import com.thjvjpxx.backend_comic.dto.otruyen.OTruyenResponse.OTruyenComic;
 import com.thjvjpxx.backend_comic.dto.request.CrawlerComicListRequest;
 import com.thjvjpxx.backend_comic.dto.request.CrawlerComicRequest;
 import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
+import com.thjvjpxx.backend_comic.dto.response.CrawlEngineStatsResponse;
 import com.thjvjpxx.backend_comic.enums.ChapterStatus;
 import com.thjvjpxx.backend_comic.enums.ComicStatus;
+import com.thjvjpxx.backend_comic.enums.CrawlItemType;
 import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.event.HomeContentChangedEvent;
 import com.thjvjpxx.backend_comic.exception.BaseException;
 import com.thjvjpxx.backend_comic.model.Category;
 import com.thjvjpxx.backend_comic.model.Chapter;
 import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.model.CrawlJobItem;
 import com.thjvjpxx.backend_comic.model.DetailChapter;
 import com.thjvjpxx.backend_comic.repository.CategoryRepository;
 import com.thjvjpxx.backend_comic.repository.ChapterRepository;
 import com.thjvjpxx.backend_comic.repository.ComicRepository;
 import com.thjvjpxx.backend_comic.repository.DetailChapterRepository;
+import com.thjvjpxx.backend_comic.service.ComicFacetService;
+import com.thjvjpxx.backend_comic.service.ComicSearchService;
+import com.thjvjpxx.backend_comic.service.ComicSuggestService;
+import com.thjvjpxx.backend_comic.service.ContentBlobService.StoredBlob;
+import com.thjvjpxx.backend_comic.service.ContentBlobService;
 import com.thjvjpxx.backend_comic.service.CrawlerService;
 import com.thjvjpxx.backend_comic.service.StorageService;
+import com.thjvjpxx.backend_comic.utils.ComicDetailCache;
+import com.thjvjpxx.backend_comic.utils.CrawlEngine;
 import com.thjvjpxx.backend_comic.utils.NumberUtils;
 import com.thjvjpxx.backend_comic.utils.StringUtils;
 
-import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -70,6 +79,14 @@ public class CrawlerServiceImpl implements CrawlerService {
     final ChapterRepository chapterRepository;
     final DetailChapterRepository detailChapterRepository;
     final StorageService storageService;
+    final ContentBlobService contentBlobService;
+    final ComicSearchService comicSearchService;
+    final ComicSuggestService comicSuggestService;
+    final ComicFacetService comicFacetService;
+    final ApplicationEventPublisher eventPublisher;
+    final CrawlEngine crawlEngine;
+    final TransactionTemplate transactionTemplate;
+    final ComicDetailCache comicDetailCache;
 
     int MIN_CHAPTER_SIZE = 5;
     int MAX_CHAPTER_SIZE = 8;
@@ -81,39 +98,17 @@ public class CrawlerServiceImpl implements CrawlerService {
 
     String OTRUYEN_IMAGE_CDN = "https://img.otruyenapi.com";
 
-    int requestDelayMs = 0;
+    static final int IMAGE_CONNECT_TIMEOUT_MS = 10_000;
+    static final int IMAGE_READ_TIMEOUT_MS = 60_000;
 
-    int batchDelayMs = 0;
-
-    // Cài đặt đa luồng
-    int maxThreads = 10; // Số luồng tối đa cho việc crawl truyện
-    int chapterThreads = 5; // Số luồng cho việc crawl chapter
-    int imageThreads = 3; // Số luồng cho việc download ảnh
+    // RestTemplate dùng chung, thread-safe
+    final RestTemplate restTemplate = new RestTemplate();
 
     @Value("${b2.bucketName}")
     String bucketName;
 
-    /**
-     * Cấu hình tham số đa luồng dựa trên yêu cầu
-     * Có thể gọi method này để tùy chỉnh hiệu suất crawl
-     */
-    public void configureThreadingParams(int maxComicThreads, int maxChapterThreads, int maxImageThreads,
-            int requestDelay, int batchDelayMs) {
-        this.maxThreads = Math.max(1, Math.min(maxComicThreads, 20)); // Giới hạn tối đa 20 luồng
-        this.chapterThreads = Math.max(1, Math.min(maxChapterThreads, 10));
-        this.imageThreads = Math.max(1, Math.min(maxImageThreads, 5));
-        this.requestDelayMs = Math.max(0, requestDelay);
-        this.batchDelayMs = Math.max(0, batchDelayMs);
-
-        log.info("Đã cấu hình threading: Comic={}, Chapter={}, Image={}, RequestDelay={}ms, BatchDelay={}ms",
-                this.maxThreads, this.chapterThreads, this.imageThreads, this.requestDelayMs, this.batchDelayMs);
-    }
-
     @Override
     public BaseResponse<?> crawlComic(CrawlerComicRequest request) {
-        // Tạo ExecutorService để xử lý đa luồng
-        ExecutorService comicExecutor = Executors.newFixedThreadPool(maxThreads);
-
         try {
             Map<String, Object> crawlingResult = new HashMap<>();
             Map<String, Object> errorResults = new ConcurrentHashMap<>(); // Thread-safe cho đa luồng
@@ -133,11 +128,11 @@ public class CrawlerServiceImpl implements CrawlerService {
                         "errors", new ArrayList<>()));
             }
 
-            log.info("Bắt đầu crawl {} truyện với {} luồng", allComics.size(), maxThreads);
+            log.info("Bắt đầu crawl {} truyện", allComics.size());
 
-            // Xử lý comics bằng đa luồng
+            // Gửi comics vào crawl engine, bị chặn lại nếu hàng đợi comic đã đầy
             List<CompletableFuture<Void>> comicFutures = allComics.stream()
-                    .map(comicSummary -> CompletableFuture.runAsync(() -> {
+                    .map(comicSummary -> crawlEngine.<Void>submit(CrawlEngine.Stage.COMIC, () -> {
                         try {
                             processComicAsync(comicSummary, request.isSaveDrive(),
                                     totalComicProcessed, totalSuccessfulComics, errorResults);
@@ -147,7 +142,8 @@ public class CrawlerServiceImpl implements CrawlerService {
                             errorResults.put(comicSummary.getSlug(),
                                     Map.of("error", "Lỗi không mong đợi: " + e.getMessage()));
                         }
-                    }, comicExecutor))
+                        return null;
+                    }))
                     .collect(Collectors.toList());
 
             // Chờ tất cả tasks hoàn thành
@@ -165,12 +161,12 @@ public class CrawlerServiceImpl implements CrawlerService {
             log.info("Hoàn thành crawl với {} truyện xử lý, {} thành công, {} lỗi",
                     totalComicProcessed.get(), totalSuccessfulComics.get(), errorResults.size());
 
+            eventPublisher.publishEvent(new HomeContentChangedEvent("crawler"));
+
             return BaseResponse.success(crawlingResult);
         } catch (Exception e) {
             log.error("Lỗi khi crawl truyện", e);
             throw new BaseException(ErrorCode.INTERNAL_SERVER_ERROR);
-        } finally {
-            shutdownExecutorService(comicExecutor, "Comic Executor");
         }
     }
 
@@ -179,14 +175,14 @@ public class CrawlerServiceImpl implements CrawlerService {
      */
     private List<OTruyenComic> collectAllComicsFromPages(int startPage, int endPage) {
         List<OTruyenComic> allComics = new ArrayList<>();
-        RestTemplate restTemplate = new RestTemplate();
 
         for (int currentPage = startPage; currentPage <= endPage; currentPage++) {
             try {
                 log.info("Đang thu thập dữ liệu từ trang {} / {}", currentPage, endPage);
 
-                ResponseEntity<OTruyenResponse> responseEntity = restTemplate.getForEntity(
-                        OTRUYEN_API_URL + currentPage, OTruyenResponse.class);
+                String pageUrl = OTRUYEN_API_URL + currentPage;
+                ResponseEntity<OTruyenResponse> responseEntity = crawlEngine.fetch(pageUrl,
+                        () -> restTemplate.getForEntity(pageUrl, OTruyenResponse.class));
 
                 if (responseEntity.getStatusCode() != HttpStatus.OK ||
                         responseEntity.getBody() == null) {
@@ -203,11 +199,6 @@ public class CrawlerServiceImpl implements CrawlerService {
                 } else {
                     log.warn("Không tìm thấy truyện nào ở trang {}", currentPage);
                 }
-
-                // Tạm nghỉ giữa các request để tránh overload server
-                if (currentPage < endPage) {
-                    Thread.sleep(requestDelayMs);
-                }
             } catch (Exception e) {
                 log.error("Lỗi khi thu thập dữ liệu từ trang {}: {}", currentPage, e.getMessage());
             }
@@ -232,9 +223,9 @@ public class CrawlerServiceImpl implements CrawlerService {
 
             log.debug("Bắt đầu xử lý truyện: {}", slug);
 
-            RestTemplate restTemplate = new RestTemplate();
-            ResponseEntity<OTruyenComicDetail> comicDetailResponse = restTemplate
-                    .getForEntity(OTRUYEN_API_COMIC_DETAIL + slug, OTruyenComicDetail.class);
+            String detailUrl = OTRUYEN_API_COMIC_DETAIL + slug;
+            ResponseEntity<OTruyenComicDetail> comicDetailResponse = crawlEngine.fetch(detailUrl,
+                    () -> restTemplate.getForEntity(detailUrl, OTruyenComicDetail.class));
 
             if (comicDetailResponse.getStatusCode() != HttpStatus.OK
                     || comicDetailResponse.getBody() == null) {
@@ -265,36 +256,10 @@ public class CrawlerServiceImpl implements CrawlerService {
         }
     }
 
-    /**
-     * Đóng ExecutorService một cách an toàn
-     */
-    private void shutdownExecutorService(ExecutorService executor, String executorName) {
-        if (executor != null && !executor.isShutdown()) {
-            log.info("Đang đóng {}", executorName);
-            executor.shutdown();
-            try {
-                if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-                    log.warn("{} không đóng trong 60 giây, force shutdown", executorName);
-                    executor.shutdownNow();
-                    if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                        log.error("{} không thể đóng hoàn toàn", executorName);
-                    }
-                }
-            } catch (InterruptedException e) {
-                log.error("Bị gián đoạn khi đóng {}", executorName, e);
-                executor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
-    }
-
     /**
      * Phiên bản async của processComicWithChapters, tối ưu cho đa luồng
      */
     private boolean processComicWithChaptersAsync(OTruyenComicDetail comicDetail, boolean isSaveDrive) {
-        // Tạo ExecutorService riêng cho chapters của comic này
-        ExecutorService chapterExecutor = Executors.newFixedThreadPool(chapterThreads);
-
         try {
             ComicItem oTruyenComic = comicDetail.getData().getItem();
 
@@ -312,20 +277,17 @@ public class CrawlerServiceImpl implements CrawlerService {
                 log.info("Đã thêm truyện mới: {}, ID: {}", comic.getName(), comic.getId());
             }
 
-            return processChaptersAsync(comicDetail, comic, isExistingComic, isSaveDrive, chapterExecutor);
+            return processChaptersAsync(comicDetail, comic, isExistingComic, isSaveDrive);
 
         } catch (Exception e) {
             log.error("Lỗi khi xử lý truyện: {}", e.getMessage(), e);
             return false;
-        } finally {
-            shutdownExecutorService(chapterExecutor, "Chapter Executor");
         }
     }
 
     /**
      * Tạo comic mới (extracted từ processComicWithChapters để tái sử dụng)
      */
-    @Transactional
     private Comic createNewComic(ComicItem oTruyenComic, String slug, boolean isSaveDrive) {
         Comic comic = new Comic();
 
@@ -386,14 +348,18 @@ public class CrawlerServiceImpl implements CrawlerService {
         }
 
         comic.setDescription(oTruyenComic.getContent() != null ? oTruyenComic.getContent() : "Đang cập nhật");
-        return comicRepository.save(comic);
+        comic = comicRepository.save(comic);
+        comicSearchService.index(comic);
+        comicSuggestService.index(comic);
+        comicFacetService.index(comic);
+        return comic;
     }
 
     /**
      * Xử lý chapters với đa luồng
      */
     private boolean processChaptersAsync(OTruyenComicDetail comicDetail, Comic comic, boolean isExistingComic,
-            boolean isSaveDrive, ExecutorService chapterExecutor) {
+            boolean isSaveDrive) {
         try {
             List<OTruyenChapter> chapters = new ArrayList<>();
 
@@ -432,10 +398,8 @@ public class CrawlerServiceImpl implements CrawlerService {
             for (OTruyenChapter chapter : chapters) {
                 Double finalLatestChapterNumber = latestChapterNumber;
 
-                CompletableFuture<Boolean> chapterFuture = CompletableFuture.supplyAsync(() -> {
+                CompletableFuture<Boolean> chapterFuture = crawlEngine.submit(CrawlEngine.Stage.CHAPTER, () -> {
                     try {
-                        Thread.sleep(requestDelayMs); // Rate limiting
-
                         double chapterNumber;
                         try {
                             chapterNumber = NumberUtils.parseStringToDouble(chapter.getChapter_name());
@@ -452,15 +416,11 @@ public class CrawlerServiceImpl implements CrawlerService {
 
                         return processChapterAsync(chapter, comic, finalLatestChapterNumber, isExistingComic,
                                 isSaveDrive);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        log.error("Thread bị gián đoạn khi xử lý chapter: {}", chapter.getChapter_name());
-                        return false;
                     } catch (Exception e) {
                         log.error("Lỗi khi xử lý chapter {}: {}", chapter.getChapter_name(), e.getMessage());
                         return false;
                     }
-                }, chapterExecutor);
+                });
 
                 chapterFutures.add(chapterFuture);
             }
@@ -504,8 +464,7 @@ public class CrawlerServiceImpl implements CrawlerService {
             return false;
         }
 
-        RestTemplate restTemplate = new RestTemplate();
-        OTruyenChapterDetail chapterDetail = fetchChapterDetail(chapter.getChapter_api_data(), restTemplate);
+        OTruyenChapterDetail chapterDetail = fetchChapterDetail(chapter.getChapter_api_data());
         if (chapterDetail == null) {
             return false;
         }
@@ -521,8 +480,6 @@ public class CrawlerServiceImpl implements CrawlerService {
 
     @Override
     public BaseResponse<?> crawlComicFromList(CrawlerComicListRequest request) {
-        ExecutorService comicExecutor = Executors.newFixedThreadPool(maxThreads);
-
         try {
             Map<String, Object> crawlingResult = new HashMap<>();
             Map<String, Object> errorResults = new ConcurrentHashMap<>();
@@ -530,14 +487,15 @@ public class CrawlerServiceImpl implements CrawlerService {
             AtomicInteger totalSuccessfulComics = new AtomicInteger(0);
 
             List<OTruyenComic> comics = request.getComics();
-            log.info("Bắt đầu crawl {} truyện từ danh sách với {} luồng", comics.size(), maxThreads);
+            log.info("Bắt đầu crawl {} truyện từ danh sách", comics.size());
 
-            // Xử lý comics bằng đa luồng
+            // Gửi comics vào crawl engine, bị chặn lại nếu hàng đợi comic đã đầy
             List<CompletableFuture<Void>> comicFutures = comics.stream()
-                    .map(comicSummary -> CompletableFuture.runAsync(() -> {
+                    .map(comicSummary -> crawlEngine.<Void>submit(CrawlEngine.Stage.COMIC, () -> {
                         processComicAsync(comicSummary, request.isSaveDrive(),
                                 totalComicProcessed, totalSuccessfulComics, errorResults);
-                    }, comicExecutor))
+                        return null;
+                    }))
                     .collect(Collectors.toList());
 
             // Chờ tất cả tasks hoàn thành
@@ -555,47 +513,190 @@ public class CrawlerServiceImpl implements CrawlerService {
             log.info("Hoàn thành crawl danh sách truyện. Tổng: {}, Thành công: {}, Lỗi: {}",
                     totalComicProcessed.get(), totalSuccessfulComics.get(), errorResults.size());
 
+            eventPublisher.publishEvent(new HomeContentChangedEvent("crawler"));
+
             return BaseResponse.success(crawlingResult);
         } catch (Exception e) {
             log.error("Lỗi khi crawl danh sách truyện", e);
             throw new BaseException(ErrorCode.INTERNAL_SERVER_ERROR);
-        } finally {
-            shutdownExecutorService(comicExecutor, "Comic List Executor");
         }
     }
 
-    @Transactional
-    private boolean saveChapterWithDetails(OTruyenChapter chapter, double chapterNumber, Comic comic,
-            OTruyenChapterDetail chapterDetail, boolean isSaveDrive) {
-        try {
-            log.info("Bắt đầu transaction lưu chapter {} cho truyện: {}", chapterNumber, comic.getName());
+    @Override
+    public BaseResponse<CrawlEngineStatsResponse> getEngineStats() {
+        return BaseResponse.success(crawlEngine.getStats());
+    }
 
-            // Lưu chapter trước
-            Chapter chapterNew = saveNewChapter(chapter, chapterNumber, comic, chapterDetail, isSaveDrive);
+    @Override
+    public List<CrawlJobItem> processJobItem(CrawlJobItem item) throws Exception {
+        return switch (item.getType()) {
+            case PAGE -> processPageItem(item);
+            case COMIC -> processComicItem(item);
+            case CHAPTER -> {
+                processChapterItem(item);
+                yield List.of();
+            }
+        };
+    }
 
-            List<ChapterImage> chapterImages = chapterDetail.getData().getItem().getChapter_image();
+    /**
+     * Lấy danh sách truyện của 1 trang, mỗi truyện thành 1 item COMIC
+     */
+    private List<CrawlJobItem> processPageItem(CrawlJobItem item) throws Exception {
+        String pageUrl = OTRUYEN_API_URL + item.getTarget();
+        ResponseEntity<OTruyenResponse> responseEntity = crawlEngine.fetch(pageUrl,
+                () -> restTemplate.getForEntity(pageUrl, OTruyenResponse.class));
 
-            if (chapterImages == null || chapterImages.isEmpty()) {
-                log.warn("Không có ảnh nào cho chapter {} của truyện: {}", chapterNumber, comic.getName());
-                return false;
+        if (responseEntity.getStatusCode() != HttpStatus.OK || responseEntity.getBody() == null) {
+            throw new IOException("Không thể lấy dữ liệu từ OTruyen API cho trang " + item.getTarget());
+        }
+
+        List<OTruyenComic> comics = responseEntity.getBody().getData().getItems();
+        if (comics == null) {
+            return List.of();
+        }
+
+        log.info("Thu thập được {} truyện từ trang {}", comics.size(), item.getTarget());
+        return comics.stream()
+                .map(OTruyenComic::getSlug)
+                .filter(slug -> slug != null && !slug.isEmpty())
+                .map(slug -> CrawlJobItem.builder()
+                        .type(CrawlItemType.COMIC)
+                        .target(slug)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Lấy chi tiết truyện, tạo truyện nếu chưa có và sinh item cho các chapter mới hơn chapter mới nhất
+     */
+    private List<CrawlJobItem> processComicItem(CrawlJobItem item) throws Exception {
+        String detailUrl = OTRUYEN_API_COMIC_DETAIL + item.getTarget();
+        ResponseEntity<OTruyenComicDetail> comicDetailResponse = crawlEngine.fetch(detailUrl,
+                () -> restTemplate.getForEntity(detailUrl, OTruyenComicDetail.class));
+
+        if (comicDetailResponse.getStatusCode() != HttpStatus.OK || comicDetailResponse.getBody() == null) {
+            throw new IOException("Không thể lấy chi tiết cho truyện: " + item.getTarget());
+        }
+
+        ComicItem oTruyenComic = comicDetailResponse.getBody().getData().getItem();
+        String slug = StringUtils.generateSlug(oTruyenComic.getName());
+        Comic comic = comicRepository.findBySlug(slug)
+                .orElseGet(() -> createNewComic(oTruyenComic, slug, item.isSaveDrive()));
+
+        Double latestChapterNumber = chapterRepository.findMaxChapterNumberByComicId(comic.getId());
+
+        List<CrawlJobItem> chapterItems = new ArrayList<>();
+        for (OTruyenChapter chapter : selectChapters(oTruyenComic)) {
+            try {
+                double chapterNumber = NumberUtils.parseStringToDouble(chapter.getChapter_name());
+                if (latestChapterNumber != null && chapterNumber <= latestChapterNumber) {
+                    continue;
+                }
+            } catch (NumberFormatException e) {
+                log.error("Không thể phân tích chapter number: " + chapter.getChapter_name(), e);
+                continue;
             }
 
+            chapterItems.add(CrawlJobItem.builder()
+                    .type(CrawlItemType.CHAPTER)
+                    .target(chapter.getChapter_api_data())
+                    .comicId(comic.getId())
+                    .chapterName(chapter.getChapter_name())
+                    .chapterTitle(chapter.getFilename())
+                    .build());
+        }
+
+        log.info("Truyện {}: {} chapter cần crawl", comic.getName(), chapterItems.size());
+        return chapterItems;
+    }
+
+    /**
+     * Tải và lưu 1 chapter. Chapter và ảnh được ghi cùng 1 transaction
+     * nên lỗi giữa chừng không để lại chapter dở dang, lần thử lại sẽ xử lý từ đầu.
+     */
+    private void processChapterItem(CrawlJobItem item) throws Exception {
+        double chapterNumber = NumberUtils.parseStringToDouble(item.getChapterName());
+        Comic comic = comicRepository.findById(item.getComicId())
+                .orElseThrow(() -> new BaseException(ErrorCode.COMIC_NOT_FOUND));
+
+        if (shouldSkipChapter(comic.getId(), chapterNumber, null, false)) {
+            return;
+        }
+
+        OTruyenChapterDetail chapterDetail = fetchChapterDetail(item.getTarget());
+        if (chapterDetail == null) {
+            throw new IOException("Không thể lấy chi tiết cho chapter: " + item.getTarget());
+        }
+
+        OTruyenChapter chapter = new OTruyenChapter();
+        chapter.setChapter_name(item.getChapterName());
+        chapter.setFilename(item.getChapterTitle());
+        chapter.setChapter_api_data(item.getTarget());
+
+        saveChapterWithDetails(chapter, chapterNumber, comic, chapterDetail, item.isSaveDrive());
+    }
+
+    /**
+     * Lấy danh sách chapter cần crawl của truyện (server đầu tiên)
+     */
+    private List<OTruyenChapter> selectChapters(ComicItem item) {
+        if (item.getChapters() == null || item.getChapters().isEmpty()) {
+            return List.of();
+        }
+
+        var firstChapter = item.getChapters().get(0);
+        if (firstChapter == null || firstChapter.getServer_data() == null) {
+            return List.of();
+        }
+
+        List<OTruyenChapter> chapters = firstChapter.getServer_data();
+        if (!CRAWL_FULL && chapters.size() >= 10) {
+            Random random = new Random();
+            int randomChapterSize = random.nextInt(MAX_CHAPTER_SIZE - MIN_CHAPTER_SIZE + 1) + MIN_CHAPTER_SIZE;
+            chapters = chapters.subList(0, randomChapterSize);
+        }
+        return chapters;
+    }
+
+    /**
+     * Lưu chapter và ảnh. Ảnh được tải và upload trước, ngoài transaction;
+     * chapter và toàn bộ ảnh chỉ được ghi DB trong 1 transaction ngắn ở cuối.
+     */
+    private boolean saveChapterWithDetails(OTruyenChapter chapter, double chapterNumber, Comic comic,
+            OTruyenChapterDetail chapterDetail, boolean isSaveDrive) {
+        Chapter chapterNew = buildNewChapter(chapter, chapterNumber, comic, chapterDetail, isSaveDrive);
+
+        List<ChapterImage> chapterImages = chapterDetail.getData().getItem().getChapter_image();
+        List<DetailChapter> detailChapters = List.of();
+
+        if (chapterImages == null || chapterImages.isEmpty()) {
+            log.warn("Không có ảnh nào cho chapter {} của truyện: {}", chapterNumber, comic.getName());
+        } else {
             // Lấy thông tin gốc từ OTruyen để xây dựng URL ảnh
             String originalDomainCdn = chapterDetail.getData().getDomain_cdn();
             String originalChapterPath = chapterDetail.getData().getItem().getChapter_path();
 
-            // Lưu tất cả detail chapter
-            processChapterDetail(chapterImages, chapterNew, isSaveDrive, originalDomainCdn, originalChapterPath);
+            detailChapters = processChapterDetail(chapterImages, chapterNew, isSaveDrive, originalDomainCdn,
+                    originalChapterPath);
+        }
 
-            log.info("Đã commit transaction - lưu thành công chapter {} với {} ảnh cho truyện: {}",
-                    chapterNumber, chapterImages.size(), comic.getName());
-            return true;
-        } catch (Exception e) {
-            log.error("Lỗi trong transaction khi lưu chapter {} cho truyện {}: {}",
-                    chapterNumber, comic.getName(), e.getMessage(), e);
-            // Transaction sẽ tự động rollback khi có exception
+        try {
+            List<DetailChapter> finalDetailChapters = detailChapters;
+            transactionTemplate.executeWithoutResult(status -> {
+                // Flush chapter trước để khóa ngoại của detail_chapters hợp lệ
+                chapterRepository.saveAndFlush(chapterNew);
+                detailChapterRepository.insertAll(finalDetailChapters);
+            });
+        } catch (RuntimeException e) {
+            // Ảnh đã upload (lưu theo nội dung) mà không được tham chiếu sẽ bị bộ dọn ảnh xoá sau
+            log.error("Lỗi khi lưu chapter {} cho truyện {}: {}", chapterNumber, comic.getName(), e.getMessage(), e);
             throw new RuntimeException("Lỗi khi lưu chapter: " + e.getMessage(), e);
         }
+        comicDetailCache.evict(comic.getSlug());
+
+        log.info("Đã lưu chapter {} với {} ảnh cho truyện: {}", chapterNumber, detailChapters.size(), comic.getName());
+        return !detailChapters.isEmpty();
     }
 
     private boolean shouldSkipChapter(String comicId, double chapterNumber,
@@ -614,10 +715,10 @@ public class CrawlerServiceImpl implements CrawlerService {
         return false;
     }
 
-    private OTruyenChapterDetail fetchChapterDetail(String chapterApiData, RestTemplate restTemplate) {
+    private OTruyenChapterDetail fetchChapterDetail(String chapterApiData) {
         try {
-            ResponseEntity<OTruyenChapterDetail> chapterDetailResponse = restTemplate
-                    .getForEntity(chapterApiData, OTruyenChapterDetail.class);
+            ResponseEntity<OTruyenChapterDetail> chapterDetailResponse = crawlEngine.fetch(chapterApiData,
+                    () -> restTemplate.getForEntity(chapterApiData, OTruyenChapterDetail.class));
 
             if (chapterDetailResponse.getStatusCode() != HttpStatus.OK || chapterDetailResponse.getBody() == null) {
                 log.error("Không thể lấy chi tiết cho chapter: {}", chapterApiData);
@@ -631,7 +732,7 @@ public class CrawlerServiceImpl implements CrawlerService {
         }
     }
 
-    private Chapter saveNewChapter(OTruyenChapter chapter, double chapterNumber, Comic comic,
+    private Chapter buildNewChapter(OTruyenChapter chapter, double chapterNumber, Comic comic,
             OTruyenChapterDetail chapterDetail, boolean isSaveDrive) {
         String domainCdn = null;
         String chapterPath = null;
@@ -644,7 +745,7 @@ public class CrawlerServiceImpl implements CrawlerService {
             chapterPath = chapterDetail.getData().getItem().getChapter_path();
         }
 
-        Chapter chapterNew = Chapter.builder()
+        return Chapter.builder()
                 .chapterNumber(chapterNumber)
                 .title(chapter.getFilename())
                 .status(ChapterStatus.FREE)
@@ -652,104 +753,90 @@ public class CrawlerServiceImpl implements CrawlerService {
                 .domainCdn(domainCdn)
                 .chapterPath(chapterPath)
                 .build();
-
-        // Lưu chapter trong transaction
-        chapterNew = chapterRepository.save(chapterNew);
-        log.info("Đã tạo chapter entity: {} cho truyện: {}", chapterNumber, comic.getName());
-
-        return chapterNew;
     }
 
-    private void processChapterDetail(List<ChapterImage> chapterImages, Chapter chapterNew, boolean isSaveDrive,
-            String originalDomainCdn, String originalChapterPath) {
+    private List<DetailChapter> processChapterDetail(List<ChapterImage> chapterImages, Chapter chapterNew,
+            boolean isSaveDrive, String originalDomainCdn, String originalChapterPath) {
 
         if (isSaveDrive && chapterImages.size() > 3) {
             // Sử dụng đa luồng cho việc download ảnh nếu có nhiều ảnh và cần lưu drive
-            processChapterDetailAsync(chapterImages, chapterNew, originalDomainCdn, originalChapterPath);
-        } else {
-            // Xử lý tuần tự cho trường hợp ít ảnh hoặc không lưu drive
-            processChapterDetailSync(chapterImages, chapterNew, isSaveDrive, originalDomainCdn, originalChapterPath);
+            return processChapterDetailAsync(chapterImages, chapterNew, originalDomainCdn, originalChapterPath);
         }
+        // Xử lý tuần tự cho trường hợp ít ảnh hoặc không lưu drive
+        return processChapterDetailSync(chapterImages, chapterNew, isSaveDrive, originalDomainCdn,
+                originalChapterPath);
     }
 
     /**
      * Xử lý detail chapter với đa luồng (cho việc download ảnh)
      */
-    private void processChapterDetailAsync(List<ChapterImage> chapterImages, Chapter chapterNew,
+    private List<DetailChapter> processChapterDetailAsync(List<ChapterImage> chapterImages, Chapter chapterNew,
             String originalDomainCdn, String originalChapterPath) {
-        ExecutorService imageExecutor = Executors.newFixedThreadPool(imageThreads);
-
-        try {
-            List<CompletableFuture<DetailChapter>> imageFutures = new ArrayList<>();
+        List<CompletableFuture<DetailChapter>> imageFutures = new ArrayList<>();
 
-            for (int i = 0; i < chapterImages.size(); i++) {
-                ChapterImage chapterImageItem = chapterImages.get(i);
-                int finalI = i;
+        for (int i = 0; i < chapterImages.size(); i++) {
+            ChapterImage chapterImageItem = chapterImages.get(i);
+            int finalI = i;
 
-                CompletableFuture<DetailChapter> imageFuture = CompletableFuture.supplyAsync(() -> {
-                    try {
-                        // Xây dựng URL gốc từ OTruyen
-                        String originalImageUrl = originalDomainCdn + "/" + originalChapterPath + "/"
-                                + chapterImageItem.getImage_file();
-
-                        String imgUrl = downloadAndSaveChapterImage(originalImageUrl, chapterNew.getComic().getSlug(),
-                                chapterNew.getChapterNumber(), finalI);
-
-                        return DetailChapter.builder()
-                                .orderNumber(chapterImageItem.getImage_page())
-                                .imgUrl(imgUrl)
-                                .chapter(chapterNew)
-                                .build();
-                    } catch (Exception e) {
-                        log.error("Lỗi khi lưu ảnh chapter {}, page {}: {}",
-                                chapterNew.getChapterNumber(), finalI + 1, e.getMessage());
-                        // Fallback về filename gốc nếu không thể upload
-                        return DetailChapter.builder()
-                                .orderNumber(chapterImageItem.getImage_page())
-                                .imgUrl(chapterImageItem.getImage_file())
-                                .chapter(chapterNew)
-                                .build();
-                    }
-                }, imageExecutor);
+            CompletableFuture<DetailChapter> imageFuture = crawlEngine.submit(CrawlEngine.Stage.IMAGE, () -> {
+                try {
+                    // Xây dựng URL gốc từ OTruyen
+                    String originalImageUrl = originalDomainCdn + "/" + originalChapterPath + "/"
+                            + chapterImageItem.getImage_file();
 
-                imageFutures.add(imageFuture);
-            }
+                    StoredBlob blob = downloadAndSaveChapterImage(originalImageUrl);
 
-            // Chờ tất cả ảnh được xử lý và thu thập kết quả
-            List<DetailChapter> detailChapters = new ArrayList<>();
-            for (CompletableFuture<DetailChapter> future : imageFutures) {
-                try {
-                    DetailChapter detailChapter = future.get(3, TimeUnit.MINUTES); // Timeout 3 phút cho mỗi ảnh
-                    detailChapters.add(detailChapter);
+                    return DetailChapter.builder()
+                            .orderNumber(chapterImageItem.getImage_page())
+                            .imgUrl(blob.url())
+                            .contentHash(blob.hash())
+                            .chapter(chapterNew)
+                            .build();
                 } catch (Exception e) {
-                    log.error("Lỗi khi chờ download ảnh hoàn thành cho chapter {}: {}",
-                            chapterNew.getChapterNumber(), e.getMessage());
+                    log.error("Lỗi khi lưu ảnh chapter {}, page {}: {}",
+                            chapterNew.getChapterNumber(), finalI + 1, e.getMessage());
+                    // Fallback về filename gốc nếu không thể upload
+                    return DetailChapter.builder()
+                            .orderNumber(chapterImageItem.getImage_page())
+                            .imgUrl(chapterImageItem.getImage_file())
+                            .chapter(chapterNew)
+                            .build();
                 }
-            }
-
-            // Lưu tất cả detail chapter trong transaction
-            detailChapterRepository.saveAll(detailChapters);
+            });
 
-            log.info("Đã lưu {} detail chapter (async) cho chapter {} của truyện: {}",
-                    detailChapters.size(),
-                    chapterNew.getChapterNumber(),
-                    chapterNew.getComic().getName());
+            imageFutures.add(imageFuture);
+        }
 
-        } finally {
-            shutdownExecutorService(imageExecutor, "Image Executor");
+        // Chờ tất cả ảnh được xử lý và thu thập kết quả
+        List<DetailChapter> detailChapters = new ArrayList<>();
+        for (CompletableFuture<DetailChapter> future : imageFutures) {
+            try {
+                DetailChapter detailChapter = future.get(3, TimeUnit.MINUTES); // Timeout 3 phút cho mỗi ảnh
+                detailChapters.add(detailChapter);
+            } catch (Exception e) {
+                log.error("Lỗi khi chờ download ảnh hoàn thành cho chapter {}: {}",
+                        chapterNew.getChapterNumber(), e.getMessage());
+            }
         }
+
+        log.info("Đã xử lý {} ảnh (async) cho chapter {} của truyện: {}",
+                detailChapters.size(),
+                chapterNew.getChapterNumber(),
+                chapterNew.getComic().getName());
+        return detailChapters;
     }
 
     /**
      * Xử lý detail chapter tuần tự (phương thức gốc)
      */
-    private void processChapterDetailSync(List<ChapterImage> chapterImages, Chapter chapterNew, boolean isSaveDrive,
+    private List<DetailChapter> processChapterDetailSync(List<ChapterImage> chapterImages, Chapter chapterNew, boolean isSaveDrive,
             String originalDomainCdn, String originalChapterPath) {
         List<DetailChapter> detailChapters = new ArrayList<>();
 
         for (int i = 0; i < chapterImages.size(); i++) {
             ChapterImage chapterImageItem = chapterImages.get(i);
             String imgUrl;
+            String contentHash = null;
 
             if (isSaveDrive) {
                 try {
@@ -757,8 +844,9 @@ public class CrawlerServiceImpl implements CrawlerService {
                     String originalImageUrl = originalDomainCdn + "/" + originalChapterPath + "/"
                             + chapterImageItem.getImage_file();
 
-                    imgUrl = downloadAndSaveChapterImage(originalImageUrl, chapterNew.getComic().getSlug(),
-                            chapterNew.getChapterNumber(), i);
+                    StoredBlob blob = downloadAndSaveChapterImage(originalImageUrl);
+                    imgUrl = blob.url();
+                    contentHash = blob.hash();
                 } catch (Exception e) {
                     log.error("Lỗi khi lưu ảnh chapter {}, page {}: {}",
                             chapterNew.getChapterNumber(), i + 1, e.getMessage());
@@ -772,76 +860,94 @@ public class CrawlerServiceImpl implements CrawlerService {
             DetailChapter detailChapter = DetailChapter.builder()
                     .orderNumber(chapterImageItem.getImage_page())
                     .imgUrl(imgUrl)
+                    .contentHash(contentHash)
                     .chapter(chapterNew)
                     .build();
 
             detailChapters.add(detailChapter);
         }
 
-        // Lưu tất cả detail chapter trong transaction
-        detailChapterRepository.saveAll(detailChapters);
-
-        log.info("Đã lưu {} detail chapter (sync) cho chapter {} của truyện: {}",
+        log.info("Đã xử lý {} ảnh (sync) cho chapter {} của truyện: {}",
                 detailChapters.size(),
                 chapterNew.getChapterNumber(),
                 chapterNew.getComic().getName());
+        return detailChapters;
     }
 
     private String downloadAndSaveThumbnail(String imageUrl, String comicSlug) throws IOException {
-        try (InputStream inputStream = URI.create(imageUrl).toURL().openStream()) {
-            String extension = getExtensionFromUrl(imageUrl);
-            if (extension == null) {
-                extension = "jpg";
-            }
+        String extension = getExtensionFromUrl(imageUrl);
+        if (extension == null) {
+            extension = "jpg";
+        }
 
-            String fileName = comicSlug + "_thumb." + extension;
+        String fileName = comicSlug + "_thumb." + extension;
 
-            byte[] imageBytes = inputStream.readAllBytes();
-            MultipartFile multipartFile = new CustomMultipartFile(
-                    "thumbnail",
-                    fileName,
-                    "image/" + extension,
-                    imageBytes);
+        var response = mirrorImage(imageUrl, "image/" + extension, B2Constants.FOLDER_KEY_THUMBNAIL, fileName);
+        return (String) response.getMessage();
+    }
 
-            var response = storageService.uploadFile(multipartFile, B2Constants.FOLDER_KEY_THUMBNAIL, fileName);
+    /**
+     * Lưu ảnh trang theo hash nội dung: ảnh đã có trong storage (trang quảng cáo, ảnh bìa chương
+     * lặp lại, chương crawl lại...) chỉ được tham chiếu lại, không upload thêm.
+     * Giữ slot của host nguồn trong suốt quá trình tải.
+     */
+    private StoredBlob downloadAndSaveChapterImage(String imageUrl) throws IOException {
+        String extension = getExtensionFromUrl(imageUrl);
+        if (extension == null) {
+            extension = "jpg";
+        }
+        String fallbackContentType = "image/" + extension;
+        String fileExtension = extension;
 
-            if (response.getStatus() == 200) {
-                return (String) response.getMessage();
-            } else {
-                throw new IOException("Upload failed with status: " + response.getStatus());
-            }
+        try {
+            return crawlEngine.fetch(imageUrl, () -> {
+                URLConnection connection = URI.create(imageUrl).toURL().openConnection();
+                connection.setConnectTimeout(IMAGE_CONNECT_TIMEOUT_MS);
+                connection.setReadTimeout(IMAGE_READ_TIMEOUT_MS);
+                try (InputStream inputStream = connection.getInputStream()) {
+                    String contentType = connection.getContentType();
+                    if (contentType == null || !contentType.startsWith("image/")) {
+                        contentType = fallbackContentType;
+                    }
+                    return contentBlobService.store(inputStream, fileExtension, contentType);
+                }
+            });
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Không thể chuyển ảnh: " + imageUrl, e);
         }
     }
 
-    private String downloadAndSaveChapterImage(String imageUrl, String comicSlug, Double chapterNumber, int pageIndex)
-            throws IOException {
-        try (InputStream inputStream = URI.create(imageUrl).toURL().openStream()) {
-            String extension = getExtensionFromUrl(imageUrl);
-            if (extension == null) {
-                extension = "jpg";
-            }
-
-            // Tạo filename đơn giản giống ChapterServiceImpl
-            String fileName = String.format("page_%d.%s", pageIndex + 1, extension);
-
-            // Tạo path giống ChapterServiceImpl: slugComic/chapter-number/fileName
-            String slugChapter = String.format("%s/chapter-%s", comicSlug, chapterNumber);
-            String pathName = slugChapter + "/" + fileName;
-
-            byte[] imageBytes = inputStream.readAllBytes();
-            MultipartFile multipartFile = new CustomMultipartFile(
-                    "chapterImage",
-                    fileName,
-                    "image/" + extension,
-                    imageBytes);
-
-            var response = storageService.uploadFile(multipartFile, B2Constants.FOLDER_KEY_COMIC, pathName);
-
-            if (response.getStatus() == 200) {
-                return fileName;
-            } else {
-                throw new IOException("Upload failed with status: " + response.getStatus());
-            }
+    /**
+     * Chuyển ảnh từ nguồn sang storage dạng stream: dữ liệu đi thẳng từ HTTP response
+     * vào request upload, không đọc toàn bộ ảnh vào heap.
+     * Giữ slot của host nguồn trong suốt quá trình chuyển.
+     */
+    private BaseResponse<?> mirrorImage(String imageUrl, String fallbackContentType, String typeFolder,
+            String pathName) throws IOException {
+        try {
+            return crawlEngine.fetch(imageUrl, () -> {
+                URLConnection connection = URI.create(imageUrl).toURL().openConnection();
+                connection.setConnectTimeout(IMAGE_CONNECT_TIMEOUT_MS);
+                connection.setReadTimeout(IMAGE_READ_TIMEOUT_MS);
+                try (InputStream inputStream = connection.getInputStream()) {
+                    String contentType = connection.getContentType();
+                    if (contentType == null || !contentType.startsWith("image/")) {
+                        contentType = fallbackContentType;
+                    }
+                    var response = storageService.uploadStream(inputStream, connection.getContentLengthLong(),
+                            contentType, typeFolder, pathName);
+                    if (response.getStatus() != 200) {
+                        throw new IOException("Upload failed with status: " + response.getStatus());
+                    }
+                    return response;
+                }
+            });
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Không thể chuyển ảnh: " + imageUrl, e);
         }
     }
 
@@ -862,61 +968,4 @@ public class CrawlerServiceImpl implements CrawlerService {
 
         return null;
     }
-
-    /**
-     * Custom implementation của MultipartFile để tạo từ byte array
-     */
-    private static class CustomMultipartFile implements MultipartFile {
-        private final String name;
-        private final String originalFilename;
-        private final String contentType;
-        private final byte[] content;
-
-        public CustomMultipartFile(String name, String originalFilename, String contentType, byte[] content) {
-            this.name = name;
-            this.originalFilename = originalFilename;
-            this.contentType = contentType;
-            this.content = content;
-        }
-
-        @Override
-        public String getName() {
-            return name;
-        }
-
-        @Override
-        public String getOriginalFilename() {
-            return originalFilename;
-        }
-
-        @Override
-        public String getContentType() {
-            return contentType;
-        }
-
-        @Override
-        public boolean isEmpty() {
-            return content == null || content.length == 0;
-        }
-
-        @Override
-        public long getSize() {
-            return content != null ? content.length : 0;
-        }
-
-        @Override
-        public byte[] getBytes() throws IOException {
-            return content;
-        }
-
-        @Override
-        public InputStream getInputStream() throws IOException {
-            return new ByteArrayInputStream(content);
-        }
-
-        @Override
-        public void transferTo(java.io.File dest) throws IOException, IllegalStateException {
-            throw new UnsupportedOperationException("transferTo not supported");
-        }
-    }
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package com.thjvjpxx.backend_comic.service.impl;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,23 +20,24 @@ import com.thjvjpxx.backend_comic.enums.ErrorCode;
 import com.thjvjpxx.backend_comic.exception.BaseException;
 import com.thjvjpxx.backend_comic.model.Chapter;
 import com.thjvjpxx.backend_comic.model.Comic;
-import com.thjvjpxx.backend_comic.model.ComicViewsHistory;
 import com.thjvjpxx.backend_comic.model.DetailChapter;
 import com.thjvjpxx.backend_comic.model.Level;
-import com.thjvjpxx.backend_comic.model.PurchasedChapter;
-import com.thjvjpxx.backend_comic.model.ReadingHistory;
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
 import com.thjvjpxx.backend_comic.model.User;
 import com.thjvjpxx.backend_comic.model.UserFollow;
 import com.thjvjpxx.backend_comic.repository.ChapterRepository;
 import com.thjvjpxx.backend_comic.repository.ComicRepository;
-import com.thjvjpxx.backend_comic.repository.ComicViewsHistoryRepository;
 import com.thjvjpxx.backend_comic.repository.DetailChapterRepository;
 import com.thjvjpxx.backend_comic.repository.LevelRepository;
 import com.thjvjpxx.backend_comic.repository.PurchasedChapterRepository;
-import com.thjvjpxx.backend_comic.repository.ReadingHistoryRepository;
 import com.thjvjpxx.backend_comic.repository.UserFollowRepository;
 import com.thjvjpxx.backend_comic.repository.UserRepository;
 import com.thjvjpxx.backend_comic.service.DetailComicService;
+import com.thjvjpxx.backend_comic.service.ReadingProgressService;
+import com.thjvjpxx.backend_comic.service.ViewCounterService;
+import com.thjvjpxx.backend_comic.utils.ComicDetailCache;
+import com.thjvjpxx.backend_comic.utils.UserPrincipalCache;
+import com.thjvjpxx.backend_comic.utils.ComicDetailCache.ComicDetail;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -52,54 +53,108 @@ public class DetailComicServiceImpl implements DetailComicService {
     UserFollowRepository userFollowRepo;
     UserRepository userRepo;
     DetailChapterRepository detailChapterRepo;
-    ComicViewsHistoryRepository comicViewsHistoryRepo;
     PurchasedChapterRepository purchasedChapterRepo;
     LevelRepository levelRepo;
-    ReadingHistoryRepository readingHistoryRepo;
+    ReadingProgressService readingProgressService;
+    ViewCounterService viewCounterService;
+    ComicDetailCache comicDetailCache;
+    UserPrincipalCache userPrincipalCache;
 
     @Override
     public BaseResponse<?> getComicDetail(String slug, User user) {
-        Optional<Comic> comicOpt = comicRepo.findBySlug(slug);
-        if (comicOpt.isEmpty()) {
-            throw new BaseException(ErrorCode.COMIC_NOT_FOUND);
+        ComicDetail shared = comicDetailCache.get(slug, () -> loadComicDetail(slug));
+        DetailComicResponse template = shared.response();
+        List<ChapterSummary> templateChapters = template.getChapters();
+
+        // Phần riêng của user: bit theo vị trí chương, tra O(1) cho mỗi chương
+        BitSet read = new BitSet(templateChapters.size());
+        BitSet purchased = new BitSet(templateChapters.size());
+        String lastChapterId = null;
+        if (user != null) {
+            Optional<ReadingProgress> progress = readingProgressService.getProgress(user.getId(), template.getId());
+            if (progress.isPresent()) {
+                setReadBits(read, progress.get().readChapterBits(), shared.readOrdinals());
+                lastChapterId = progress.get().getLastChapterId();
+            }
+            setChapterBits(purchased, purchasedChapterRepo.findPurchasedChapterIds(user.getId(), template.getId()),
+                    shared.chapterIndex());
+            purchased.or(shared.freeChapters());
         }
-        Comic comic = comicOpt.get();
 
-        List<Chapter> chapters = chapterRepo.findByComicId(comic.getId());
+        List<ChapterSummary> chapterSummaries = new ArrayList<>(templateChapters.size());
+        for (int i = 0; i < templateChapters.size(); i++) {
+            ChapterSummary chapter = templateChapters.get(i);
+            chapterSummaries.add(ChapterSummary.builder()
+                    .id(chapter.getId())
+                    .title(chapter.getTitle())
+                    .domainCdn(chapter.getDomainCdn())
+                    .chapterPath(chapter.getChapterPath())
+                    .chapterNumber(chapter.getChapterNumber())
+                    .price(chapter.getPrice())
+                    .status(chapter.getStatus())
+                    .hasPurchased(user != null ? purchased.get(i) : null)
+                    .hasAudio(chapter.getHasAudio())
+                    .isRead(read.get(i))
+                    .createdAt(chapter.getCreatedAt())
+                    .updatedAt(chapter.getUpdatedAt())
+                    .build());
+        }
 
-        List<ReadingHistory> readingHistories = readingHistoryRepo.findByComicId(comic.getId());
+        DetailComicResponse response = DetailComicResponse.builder()
+                .id(template.getId())
+                .name(template.getName())
+                .slug(template.getSlug())
+                .originName(template.getOriginName())
+                .thumbUrl(template.getThumbUrl())
+                .author(template.getAuthor())
+                .status(template.getStatus())
+                .followersCount(template.getFollowersCount())
+                .viewsCount(template.getViewsCount())
+                .description(template.getDescription())
+                .lastChapterId(lastChapterId)
+                .categories(template.getCategories())
+                .chapters(chapterSummaries)
+                .createdAt(template.getCreatedAt())
+                .updatedAt(template.getUpdatedAt())
+                .build();
 
-        // Tạo Map chứa thông tin chapter đã mua nếu user đăng nhập
-        Map<String, Boolean> purchasedChaptersMap = new HashMap<>();
-        if (user != null) {
-            List<PurchasedChapter> purchasedChapters = purchasedChapterRepo.findByUserAndComic(user, comic);
-            purchasedChaptersMap = purchasedChapters.stream()
-                    .collect(Collectors.toMap(
-                            pc -> pc.getChapter().getId(),
-                            pc -> true));
+        return BaseResponse.success(response);
+    }
+
+    /**
+     * Nạp phần dùng chung của trang chi tiết comic (không phụ thuộc người dùng)
+     */
+    private ComicDetail loadComicDetail(String slug) {
+        Comic comic = comicRepo.findBySlug(slug)
+                .orElseThrow(() -> new BaseException(ErrorCode.COMIC_NOT_FOUND));
+
+        List<Chapter> chapters = new ArrayList<>(chapterRepo.findByComicId(comic.getId()));
+        chapters.sort((a, b) -> Double.compare(a.getChapterNumber(), b.getChapterNumber()));
+
+        List<ChapterSummary> chapterSummaries = new ArrayList<>(chapters.size());
+        Map<String, Integer> chapterIndex = new HashMap<>(chapters.size() * 2);
+        BitSet freeChapters = new BitSet(chapters.size());
+        int[] readOrdinals = new int[chapters.size()];
+        for (Chapter chapter : chapters) {
+            int index = chapterSummaries.size();
+            chapterIndex.put(chapter.getId(), index);
+            if (chapter.isFree()) {
+                freeChapters.set(index);
+            }
+            readOrdinals[index] = chapter.getReadOrdinal() != null ? chapter.getReadOrdinal() : -1;
+            chapterSummaries.add(ChapterSummary.builder()
+                    .id(chapter.getId())
+                    .title(chapter.getTitle())
+                    .domainCdn(chapter.getDomainCdn())
+                    .chapterPath(chapter.getChapterPath())
+                    .chapterNumber(chapter.getChapterNumber())
+                    .price(chapter.getPrice())
+                    .status(chapter.getStatus().name())
+                    .hasAudio(chapter.getHasAudio())
+                    .createdAt(chapter.getCreatedAt())
+                    .updatedAt(chapter.getUpdatedAt())
+                    .build());
         }
-        Map<String, Boolean> finalPurchasedChaptersMap = purchasedChaptersMap;
-
-        List<ChapterSummary> chapterSummaries = chapters.stream()
-                .map(chapter -> ChapterSummary.builder()
-                        .id(chapter.getId())
-                        .title(chapter.getTitle())
-                        .domainCdn(chapter.getDomainCdn())
-                        .chapterPath(chapter.getChapterPath())
-                        .chapterNumber(chapter.getChapterNumber())
-                        .price(chapter.getPrice())
-                        .status(chapter.getStatus().name())
-                        .hasPurchased(
-                                user != null ? finalPurchasedChaptersMap.getOrDefault(chapter.getId(), chapter.isFree())
-                                        : null)
-                        .hasAudio(chapter.getHasAudio())
-                        .isRead(readingHistories.stream()
-                                .anyMatch(rh -> rh.getChapter().getId().equals(chapter.getId())))
-                        .createdAt(chapter.getCreatedAt())
-                        .updatedAt(chapter.getUpdatedAt())
-                        .build())
-                .sorted((a, b) -> Double.compare(a.getChapterNumber(), b.getChapterNumber()))
-                .collect(Collectors.toList());
 
         DetailComicResponse response = DetailComicResponse.builder()
                 .id(comic.getId())
@@ -112,13 +167,34 @@ public class DetailComicServiceImpl implements DetailComicService {
                 .followersCount(comic.getFollowersCount())
                 .viewsCount(comic.getViewsCount())
                 .description(comic.getDescription())
-                .categories(comic.getCategories().stream().collect(Collectors.toList()))
-                .chapters(chapterSummaries)
+                .categories(List.copyOf(comic.getCategories()))
+                .chapters(List.copyOf(chapterSummaries))
                 .createdAt(comic.getCreatedAt())
                 .updatedAt(comic.getUpdatedAt())
                 .build();
 
-        return BaseResponse.success(response);
+        return new ComicDetail(response, chapterIndex, freeChapters, readOrdinals);
+    }
+
+    /**
+     * Đổi bitmap theo số thứ tự đọc (ReadingProgress) sang bit theo vị trí chương
+     */
+    private static void setReadBits(BitSet bits, BitSet readOrdinals, int[] ordinals) {
+        for (int i = 0; i < ordinals.length; i++) {
+            if (ordinals[i] >= 0 && readOrdinals.get(ordinals[i])) {
+                bits.set(i);
+            }
+        }
+    }
+
+    private static void setChapterBits(BitSet bits, List<String> chapterIds, Map<String, Integer> chapterIndex) {
+        for (String chapterId : chapterIds) {
+            // Chương mới thêm sau khi cache được nạp thì chưa có vị trí, bỏ qua tới lượt nạp sau
+            Integer index = chapterIndex.get(chapterId);
+            if (index != null) {
+                bits.set(index);
+            }
+        }
     }
 
     @Override
@@ -148,6 +224,7 @@ public class DetailComicServiceImpl implements DetailComicService {
 
         comic.setFollowersCount(comic.getFollowersCount() + 1);
         comicRepo.save(comic);
+        comicDetailCache.evict(comic.getSlug());
 
         return BaseResponse.success("Theo dõi truyện thành công!");
     }
@@ -170,6 +247,7 @@ public class DetailComicServiceImpl implements DetailComicService {
         Comic comic = comicOpt.get();
         comic.setFollowersCount(comic.getFollowersCount() - 1);
         comicRepo.save(comic);
+        comicDetailCache.evict(comic.getSlug());
 
         return BaseResponse.success("Hủy theo dõi truyện thành công!");
     }
@@ -212,15 +290,14 @@ public class DetailComicServiceImpl implements DetailComicService {
             throw new BaseException(ErrorCode.DETAIL_CHAPTER_NOT_FOUND);
         }
 
-        // Tăng số lượt xem truyện
+        // Tăng số lượt xem truyện (ghi xuống DB theo lô)
         Comic comic = chapter.getComic();
-        incrementViewsCount(comic);
-        incrementComicViewsHistory(comic);
+        viewCounterService.recordView(comic.getId());
 
         // Tăng exp cho user khi đọc chapter (nếu đã đăng nhập)
         if (user != null) {
             gainExp(user);
-            addReadingHistory(user, chapter);
+            readingProgressService.recordRead(user.getId(), chapter);
         }
 
         String comicId = chapter.getComic().getId();
@@ -233,6 +310,8 @@ public class DetailComicServiceImpl implements DetailComicService {
                         .orderNumber(detailChapter.getOrderNumber())
                         .ttsUrl(detailChapter.getTtsUrl())
                         .hasBubble(detailChapter.getHasBubble())
+                        .variants(detailChapter.getVariants())
+                        .segments(detailChapter.getSegments())
                         .build())
                 .sorted((a, b) -> Integer.compare(a.getOrderNumber(), b.getOrderNumber()))
                 .collect(Collectors.toList());
@@ -274,36 +353,26 @@ public class DetailComicServiceImpl implements DetailComicService {
         // Tính toán exp amount phù hợp dựa trên level hiện tại
         int expAmount = calculateExpReward(user);
 
-        int newCurrentExp = user.getCurrentExp() + expAmount;
-        user.setCurrentExp(newCurrentExp);
+        // user có thể là bản trong UserPrincipalCache: chỉ cập nhật đúng cột cần đổi, không save cả entity
+        if (expAmount > 0) {
+            userRepo.addExp(user.getId(), expAmount);
+        }
 
         Level currentLevel = user.getLevel();
-        if (currentLevel != null) {
-            checkAndUpgradeLevel(user, currentLevel);
+        Integer currentExp = userRepo.findCurrentExpById(user.getId());
+        if (currentLevel != null && currentExp != null) {
+            Level reachedLevel = findReachedLevel(currentLevel, currentExp);
+            if (!reachedLevel.getId().equals(currentLevel.getId())) {
+                userRepo.upgradeLevel(user.getId(), currentLevel, reachedLevel);
+            }
         }
-
-        // Lưu user với thông tin mới
-        userRepo.save(user);
+        userPrincipalCache.evictAfterCommit(user.getId());
 
         return BaseResponse.success("Thành công");
     }
 
     // ===================== HELPER METHODS =====================
 
-    private void addReadingHistory(User user, Chapter chapter) {
-        // check if reading history exists
-        Optional<ReadingHistory> readingHistoryOpt = readingHistoryRepo.findByUserAndChapter(user, chapter);
-        if (readingHistoryOpt.isPresent()) {
-            return;
-        }
-
-        ReadingHistory readingHistory = ReadingHistory.builder()
-                .user(user)
-                .chapter(chapter)
-                .build();
-        readingHistoryRepo.save(readingHistory);
-    }
-
     /**
      * Tính toán số exp phù hợp dựa trên level hiện tại của user
      * 
@@ -347,13 +416,13 @@ public class DetailComicServiceImpl implements DetailComicService {
     }
 
     /**
-     * Kiểm tra và nâng cấp level cho user nếu đủ exp
+     * Tìm level cao nhất user đạt được với số exp hiện có
      * 
-     * @param user         User cần kiểm tra
-     * @param currentLevel Level hiện tại của user
+     * @param currentLevel   Level hiện tại của user
+     * @param userCurrentExp Exp hiện tại của user
+     * @return Level đạt được (chính currentLevel nếu chưa đủ exp lên level)
      */
-    private void checkAndUpgradeLevel(User user, Level currentLevel) {
-        int userCurrentExp = user.getCurrentExp();
+    private Level findReachedLevel(Level currentLevel, int userCurrentExp) {
         int currentLevelNumber = currentLevel.getLevelNumber();
 
         // Tìm level tiếp theo trong cùng level type
@@ -364,46 +433,13 @@ public class DetailComicServiceImpl implements DetailComicService {
         if (nextLevelOpt.isPresent()) {
             Level nextLevel = nextLevelOpt.get();
             if (userCurrentExp >= nextLevel.getExpRequired()) {
-                user.setLevel(nextLevel);
                 // Có thể trừ exp đã dùng để lên level hoặc giữ nguyên tùy theo logic game
                 // user.setCurrentExp(userCurrentExp - nextLevel.getExpRequired());
 
                 // Đệ quy kiểm tra có thể lên level tiếp theo nữa không
-                checkAndUpgradeLevel(user, nextLevel);
+                return findReachedLevel(nextLevel, userCurrentExp);
             }
         }
-    }
-
-    /**
-     * Tăng số lượt xem truyện
-     * 
-     * @param comic Comic cần tăng số lượt xem
-     */
-    private void incrementViewsCount(Comic comic) {
-        comic.setViewsCount(comic.getViewsCount() + 1);
-        comicRepo.save(comic);
-    }
-
-    /**
-     * Tăng số lượt xem truyện vào bảng comic_views_history
-     * 
-     * @param comic Comic cần tăng số lượt xem
-     */
-    private void incrementComicViewsHistory(Comic comic) {
-        LocalDateTime date = LocalDate.now().atStartOfDay();
-        Optional<ComicViewsHistory> comicViewsHistoryOpt = comicViewsHistoryRepo
-                .findByComicIdAndViewDate(comic.getId(), date);
-        if (comicViewsHistoryOpt.isPresent()) {
-            ComicViewsHistory comicViewsHistory = comicViewsHistoryOpt.get();
-            comicViewsHistory.setViewCount(comicViewsHistory.getViewCount() + 1);
-            comicViewsHistoryRepo.save(comicViewsHistory);
-        } else {
-            ComicViewsHistory comicViewsHistory = ComicViewsHistory.builder()
-                    .comic(comic)
-                    .viewDate(date)
-                    .viewCount(1)
-                    .build();
-            comicViewsHistoryRepo.save(comicViewsHistory);
-        }
+        return currentLevel;
     }
 }
@@ -3,6 +3,9 @@ package com.thjvjpxx.backend_comic.service.impl;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,13 +23,14 @@ import com.thjvjpxx.backend_comic.dto.response.HomeResponse.ComicHistory;
 import com.thjvjpxx.backend_comic.dto.response.HomeResponse.ComicLastUpdate;
 import com.thjvjpxx.backend_comic.dto.response.HomeResponse.PopulerToday;
 import com.thjvjpxx.backend_comic.dto.response.UserProfileResponse;
+import com.thjvjpxx.backend_comic.enums.ComicStatus;
 import com.thjvjpxx.backend_comic.enums.ErrorCode;
 import com.thjvjpxx.backend_comic.exception.BaseException;
 import com.thjvjpxx.backend_comic.model.Category;
 import com.thjvjpxx.backend_comic.model.Comic;
 import com.thjvjpxx.backend_comic.model.Level;
 import com.thjvjpxx.backend_comic.model.LevelType;
-import com.thjvjpxx.backend_comic.model.ReadingHistory;
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
 import com.thjvjpxx.backend_comic.model.User;
 import com.thjvjpxx.backend_comic.model.UserFollow;
 import com.thjvjpxx.backend_comic.repository.CategoryRepository;
@@ -34,11 +38,14 @@ import com.thjvjpxx.backend_comic.repository.ChapterRepository;
 import com.thjvjpxx.backend_comic.repository.ComicRepository;
 import com.thjvjpxx.backend_comic.repository.LevelRepository;
 import com.thjvjpxx.backend_comic.repository.LevelTypeRepository;
-import com.thjvjpxx.backend_comic.repository.ReadingHistoryRepository;
 import com.thjvjpxx.backend_comic.repository.UserFollowRepository;
 import com.thjvjpxx.backend_comic.repository.UserRepository;
+import com.thjvjpxx.backend_comic.service.ComicFacetService;
+import com.thjvjpxx.backend_comic.service.ComicSearchService;
 import com.thjvjpxx.backend_comic.service.HomeService;
+import com.thjvjpxx.backend_comic.service.ReadingProgressService;
 import com.thjvjpxx.backend_comic.service.StorageService;
+import com.thjvjpxx.backend_comic.utils.ComicBatchLoader;
 import com.thjvjpxx.backend_comic.utils.FileUtils;
 import com.thjvjpxx.backend_comic.utils.PaginationUtils;
 import com.thjvjpxx.backend_comic.utils.StringUtils;
@@ -61,7 +68,10 @@ public class HomeServiceImpl implements HomeService {
     LevelRepository levelRepo;
     LevelTypeRepository levelTypeRepo;
     StorageService storageService;
-    ReadingHistoryRepository readingHistoryRepo;
+    ReadingProgressService readingProgressService;
+    ComicBatchLoader comicBatchLoader;
+    ComicSearchService comicSearchService;
+    ComicFacetService comicFacetService;
 
     @Override
     public BaseResponse<?> getHomeComic() {
@@ -93,29 +103,42 @@ public class HomeServiceImpl implements HomeService {
     @Override
     public BaseResponse<?> getComicByCategory(String slug, int page, int size) {
         Pageable pageable = PaginationUtils.createPageable(page, size);
-        Page<Comic> comics = comicRepo.findBySlugCategory(slug, pageable);
+        Page<Comic> comics = comicFacetService.browse(comicFacetService.resolveCategorySlugs(List.of(slug)), true,
+                null, pageable);
 
-        List<PopulerToday> populerToday = new ArrayList<>();
+        List<PopulerToday> populerToday = comicBatchLoader.toPopulerToday(comics.getContent());
 
-        for (Comic comic : comics.getContent()) {
-            Double latestChapter = chapterRepo.findMaxChapterNumberByComicId(comic.getId());
-            populerToday.add(PopulerToday.builder()
-                    .id(comic.getId())
-                    .thumbUrl(comic.getThumbUrl())
-                    .slug(comic.getSlug())
-                    .name(comic.getName())
-                    .viewCount((long) comic.getViewsCount())
-                    .latestChapter(latestChapter)
-                    .build());
+        return BaseResponse.success(populerToday);
+    }
+
+    @Override
+    public BaseResponse<?> browseComics(List<String> categories, String match, String status, int page, int size) {
+        Pageable pageable = PaginationUtils.createPageable(page, size);
+        ComicStatus comicStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                comicStatus = ComicStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BaseException(ErrorCode.INVALID_ARGUMENT);
+            }
         }
+        Page<Comic> comics = comicFacetService.browse(comicFacetService.resolveCategorySlugs(categories),
+                !"any".equalsIgnoreCase(match), comicStatus, pageable);
 
-        return BaseResponse.success(populerToday);
+        List<PopulerToday> populerToday = comicBatchLoader.toPopulerToday(comics.getContent());
+
+        return BaseResponse.success(
+                populerToday,
+                pageable.getPageNumber() + 1,
+                (int) comics.getTotalElements(),
+                pageable.getPageSize(),
+                comics.getTotalPages());
     }
 
     @Override
     public BaseResponse<?> searchComic(String query, int page, int size) {
         Pageable pageable = PaginationUtils.createPageable(page, size);
-        Page<Comic> comics = comicRepo.findBySlugContainingOrNameContaining(query, query, pageable);
+        Page<Comic> comics = comicSearchService.searchComics(query, pageable);
 
         return BaseResponse.success(comics.getContent());
     }
@@ -125,21 +148,9 @@ public class HomeServiceImpl implements HomeService {
         Pageable pageable = PaginationUtils.createPageable(page, size);
         Page<UserFollow> favorites = userFollowRepo.findByUserId(user.getId(), pageable);
 
-        List<PopulerToday> populerToday = new ArrayList<>();
-
-        for (UserFollow favorite : favorites.getContent()) {
-            Comic comic = favorite.getComic();
-            Double latestChapter = chapterRepo.findMaxChapterNumberByComicId(comic.getId());
+        List<Comic> comics = favorites.getContent().stream().map(UserFollow::getComic).toList();
+        List<PopulerToday> populerToday = comicBatchLoader.toPopulerToday(comics);
 
-            populerToday.add(PopulerToday.builder()
-                    .id(comic.getId())
-                    .thumbUrl(comic.getThumbUrl())
-                    .slug(comic.getSlug())
-                    .name(comic.getName())
-                    .viewCount((long) comic.getViewsCount())
-                    .latestChapter(latestChapter)
-                    .build());
-        }
         return BaseResponse.success(populerToday);
     }
 
@@ -172,11 +183,12 @@ public class HomeServiceImpl implements HomeService {
         if (!request.getNewPassword().equals(request.getConfirmPassword())) {
             throw new BaseException(ErrorCode.PASSWORD_AND_CONFIRM_NOT_MATCH);
         }
-        if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
+        User managed = loadManagedUser(user);
+        if (!passwordEncoder.matches(request.getOldPassword(), managed.getPassword())) {
             throw new BaseException(ErrorCode.INVALID_OLD_PASSWORD);
         }
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepo.save(user);
+        managed.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        userRepo.save(managed);
         return BaseResponse.success("Đổi mật khẩu thành công");
     }
 
@@ -190,8 +202,9 @@ public class HomeServiceImpl implements HomeService {
         Level newLevel = levelRepo.findByLevelNumberAndLevelType(levelNumber, levelType)
                 .orElseThrow(() -> new BaseException(ErrorCode.LEVEL_NOT_FOUND));
 
-        user.setLevel(newLevel);
-        userRepo.save(user);
+        User managed = loadManagedUser(user);
+        managed.setLevel(newLevel);
+        userRepo.save(managed);
         return BaseResponse.success("Cập nhật thông tin thành công");
     }
 
@@ -220,10 +233,20 @@ public class HomeServiceImpl implements HomeService {
 
         // Cập nhật URL avatar mới cho user
         String newImgUrl = response.getMessage();
-        user.setImgUrl(newImgUrl);
-        userRepo.save(user);
+        User managed = loadManagedUser(user);
+        managed.setImgUrl(newImgUrl);
+        userRepo.save(managed);
+
+        return BaseResponse.success(managed.getImgUrl());
+    }
 
-        return BaseResponse.success(user.getImgUrl());
+    /**
+     * Đọc lại user từ DB trước khi sửa: user truyền vào có thể là bản trong UserPrincipalCache
+     * với số dư, VIP, exp đã cũ, save bản đó sẽ ghi đè các thay đổi mới hơn
+     */
+    private User loadManagedUser(User user) {
+        return userRepo.findById(user.getId())
+                .orElseThrow(() -> new BaseException(ErrorCode.USER_NOT_FOUND));
     }
 
     @Override
@@ -232,15 +255,25 @@ public class HomeServiceImpl implements HomeService {
 
         int originalPage = page;
 
-        // Lấy danh sách comic distinct từ lịch sử đọc của user với phân trang
-        Page<ReadingHistory> historyPage = readingHistoryRepo.findDistinctComicsByUserId(user.getId(), pageable);
+        // Mỗi comic đã đọc là 1 dòng tiến độ, đọc gần nhất trước
+        Page<ReadingProgress> historyPage = readingProgressService.getHistory(user.getId(), pageable);
 
         List<ComicHistory> historyComics = new ArrayList<>();
 
-        for (ReadingHistory history : historyPage.getContent()) {
-            Comic comic = history.getChapter().getComic();
-            Double latestChapter = chapterRepo.findMaxChapterNumberByComicId(comic.getId());
-            Double alreadyRead = readingHistoryRepo.findMaxChapterNumberReadByUserAndComic(user.getId(), comic.getId());
+        // Nạp comic và chapter mới nhất của cả trang, mỗi loại 1 query
+        List<String> comicIds = historyPage.getContent().stream()
+                .map(ReadingProgress::getComicId)
+                .toList();
+        Map<String, Comic> comicsById = comicRepo.findAllById(comicIds).stream()
+                .collect(Collectors.toMap(Comic::getId, Function.identity()));
+        Map<String, Double> latestChapters = comicBatchLoader.loadLatestChapterNumbers(comicIds);
+
+        for (ReadingProgress progress : historyPage.getContent()) {
+            Comic comic = comicsById.get(progress.getComicId());
+            if (comic == null) {
+                continue;
+            }
+            Double latestChapter = latestChapters.get(comic.getId());
 
             ComicHistory comicHistory = ComicHistory.builder()
                     .id(comic.getId())
@@ -249,7 +282,9 @@ public class HomeServiceImpl implements HomeService {
                     .name(comic.getName())
                     .viewCount((long) comic.getViewsCount())
                     .latestChapter(latestChapter)
-                    .alreadyRead(alreadyRead)
+                    .alreadyRead(progress.getMaxChapterNumber())
+                    .lastChapterId(progress.getLastChapterId())
+                    .lastChapterNumber(progress.getLastChapterNumber())
                     .build();
 
             historyComics.add(comicHistory);
@@ -0,0 +1,128 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
+import com.thjvjpxx.backend_comic.event.HomeContentChangedEvent;
+import com.thjvjpxx.backend_comic.service.HomeService;
+import com.thjvjpxx.backend_comic.service.HomeSnapshotService;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class HomeSnapshotServiceImpl implements HomeSnapshotService {
+
+    HomeService homeService;
+    ObjectMapper objectMapper;
+
+    AtomicReference<HomeSnapshot> current = new AtomicReference<>();
+    AtomicBoolean stale = new AtomicBoolean(false);
+    Object buildLock = new Object();
+
+    @Override
+    public HomeSnapshot getSnapshot() {
+        HomeSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        // Chưa có snapshot (vừa khởi động) -> chỉ 1 thread build, các thread khác chờ
+        synchronized (buildLock) {
+            snapshot = current.get();
+            if (snapshot == null) {
+                snapshot = build();
+            }
+            return snapshot;
+        }
+    }
+
+    @Override
+    public void refresh() {
+        synchronized (buildLock) {
+            stale.set(false);
+            build();
+        }
+    }
+
+    @Override
+    public void markStale() {
+        stale.set(true);
+    }
+
+    /**
+     * Build lại định kỳ vì bảng xếp hạng lượt xem thay đổi liên tục
+     */
+    @Scheduled(initialDelayString = "${app.home-snapshot.initial-delay:0}", fixedDelayString = "${app.home-snapshot.refresh-interval:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // Giữ snapshot cũ, lượt sau sẽ thử lại
+            log.error("Lỗi khi build snapshot trang chủ: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gom các sự kiện thay đổi trong một khoảng ngắn rồi build 1 lần
+     */
+    @Scheduled(fixedDelayString = "${app.home-snapshot.debounce:5000}")
+    public void refreshIfStale() {
+        if (!stale.get()) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (Exception e) {
+            stale.set(true);
+            log.error("Lỗi khi build snapshot trang chủ: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Đánh dấu cũ sau khi transaction ghi dữ liệu commit, tránh build lại từ dữ liệu chưa commit
+     * rồi bỏ cờ stale. Sự kiện phát ngoài transaction (crawler, publish 2 pha) được xử lý ngay.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHomeContentChanged(HomeContentChangedEvent event) {
+        log.debug("Snapshot trang chủ bị đánh dấu cũ bởi: {}", event.getSource());
+        markStale();
+    }
+
+    /**
+     * Build snapshot từ HomeService, giữ nguyên snapshot cũ nếu dữ liệu không đổi
+     * để ETag phía client vẫn còn hiệu lực
+     */
+    private HomeSnapshot build() {
+        BaseResponse<?> response = homeService.getHomeComic();
+        try {
+            String etag = "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(response.getData())) + "\"";
+
+            HomeSnapshot previous = current.get();
+            if (previous != null && previous.getEtag().equals(etag)) {
+                return previous;
+            }
+
+            HomeSnapshot snapshot = new HomeSnapshot(objectMapper.writeValueAsBytes(response), etag,
+                    LocalDateTime.now());
+            current.set(snapshot);
+            return snapshot;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không thể serialize snapshot trang chủ", e);
+        }
+    }
+}
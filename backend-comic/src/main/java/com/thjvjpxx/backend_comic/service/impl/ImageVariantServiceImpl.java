@@ -0,0 +1,284 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.IIOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thjvjpxx.backend_comic.constant.B2Constants;
+import com.thjvjpxx.backend_comic.dto.response.ImageSegment;
+import com.thjvjpxx.backend_comic.dto.response.ImageVariant;
+import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.exception.BaseException;
+import com.thjvjpxx.backend_comic.repository.DetailChapterRepository;
+import com.thjvjpxx.backend_comic.service.ImageVariantService;
+import com.thjvjpxx.backend_comic.service.StorageService;
+import com.thjvjpxx.backend_comic.utils.ImageTiler;
+import com.thjvjpxx.backend_comic.utils.ImageTranscoder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+    // Giá trị lưu cho ảnh không tạo được variant (định dạng không đọc được, ảnh đã đủ nhỏ)
+    static final String NO_VARIANTS = "[]";
+
+    DetailChapterRepository detailChapterRepository;
+    StorageService storageService;
+    ImageTranscoder imageTranscoder;
+    ImageTiler imageTiler;
+    ObjectMapper objectMapper;
+
+    @NonFinal
+    @Value("${app.image-variants.enabled:true}")
+    boolean enabled;
+
+    @NonFinal
+    @Value("${app.image-variants.widths:480,720,1080}")
+    int[] widths;
+
+    @NonFinal
+    @Value("${app.image-variants.batch-size:20}")
+    int batchSize;
+
+    // Ảnh giải mã nằm hoàn toàn trong heap nên giới hạn số ảnh xử lý đồng thời
+    @NonFinal
+    @Value("${app.image-variants.concurrency:2}")
+    int concurrency;
+
+    @NonFinal
+    @Value("${b2.bucketName}")
+    String bucketName;
+
+    @NonFinal
+    ExecutorService workers;
+
+    // Vị trí keyset của lượt quét hiện tại, quay về đầu khi hết để thử lại ảnh lỗi tạm thời
+    @NonFinal
+    String lastId = "";
+
+    // Lô đang xử lý trên workers, lượt quét sau chỉ lấy lô mới khi lô này xong
+    @NonFinal
+    volatile CompletableFuture<Void> running = CompletableFuture.completedFuture(null);
+
+    @PostConstruct
+    public void init() {
+        workers = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        widths = Arrays.stream(widths).filter(width -> width > 0).sorted().distinct().toArray();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.image-variants.interval:30000}")
+    public void processPendingPages() {
+        if (!enabled || !running.isDone()) {
+            return;
+        }
+
+        String domainCdn = B2Constants.URL_PREFIX + bucketName + "/" + B2Constants.FOLDER_KEY_COMIC;
+        List<Object[]> pages = detailChapterRepository.findPendingVariantPages(lastId, domainCdn, batchSize);
+        if (pages.isEmpty()) {
+            lastId = "";
+            return;
+        }
+        lastId = (String) pages.get(pages.size() - 1)[0];
+
+        // Không chờ lô xong: thread của scheduler còn phục vụ các tác vụ định kỳ khác
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(pages.size());
+        for (Object[] page : pages) {
+            tasks.add(CompletableFuture.runAsync(
+                    () -> processPage((String) page[0], (String) page[1], (String) page[2]), workers));
+        }
+        running = CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new));
+    }
+
+    private void processPage(String id, String imgUrl, String chapterPath) {
+        String key = storageKeyOf(imgUrl, chapterPath);
+        Path original = null;
+        try {
+            original = Files.createTempFile("page-", ".img");
+            long originalSize = storageService.downloadFile(key, original);
+
+            // Ảnh dài: chỉ cắt đoạn, không giải mã cả ảnh để tạo variant
+            if (imageTiler.shouldSplit(imageTiler.readSize(original))) {
+                List<ImageSegment> segments = createSegments(original, imgUrl, chapterPath);
+                detailChapterRepository.updateVariantsAndSegments(id, NO_VARIANTS,
+                        objectMapper.writeValueAsString(segments));
+                return;
+            }
+
+            BufferedImage source = imageTranscoder.decode(original);
+            List<ImageVariant> variants = createVariants(source, originalSize, imgUrl, chapterPath);
+            detailChapterRepository.updateVariants(id, variants.isEmpty()
+                    ? NO_VARIANTS
+                    : objectMapper.writeValueAsString(variants));
+        } catch (IIOException e) {
+            // Lỗi do nội dung ảnh, thử lại cũng không được
+            log.warn("Không tạo được variant cho {}: {}", key, e.getMessage());
+            detailChapterRepository.updateVariants(id, NO_VARIANTS);
+        } catch (BaseException e) {
+            if (e.getErrorCode() == ErrorCode.FILE_NOT_FOUND) {
+                // Ảnh gốc không còn trên storage, quét lại mãi cũng không có
+                log.warn("Không tìm thấy ảnh gốc {}, bỏ qua tạo variant", key);
+                detailChapterRepository.updateVariants(id, NO_VARIANTS);
+            } else {
+                log.debug("Chưa tạo được variant cho {}: {}", key, e.getMessage());
+            }
+        } catch (Exception e) {
+            // Lỗi tạm thời (mạng, storage...), lượt quét sau thử lại
+            log.debug("Chưa tạo được variant cho {}: {}", key, e.getMessage());
+        } finally {
+            if (original != null) {
+                try {
+                    Files.deleteIfExists(original);
+                } catch (IOException e) {
+                    log.warn("Không xoá được file tạm {}: {}", original, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tạo các bản nhỏ hơn ảnh gốc, từ lớn đến nhỏ, bản sau thu nhỏ từ bản trước.
+     * Nếu ảnh gốc khác định dạng đầu ra thì thêm 1 bản giữ nguyên kích thước khi nó nhẹ hơn ảnh gốc.
+     */
+    private List<ImageVariant> createVariants(BufferedImage source, long originalSize, String imgUrl,
+            String chapterPath) throws IOException {
+        String format = imageTranscoder.getFormat();
+        String fileName = fileNameOf(imgUrl);
+        String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase() : "";
+        boolean sameFormat = extension.equals(format) || ("jpg".equals(format) && "jpeg".equals(extension));
+        String baseName = baseNameOf(imgUrl);
+
+        List<ImageVariant> variants = new ArrayList<>();
+        BufferedImage current = source;
+        for (int i = widths.length - 1; i >= -1; i--) {
+            int width;
+            if (i >= 0) {
+                width = widths[i];
+                if (width >= source.getWidth()) {
+                    continue;
+                }
+            } else if (!sameFormat) {
+                width = source.getWidth();
+            } else {
+                break;
+            }
+
+            BufferedImage resized = width == source.getWidth()
+                    ? imageTranscoder.resize(source, width)
+                    : imageTranscoder.resize(current, width);
+            byte[] bytes = imageTranscoder.encode(resized);
+            if (width == source.getWidth() && bytes.length >= originalSize) {
+                // Đổi định dạng không giúp ảnh nhẹ hơn
+                continue;
+            }
+
+            String variantUrl = "w" + width + "/" + baseName + "." + format;
+            storageService.uploadStream(new ByteArrayInputStream(bytes), bytes.length,
+                    imageTranscoder.getContentType(), B2Constants.FOLDER_KEY_COMIC, chapterPath + "/" + variantUrl);
+            variants.add(ImageVariant.builder()
+                    .width(resized.getWidth())
+                    .height(resized.getHeight())
+                    .format(format)
+                    .imgUrl(variantUrl)
+                    .size(bytes.length)
+                    .build());
+            if (width < source.getWidth()) {
+                current = resized;
+            }
+        }
+
+        // Client dễ chọn hơn khi danh sách tăng dần theo chiều rộng
+        variants.sort((a, b) -> Integer.compare(a.getWidth(), b.getWidth()));
+        return variants;
+    }
+
+    /**
+     * Cắt ảnh dài thành các đoạn, mỗi đoạn được mã hoá và upload ngay rồi bỏ khỏi bộ nhớ
+     */
+    private List<ImageSegment> createSegments(Path original, String imgUrl, String chapterPath) throws IOException {
+        String format = imageTranscoder.getFormat();
+        String baseName = baseNameOf(imgUrl);
+
+        List<ImageSegment> segments = new ArrayList<>();
+        imageTiler.split(original, (index, offsetY, segment) -> {
+            byte[] bytes = imageTranscoder.encode(imageTranscoder.toRgb(segment));
+            String segmentUrl = String.format("seg/%s_%03d.%s", baseName, index, format);
+            storageService.uploadStream(new ByteArrayInputStream(bytes), bytes.length,
+                    imageTranscoder.getContentType(), B2Constants.FOLDER_KEY_COMIC, chapterPath + "/" + segmentUrl);
+            segments.add(ImageSegment.builder()
+                    .index(index)
+                    .offsetY(offsetY)
+                    .width(segment.getWidth())
+                    .height(segment.getHeight())
+                    .imgUrl(segmentUrl)
+                    .size(bytes.length)
+                    .build());
+        });
+        return segments;
+    }
+
+    /**
+     * Key của ảnh gốc trên storage: ảnh lưu theo hash nội dung có imgUrl là URL đầy đủ,
+     * ảnh cũ có imgUrl tương đối với chapterPath (vd: "3.jpg?v=20250611112659")
+     */
+    private String storageKeyOf(String imgUrl, String chapterPath) {
+        String path = stripQuery(imgUrl);
+        String bucketPrefix = B2Constants.URL_PREFIX + bucketName + "/";
+        if (path.startsWith(bucketPrefix)) {
+            return path.substring(bucketPrefix.length());
+        }
+        return B2Constants.FOLDER_KEY_COMIC + "/" + chapterPath + "/" + path;
+    }
+
+    /**
+     * Tên file không có đuôi, dùng đặt tên variant/đoạn cắt trong thư mục của chương
+     * (kể cả ảnh dùng chung giữa nhiều chương, để bị xoá cùng chương)
+     */
+    private static String baseNameOf(String imgUrl) {
+        String fileName = fileNameOf(imgUrl);
+        return fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
+    }
+
+    /**
+     * Tên file cuối URL, bỏ tham số phiên bản (?v=...) mà StorageService gắn vào URL công khai
+     */
+    private static String fileNameOf(String imgUrl) {
+        String path = stripQuery(imgUrl);
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String stripQuery(String url) {
+        int queryIndex = url.indexOf('?');
+        return queryIndex != -1 ? url.substring(0, queryIndex) : url;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
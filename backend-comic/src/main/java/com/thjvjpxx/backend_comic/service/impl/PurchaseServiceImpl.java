@@ -26,6 +26,8 @@ import com.thjvjpxx.backend_comic.repository.UserRepository;
 import com.thjvjpxx.backend_comic.repository.UserVipSubscriptionRepository;
 import com.thjvjpxx.backend_comic.repository.VipPackageRepository;
 import com.thjvjpxx.backend_comic.service.PurchaseService;
+import com.thjvjpxx.backend_comic.service.VipExpirationService;
+import com.thjvjpxx.backend_comic.utils.UserPrincipalCache;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -44,6 +46,8 @@ public class PurchaseServiceImpl implements PurchaseService {
     PurchasedChapterRepository purchasedChapterRepository;
     TransactionRepository transactionRepository;
     UserRepository userRepository;
+    VipExpirationService vipExpirationService;
+    UserPrincipalCache userPrincipalCache;
 
     @Override
     public BaseResponse<?> getMyPurchasedVipPackage(User user) {
@@ -89,10 +93,11 @@ public class PurchaseServiceImpl implements PurchaseService {
         // Tính giá hiện tại của gói VIP
         Double currentPrice = vipPackage.getCurrentPrice();
 
-        // Kiểm tra số dư user
-        if (user.getBalance() < currentPrice) {
+        // Kiểm tra và trừ số dư, bật VIP trong 1 câu lệnh (user có thể là bản cache, số dư trong đó đã cũ)
+        if (userRepository.debitBalanceAndActivateVip(user.getId(), currentPrice) == 0) {
             throw new BaseException(ErrorCode.TRANSACTION_INSUFFICIENT_BALANCE);
         }
+        userPrincipalCache.evictAfterCommit(user.getId());
 
         // Tạo transaction cho việc mua VIP
         Transaction transaction = Transaction.builder()
@@ -106,11 +111,6 @@ public class PurchaseServiceImpl implements PurchaseService {
 
         transaction = transactionRepository.save(transaction);
 
-        // Trừ số dư user
-        user.setBalance(user.getBalance() - currentPrice);
-        user.setVip(true); // Cập nhật trạng thái VIP
-        userRepository.save(user);
-
         // Tìm subscription hiện tại (nếu có)
         LocalDateTime now = LocalDateTime.now();
         var currentSubscription = userVipSubscriptionRepository.findActiveSubscriptionByUser(user, now);
@@ -131,6 +131,7 @@ public class PurchaseServiceImpl implements PurchaseService {
         }
 
         userVipSubscriptionRepository.save(vipSubscription);
+        vipExpirationService.trackExpiry(user.getId(), vipSubscription.getEndDate());
 
         log.info("User {} đã mua gói VIP {} với giá {} linh thạch",
                 user.getUsername(), vipPackage.getName(), currentPrice);
@@ -158,10 +159,12 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new BaseException(ErrorCode.CHAPTER_ALREADY_PURCHASED);
         }
 
-        // Kiểm tra số dư user
-        if (user.getBalance() < chapter.getPrice()) {
+        // Kiểm tra và trừ số dư trong 1 câu lệnh. Mua trùng song song bị chặn bởi unique (user, chapter)
+        // của purchased_chapters, khi đó cả transaction (gồm lần trừ này) bị rollback
+        if (userRepository.debitBalance(user.getId(), chapter.getPrice()) == 0) {
             throw new BaseException(ErrorCode.TRANSACTION_INSUFFICIENT_BALANCE);
         }
+        userPrincipalCache.evictAfterCommit(user.getId());
 
         // Tạo transaction cho việc mua chapter
         Transaction transaction = Transaction.builder()
@@ -175,10 +178,6 @@ public class PurchaseServiceImpl implements PurchaseService {
 
         transaction = transactionRepository.save(transaction);
 
-        // Trừ số dư user
-        user.setBalance(user.getBalance() - chapter.getPrice());
-        userRepository.save(user);
-
         // Tạo record mua chapter
         PurchasedChapter purchasedChapter = PurchasedChapter.builder()
                 .user(user)
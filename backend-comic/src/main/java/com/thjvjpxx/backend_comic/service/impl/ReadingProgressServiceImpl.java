@@ -0,0 +1,308 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thjvjpxx.backend_comic.model.Chapter;
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
+import com.thjvjpxx.backend_comic.repository.ChapterRepository;
+import com.thjvjpxx.backend_comic.repository.ComicRepository;
+import com.thjvjpxx.backend_comic.repository.ReadingHistoryRepository;
+import com.thjvjpxx.backend_comic.repository.ReadingProgressRepository;
+import com.thjvjpxx.backend_comic.service.ReadingProgressService;
+import com.thjvjpxx.backend_comic.utils.ComicDetailCache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ReadingProgressServiceImpl implements ReadingProgressService {
+
+    ReadingProgressRepository readingProgressRepo;
+    ReadingHistoryRepository readingHistoryRepo;
+    ChapterRepository chapterRepo;
+    ComicRepository comicRepo;
+    TransactionTemplate transactionTemplate;
+    ComicDetailCache comicDetailCache;
+
+    /**
+     * Phần tiến độ chưa ghi theo (user, comic). Chỉ được sửa bên trong compute/merge
+     * của map nên không cần khoá riêng.
+     */
+    Map<ProgressKey, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Chỉ cho 1 lượt flush chạy tại 1 thời điểm (scheduler, trang lịch sử và lúc shutdown)
+     */
+    Object flushLock = new Object();
+
+    @NonFinal
+    @Value("${app.reading-progress.migrate-legacy:true}")
+    boolean migrateLegacy;
+
+    @NonFinal
+    @Value("${app.reading-progress.migrate-batch-size:1000}")
+    int migrateBatchSize;
+
+    @Override
+    public void recordRead(String userId, Chapter chapter) {
+        Integer ordinal = chapter.getReadOrdinal();
+        if (ordinal == null) {
+            ordinal = assignReadOrdinal(chapter.getComic().getId(), chapter.getId());
+            chapter.setReadOrdinal(ordinal);
+            // Phần dùng chung của trang chi tiết đang giữ số thứ tự cũ (null) của chương này
+            comicDetailCache.evict(chapter.getComic().getSlug());
+        }
+
+        int readOrdinal = ordinal;
+        LocalDateTime now = LocalDateTime.now();
+        pending.compute(new ProgressKey(userId, chapter.getComic().getId()), (key, current) -> {
+            Pending target = current != null ? current : new Pending();
+            target.read(readOrdinal, chapter.getId(), chapter.getChapterNumber(), now);
+            return target;
+        });
+    }
+
+    @Override
+    public Optional<ReadingProgress> getProgress(String userId, String comicId) {
+        ProgressKey key = new ProgressKey(userId, comicId);
+        // Lấy phần chưa ghi trước khi đọc DB: nếu flush chen vào giữa thì DB đã có phần đó
+        Pending buffered = copyPending(key);
+        ReadingProgress stored = readingProgressRepo.findByUserIdAndComicId(userId, comicId).orElse(null);
+        return Optional.ofNullable(merge(key, stored, buffered));
+    }
+
+    @Override
+    public Page<ReadingProgress> getHistory(String userId, Pageable pageable) {
+        // Thứ tự trang lấy từ DB nên ghi phần chưa ghi của user này trước
+        flush(key -> key.userId().equals(userId));
+        return readingProgressRepo.findHistoryByUserId(userId, pageable);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.reading-progress.flush-interval:3000}")
+    public void flush() {
+        flush(key -> true);
+    }
+
+    /**
+     * Ghi nốt tiến độ còn lại trước khi tắt ứng dụng
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Chuyển lịch sử đọc cũ (1 dòng mỗi chương) sang reading_progress theo lô, mỗi lô ghi xong
+     * thì xoá khỏi bảng cũ. Upsert chỉ OR bitmap nên chạy lại sau khi lỗi giữa chừng vẫn đúng.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Async("asyncExecutor")
+    public void migrateLegacyHistory() {
+        if (!migrateLegacy) {
+            return;
+        }
+        try {
+            int migrated = 0;
+            List<Object[]> rows;
+            do {
+                rows = readingHistoryRepo.findLegacyBatch(migrateBatchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                List<String> ids = new ArrayList<>(rows.size());
+                Map<ProgressKey, Pending> merged = new LinkedHashMap<>();
+                // Nhiều user cùng đọc 1 chương chưa có số thứ tự: chỉ cấp 1 lần trong lô
+                Map<String, Integer> assigned = new HashMap<>();
+                for (Object[] row : rows) {
+                    ids.add((String) row[0]);
+                    String userId = (String) row[1];
+                    if (userId == null) {
+                        continue;
+                    }
+                    String comicId = (String) row[2];
+                    String chapterId = (String) row[3];
+                    Double chapterNumber = row[4] != null ? ((Number) row[4]).doubleValue() : null;
+                    int ordinal = row[5] != null ? ((Number) row[5]).intValue()
+                            : assigned.computeIfAbsent(chapterId, id -> assignReadOrdinal(comicId, id));
+                    LocalDateTime readAt = row[6] != null ? (LocalDateTime) row[6] : LocalDateTime.now();
+                    merged.computeIfAbsent(new ProgressKey(userId, comicId), key -> new Pending())
+                            .read(ordinal, chapterId, chapterNumber, readAt);
+                }
+
+                List<ReadingProgress> batch = new ArrayList<>(merged.size());
+                merged.forEach((key, value) -> batch.add(value.toEntity(key)));
+                readingProgressRepo.upsertAll(batch);
+                readingHistoryRepo.deleteAllByIdInBatch(ids);
+                migrated += rows.size();
+            } while (rows.size() >= migrateBatchSize);
+
+            if (migrated > 0) {
+                log.info("Đã chuyển {} dòng lịch sử đọc cũ sang reading_progress", migrated);
+            }
+        } catch (Exception e) {
+            // Phần chưa chuyển vẫn còn trong bảng cũ, lần khởi động sau sẽ chạy tiếp
+            log.error("Lỗi khi chuyển lịch sử đọc cũ: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flush(Predicate<ProgressKey> filter) {
+        synchronized (flushLock) {
+            Map<ProgressKey, Pending> drained = new LinkedHashMap<>();
+            for (ProgressKey key : pending.keySet()) {
+                if (filter.test(key)) {
+                    Pending value = pending.remove(key);
+                    if (value != null) {
+                        drained.put(key, value);
+                    }
+                }
+            }
+            if (drained.isEmpty()) {
+                return;
+            }
+
+            List<ReadingProgress> batch = new ArrayList<>(drained.size());
+            drained.forEach((key, value) -> batch.add(value.toEntity(key)));
+            try {
+                readingProgressRepo.upsertAll(batch);
+                log.debug("Đã ghi tiến độ đọc của {} cặp user-comic xuống DB", batch.size());
+            } catch (Exception e) {
+                // Trả lại để lượt flush sau thử lại; lô nào đã ghi thì ghi lại cũng không sai
+                drained.forEach((key, value) -> pending.merge(key, value, Pending::merge));
+                log.error("Lỗi khi ghi tiến độ đọc: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cấp số thứ tự đọc cho chương: tăng bộ đếm của comic rồi gán cho chương trong cùng
+     * transaction (dòng comic bị khoá nên 2 chương không nhận trùng số). Nếu request khác
+     * vừa cấp trước thì giữ số đó, bộ đếm chỉ bị bỏ qua 1 giá trị.
+     */
+    private int assignReadOrdinal(String comicId, String chapterId) {
+        Integer ordinal = transactionTemplate.execute(status -> {
+            comicRepo.incrementChapterOrdinalSeq(comicId);
+            chapterRepo.assignReadOrdinal(chapterId);
+            return chapterRepo.findReadOrdinal(chapterId);
+        });
+        if (ordinal == null) {
+            throw new IllegalStateException("Không cấp được số thứ tự đọc cho chương " + chapterId);
+        }
+        return ordinal;
+    }
+
+    private Pending copyPending(ProgressKey key) {
+        Pending[] copy = new Pending[1];
+        pending.computeIfPresent(key, (k, value) -> {
+            copy[0] = value.copy();
+            return value;
+        });
+        return copy[0];
+    }
+
+    private static ReadingProgress merge(ProgressKey key, ReadingProgress stored, Pending buffered) {
+        if (buffered == null) {
+            return stored;
+        }
+        if (stored == null) {
+            return buffered.toEntity(key);
+        }
+        ReadingProgress merged = Pending.of(stored).merge(buffered).toEntity(key);
+        merged.setId(stored.getId());
+        return merged;
+    }
+
+    private record ProgressKey(String userId, String comicId) {
+    }
+
+    /**
+     * Tiến độ chưa ghi của 1 cặp (user, comic). Không thread-safe.
+     */
+    private static final class Pending {
+        final BitSet readChapters = new BitSet();
+        String lastChapterId;
+        Double lastChapterNumber;
+        Double maxChapterNumber;
+        LocalDateTime updatedAt;
+
+        static Pending of(ReadingProgress progress) {
+            Pending pending = new Pending();
+            pending.readChapters.or(progress.readChapterBits());
+            pending.lastChapterId = progress.getLastChapterId();
+            pending.lastChapterNumber = progress.getLastChapterNumber();
+            pending.maxChapterNumber = progress.getMaxChapterNumber();
+            pending.updatedAt = progress.getUpdatedAt();
+            return pending;
+        }
+
+        void read(int ordinal, String chapterId, Double chapterNumber, LocalDateTime readAt) {
+            readChapters.set(ordinal);
+            if (chapterNumber != null && (maxChapterNumber == null || chapterNumber > maxChapterNumber)) {
+                maxChapterNumber = chapterNumber;
+            }
+            // Lịch sử cũ không theo thứ tự thời gian nên chỉ nhận chương đọc sau hơn
+            if (updatedAt == null || !readAt.isBefore(updatedAt)) {
+                lastChapterId = chapterId;
+                lastChapterNumber = chapterNumber;
+                updatedAt = readAt;
+            }
+        }
+
+        Pending merge(Pending other) {
+            readChapters.or(other.readChapters);
+            if (other.maxChapterNumber != null
+                    && (maxChapterNumber == null || other.maxChapterNumber > maxChapterNumber)) {
+                maxChapterNumber = other.maxChapterNumber;
+            }
+            if (other.updatedAt != null && (updatedAt == null || !other.updatedAt.isBefore(updatedAt))) {
+                lastChapterId = other.lastChapterId;
+                lastChapterNumber = other.lastChapterNumber;
+                updatedAt = other.updatedAt;
+            }
+            return this;
+        }
+
+        Pending copy() {
+            return new Pending().merge(this);
+        }
+
+        ReadingProgress toEntity(ProgressKey key) {
+            return ReadingProgress.builder()
+                    .userId(key.userId())
+                    .comicId(key.comicId())
+                    .readChapters(readChapters.toByteArray())
+                    .lastChapterId(lastChapterId)
+                    .lastChapterNumber(lastChapterNumber)
+                    .maxChapterNumber(maxChapterNumber)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.thjvjpxx.backend_comic.model.StorageCleanupTask;
+import com.thjvjpxx.backend_comic.repository.StorageCleanupTaskRepository;
+import com.thjvjpxx.backend_comic.service.StorageCleanupService;
+import com.thjvjpxx.backend_comic.service.StorageService;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class StorageCleanupServiceImpl implements StorageCleanupService {
+
+    static final int MAX_ERROR_LENGTH = 1000;
+
+    StorageCleanupTaskRepository storageCleanupTaskRepository;
+    StorageService storageService;
+
+    @NonFinal
+    @Value("${app.storage-cleanup.batch-size:50}")
+    int batchSize;
+
+    @NonFinal
+    @Value("${app.storage-cleanup.max-attempts:10}")
+    int maxAttempts;
+
+    @NonFinal
+    @Value("${app.storage-cleanup.retry-delay:60000}")
+    long retryDelayMillis;
+
+    @Override
+    public void enqueue(String target) {
+        if (target == null || target.isBlank()) {
+            return;
+        }
+        storageCleanupTaskRepository.save(StorageCleanupTask.builder()
+                .target(target)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.storage-cleanup.interval:10000}")
+    public void processDueTasks() {
+        List<StorageCleanupTask> tasks = storageCleanupTaskRepository
+                .findByNextAttemptAtBeforeAndAttemptsLessThanOrderByNextAttemptAtAsc(LocalDateTime.now(),
+                        maxAttempts, PageRequest.of(0, batchSize));
+
+        for (StorageCleanupTask task : tasks) {
+            try {
+                storageService.remove(task.getTarget());
+                storageCleanupTaskRepository.delete(task);
+                log.debug("Đã dọn storage: {}", task.getTarget());
+            } catch (Exception e) {
+                int attempts = task.getAttempts() + 1;
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                task.setAttempts(attempts);
+                task.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+                // Chờ lâu dần giữa các lần thử
+                task.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(retryDelayMillis * attempts)));
+                storageCleanupTaskRepository.save(task);
+                log.warn("Dọn storage {} lỗi lần {}: {}", task.getTarget(), attempts, message);
+            }
+        }
+    }
+}
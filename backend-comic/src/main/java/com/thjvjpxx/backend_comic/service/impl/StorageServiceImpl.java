@@ -1,13 +1,25 @@
 package com.thjvjpxx.backend_comic.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -16,6 +28,7 @@ import org.springframework.web.multipart.MultipartFile;
 import com.thjvjpxx.backend_comic.constant.B2Constants;
 import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
 import com.thjvjpxx.backend_comic.dto.response.FileItemResponse;
+import com.thjvjpxx.backend_comic.dto.response.StorageOperationReport;
 import com.thjvjpxx.backend_comic.enums.ErrorCode;
 import com.thjvjpxx.backend_comic.exception.BaseException;
 import com.thjvjpxx.backend_comic.service.StorageService;
@@ -23,27 +36,151 @@ import com.thjvjpxx.backend_comic.service.StorageService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
 import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
 public class StorageServiceImpl implements StorageService {
+    // Số key tối đa trong 1 request DeleteObjects
+    static final int DELETE_BATCH_SIZE = 1000;
+
+    // Số key lỗi tối đa giữ lại trong báo cáo
+    static final int MAX_REPORTED_FAILURES = 20;
+
     final S3Client s3Client;
+    final ObjectMapper objectMapper;
 
     @Value("${b2.bucket-name}")
     String bucketName;
 
+    // Kích thước mỗi phần khi upload multipart (S3 yêu cầu tối thiểu 5MB)
+    @Value("${app.storage.multipart-part-size:8388608}")
+    int multipartPartSize;
+
+    // Số request copy đồng thời tối đa khi đổi tên/chuyển thư mục
+    @Value("${app.storage.copy-concurrency:16}")
+    int copyConcurrency;
+
+    final ExecutorService copyExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     @Override
     public BaseResponse<?> uploadFile(MultipartFile file, String typeFolder, String folder) {
+        return uploadFileToFolder(file, resolveFolder(typeFolder) + "/" + folder);
+    }
+
+    @Override
+    public BaseResponse<?> uploadStream(InputStream inputStream, long contentLength, String contentType,
+            String typeFolder, String fileName) {
+        String key = resolveFolder(typeFolder) + "/" + fileName;
+        try {
+            if (contentLength >= 0) {
+                // SDK đọc trực tiếp từ stream nguồn, chỉ giữ buffer nhỏ để retry
+                s3Client.putObject(
+                        PutObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .contentType(contentType)
+                                .contentLength(contentLength)
+                                .build(),
+                        RequestBody.fromInputStream(inputStream, contentLength));
+            } else {
+                uploadUnknownLength(inputStream, contentType, key);
+            }
+            return BaseResponse.success(getPublicUrl(key));
+        } catch (BaseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BaseException(ErrorCode.UPLOAD_FILE_FAILED);
+        }
+    }
+
+    /**
+     * Upload stream không rõ kích thước: đọc từng phần vào 1 buffer dùng lại.
+     * Nếu dữ liệu vừa 1 phần thì putObject thường, ngược lại dùng multipart upload.
+     */
+    private void uploadUnknownLength(InputStream inputStream, String contentType, String key) throws IOException {
+        byte[] buffer = new byte[multipartPartSize];
+        int read = inputStream.readNBytes(buffer, 0, buffer.length);
+        if (read < buffer.length) {
+            s3Client.putObject(
+                    PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .contentType(contentType)
+                            .contentLength((long) read)
+                            .build(),
+                    RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read));
+            return;
+        }
+
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            while (read > 0) {
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) read)
+                        .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                partNumber++;
+                read = inputStream.readNBytes(buffer, 0, buffer.length);
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (RuntimeException | IOException e) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
+    /**
+     * Lấy thư mục gốc theo loại file
+     */
+    private String resolveFolder(String typeFolder) {
         String folderName;
         switch (typeFolder) {
             case B2Constants.FOLDER_KEY_THUMBNAIL:
@@ -61,8 +198,7 @@ public class StorageServiceImpl implements StorageService {
             default:
                 throw new BaseException(ErrorCode.TYPE_NOT_FOUND);
         }
-        folderName += "/" + folder;
-        return uploadFileToFolder(file, folderName);
+        return folderName;
     }
 
     private BaseResponse<?> uploadFileToFolder(MultipartFile file, String key) {
@@ -139,89 +275,131 @@ public class StorageServiceImpl implements StorageService {
     }
 
     /**
-     * Xóa thư mục và tất cả nội dung bên trong
+     * Xóa thư mục và tất cả nội dung bên trong.
+     * Mỗi trang list (tối đa 1000 key) được xoá bằng 1 request DeleteObjects.
      */
     private BaseResponse<?> removeFolder(String folderKey) {
-        try {
-            // Chuẩn hóa folder path
-            String folderPrefix = folderKey;
-            if (!folderPrefix.isEmpty() && !folderPrefix.endsWith("/")) {
-                folderPrefix += "/";
-            }
+        // Chuẩn hóa folder path
+        String folderPrefix = folderKey;
+        if (!folderPrefix.isEmpty() && !folderPrefix.endsWith("/")) {
+            folderPrefix += "/";
+        }
 
-            List<ObjectIdentifier> objectsToDelete = new ArrayList<>();
+        OperationTracker tracker = new OperationTracker("DELETE", folderPrefix, null);
+        try {
             String continuationToken = null;
-            int totalDeleted = 0;
-
             do {
-                // List tất cả objects có prefix là folderPrefix
-                ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
-                        .bucket(bucketName)
-                        .prefix(folderPrefix)
-                        .maxKeys(1000); // Giới hạn số lượng objects mỗi lần request
-
-                if (continuationToken != null) {
-                    requestBuilder.continuationToken(continuationToken);
-                }
-
-                ListObjectsV2Response response = s3Client.listObjectsV2(requestBuilder.build());
-
-                // Thêm tất cả objects vào danh sách xóa
-                for (S3Object s3Object : response.contents()) {
-                    objectsToDelete.add(ObjectIdentifier.builder()
-                            .key(s3Object.key())
-                            .build());
-                }
-
-                // Nếu có quá nhiều objects, xóa theo batch
-                if (objectsToDelete.size() >= 1000) {
-                    deleteObjectsBatch(objectsToDelete);
-                    totalDeleted += objectsToDelete.size();
-                    objectsToDelete.clear();
-                }
-
+                ListObjectsV2Response response = listPage(folderPrefix, continuationToken);
+                List<String> keys = response.contents().stream().map(S3Object::key).toList();
+                tracker.totalObjects += keys.size();
+                deleteKeys(keys, tracker);
                 continuationToken = response.nextContinuationToken();
             } while (continuationToken != null);
-
-            // Xóa batch cuối cùng (nếu có)
-            if (!objectsToDelete.isEmpty()) {
-                deleteObjectsBatch(objectsToDelete);
-                totalDeleted += objectsToDelete.size();
-            }
-
-            if (totalDeleted > 0) {
-                return BaseResponse.success("Xóa thư mục thành công. Đã xóa " + totalDeleted + " file(s)");
-            } else {
-                return BaseResponse.success("Thư mục không tồn tại hoặc đã trống");
-            }
         } catch (Exception e) {
+            log.error("Lỗi khi xoá thư mục {}: {}", folderPrefix, e.getMessage());
             throw new BaseException(ErrorCode.DELETE_FILE_FAILED);
         }
+
+        StorageOperationReport report = tracker.finish();
+        if (report.getFailed() > 0) {
+            // Ném lỗi để bên gọi (vd: hàng đợi dọn storage) thử lại phần còn sót
+            throw new BaseException(ErrorCode.DELETE_FILE_FAILED);
+        }
+        if (report.getDeleted() > 0) {
+            return BaseResponse.success(report,
+                    "Xóa thư mục thành công. Đã xóa " + report.getDeleted() + " file(s)");
+        }
+        return BaseResponse.success(report, "Thư mục không tồn tại hoặc đã trống");
     }
 
     /**
-     * Xóa một batch objects bằng cách xóa từng file một
-     * (Tránh bulk delete để không gây lỗi checksum với Backblaze B2)
+     * Xoá danh sách key bằng DeleteObjects, mỗi request tối đa 1000 key.
+     * Key xoá lỗi được ghi vào tracker, không ném lỗi.
      */
-    private void deleteObjectsBatch(List<ObjectIdentifier> objectsToDelete) {
-        if (objectsToDelete.isEmpty()) {
-            return;
-        }
-
-        // Xóa từng object một để tránh lỗi checksum với bulk delete
-        for (ObjectIdentifier objectId : objectsToDelete) {
+    private void deleteKeys(List<String> keys, OperationTracker tracker) {
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            List<String> batch = keys.subList(from, Math.min(from + DELETE_BATCH_SIZE, keys.size()));
+            List<ObjectIdentifier> objects = batch.stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
             try {
-                s3Client.deleteObject(DeleteObjectRequest.builder()
+                // quiet = true: response chỉ chứa các key bị lỗi
+                DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
                         .bucket(bucketName)
-                        .key(objectId.key())
+                        .delete(Delete.builder().objects(objects).quiet(true).build())
                         .build());
+                for (S3Error error : response.errors()) {
+                    tracker.fail(error.key(), error.code() + " " + error.message());
+                }
+                tracker.deleted += batch.size() - response.errors().size();
             } catch (Exception e) {
-                // Log lỗi nhưng tiếp tục xóa các file khác
-                System.err.println("Lỗi khi xóa file: " + objectId.key() + " - " + e.getMessage());
+                for (String key : batch) {
+                    tracker.fail(key, e.getMessage());
+                }
             }
         }
     }
 
+    /**
+     * Copy song song (giới hạn số request đồng thời) các object từ sourcePrefix sang targetPrefix
+     *
+     * @return Các key nguồn đã copy thành công, key lỗi được ghi vào tracker
+     */
+    private List<String> copyKeys(List<String> sourceKeys, String sourcePrefix, String targetPrefix,
+            OperationTracker tracker) {
+        Semaphore window = new Semaphore(copyConcurrency);
+        List<Future<?>> futures = new ArrayList<>(sourceKeys.size());
+        try {
+            for (String sourceKey : sourceKeys) {
+                window.acquire();
+                String targetKey = targetPrefix + sourceKey.substring(sourcePrefix.length());
+                futures.add(copyExecutor.submit(() -> {
+                    try {
+                        s3Client.copyObject(CopyObjectRequest.builder()
+                                .sourceBucket(bucketName)
+                                .sourceKey(sourceKey)
+                                .destinationBucket(bucketName)
+                                .destinationKey(targetKey)
+                                .build());
+                    } finally {
+                        window.release();
+                    }
+                }));
+            }
+
+            List<String> copied = new ArrayList<>(sourceKeys.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                    copied.add(sourceKeys.get(i));
+                } catch (ExecutionException e) {
+                    tracker.fail(sourceKeys.get(i), e.getCause().getMessage());
+                }
+            }
+            tracker.copied += copied.size();
+            return copied;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new BaseException(ErrorCode.RENAME_FILE_FAILED);
+        }
+    }
+
+    /**
+     * List 1 trang (tối đa 1000) object theo prefix
+     */
+    private ListObjectsV2Response listPage(String prefix, String continuationToken) {
+        ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .maxKeys(1000);
+
+        if (continuationToken != null) {
+            requestBuilder.continuationToken(continuationToken);
+        }
+        return s3Client.listObjectsV2(requestBuilder.build());
+    }
+
     private String getPublicUrl(String key) {
         String version = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
         return B2Constants.URL_PREFIX + bucketName + "/" + key + "?v=" + version;
@@ -258,7 +436,7 @@ public class StorageServiceImpl implements StorageService {
         } catch (BaseException e) {
             throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Lỗi khi đổi tên {}: {}", url, e.getMessage());
             throw new BaseException(ErrorCode.RENAME_FILE_FAILED);
         }
     }
@@ -341,176 +519,192 @@ public class StorageServiceImpl implements StorageService {
             String newFolderPrefix = newFolderPrefixBuilder.toString();
 
             // Lấy danh sách tất cả objects trong folder cũ
-            List<S3Object> objectsToRename = new ArrayList<>();
+            List<String> keysToRename = new ArrayList<>();
             String continuationToken = null;
-
             do {
-                ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
-                        .bucket(bucketName)
-                        .prefix(oldFolderPrefix)
-                        .maxKeys(1000);
-
-                if (continuationToken != null) {
-                    requestBuilder.continuationToken(continuationToken);
-                }
-
-                ListObjectsV2Response response = s3Client.listObjectsV2(requestBuilder.build());
-                objectsToRename.addAll(response.contents());
+                ListObjectsV2Response response = listPage(oldFolderPrefix, continuationToken);
+                response.contents().forEach(s3Object -> keysToRename.add(s3Object.key()));
                 continuationToken = response.nextContinuationToken();
             } while (continuationToken != null);
 
-            if (objectsToRename.isEmpty()) {
+            if (keysToRename.isEmpty()) {
                 throw new BaseException(ErrorCode.FILE_NOT_FOUND);
             }
 
-            int renamedCount = 0;
-            List<String> failedFiles = new ArrayList<>();
+            OperationTracker tracker = new OperationTracker("RENAME", oldFolderPrefix, newFolderPrefix);
+            tracker.totalObjects = keysToRename.size();
 
-            // Copy tất cả objects với tên mới
-            for (S3Object s3Object : objectsToRename) {
-                try {
-                    String oldObjectKey = s3Object.key();
-                    String relativePath = oldObjectKey.substring(oldFolderPrefix.length());
-                    String newObjectKey = newFolderPrefix + relativePath;
-
-                    // Copy object
-                    s3Client.copyObject(CopyObjectRequest.builder()
-                            .sourceBucket(bucketName)
-                            .sourceKey(oldObjectKey)
-                            .destinationBucket(bucketName)
-                            .destinationKey(newObjectKey)
-                            .build());
-
-                    renamedCount++;
-                } catch (Exception e) {
-                    failedFiles.add(s3Object.key());
-                    System.err.println("Lỗi khi copy file: " + s3Object.key() + " - " + e.getMessage());
-                }
-            }
+            // Copy song song tất cả objects sang folder mới
+            List<String> copied = copyKeys(keysToRename, oldFolderPrefix, newFolderPrefix, tracker);
 
-            // Xóa tất cả objects cũ nếu copy thành công
-            if (failedFiles.isEmpty()) {
-                for (S3Object s3Object : objectsToRename) {
-                    try {
-                        s3Client.deleteObject(DeleteObjectRequest.builder()
-                                .bucket(bucketName)
-                                .key(s3Object.key())
-                                .build());
-                    } catch (Exception e) {
-                        System.err.println("Lỗi khi xóa file cũ: " + s3Object.key() + " - " + e.getMessage());
-                    }
-                }
-            } else {
-                // Nếu có lỗi, rollback các file đã copy
-                for (S3Object s3Object : objectsToRename) {
-                    if (!failedFiles.contains(s3Object.key())) {
-                        try {
-                            String oldObjectKey = s3Object.key();
-                            String relativePath = oldObjectKey.substring(oldFolderPrefix.length());
-                            String newObjectKey = newFolderPrefix + relativePath;
-
-                            s3Client.deleteObject(DeleteObjectRequest.builder()
-                                    .bucket(bucketName)
-                                    .key(newObjectKey)
-                                    .build());
-                        } catch (Exception e) {
-                            System.err.println("Lỗi khi rollback file: " + s3Object.key() + " - " + e.getMessage());
-                        }
-                    }
-                }
+            if (copied.size() < keysToRename.size()) {
+                // Có file copy lỗi: rollback bằng cách xoá các bản copy đã tạo, giữ nguyên folder cũ
+                String targetPrefix = newFolderPrefix;
+                String sourcePrefix = oldFolderPrefix;
+                deleteKeys(copied.stream()
+                        .map(key -> targetPrefix + key.substring(sourcePrefix.length()))
+                        .toList(), tracker);
+                tracker.finish();
                 throw new BaseException(ErrorCode.RENAME_FILE_FAILED);
             }
 
+            // Xóa tất cả objects cũ theo lô, lỗi ở bước này chỉ để lại file thừa ở folder cũ
+            deleteKeys(keysToRename, tracker);
+            StorageOperationReport report = tracker.finish();
+
             // Trả về thông tin thành công
-            String message = String.format("Đổi tên folder thành công. Đã xử lý %d file(s)", renamedCount);
-            return BaseResponse.success(message);
+            String message = String.format("Đổi tên folder thành công. Đã xử lý %d file(s)", report.getCopied());
+            return BaseResponse.success(report, message);
 
         } catch (BaseException e) {
             throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Lỗi khi đổi tên folder {}: {}", oldFolderKey, e.getMessage());
             throw new BaseException(ErrorCode.RENAME_FILE_FAILED);
         }
     }
 
     @Override
-    public BaseResponse<?> getAllFiles(String folder) {
+    public long downloadFile(String key, Path target) {
         try {
-            // Chuẩn hóa folder path
-            String folderPrefix = folder;
-            if (!folderPrefix.isEmpty() && !folderPrefix.endsWith("/")) {
-                folderPrefix += "/";
-            }
+            // ResponseTransformer.toFile không ghi đè file có sẵn
+            Files.deleteIfExists(target);
+            s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build(), ResponseTransformer.toFile(target));
+            return Files.size(target);
+        } catch (NoSuchKeyException e) {
+            throw new BaseException(ErrorCode.FILE_NOT_FOUND);
+        } catch (Exception e) {
+            log.error("Lỗi khi tải file {}: {}", key, e.getMessage());
+            throw new BaseException(ErrorCode.HAS_ERROR);
+        }
+    }
 
+    @Override
+    public BaseResponse<?> getAllFiles(String folder) {
+        try {
+            String folderPrefix = normalizeFolderPrefix(folder);
             List<FileItemResponse> items = new ArrayList<>();
-            Set<String> processedFolders = new HashSet<>();
-            String continuationToken = null;
-
-            do {
-                // Tạo request để list objects
-                ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
-                        .bucket(bucketName)
-                        .prefix(folderPrefix)
-                        .maxKeys(1000);
+            s3Client.listObjectsV2Paginator(directChildrenRequest(folderPrefix, 1000, null))
+                    .forEach(page -> addItems(page, folderPrefix, items::add));
+            return BaseResponse.success(items);
+        } catch (Exception e) {
+            throw new BaseException(ErrorCode.HAS_ERROR);
+        }
+    }
 
-                if (continuationToken != null) {
-                    requestBuilder.continuationToken(continuationToken);
-                }
+    @Override
+    public BaseResponse<?> listFiles(String folder, String cursor, int limit) {
+        String folderPrefix = normalizeFolderPrefix(folder);
+        int pageSize = Math.clamp(limit, 1, 1000);
+        String continuationToken = cursor == null || cursor.isBlank() ? null : cursor;
 
-                ListObjectsV2Response response = s3Client.listObjectsV2(requestBuilder.build());
+        ListObjectsV2Response response;
+        try {
+            response = s3Client.listObjectsV2(directChildrenRequest(folderPrefix, pageSize, continuationToken));
+        } catch (S3Exception e) {
+            // Continuation token sai hoặc hết hạn
+            if (continuationToken != null && e.statusCode() == 400) {
+                throw new BaseException(ErrorCode.INVALID_CURSOR);
+            }
+            throw new BaseException(ErrorCode.HAS_ERROR);
+        } catch (Exception e) {
+            throw new BaseException(ErrorCode.HAS_ERROR);
+        }
 
-                // Xử lý từng object trong response
-                for (S3Object s3Object : response.contents()) {
-                    String objectKey = s3Object.key();
+        List<FileItemResponse> items = new ArrayList<>(response.keyCount() != null ? response.keyCount() : 0);
+        addItems(response, folderPrefix, items::add);
+        return BaseResponse.successWithCursor(items, pageSize, response.nextContinuationToken());
+    }
 
-                    // Bỏ qua object nếu đó chính là folder prefix
-                    if (objectKey.equals(folderPrefix)) {
-                        continue;
+    @Override
+    public void streamFiles(String folder, OutputStream outputStream) throws IOException {
+        String folderPrefix = normalizeFolderPrefix(folder);
+        for (ListObjectsV2Response page : s3Client
+                .listObjectsV2Paginator(directChildrenRequest(folderPrefix, 1000, null))) {
+            try {
+                addItems(page, folderPrefix, item -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(item));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
                     }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            // Đẩy từng trang cho client, bộ nhớ chỉ giữ 1 trang list tại 1 thời điểm
+            outputStream.flush();
+        }
+    }
 
-                    // Lấy phần path sau folder prefix
-                    String relativePath = objectKey.substring(folderPrefix.length());
-
-                    // Kiểm tra xem đây có phải là file trực tiếp trong folder hay nằm trong
-                    // subfolder
-                    if (relativePath.contains("/")) {
-                        // Đây là file trong subfolder, chỉ lấy tên subfolder
-                        String subfolderName = relativePath.substring(0, relativePath.indexOf("/"));
-                        String subfolderPath = folderPrefix + subfolderName;
-
-                        // Kiểm tra xem đã xử lý subfolder này chưa
-                        if (!processedFolders.contains(subfolderPath)) {
-                            processedFolders.add(subfolderPath);
-                            items.add(new FileItemResponse(
-                                    subfolderName,
-                                    subfolderPath,
-                                    null, // Folder không có URL
-                                    "folder",
-                                    null, // Folder không có size
-                                    null, // Không lấy lastModified cho folder để tối ưu performance
-                                    null // Folder không có contentType
-                            ));
-                        }
-                    } else {
-                        // Đây là file trực tiếp trong folder
-                        String fileName = relativePath;
-                        items.add(new FileItemResponse(
-                                fileName,
-                                objectKey,
-                                getPublicUrl(objectKey),
-                                "file",
-                                s3Object.size(),
-                                LocalDateTime.ofInstant(s3Object.lastModified(), ZoneId.systemDefault()),
-                                determineContentType(fileName)));
-                    }
-                }
+    /**
+     * Chuẩn hóa folder path thành prefix kết thúc bằng "/"
+     */
+    private String normalizeFolderPrefix(String folder) {
+        String folderPrefix = folder == null ? "" : folder;
+        if (!folderPrefix.isEmpty() && !folderPrefix.endsWith("/")) {
+            folderPrefix += "/";
+        }
+        return folderPrefix;
+    }
 
-                continuationToken = response.nextContinuationToken();
-            } while (continuationToken != null);
+    /**
+     * Request list các phần tử con trực tiếp của thư mục. Dùng delimiter "/" để S3 gộp sẵn
+     * thư mục con thành CommonPrefixes, không phải duyệt toàn bộ object bên trong.
+     */
+    private ListObjectsV2Request directChildrenRequest(String folderPrefix, int maxKeys, String continuationToken) {
+        ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(folderPrefix)
+                .delimiter("/")
+                .maxKeys(maxKeys);
+
+        if (continuationToken != null) {
+            requestBuilder.continuationToken(continuationToken);
+        }
+        return requestBuilder.build();
+    }
 
-            return BaseResponse.success(items);
-        } catch (Exception e) {
-            throw new BaseException(ErrorCode.HAS_ERROR);
+    /**
+     * Chuyển 1 trang list thành các FileItemResponse: thư mục con trước, file sau
+     */
+    private void addItems(ListObjectsV2Response page, String folderPrefix, Consumer<FileItemResponse> sink) {
+        for (CommonPrefix commonPrefix : page.commonPrefixes()) {
+            // Bỏ dấu "/" cuối để giữ định dạng đường dẫn thư mục như trước
+            String subfolderPath = commonPrefix.prefix().substring(0, commonPrefix.prefix().length() - 1);
+            String subfolderName = subfolderPath.substring(folderPrefix.length());
+            sink.accept(new FileItemResponse(
+                    subfolderName,
+                    subfolderPath,
+                    null, // Folder không có URL
+                    "folder",
+                    null, // Folder không có size
+                    null, // Không lấy lastModified cho folder để tối ưu performance
+                    null // Folder không có contentType
+            ));
+        }
+
+        for (S3Object s3Object : page.contents()) {
+            String objectKey = s3Object.key();
+
+            // Bỏ qua object nếu đó chính là folder prefix
+            if (objectKey.equals(folderPrefix)) {
+                continue;
+            }
+
+            String fileName = objectKey.substring(folderPrefix.length());
+            sink.accept(new FileItemResponse(
+                    fileName,
+                    objectKey,
+                    getPublicUrl(objectKey),
+                    "file",
+                    s3Object.size(),
+                    LocalDateTime.ofInstant(s3Object.lastModified(), ZoneId.systemDefault()),
+                    determineContentType(fileName)));
         }
     }
 
@@ -552,4 +746,63 @@ public class StorageServiceImpl implements StorageService {
         // Default
         return "application/octet-stream";
     }
+
+    @PreDestroy
+    public void shutdown() {
+        copyExecutor.shutdown();
+    }
+
+    /**
+     * Gom số liệu của 1 thao tác thư mục, chỉ được cập nhật trên thread gọi
+     */
+    private static class OperationTracker {
+        final String operation;
+        final String sourcePrefix;
+        final String targetPrefix;
+        final long startedAt = System.nanoTime();
+        final List<String> failedKeys = new ArrayList<>();
+        int totalObjects;
+        int copied;
+        int deleted;
+        int failed;
+
+        OperationTracker(String operation, String sourcePrefix, String targetPrefix) {
+            this.operation = operation;
+            this.sourcePrefix = sourcePrefix;
+            this.targetPrefix = targetPrefix;
+        }
+
+        void fail(String key, String reason) {
+            failed++;
+            if (failedKeys.size() < MAX_REPORTED_FAILURES) {
+                failedKeys.add(key + " - " + reason);
+            }
+        }
+
+        /**
+         * Ghi log kết quả và trả về báo cáo
+         */
+        StorageOperationReport finish() {
+            StorageOperationReport report = StorageOperationReport.builder()
+                    .operation(operation)
+                    .sourcePrefix(sourcePrefix)
+                    .targetPrefix(targetPrefix)
+                    .totalObjects(totalObjects)
+                    .copied(copied)
+                    .deleted(deleted)
+                    .failed(failed)
+                    .failedKeys(List.copyOf(failedKeys))
+                    .durationMillis((System.nanoTime() - startedAt) / 1_000_000)
+                    .build();
+            if (failed > 0) {
+                log.warn("{} {} -> {}: {}/{} object lỗi, copy {}, xoá {} ({} ms). Ví dụ: {}", operation,
+                        sourcePrefix, targetPrefix, failed, totalObjects, copied, deleted,
+                        report.getDurationMillis(), failedKeys);
+            } else {
+                log.info("{} {} -> {}: {} object, copy {}, xoá {} ({} ms)", operation, sourcePrefix,
+                        targetPrefix, totalObjects, copied, deleted, report.getDurationMillis());
+            }
+            return report;
+        }
+    }
 }
@@ -4,12 +4,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,7 +30,11 @@ import com.thjvjpxx.backend_comic.repository.TransactionRepository;
 import com.thjvjpxx.backend_comic.repository.UserRepository;
 import com.thjvjpxx.backend_comic.service.PayOSService;
 import com.thjvjpxx.backend_comic.service.TransactionService;
+import com.thjvjpxx.backend_comic.specification.TransactionSpecifications;
+import com.thjvjpxx.backend_comic.utils.ApproximateCountCache;
+import com.thjvjpxx.backend_comic.utils.CursorUtils;
 import com.thjvjpxx.backend_comic.utils.PaginationUtils;
+import com.thjvjpxx.backend_comic.utils.UserPrincipalCache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -41,6 +48,8 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final PayOSService payOSService;
+    private final ApproximateCountCache approximateCountCache;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     @Transactional
@@ -112,10 +121,10 @@ public class TransactionServiceImpl implements TransactionService {
             transaction.setStatus(TransactionStatus.COMPLETED);
             transaction.setPayosTransactionId(payosTransactionId);
 
-            // Cập nhật số dư user
+            // Cộng số dư bằng 1 câu lệnh để không ghi đè lần trừ tiền song song
             User user = transaction.getUser();
-            user.setBalance(user.getBalance() + transaction.getAmount());
-            userRepository.save(user);
+            userRepository.creditBalance(user.getId(), transaction.getAmount());
+            userPrincipalCache.evictAfterCommit(user.getId());
 
             // Lưu transaction
             transaction = transactionRepository.save(transaction);
@@ -161,7 +170,14 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    public BaseResponse<List<TransactionResponse>> getUserTransactions(User user, int page, int limit) {
+    public BaseResponse<List<TransactionResponse>> getUserTransactions(User user, int page, int limit,
+            String cursor) {
+        if (cursor != null) {
+            Specification<Transaction> spec = TransactionSpecifications.ofUser(user.getId());
+            return getTransactionsByCursor(spec, "updatedAt", limit, cursor,
+                    ApproximateCountCache.key("transactions.user", user.getId()),
+                    this::convertToTransactionResponse);
+        }
         try {
             Pageable pageable = PaginationUtils.createPageableWithSort(page, limit, "updatedAt", Sort.Direction.DESC);
             Page<Transaction> transactionPage = transactionRepository.findByUser(user, pageable);
@@ -349,7 +365,20 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     public BaseResponse<List<TransactionResponse>> getAllTransactionsWithFilter(
-            int page, int limit, String search, String status, String paymentMethod) {
+            int page, int limit, String search, String status, String paymentMethod, String cursor) {
+        if (cursor != null) {
+            // Lọc search và paymentMethod ngay trong DB thay vì lọc trên trang đã lấy
+            TransactionStatus transactionStatus = status != null && !status.isEmpty()
+                    ? TransactionStatus.valueOf(status.toUpperCase())
+                    : null;
+            Specification<Transaction> spec = Specification
+                    .where(TransactionSpecifications.hasStatus(transactionStatus))
+                    .and(TransactionSpecifications.hasPaymentMethod(paymentMethod))
+                    .and(TransactionSpecifications.usernameOrDescriptionContains(search));
+            return getTransactionsByCursor(spec, "createdAt", limit, cursor,
+                    ApproximateCountCache.key("transactions", search, transactionStatus, paymentMethod),
+                    this::convertToTransactionResponseWithUser);
+        }
         try {
             log.info(
                     "Lấy danh sách giao dịch với filter - page: {}, limit: {}, search: {}, status: {}, paymentMethod: {}",
@@ -407,6 +436,36 @@ public class TransactionServiceImpl implements TransactionService {
         }
     }
 
+    /**
+     * Phân trang keyset theo (sortField, id) giảm dần, không chạy COUNT ở mỗi trang
+     */
+    private BaseResponse<List<TransactionResponse>> getTransactionsByCursor(Specification<Transaction> spec,
+            String sortField, int limit, String cursor, String countKey,
+            Function<Transaction, TransactionResponse> converter) {
+        int size = limit < 1 ? 5 : limit;
+        try {
+            Window<Transaction> transactionWindow = CursorUtils.scroll(transactionRepository, spec, sortField,
+                    cursor, size);
+
+            List<TransactionResponse> transactions = transactionWindow.getContent().stream()
+                    .map(converter)
+                    .collect(Collectors.toList());
+            Integer total = approximateCountCache.get(countKey, () -> transactionRepository.count(spec));
+
+            return BaseResponse.successWithCursor(
+                    transactions,
+                    size,
+                    CursorUtils.nextCursor(transactionWindow, sortField),
+                    total);
+
+        } catch (BaseException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Lỗi khi lấy danh sách giao dịch theo cursor: {}", e.getMessage(), e);
+            throw new BaseException(ErrorCode.HAS_ERROR);
+        }
+    }
+
     @Override
     public BaseResponse<TransactionStatsResponse> getTransactionStats() {
         try {
@@ -5,6 +5,8 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -23,6 +25,9 @@ import com.thjvjpxx.backend_comic.repository.UserRepository;
 import com.thjvjpxx.backend_comic.service.LevelService;
 import com.thjvjpxx.backend_comic.service.StorageService;
 import com.thjvjpxx.backend_comic.service.UserService;
+import com.thjvjpxx.backend_comic.specification.UserSpecifications;
+import com.thjvjpxx.backend_comic.utils.ApproximateCountCache;
+import com.thjvjpxx.backend_comic.utils.CursorUtils;
 import com.thjvjpxx.backend_comic.utils.FileUtils;
 import com.thjvjpxx.backend_comic.utils.PaginationUtils;
 import com.thjvjpxx.backend_comic.utils.StringUtils;
@@ -41,9 +46,14 @@ public class UserServiceImpl implements UserService {
     RoleRepository roleRepository;
     PasswordEncoder passwordEncoder;
     StorageService b2StorageService;
+    ApproximateCountCache approximateCountCache;
 
     @Override
-    public BaseResponse<List<User>> getUsers(int page, int limit, String search, String roleId, Boolean deleted) {
+    public BaseResponse<List<User>> getUsers(int page, int limit, String search, String roleId, Boolean deleted,
+            String cursor) {
+        if (cursor != null) {
+            return getUsersByCursor(limit, search, roleId, deleted, cursor);
+        }
         Pageable pageable = PaginationUtils.createPageableWithSort(page, limit, "updatedAt", Sort.Direction.DESC);
         int originalPage = page;
         Page<User> users = null;
@@ -93,6 +103,32 @@ public class UserServiceImpl implements UserService {
                 users.getTotalPages());
     }
 
+    /**
+     * Phân trang keyset theo (updatedAt, id), không chạy COUNT ở mỗi trang
+     */
+    private BaseResponse<List<User>> getUsersByCursor(int limit, String search, String roleId, Boolean deleted,
+            String cursor) {
+        limit = limit < 1 ? 5 : limit;
+        boolean isDeleted = deleted != null && deleted;
+        if (roleId != null && !roleId.isEmpty() && !roleRepository.existsById(roleId)) {
+            throw new BaseException(ErrorCode.ROLE_NOT_FOUND);
+        }
+        Specification<User> spec = Specification.where(UserSpecifications.isDeleted(isDeleted))
+                .and(UserSpecifications.usernameOrEmailContains(search))
+                .and(UserSpecifications.hasRole(roleId));
+
+        Window<User> users = CursorUtils.scroll(userRepository, spec, "updatedAt", cursor, limit);
+        Integer total = approximateCountCache.get(
+                ApproximateCountCache.key("users", search, roleId, isDeleted),
+                () -> userRepository.count(spec));
+
+        return BaseResponse.successWithCursor(
+                users.getContent(),
+                limit,
+                CursorUtils.nextCursor(users, "updatedAt"),
+                total);
+    }
+
     private void validateUsername(String username) {
         if (userRepository.findByUsername(username).isPresent()) {
             throw new BaseException(ErrorCode.USERNAME_EXISTS);
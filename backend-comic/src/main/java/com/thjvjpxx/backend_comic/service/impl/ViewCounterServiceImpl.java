@@ -0,0 +1,133 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thjvjpxx.backend_comic.service.ViewCounterService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ViewCounterServiceImpl implements ViewCounterService {
+
+    static final String UPSERT_HISTORY_SQL = """
+            INSERT INTO comic_views_history (id, comic_id, view_date, view_count, created_at)
+            VALUES (UUID(), ?, ?, ?, NOW())
+            ON DUPLICATE KEY UPDATE view_count = view_count + VALUES(view_count)
+            """;
+
+    static final String INCREMENT_VIEWS_SQL = "UPDATE comics SET views_count = views_count + ? WHERE id = ?";
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+
+    /**
+     * Bộ đếm theo (comic, ngày). LongAdder chia nhỏ counter theo thread
+     * nên nhiều người đọc cùng 1 comic không tranh chấp nhau
+     */
+    Map<ViewKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Chỉ cho 1 lượt flush chạy tại 1 thời điểm (scheduler và lúc shutdown)
+     */
+    Object flushLock = new Object();
+
+    @Override
+    public void recordView(String comicId) {
+        ViewKey key = new ViewKey(comicId, LocalDate.now());
+        LongAdder adder = pending.computeIfAbsent(key, k -> new LongAdder());
+        adder.increment();
+        // Qua nửa đêm, flush có thể vừa dọn bộ đếm ngày cũ sau khi lượt này lấy ra nhưng trước khi
+        // được cộng: ghi lại vào bộ đếm trong map để không mất lượt xem
+        if (pending.get(key) != adder) {
+            pending.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.view-counter.flush-interval:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            LocalDate today = LocalDate.now();
+            Map<ViewKey, Long> deltas = new LinkedHashMap<>();
+
+            for (Map.Entry<ViewKey, LongAdder> entry : pending.entrySet()) {
+                ViewKey key = entry.getKey();
+                LongAdder adder = entry.getValue();
+
+                long delta = adder.sumThenReset();
+                if (delta == 0) {
+                    // Bộ đếm của ngày cũ không còn ai ghi nữa -> dọn đi, kiểm tra lại trong computeIfPresent
+                    // vì recordView có thể vừa cộng vào sau sumThenReset
+                    if (key.date().isBefore(today)) {
+                        pending.computeIfPresent(key, (k, current) -> current == adder && current.sum() == 0
+                                ? null
+                                : current);
+                    }
+                    continue;
+                }
+                deltas.put(key, delta);
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                // Lịch sử theo ngày và tổng lượt xem ghi chung 1 transaction: lỗi thì không bảng nào được cộng
+                transactionTemplate.executeWithoutResult(status -> write(deltas));
+                log.debug("Đã ghi lượt xem của {} comic xuống DB", deltas.size());
+            } catch (Exception e) {
+                // Trả lại số lượt chưa ghi được để lượt flush sau thử lại
+                deltas.forEach((key, delta) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(delta));
+                log.error("Lỗi khi ghi lượt xem của {} comic: {}", deltas.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ghi cả lô bằng 2 JDBC batch: upsert lịch sử theo ngày (driver gộp thành 1 câu INSERT nhiều dòng)
+     * và cộng views_count của từng comic
+     */
+    private void write(Map<ViewKey, Long> deltas) {
+        List<Object[]> historyArgs = new ArrayList<>(deltas.size());
+        Map<String, Long> comicDeltas = new LinkedHashMap<>();
+        deltas.forEach((key, delta) -> {
+            historyArgs.add(new Object[] { key.comicId(), key.date().atStartOfDay(), delta });
+            comicDeltas.merge(key.comicId(), delta, Long::sum);
+        });
+
+        List<Object[]> comicArgs = new ArrayList<>(comicDeltas.size());
+        comicDeltas.forEach((comicId, delta) -> comicArgs.add(new Object[] { delta, comicId }));
+
+        jdbcTemplate.batchUpdate(UPSERT_HISTORY_SQL, historyArgs);
+        jdbcTemplate.batchUpdate(INCREMENT_VIEWS_SQL, comicArgs);
+    }
+
+    /**
+     * Ghi nốt lượt xem còn lại trước khi tắt ứng dụng
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record ViewKey(String comicId, LocalDate date) {
+    }
+}
@@ -1,20 +1,30 @@
 package com.thjvjpxx.backend_comic.service.impl;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.thjvjpxx.backend_comic.model.User;
-import com.thjvjpxx.backend_comic.model.UserVipSubscription;
+import com.thjvjpxx.backend_comic.dto.response.VipExpiryStatsResponse;
 import com.thjvjpxx.backend_comic.repository.UserRepository;
 import com.thjvjpxx.backend_comic.repository.UserVipSubscriptionRepository;
 import com.thjvjpxx.backend_comic.service.VipExpirationService;
+import com.thjvjpxx.backend_comic.utils.UserPrincipalCache;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -25,67 +35,166 @@ public class VipExpirationServiceImpl implements VipExpirationService {
 
     UserVipSubscriptionRepository userVipSubscriptionRepository;
     UserRepository userRepository;
+    UserPrincipalCache userPrincipalCache;
+    TransactionTemplate transactionTemplate;
 
     /**
-     * Kiểm tra và cập nhật trạng thái VIP của user khi họ truy cập hệ thống
-     * Phương pháp này chỉ xử lý khi user thực sự sử dụng app
+     * Min-heap theo thời điểm hết hạn, phần tử đầu là user hết hạn sớm nhất
      */
+    PriorityQueue<Expiry> heap = new PriorityQueue<>(Comparator.comparing(Expiry::expiresAt));
+
+    /**
+     * Mốc hết hạn mới nhất đã biết của từng user. Phần tử trong heap không khớp
+     * với map này là mốc cũ (user đã gia hạn) và sẽ bị bỏ qua khi lấy ra.
+     */
+    Map<String, LocalDateTime> latestExpiry = new ConcurrentHashMap<>();
+
+    AtomicLong totalExpiredUsers = new AtomicLong();
+    AtomicLong lastLagMillis = new AtomicLong();
+    AtomicLong maxLagMillis = new AtomicLong();
+    @NonFinal
+    volatile LocalDateTime lastSweepAt;
+
+    @NonFinal
+    @Value("${app.vip-expiry.horizon:86400000}")
+    long horizonMillis;
+
+    @NonFinal
+    @Value("${app.vip-expiry.batch-size:500}")
+    int batchSize;
+
     @Override
-    @Transactional
-    public void checkAndUpdateUserVipStatus(User user) {
-        // Kiểm tra user có VIP hiện tại còn hiệu lực không
-        boolean hasActiveVip = hasActiveVip(user);
-
-        if (hasActiveVip) {
-            // User có VIP hoạt động, đảm bảo user.vip = true
-            if (!user.getVip()) {
-                user.setVip(true);
-                userRepository.save(user);
-                log.info("Đã cập nhật trạng thái VIP của user {} thành true", user.getUsername());
-            }
-        } else {
-            // User không có VIP hoạt động, đảm bảo user.vip = false
-            if (user.getVip()) {
-                user.setVip(false);
-                userRepository.save(user);
-                log.info("VIP của user {} đã hết hạn, cập nhật thành false", user.getUsername());
-            }
+    public void trackExpiry(String userId, LocalDateTime expiresAt) {
+        // Mốc đã qua đến từ JWT cũ (còn hạn tới 1h) của user đã được quét: bỏ qua để request
+        // không thêm lại user vào heap và mỗi tick không chạy lại UPDATE cho họ.
+        // Gói quá hạn mà chưa được quét (vd: lúc ứng dụng tắt) do reloadUpcomingExpirations nạp từ DB.
+        if (expiresAt == null || !expiresAt.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        track(userId, expiresAt);
+    }
 
-            // Cập nhật tất cả subscription hết hạn của user thành EXPIRED
-            batchUpdateExpiredSubscriptionsForUser(user);
+    private void track(String userId, LocalDateTime expiresAt) {
+        if (userId == null || expiresAt == null) {
+            return;
+        }
+        // Mốc quá xa sẽ được nạp lại ở lượt reload sau, giữ heap nhỏ
+        if (expiresAt.isAfter(LocalDateTime.now().plus(Duration.ofMillis(horizonMillis)))) {
+            return;
+        }
+        // Chỉ giữ mốc muộn nhất: claim vipExp của JWT cũ đến sau không được ghi đè mốc đã gia hạn
+        boolean[] extended = { false };
+        latestExpiry.compute(userId, (id, current) -> {
+            if (current != null && !expiresAt.isAfter(current)) {
+                return current;
+            }
+            extended[0] = true;
+            return expiresAt;
+        });
+        if (!extended[0]) {
+            return;
+        }
+        synchronized (heap) {
+            heap.add(new Expiry(userId, expiresAt));
         }
     }
 
     /**
-     * Cập nhật các subscription hết hạn của một user cụ thể
+     * Nạp các gói VIP sắp hết hạn trong khoảng horizon từ DB vào heap.
+     * Chạy lúc khởi động và định kỳ để nhận cả gói được tạo ở instance khác.
      */
-    @Transactional
-    public void batchUpdateExpiredSubscriptionsForUser(User user) {
-        LocalDateTime now = LocalDateTime.now();
-
-        // Tìm tất cả subscription đã hết hạn của user nhưng vẫn còn status ACTIVE
-        List<UserVipSubscription> expiredSubscriptions = userVipSubscriptionRepository
-                .findExpiredActiveSubscriptions(now)
-                .stream()
-                .filter(sub -> sub.getUser().getId().equals(user.getId()))
-                .toList();
-
-        for (UserVipSubscription subscription : expiredSubscriptions) {
-            subscription.markAsExpired();
-            userVipSubscriptionRepository.save(subscription);
+    @Scheduled(fixedDelayString = "${app.vip-expiry.reload-interval:3600000}")
+    public void reloadUpcomingExpirations() {
+        try {
+            LocalDateTime until = LocalDateTime.now().plus(Duration.ofMillis(horizonMillis));
+            List<Object[]> rows = userVipSubscriptionRepository.findActiveExpiriesBefore(until);
+            for (Object[] row : rows) {
+                track((String) row[0], (LocalDateTime) row[1]);
+            }
+            log.info("Đã nạp {} mốc hết hạn VIP vào bộ quét", rows.size());
+        } catch (Exception e) {
+            log.error("Lỗi khi nạp mốc hết hạn VIP: {}", e.getMessage(), e);
         }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.vip-expiry.tick:1000}")
+    public void sweepExpired() {
+        List<Expiry> due;
+        while (!(due = pollDue(LocalDateTime.now())).isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> userIds = due.stream().map(Expiry::userId).distinct().toList();
+
+            try {
+                Integer cleared = transactionTemplate.execute(status -> {
+                    userVipSubscriptionRepository.expireSubscriptionsOfUsers(userIds, now);
+                    return userRepository.clearVipWithoutActiveSubscription(userIds, now);
+                });
+                // UPDATE native không qua entity listener nên phải tự xóa cache
+                userIds.forEach(userPrincipalCache::evict);
+                recordLag(due, now, cleared == null ? 0 : cleared);
+            } catch (Exception e) {
+                // Đưa lại vào heap để lượt sau thử lại
+                due.forEach(expiry -> latestExpiry.putIfAbsent(expiry.userId(), expiry.expiresAt()));
+                synchronized (heap) {
+                    heap.addAll(due);
+                }
+                log.error("Lỗi khi xử lý hết hạn VIP cho {} user: {}", userIds.size(), e.getMessage(), e);
+                return;
+            }
+        }
+    }
 
-        if (!expiredSubscriptions.isEmpty()) {
-            log.info("Đã cập nhật {} subscription hết hạn cho user {}",
-                    expiredSubscriptions.size(), user.getUsername());
+    @Override
+    public VipExpiryStatsResponse getExpiryStats() {
+        Expiry head;
+        int pending;
+        synchronized (heap) {
+            head = heap.peek();
+            pending = heap.size();
         }
+        return VipExpiryStatsResponse.builder()
+                .pendingExpirations(pending)
+                .nextExpiration(head != null ? head.expiresAt() : null)
+                .totalExpiredUsers(totalExpiredUsers.get())
+                .lastLagMillis(lastLagMillis.get())
+                .maxLagMillis(maxLagMillis.get())
+                .lastSweepAt(lastSweepAt)
+                .build();
     }
 
     /**
-     * Kiểm tra xem user có VIP hoạt động không
+     * Lấy tối đa batchSize mốc đã đến hạn khỏi heap, bỏ qua mốc cũ
      */
-    private boolean hasActiveVip(User user) {
-        LocalDateTime now = LocalDateTime.now();
-        return userVipSubscriptionRepository.hasActiveVip(user, now);
+    private List<Expiry> pollDue(LocalDateTime now) {
+        List<Expiry> due = new ArrayList<>();
+        synchronized (heap) {
+            while (due.size() < batchSize && !heap.isEmpty() && !heap.peek().expiresAt().isAfter(now)) {
+                Expiry expiry = heap.poll();
+                if (expiry.expiresAt().equals(latestExpiry.get(expiry.userId()))) {
+                    latestExpiry.remove(expiry.userId(), expiry.expiresAt());
+                    due.add(expiry);
+                }
+            }
+        }
+        return due;
+    }
+
+    private void recordLag(List<Expiry> due, LocalDateTime processedAt, int clearedUsers) {
+        long lag = due.stream()
+                .mapToLong(expiry -> Duration.between(expiry.expiresAt(), processedAt).toMillis())
+                .max()
+                .orElse(0);
+        lastLagMillis.set(lag);
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+        totalExpiredUsers.addAndGet(clearedUsers);
+        lastSweepAt = processedAt;
+
+        if (clearedUsers > 0) {
+            log.info("Đã tắt VIP của {} user hết hạn (độ trễ tối đa {} ms)", clearedUsers, lag);
+        }
+    }
+
+    private record Expiry(String userId, LocalDateTime expiresAt) {
     }
 }
@@ -0,0 +1,26 @@
+package com.thjvjpxx.backend_comic.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.thjvjpxx.backend_comic.model.Chapter;
+
+/**
+ * Điều kiện lọc chapter dùng cho phân trang keyset.
+ * Tham số rỗng trả về null để bỏ qua điều kiện khi ghép bằng and().
+ */
+public class ChapterSpecifications {
+
+    public static Specification<Chapter> titleContains(String search) {
+        if (search == null || search.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(root.get("title"), "%" + search + "%");
+    }
+
+    public static Specification<Chapter> ofComic(String comicId) {
+        if (comicId == null || comicId.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("comic").get("id"), comicId);
+    }
+}
@@ -0,0 +1,49 @@
+package com.thjvjpxx.backend_comic.specification;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.thjvjpxx.backend_comic.enums.ComicStatus;
+import com.thjvjpxx.backend_comic.model.Comic;
+
+/**
+ * Điều kiện lọc comic dùng cho phân trang keyset.
+ * Tham số rỗng trả về null để bỏ qua điều kiện khi ghép bằng and().
+ */
+public class ComicSpecifications {
+
+    public static Specification<Comic> slugOrNameContains(String search) {
+        if (search == null || search.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("slug"), "%" + search + "%"),
+                cb.like(root.get("name"), "%" + search + "%"));
+    }
+
+    public static Specification<Comic> hasStatus(ComicStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Comic> inCategory(String categoryId) {
+        if (categoryId == null || categoryId.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.join("categories").get("id"), categoryId);
+    }
+
+    public static Specification<Comic> inAnyCategory(Collection<String> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            // Comic thuộc nhiều category trong danh sách chỉ lấy 1 lần
+            query.distinct(true);
+            return root.join("categories").get("id").in(categoryIds);
+        };
+    }
+}
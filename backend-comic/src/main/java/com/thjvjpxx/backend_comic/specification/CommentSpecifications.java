@@ -0,0 +1,49 @@
+package com.thjvjpxx.backend_comic.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.thjvjpxx.backend_comic.enums.CommentStatus;
+import com.thjvjpxx.backend_comic.model.Comment;
+
+/**
+ * Điều kiện lọc comment dùng cho phân trang keyset, tương ứng với
+ * CommentRepository.findCommentsByCriteria.
+ * Tham số rỗng trả về null để bỏ qua điều kiện khi ghép bằng and().
+ */
+public class CommentSpecifications {
+
+    public static Specification<Comment> ofComic(String comicId) {
+        if (comicId == null || comicId.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("comic").get("id"), comicId);
+    }
+
+    public static Specification<Comment> ofChapter(String chapterId) {
+        if (chapterId == null || chapterId.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("chapter").get("id"), chapterId);
+    }
+
+    public static Specification<Comment> ofUser(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Comment> hasStatus(CommentStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Comment> contentContains(String content) {
+        if (content == null || content.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(cb.lower(root.get("content")), "%" + content.toLowerCase() + "%");
+    }
+}
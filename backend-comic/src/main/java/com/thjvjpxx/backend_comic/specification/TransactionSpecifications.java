@@ -0,0 +1,47 @@
+package com.thjvjpxx.backend_comic.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.thjvjpxx.backend_comic.enums.TransactionStatus;
+import com.thjvjpxx.backend_comic.model.Transaction;
+
+/**
+ * Điều kiện lọc giao dịch dùng cho phân trang keyset.
+ * Tham số rỗng trả về null để bỏ qua điều kiện khi ghép bằng and().
+ */
+public class TransactionSpecifications {
+
+    public static Specification<Transaction> ofUser(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Transaction> hasStatus(TransactionStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Transaction> hasPaymentMethod(String paymentMethod) {
+        if (paymentMethod == null || paymentMethod.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("paymentMethod")), paymentMethod.toLowerCase());
+    }
+
+    /**
+     * Tìm theo username của user hoặc mô tả giao dịch (không phân biệt hoa thường)
+     */
+    public static Specification<Transaction> usernameOrDescriptionContains(String search) {
+        if (search == null || search.isEmpty()) {
+            return null;
+        }
+        String pattern = "%" + search.toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("user").get("username")), pattern),
+                cb.like(cb.lower(root.get("description")), pattern));
+    }
+}
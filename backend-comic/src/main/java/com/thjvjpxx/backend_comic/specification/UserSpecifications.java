@@ -0,0 +1,32 @@
+package com.thjvjpxx.backend_comic.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.thjvjpxx.backend_comic.model.User;
+
+/**
+ * Điều kiện lọc user dùng cho phân trang keyset.
+ * Tham số rỗng trả về null để bỏ qua điều kiện khi ghép bằng and().
+ */
+public class UserSpecifications {
+
+    public static Specification<User> isDeleted(boolean deleted) {
+        return (root, query, cb) -> cb.equal(root.get("deleted"), deleted);
+    }
+
+    public static Specification<User> usernameOrEmailContains(String search) {
+        if (search == null || search.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("username"), "%" + search + "%"),
+                cb.like(root.get("email"), "%" + search + "%"));
+    }
+
+    public static Specification<User> hasRole(String roleId) {
+        if (roleId == null || roleId.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("role").get("id"), roleId);
+    }
+}
@@ -0,0 +1,73 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache tổng số bản ghi xấp xỉ cho phân trang keyset.
+ * Mỗi bộ lọc chỉ chạy COUNT tối đa 1 lần trong khoảng TTL, các trang sau dùng lại
+ * kết quả cũ (có thể lệch một chút so với thực tế).
+ * TTL <= 0 thì tắt, không trả về tổng số.
+ */
+@Component
+public class ApproximateCountCache {
+
+    private final long ttlMillis;
+    private final Map<String, CachedCount> entries;
+
+    public ApproximateCountCache(
+            @Value("${app.pagination.count-cache.max-size:1000}") int maxSize,
+            @Value("${app.pagination.count-cache.ttl:60000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Lấy tổng số xấp xỉ theo key, chạy counter nếu chưa có hoặc đã hết hạn
+     *
+     * @param key     Key của bộ lọc (vd: "comics|search|status|category")
+     * @param counter Hàm đếm thật
+     * @return Tổng số xấp xỉ, null nếu cache bị tắt
+     */
+    public Integer get(String key, LongSupplier counter) {
+        if (ttlMillis <= 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedCount cached = entries.get(key);
+            if (cached != null && cached.expiresAt() >= now) {
+                return (int) cached.count();
+            }
+        }
+        // Đếm ngoài khóa để không chặn các request khác
+        long count = counter.getAsLong();
+        synchronized (entries) {
+            entries.put(key, new CachedCount(count, now + ttlMillis));
+        }
+        return (int) count;
+    }
+
+    /**
+     * Tạo key từ tên danh sách và các tham số lọc
+     */
+    public static String key(String listing, Object... filters) {
+        StringBuilder builder = new StringBuilder(listing);
+        for (Object filter : filters) {
+            builder.append('|').append(filter == null ? "" : filter);
+        }
+        return builder.toString();
+    }
+
+    private record CachedCount(long count, long expiresAt) {
+    }
+}
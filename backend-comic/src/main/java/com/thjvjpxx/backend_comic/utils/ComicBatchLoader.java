@@ -0,0 +1,70 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.thjvjpxx.backend_comic.dto.response.HomeResponse.PopulerToday;
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.repository.ChapterRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Nạp dữ liệu phụ của cả 1 trang comic (chapter mới nhất) bằng
+ * 1 query gom nhóm theo comicId, thay cho việc query từng comic trong vòng lặp
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ComicBatchLoader {
+
+    ChapterRepository chapterRepository;
+
+    /**
+     * Lấy chapterNumber lớn nhất của từng comic
+     * 
+     * @param comicIds Danh sách ID comic trong trang
+     * @return Map comicId -> chapterNumber lớn nhất (comic chưa có chapter sẽ không có trong map)
+     */
+    public Map<String, Double> loadLatestChapterNumbers(Collection<String> comicIds) {
+        if (comicIds.isEmpty()) {
+            return Map.of();
+        }
+        return toMap(chapterRepository.findMaxChapterNumberByComicIds(comicIds));
+    }
+
+    /**
+     * Chuyển danh sách comic của 1 trang sang PopulerToday, chỉ tốn 1 query cho
+     * chapter mới nhất. Lượt xem lấy từ chính entity Comic đã nạp.
+     * 
+     * @param comics Danh sách comic trong trang
+     * @return Danh sách PopulerToday theo đúng thứ tự của comics
+     */
+    public List<PopulerToday> toPopulerToday(List<Comic> comics) {
+        Map<String, Double> latestChapters = loadLatestChapterNumbers(comics.stream().map(Comic::getId).toList());
+        return comics.stream()
+                .map(comic -> (PopulerToday) PopulerToday.builder()
+                        .id(comic.getId())
+                        .thumbUrl(comic.getThumbUrl())
+                        .slug(comic.getSlug())
+                        .name(comic.getName())
+                        .viewCount((long) comic.getViewsCount())
+                        .latestChapter(latestChapters.get(comic.getId()))
+                        .build())
+                .toList();
+    }
+
+    private Map<String, Double> toMap(List<Object[]> rows) {
+        Map<String, Double> result = new HashMap<>();
+        for (Object[] row : rows) {
+            result.put((String) row[0], row[1] == null ? null : ((Number) row[1]).doubleValue());
+        }
+        return result;
+    }
+}
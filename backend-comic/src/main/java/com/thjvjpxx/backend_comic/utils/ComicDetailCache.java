@@ -0,0 +1,85 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.thjvjpxx.backend_comic.dto.response.DetailComicResponse;
+
+/**
+ * Cache phần dùng chung của trang chi tiết comic (thông tin comic, danh sách chương),
+ * không chứa dữ liệu riêng của người dùng (đã đọc, đã mua).
+ * Các chỗ ghi comic/chương tự xoá theo slug sau khi ghi xong. TTL <= 0 thì tắt.
+ */
+@Component
+public class ComicDetailCache {
+
+    private final long ttlMillis;
+    private final Map<String, CachedDetail> entries;
+
+    public ComicDetailCache(
+            @Value("${app.comic-detail-cache.max-size:1000}") int maxSize,
+            @Value("${app.comic-detail-cache.ttl:30000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDetail> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Lấy phần dùng chung theo slug, nạp lại nếu chưa có hoặc đã hết hạn
+     *
+     * @param slug   Slug comic
+     * @param loader Hàm nạp từ DB
+     * @return Phần dùng chung (không được sửa)
+     */
+    public ComicDetail get(String slug, Supplier<ComicDetail> loader) {
+        if (ttlMillis <= 0) {
+            return loader.get();
+        }
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedDetail cached = entries.get(slug);
+            if (cached != null && cached.expiresAt() >= now) {
+                return cached.detail();
+            }
+        }
+        // Nạp ngoài khóa để không chặn các request khác
+        ComicDetail detail = loader.get();
+        synchronized (entries) {
+            entries.put(slug, new CachedDetail(detail, now + ttlMillis));
+        }
+        return detail;
+    }
+
+    /**
+     * Xoá cache của 1 comic (vd: sửa/xoá comic, thêm/sửa/xoá chương, số người theo dõi thay đổi)
+     */
+    public void evict(String slug) {
+        synchronized (entries) {
+            entries.remove(slug);
+        }
+    }
+
+    /**
+     * Phần dùng chung của trang chi tiết comic
+     *
+     * @param response     Response mẫu, chương đã sắp xếp, chưa có hasPurchased/isRead
+     * @param chapterIndex Id chương -> vị trí trong response.chapters
+     * @param freeChapters Bit của các chương miễn phí
+     * @param readOrdinals Vị trí -> số thứ tự đọc của chương (-1: chưa ai đọc)
+     */
+    public record ComicDetail(DetailComicResponse response, Map<String, Integer> chapterIndex,
+            BitSet freeChapters, int[] readOrdinals) {
+    }
+
+    private record CachedDetail(ComicDetail detail, long expiresAt) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.thjvjpxx.backend_comic.dto.response.CrawlEngineStatsResponse;
+import com.thjvjpxx.backend_comic.dto.response.CrawlEngineStatsResponse.StageStats;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Engine chạy task crawl dùng chung cho toàn ứng dụng.
+ * Mỗi task chạy trên 1 virtual thread, số task chạy đồng thời của từng tầng
+ * (comic, chapter, ảnh) bị giới hạn bằng semaphore. Hàng đợi mỗi tầng có giới hạn:
+ * khi đầy, thread gửi task sẽ bị chặn lại (back-pressure) thay vì tạo thêm luồng.
+ * Số request đồng thời tới mỗi host nguồn cũng bị giới hạn, thay cho Thread.sleep.
+ */
+@Component
+@Slf4j
+public class CrawlEngine {
+
+    public enum Stage {
+        COMIC, CHAPTER, IMAGE
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Stage, Lane> lanes = new EnumMap<>(Stage.class);
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final int perHostConcurrency;
+
+    public CrawlEngine(
+            @Value("${app.crawler.comic-concurrency:10}") int comicConcurrency,
+            @Value("${app.crawler.chapter-concurrency:20}") int chapterConcurrency,
+            @Value("${app.crawler.image-concurrency:30}") int imageConcurrency,
+            @Value("${app.crawler.queue-capacity:200}") int queueCapacity,
+            @Value("${app.crawler.per-host-concurrency:6}") int perHostConcurrency) {
+        lanes.put(Stage.COMIC, new Lane(comicConcurrency, queueCapacity));
+        lanes.put(Stage.CHAPTER, new Lane(chapterConcurrency, queueCapacity));
+        lanes.put(Stage.IMAGE, new Lane(imageConcurrency, queueCapacity));
+        this.perHostConcurrency = Math.max(1, perHostConcurrency);
+    }
+
+    /**
+     * Gửi task vào tầng tương ứng. Chặn thread gọi nếu hàng đợi của tầng đã đầy.
+     *
+     * @param stage Tầng của task
+     * @param task  Công việc cần chạy
+     * @return Future chứa kết quả, lỗi của task được bọc trong CompletionException
+     */
+    public <T> CompletableFuture<T> submit(Stage stage, Callable<T> task) {
+        Lane lane = lanes.get(stage);
+        try {
+            lane.slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        lane.queued.incrementAndGet();
+
+        try {
+            return CompletableFuture.supplyAsync(() -> lane.run(task), executor);
+        } catch (RuntimeException e) {
+            // Executor đã đóng
+            lane.queued.decrementAndGet();
+            lane.slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Thực hiện request tới URL, giới hạn số request đồng thời theo host
+     *
+     * @param url  URL cần gọi
+     * @param call Hàm gọi request
+     * @return Kết quả của call
+     */
+    public <T> T fetch(String url, Callable<T> call) throws Exception {
+        Semaphore permits = hostPermits.computeIfAbsent(hostOf(url), host -> new Semaphore(perHostConcurrency, true));
+        permits.acquire();
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Lấy số liệu hiện tại của engine
+     */
+    public CrawlEngineStatsResponse getStats() {
+        Map<String, StageStats> stages = new LinkedHashMap<>();
+        lanes.forEach((stage, lane) -> stages.put(stage.name(), lane.toStats()));
+
+        Map<String, Integer> hosts = new LinkedHashMap<>();
+        hostPermits.forEach((host, permits) -> hosts.put(host, perHostConcurrency - permits.availablePermits()));
+
+        return CrawlEngineStatsResponse.builder()
+                .stages(stages)
+                .activeRequestsByHost(hosts)
+                .perHostConcurrency(perHostConcurrency)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Crawl engine không dừng trong 30 giây, force shutdown");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Một tầng của engine: running giới hạn số task đang chạy,
+     * slots giới hạn tổng số task đang chạy + đang chờ
+     */
+    private static class Lane {
+        final int concurrency;
+        final int queueCapacity;
+        final Semaphore running;
+        final Semaphore slots;
+        final AtomicLong queued = new AtomicLong();
+        final AtomicLong active = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+
+        Lane(int concurrency, int queueCapacity) {
+            this.concurrency = Math.max(1, concurrency);
+            this.queueCapacity = Math.max(0, queueCapacity);
+            this.running = new Semaphore(this.concurrency, true);
+            this.slots = new Semaphore(this.concurrency + this.queueCapacity, true);
+        }
+
+        <T> T run(Callable<T> task) {
+            running.acquireUninterruptibly();
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            try {
+                T result = task.call();
+                completed.incrementAndGet();
+                return result;
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+            } finally {
+                active.decrementAndGet();
+                running.release();
+                slots.release();
+            }
+        }
+
+        StageStats toStats() {
+            return StageStats.builder()
+                    .concurrency(concurrency)
+                    .queueCapacity(queueCapacity)
+                    .queued(queued.get())
+                    .active(active.get())
+                    .completed(completed.get())
+                    .failed(failed.get())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.exception.BaseException;
+
+/**
+ * Lớp tiện ích cho phân trang keyset (cursor).
+ * Cursor là chuỗi base64 không trong suốt với client, mã hóa cặp (giá trị khóa sắp xếp, id)
+ * của phần tử cuối trang trước.
+ */
+public class CursorUtils {
+
+    private static final String SEPARATOR = "|";
+    private static final String ID_FIELD = "id";
+
+    /**
+     * Vị trí đã giải mã từ cursor
+     *
+     * @param key Giá trị khóa sắp xếp (dạng chuỗi)
+     * @param id  ID của phần tử, dùng để phân định khi khóa sắp xếp trùng nhau
+     */
+    public record Cursor(String key, String id) {
+        public LocalDateTime keyAsDateTime() {
+            try {
+                return LocalDateTime.parse(key);
+            } catch (DateTimeParseException e) {
+                throw new BaseException(ErrorCode.INVALID_CURSOR);
+            }
+        }
+    }
+
+    /**
+     * Tạo cursor từ khóa sắp xếp và id
+     *
+     * @param key Giá trị khóa sắp xếp
+     * @param id  ID của phần tử
+     * @return Cursor đã mã hóa
+     */
+    public static String encode(Object key, String id) {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã cursor
+     *
+     * @param cursor Cursor client gửi lên
+     * @return Cursor đã giải mã, null nếu cursor rỗng (trang đầu)
+     * @throws BaseException với ErrorCode.INVALID_CURSOR nếu cursor sai định dạng
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index <= 0 || index == raw.length() - 1) {
+                throw new BaseException(ErrorCode.INVALID_CURSOR);
+            }
+            return new Cursor(raw.substring(0, index), raw.substring(index + 1));
+        } catch (IllegalArgumentException e) {
+            throw new BaseException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Lấy 1 trang theo keyset (sortField DESC, id DESC) mà không chạy COUNT.
+     * Cursor null/rỗng là trang đầu.
+     *
+     * @param repository Repository hỗ trợ Specification
+     * @param spec       Điều kiện lọc (có thể null)
+     * @param sortField  Tên trường sắp xếp kiểu LocalDateTime (vd: updatedAt)
+     * @param cursor     Cursor của trang trước
+     * @param limit      Số lượng mỗi trang
+     * @return Window chứa dữ liệu trang và thông tin còn trang sau hay không
+     */
+    public static <T> Window<T> scroll(JpaSpecificationExecutor<T> repository, Specification<T> spec,
+            String sortField, String cursor, int limit) {
+        Sort sort = Sort.by(Sort.Direction.DESC, sortField, ID_FIELD);
+        ScrollPosition position = toScrollPosition(cursor, sortField);
+        return repository.findBy(Specification.where(spec),
+                query -> query.sortBy(sort).limit(limit).scroll(position));
+    }
+
+    /**
+     * Tạo cursor của trang kế tiếp từ phần tử cuối của Window
+     *
+     * @param window    Window vừa lấy
+     * @param sortField Tên trường sắp xếp
+     * @return Cursor trang kế tiếp, null nếu đã hết dữ liệu
+     */
+    public static String nextCursor(Window<?> window, String sortField) {
+        if (window.isEmpty() || !window.hasNext()) {
+            return null;
+        }
+        KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        Map<String, Object> keys = last.getKeys();
+        return encode(keys.get(sortField), String.valueOf(keys.get(ID_FIELD)));
+    }
+
+    private static ScrollPosition toScrollPosition(String cursor, String sortField) {
+        Cursor position = decode(cursor);
+        if (position == null) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sortField, position.keyAsDateTime());
+        keys.put(ID_FIELD, position.id());
+        return ScrollPosition.forward(keys);
+    }
+}
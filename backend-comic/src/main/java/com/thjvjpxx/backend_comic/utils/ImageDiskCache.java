@@ -0,0 +1,356 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.thjvjpxx.backend_comic.constant.B2Constants;
+import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.exception.BaseException;
+import com.thjvjpxx.backend_comic.service.StorageService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache ảnh trên đĩa local đứng trước storage B2 (LRU theo tổng dung lượng, có TTL).
+ * Tên file là SHA-256 của key nên không phụ thuộc ký tự trong key. Nhiều request cùng lúc
+ * cho 1 ảnh chưa có trong cache chỉ tải từ B2 đúng 1 lần (single-flight).
+ * <p>
+ * File trên đĩa không bao giờ bị ghi đè: mỗi lần tải lại (hết TTL) ghi ra 1 file mới có số phiên bản,
+ * file bị thay thế hoặc bị đẩy ra khỏi LRU chỉ bị xoá sau delete-delay. Nhờ vậy đường dẫn đã trả cho
+ * request vẫn trỏ đúng nội dung cho tới khi Tomcat mở file để sendfile (sau khi controller trả về).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.image-cache", name = "enabled", havingValue = "true")
+@Slf4j
+public class ImageDiskCache {
+
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+    private static final String TEMP_FOLDER = "tmp";
+    // <sha256>[-<phiên bản>][.<đuôi>], file cũ chưa có phiên bản vẫn đọc được
+    private static final Pattern DISK_NAME = Pattern.compile("([0-9a-f]{64})(?:-([0-9a-z]+))?(\\.[a-z0-9]{1,5})?");
+
+    private final StorageService storageService;
+    private final Path directory;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final long deleteDelayMillis;
+
+    // fileName -> file hiện tại, accessOrder = true -> LinkedHashMap hoạt động như LRU
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // File đã bị thay thế/đẩy ra, chờ tới hạn mới xoá. Chỉ truy cập trong synchronized (entries)
+    private final Deque<RetiredFile> retired = new ArrayDeque<>();
+    private final Map<String, CompletableFuture<CachedImage>> inFlight = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    public ImageDiskCache(StorageService storageService,
+            @Value("${app.image-cache.directory:./image-cache}") String directory,
+            @Value("${app.image-cache.max-bytes:10737418240}") long maxBytes,
+            @Value("${app.image-cache.ttl:86400000}") long ttlMillis,
+            @Value("${app.image-cache.delete-delay:60000}") long deleteDelayMillis) {
+        this.storageService = storageService;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+        this.deleteDelayMillis = deleteDelayMillis;
+    }
+
+    /**
+     * Dựng lại chỉ mục LRU từ các file đã có trên đĩa (file sửa gần nhất được coi là dùng gần nhất)
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory.resolve(TEMP_FOLDER));
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            paths.filter(Files::isRegularFile).forEach(files::add);
+        }
+
+        Map<Path, FileTime> modifiedTimes = new LinkedHashMap<>();
+        for (Path file : files) {
+            if (file.getParent().endsWith(TEMP_FOLDER) || !DISK_NAME.matcher(file.getFileName().toString()).matches()) {
+                // File tải dở từ lần chạy trước hoặc không phải file của cache
+                Files.deleteIfExists(file);
+            } else {
+                modifiedTimes.put(file, Files.getLastModifiedTime(file));
+            }
+        }
+
+        synchronized (entries) {
+            // Cũ trước mới sau: phiên bản mới hơn của cùng 1 ảnh thay thế phiên bản cũ
+            modifiedTimes.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+                    .forEach(entry -> {
+                        try {
+                            Path file = entry.getKey();
+                            put(fileNameOfDiskName(file.getFileName().toString()), new Entry(file, Files.size(file)));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            evictIfNeeded();
+            // Chưa có request nào dùng các file này nên xoá luôn
+            retired.forEach(file -> deleteQuietly(file.path()));
+            retired.clear();
+        }
+        log.info("Image cache tại {}: {} file, {} byte", directory, entries.size(), totalBytes);
+    }
+
+    /**
+     * Lấy ảnh từ cache, tải từ storage nếu chưa có hoặc đã hết hạn
+     *
+     * @param key Key của object trong bucket (vd: comics/slug/chapter-1.0/1.jpg)
+     * @return Ảnh đã nằm trên đĩa local
+     * @throws BaseException INVALID_ARGUMENT nếu key không hợp lệ, FILE_NOT_FOUND nếu không có trên storage
+     */
+    public CachedImage get(String key) {
+        validateKey(key);
+        String fileName = fileNameOf(key);
+
+        CachedImage cached = lookup(fileName);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<CachedImage> created = new CompletableFuture<>();
+        CompletableFuture<CachedImage> existing = inFlight.putIfAbsent(fileName, created);
+        if (existing != null) {
+            // Đã có request khác đang tải ảnh này, chờ kết quả của nó
+            return join(existing);
+        }
+
+        try {
+            // Request trước có thể vừa tải xong giữa lúc lookup và putIfAbsent
+            CachedImage image = lookup(fileName);
+            if (image == null) {
+                image = fill(key, fileName);
+            }
+            created.complete(image);
+            return image;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(fileName, created);
+        }
+    }
+
+    /**
+     * Xoá các file đã bị thay thế/đẩy ra khỏi cache quá delete-delay
+     */
+    @Scheduled(fixedDelayString = "${app.image-cache.delete-delay:60000}")
+    public void purgeRetired() {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            while (!retired.isEmpty() && retired.peekFirst().deleteAt() <= now) {
+                deleteQuietly(retired.pollFirst().path());
+            }
+        }
+    }
+
+    private CachedImage lookup(String fileName) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(fileName);
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        long modifiedAt;
+        try {
+            modifiedAt = Files.getLastModifiedTime(entry.path()).toMillis();
+        } catch (IOException e) {
+            // File bị xoá ngoài ý muốn
+            synchronized (entries) {
+                if (entries.remove(fileName, entry)) {
+                    totalBytes -= entry.size();
+                }
+            }
+            return null;
+        }
+        if (System.currentTimeMillis() - modifiedAt > ttlMillis) {
+            return null;
+        }
+        return toCachedImage(fileName, entry.path(), entry.size(), modifiedAt);
+    }
+
+    private CachedImage fill(String key, String fileName) {
+        // Tên file mới cho mỗi lần tải: không ghi đè file mà request khác có thể sắp gửi
+        Path target = pathOf(diskNameOf(fileName, Long.toString(System.currentTimeMillis(), 36)));
+        Path temp = directory.resolve(TEMP_FOLDER).resolve(fileName + "." + Thread.currentThread().threadId());
+        long size;
+        long modifiedAt;
+        try {
+            size = storageService.downloadFile(key, temp);
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            modifiedAt = Files.getLastModifiedTime(target).toMillis();
+        } catch (IOException e) {
+            log.error("Lỗi khi ghi ảnh {} vào cache: {}", key, e.getMessage());
+            throw new BaseException(ErrorCode.HAS_ERROR);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Không xoá được file tạm {}: {}", temp, e.getMessage());
+            }
+        }
+
+        synchronized (entries) {
+            put(fileName, new Entry(target, size));
+            evictIfNeeded();
+        }
+        return toCachedImage(fileName, target, size, modifiedAt);
+    }
+
+    /**
+     * Đặt file hiện tại của 1 ảnh, file cũ (nếu có) chờ xoá. Phải gọi trong synchronized (entries).
+     */
+    private void put(String fileName, Entry entry) {
+        Entry previous = entries.put(fileName, entry);
+        totalBytes += entry.size();
+        if (previous != null) {
+            totalBytes -= previous.size();
+            retire(previous.path());
+        }
+    }
+
+    /**
+     * Đẩy các file dùng lâu nhất ra khỏi cache đến khi tổng dung lượng không vượt giới hạn.
+     * Phải gọi trong synchronized (entries).
+     */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        // Luôn giữ lại file vừa thêm (cuối danh sách) dù nó lớn hơn giới hạn
+        while (totalBytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.size();
+            retire(eldest.path());
+        }
+    }
+
+    private void retire(Path path) {
+        retired.addLast(new RetiredFile(path, System.currentTimeMillis() + deleteDelayMillis));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            // Request đã mở file descriptor vẫn đọc được tới hết
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Không xoá được file cache {}: {}", path, e.getMessage());
+        }
+    }
+
+    private CachedImage join(CompletableFuture<CachedImage> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BaseException be) {
+                throw be;
+            }
+            throw new BaseException(ErrorCode.HAS_ERROR);
+        }
+    }
+
+    private void validateKey(String key) {
+        boolean allowedFolder = key != null
+                && (key.startsWith(B2Constants.FOLDER_KEY_COMIC + "/")
+                        || key.startsWith(B2Constants.FOLDER_KEY_THUMBNAIL + "/"));
+        if (!allowedFolder || key.contains("..") || key.contains("//") || key.endsWith("/")) {
+            throw new BaseException(ErrorCode.INVALID_ARGUMENT);
+        }
+    }
+
+    private static String fileNameOf(String key) {
+        String hash;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            hash = HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // Giữ đuôi file để xác định content type sau khi khởi động lại
+        String extension = StringUtils.getExtension(key).toLowerCase();
+        return EXTENSION.matcher(extension).matches() ? hash + "." + extension : hash;
+    }
+
+    /**
+     * Tên file trên đĩa của 1 phiên bản: chèn phiên bản trước đuôi file
+     */
+    private static String diskNameOf(String fileName, String version) {
+        int dot = fileName.indexOf('.');
+        return dot < 0 ? fileName + "-" + version
+                : fileName.substring(0, dot) + "-" + version + fileName.substring(dot);
+    }
+
+    private static String fileNameOfDiskName(String diskName) {
+        Matcher matcher = DISK_NAME.matcher(diskName);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(diskName);
+        }
+        return matcher.group(3) != null ? matcher.group(1) + matcher.group(3) : matcher.group(1);
+    }
+
+    private Path pathOf(String fileName) {
+        // Chia thư mục con theo 2 ký tự đầu để mỗi thư mục không chứa quá nhiều file
+        return directory.resolve(fileName.substring(0, 2)).resolve(fileName);
+    }
+
+    private static CachedImage toCachedImage(String fileName, Path path, long size, long modifiedAt) {
+        MediaType contentType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        // File được tải lại sau TTL sẽ có ETag mới
+        String etag = "\"" + fileName.substring(0, 16) + "-" + size + "-" + modifiedAt + "\"";
+        return new CachedImage(path, size, contentType, etag);
+    }
+
+    /**
+     * Ảnh đã có trên đĩa local
+     *
+     * @param path        Đường dẫn file
+     * @param size        Kích thước (byte)
+     * @param contentType Content type theo đuôi file
+     * @param etag        ETag dùng cho conditional request
+     */
+    public record CachedImage(Path path, long size, MediaType contentType, String etag) {
+    }
+
+    private record Entry(Path path, long size) {
+    }
+
+    private record RetiredFile(Path path, long deleteAt) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cắt ảnh dài (webtoon) thành các đoạn cao cố định.
+ * Ảnh trong giới hạn maxDecodePixels được giải mã 1 lần rồi cắt bằng getSubimage. Ảnh lớn hơn được
+ * đọc theo dải (source region) gồm nhiều đoạn liền nhau vừa giới hạn: reader JPEG/PNG của ImageIO
+ * phải giải mã lại từ đầu ảnh ở mỗi lần read, nên dải càng lớn thì càng ít lần giải mã lại.
+ */
+@Component
+public class ImageTiler {
+
+    private final int segmentHeight;
+    private final int minHeight;
+    private final long maxDecodePixels;
+
+    public ImageTiler(
+            @Value("${app.image-tiles.segment-height:1280}") int segmentHeight,
+            @Value("${app.image-tiles.min-height:4000}") int minHeight,
+            @Value("${app.image-tiles.max-decode-pixels:40000000}") long maxDecodePixels) {
+        this.segmentHeight = Math.max(1, segmentHeight);
+        this.minHeight = minHeight;
+        this.maxDecodePixels = maxDecodePixels;
+    }
+
+    /**
+     * Đọc kích thước ảnh từ header, không giải mã dữ liệu ảnh
+     *
+     * @throws IIOException nếu không có ImageReader cho định dạng của file
+     */
+    public Dimension readSize(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = readerFor(input, file);
+            try {
+                reader.setInput(input, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Ảnh có cần cắt thành nhiều đoạn không
+     */
+    public boolean shouldSplit(Dimension size) {
+        return size.height >= minHeight && size.height > segmentHeight;
+    }
+
+    /**
+     * Đọc lần lượt từng đoạn từ trên xuống. Đoạn cuối có thể thấp hơn hoặc cao hơn segmentHeight
+     * (phần dư dưới 1/4 segmentHeight được gộp vào đoạn cuối).
+     *
+     * @param file    File ảnh
+     * @param handler Xử lý từng đoạn (vd: mã hoá và upload). Đoạn dùng chung raster với dải đang giải mã
+     *                nên không được giữ lại sau khi handler trả về.
+     * @return Số đoạn đã cắt
+     */
+    public int split(Path file, SegmentHandler handler) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = readerFor(input, file);
+            try {
+                reader.setInput(input, false, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                List<Integer> offsets = segmentOffsets(height);
+                // Số dòng tối đa của 1 dải trong giới hạn bộ nhớ, ít nhất là 1 đoạn
+                long bandLimit = Math.max(segmentHeight, maxDecodePixels / Math.max(1, width));
+
+                int index = 0;
+                while (index < offsets.size() - 1) {
+                    int bandStart = offsets.get(index);
+                    int bandEnd = index + 1;
+                    while (bandEnd < offsets.size() - 1 && offsets.get(bandEnd + 1) - bandStart <= bandLimit) {
+                        bandEnd++;
+                    }
+                    BufferedImage band;
+                    if (bandStart == 0 && bandEnd == offsets.size() - 1) {
+                        band = reader.read(0);
+                    } else {
+                        ImageReadParam param = reader.getDefaultReadParam();
+                        param.setSourceRegion(new Rectangle(0, bandStart, width, offsets.get(bandEnd) - bandStart));
+                        band = reader.read(0, param);
+                    }
+                    for (; index < bandEnd; index++) {
+                        int offsetY = offsets.get(index);
+                        handler.handle(index, offsetY,
+                                band.getSubimage(0, offsetY - bandStart, width, offsets.get(index + 1) - offsetY));
+                    }
+                }
+                return index;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Vị trí bắt đầu của từng đoạn, phần tử cuối là chiều cao ảnh
+     */
+    private List<Integer> segmentOffsets(int height) {
+        List<Integer> offsets = new ArrayList<>();
+        int offsetY = 0;
+        while (offsetY < height) {
+            offsets.add(offsetY);
+            int rows = Math.min(segmentHeight, height - offsetY);
+            // Phần dư quá thấp thì gộp vào đoạn cuối thay vì tạo 1 đoạn vài chục px
+            if (height - offsetY - rows < segmentHeight / 4) {
+                rows = height - offsetY;
+            }
+            offsetY += rows;
+        }
+        offsets.add(height);
+        return offsets;
+    }
+
+    private static ImageReader readerFor(ImageInputStream input, Path file) throws IIOException {
+        Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+        if (readers == null || !readers.hasNext()) {
+            throw new IIOException("Không hỗ trợ định dạng ảnh: " + file.getFileName());
+        }
+        return readers.next();
+    }
+
+    /**
+     * Xử lý 1 đoạn ảnh
+     */
+    @FunctionalInterface
+    public interface SegmentHandler {
+        /**
+         * @param index   Thứ tự đoạn, bắt đầu từ 0
+         * @param offsetY Vị trí dòng đầu tiên của đoạn trong ảnh gốc (px)
+         * @param segment Ảnh của đoạn
+         */
+        void handle(int index, int offsetY, BufferedImage segment) throws IOException;
+    }
+}
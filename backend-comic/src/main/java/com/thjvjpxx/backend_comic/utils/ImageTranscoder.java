@@ -0,0 +1,139 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Giải mã, resize và mã hoá lại ảnh bằng ImageIO.
+ * Định dạng đầu ra lấy theo cấu hình, nếu JVM không có ImageWriter cho định dạng đó
+ * (vd: webp/avif khi chưa cài plugin ImageIO) thì dùng jpg.
+ */
+@Component
+@Slf4j
+public class ImageTranscoder {
+
+    private static final String FALLBACK_FORMAT = "jpg";
+
+    private final String format;
+    private final float quality;
+
+    public ImageTranscoder(
+            @Value("${app.image-variants.format:jpg}") String format,
+            @Value("${app.image-variants.quality:0.8}") float quality) {
+        String requested = format.toLowerCase();
+        if (ImageIO.getImageWritersByFormatName(requested).hasNext()) {
+            this.format = requested;
+        } else {
+            log.warn("Không có ImageWriter cho định dạng {}, dùng {}", requested, FALLBACK_FORMAT);
+            this.format = FALLBACK_FORMAT;
+        }
+        this.quality = quality;
+    }
+
+    /**
+     * Định dạng file đầu ra (đuôi file)
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Content type của file đầu ra
+     */
+    public String getContentType() {
+        return "jpg".equals(format) ? "image/jpeg" : "image/" + format;
+    }
+
+    /**
+     * Giải mã ảnh từ file
+     *
+     * @throws IIOException nếu không có ImageReader cho định dạng của file
+     */
+    public BufferedImage decode(Path file) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        if (image == null) {
+            throw new IIOException("Không hỗ trợ định dạng ảnh: " + file.getFileName());
+        }
+        return image;
+    }
+
+    /**
+     * Thu nhỏ ảnh về chiều rộng cho trước, giữ tỉ lệ. Giảm một nửa mỗi bước để
+     * nội suy bilinear không bị răng cưa khi thu nhỏ nhiều lần.
+     * Ảnh trả về luôn là RGB nền trắng (bỏ kênh alpha để mã hoá được jpg).
+     */
+    public BufferedImage resize(BufferedImage source, int width) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        do {
+            int stepWidth = Math.max(width, currentWidth / 2);
+            int stepHeight = Math.max(1, (int) Math.round((double) source.getHeight() * stepWidth / source.getWidth()));
+            BufferedImage next = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+            currentWidth = stepWidth;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    /**
+     * Chuyển ảnh về RGB nền trắng, giữ nguyên kích thước
+     */
+    public BufferedImage toRgb(BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_INT_RGB ? image : resize(image, image.getWidth());
+    }
+
+    /**
+     * Mã hoá ảnh theo định dạng đầu ra (progressive nếu định dạng hỗ trợ)
+     */
+    public byte[] encode(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            if (param.canWriteProgressive()) {
+                // Trình duyệt hiển thị được bản mờ trước khi tải hết file
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.exception.BaseException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Upload nhiều file song song, mỗi file trên 1 virtual thread.
+ * Số file đang upload cùng lúc của mỗi lần gọi bị giới hạn, kết quả giữ đúng thứ tự
+ * đầu vào. Nếu 1 file lỗi thì dừng gửi thêm và huỷ các file đang upload; file đã upload không bị xoá ở đây
+ * (ảnh lưu theo nội dung có thể đang được chương khác dùng, bộ dọn ảnh sẽ xử lý).
+ */
+@Component
+@Slf4j
+public class ParallelUploader {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int concurrency;
+
+    public ParallelUploader(@Value("${app.upload.concurrency:8}") int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Chạy upload cho từng phần tử, tối đa app.upload.concurrency phần tử cùng lúc
+     *
+     * @param items  Danh sách đầu vào theo thứ tự trang
+     * @param upload Hàm upload 1 phần tử
+     * @return Kết quả cùng thứ tự với items
+     * @throws BaseException lỗi của file đầu tiên thất bại (ErrorCode.UPLOAD_FILE_FAILED nếu không phải BaseException)
+     */
+    public <T, R> List<R> uploadAll(List<T> items, Function<T, R> upload) {
+        Semaphore window = new Semaphore(concurrency);
+        AtomicBoolean failed = new AtomicBoolean();
+        // Chờ theo thứ tự hoàn thành: file lỗi được phát hiện ngay dù file trước nó còn đang upload
+        CompletionService<R> completion = new ExecutorCompletionService<>(executor);
+        List<Future<R>> futures = new ArrayList<>(items.size());
+
+        try {
+            for (T item : items) {
+                window.acquire();
+                if (failed.get()) {
+                    window.release();
+                    break;
+                }
+                futures.add(completion.submit(() -> {
+                    try {
+                        return upload.apply(item);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        window.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                completion.take().get();
+            }
+
+            List<R> results = new ArrayList<>(items.size());
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new BaseException(ErrorCode.UPLOAD_FILE_FAILED);
+        } catch (ExecutionException e) {
+            log.error("Lỗi khi upload file: {}", e.getCause().getMessage());
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof BaseException be ? be : new BaseException(ErrorCode.UPLOAD_FILE_FAILED);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
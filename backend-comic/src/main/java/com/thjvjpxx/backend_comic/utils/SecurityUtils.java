@@ -4,6 +4,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import com.thjvjpxx.backend_comic.config.JwtPrincipal;
+
 import com.thjvjpxx.backend_comic.enums.ErrorCode;
 import com.thjvjpxx.backend_comic.exception.BaseException;
 import com.thjvjpxx.backend_comic.model.User;
@@ -22,6 +24,8 @@ import lombok.experimental.FieldDefaults;
 public class SecurityUtils {
 
     UserRepository userRepository;
+    UserPrincipalCache userPrincipalCache;
+
     /**
      * Lấy thông tin người dùng hiện tại từ SecurityContext
      * 
@@ -30,16 +34,48 @@ public class SecurityUtils {
      * @throws BaseException với mã lỗi USER_NOT_FOUND nếu không tìm thấy user trong database
      */
     public User getCurrentUser() {
+        User user = loadUserById(getCurrentPrincipal().getUserId());
+        if (user == null) {
+            throw new BaseException(ErrorCode.USER_NOT_FOUND);
+        }
+        return user;
+    }
+
+    /**
+     * Lấy principal (claims của JWT) của người dùng hiện tại, không truy cập DB
+     * 
+     * @return JwtPrincipal của người dùng hiện tại
+     * @throws BaseException với mã lỗi INVALID_TOKEN nếu không có authentication hoặc chưa xác thực
+     */
+    public JwtPrincipal getCurrentPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !authentication.isAuthenticated() ||
-                "anonymousUser".equals(authentication.getPrincipal())) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof JwtPrincipal principal)) {
             throw new BaseException(ErrorCode.INVALID_TOKEN);
         }
+        return principal;
+    }
 
-        String username = (String) authentication.getPrincipal();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new BaseException(ErrorCode.USER_NOT_FOUND));
+    /**
+     * Lấy user theo id, ưu tiên lấy từ UserPrincipalCache
+     * 
+     * @param userId ID user
+     * @return User, null nếu không tồn tại
+     */
+    public User loadUserById(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        User user = userPrincipalCache.get(userId);
+        if (user != null) {
+            return user;
+        }
+        user = userRepository.findById(userId).orElse(null);
+        if (user != null) {
+            userPrincipalCache.put(user);
+        }
+        return user;
     }
 
     /**
@@ -59,7 +95,7 @@ public class SecurityUtils {
      * @throws BaseException nếu có lỗi khi lấy thông tin người dùng hiện tại
      */
     public String getCurrentUserId() {
-        return getCurrentUser().getId();
+        return getCurrentPrincipal().getUserId();
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.thjvjpxx.backend_comic.utils;
 
 import java.text.Normalizer;
+import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -48,6 +49,20 @@ public class StringUtils {
         return result;
     }
 
+    /**
+     * Tách chuỗi thành các từ theo cùng cách chuẩn hoá với slug (chữ thường, bỏ dấu tiếng Việt)
+     * 
+     * @param input Chuỗi cần tách
+     * @return Danh sách từ, rỗng nếu chuỗi không có chữ/số
+     */
+    public static List<String> tokenize(String input) {
+        String slug = generateSlug(input);
+        if (slug == null || slug.isEmpty()) {
+            return List.of();
+        }
+        return List.of(slug.split("-"));
+    }
+
     /**
      * Tạo token xác thực
      * 
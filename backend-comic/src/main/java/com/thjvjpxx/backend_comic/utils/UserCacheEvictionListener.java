@@ -0,0 +1,30 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import org.springframework.stereotype.Component;
+
+import com.thjvjpxx.backend_comic.model.User;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Entity listener của User: mọi thay đổi (profile, role, khóa, VIP, số dư, exp...)
+ * đi qua JPA đều xóa user khỏi UserPrincipalCache, lần cuối sau khi transaction commit.
+ * Các câu UPDATE trực tiếp (UserRepository.debitBalance...) phải tự gọi evictAfterCommit.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserCacheEvictionListener {
+
+    UserPrincipalCache userPrincipalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        userPrincipalCache.evictAfterCommit(user.getId());
+    }
+}
@@ -0,0 +1,108 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.thjvjpxx.backend_comic.model.User;
+
+/**
+ * Cache User đã xác thực theo id, giới hạn số lượng (LRU) và có TTL.
+ * Được xóa sau khi thay đổi của user commit (xem UserCacheEvictionListener) để không phải
+ * query lại user ở mỗi request có token. Bản trong cache chỉ dùng để đọc, không được save lại.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final long ttlMillis;
+    private final Map<String, CachedUser> entries;
+
+    public UserPrincipalCache(
+            @Value("${app.principal-cache.max-size:10000}") int maxSize,
+            @Value("${app.principal-cache.ttl:60000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        // accessOrder = true -> LinkedHashMap hoạt động như LRU
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Lấy bản sao của user trong cache
+     *
+     * @param userId ID user
+     * @return Bản sao user, null nếu không có hoặc đã hết hạn
+     */
+    public User get(String userId) {
+        CachedUser cached;
+        synchronized (entries) {
+            cached = entries.get(userId);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt() < System.currentTimeMillis()) {
+                entries.remove(userId);
+                return null;
+            }
+        }
+        // Trả về bản sao để các request song song không sửa chung 1 object
+        return copyOf(cached.user());
+    }
+
+    public void put(User user) {
+        CachedUser cached = new CachedUser(copyOf(user), System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(user.getId(), cached);
+        }
+    }
+
+    public void evict(String userId) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+
+    /**
+     * Xóa user khỏi cache ngay và thêm 1 lần nữa sau khi transaction hiện tại commit:
+     * request khác có thể đọc dòng cũ trước khi commit rồi đưa lại vào cache
+     *
+     * @param userId ID user
+     */
+    public void evictAfterCommit(String userId) {
+        evict(userId);
+        if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private User copyOf(User user) {
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
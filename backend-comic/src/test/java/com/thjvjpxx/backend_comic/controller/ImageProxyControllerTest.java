@@ -0,0 +1,125 @@
+package com.thjvjpxx.backend_comic.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.thjvjpxx.backend_comic.utils.ImageDiskCache;
+import com.thjvjpxx.backend_comic.utils.ImageDiskCache.CachedImage;
+
+class ImageProxyControllerTest {
+
+    static final String ETAG = "\"abc-10-1\"";
+
+    @TempDir
+    Path directory;
+
+    ImageProxyController controller;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+    Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(directory.resolve("image.jpg"), "0123456789");
+        ImageDiskCache cache = mock(ImageDiskCache.class);
+        when(cache.get("comics/slug/1.jpg")).thenReturn(new CachedImage(file, 10, MediaType.IMAGE_JPEG, ETAG));
+        controller = new ImageProxyController(cache);
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void wholeFileIsSentWithCacheHeaders() throws IOException {
+        controller.getImage("/comics/slug/1.jpg", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getContentType()).isEqualTo("image/jpeg");
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void matchingEtagReturnsNotModifiedWithoutBody() throws IOException {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+        controller.getImage("/comics/slug/1.jpg", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        controller.getImage("/comics/slug/1.jpg", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void suffixRangeReturnsTail() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+
+        controller.getImage("/comics/slug/1.jpg", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+        assertThat(response.getContentAsString()).isEqualTo("789");
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-30");
+
+        controller.getImage("/comics/slug/1.jpg", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void multipleRangesReturnWholeFile() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,4-5");
+
+        controller.getImage("/comics/slug/1.jpg", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void sendfileConnectorGetsFileAttributesInsteadOfBody() throws IOException {
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        controller.getImage("/comics/slug/1.jpg", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+        // end của Tomcat là vị trí sau byte cuối
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(6L);
+    }
+}
@@ -0,0 +1,130 @@
+package com.thjvjpxx.backend_comic.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
+
+class ReadingProgressBulkRepositoryImplTest {
+
+    JdbcTemplate jdbcTemplate;
+    ReadingProgressBulkRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repository = new ReadingProgressBulkRepositoryImpl(jdbcTemplate, 500);
+    }
+
+    @Test
+    void upsertOrsBitmapsOfDifferentLengths() throws Exception {
+        BitSet stored = bits(0, 3, 70);
+        BitSet incoming = bits(1, 200);
+
+        byte[] written = bindReadChapters(incoming);
+        byte[] merged = mysqlRpadOr(stored.toByteArray(), written);
+
+        assertThat(BitSet.valueOf(merged)).isEqualTo(bits(0, 1, 3, 70, 200));
+        // Bitmap dài hơn vẫn giữ nguyên khi vế còn lại ngắn hơn
+        assertThat(BitSet.valueOf(mysqlRpadOr(written, stored.toByteArray()))).isEqualTo(bits(0, 1, 3, 70, 200));
+    }
+
+    @Test
+    void upsertIsIdempotentForSameBitmap() throws Exception {
+        BitSet read = bits(5, 64);
+
+        byte[] written = bindReadChapters(read);
+        byte[] once = mysqlRpadOr(new byte[0], written);
+        byte[] twice = mysqlRpadOr(once, written);
+
+        assertThat(BitSet.valueOf(once)).isEqualTo(read);
+        assertThat(twice).isEqualTo(once);
+    }
+
+    @Test
+    void emptyBitmapIsWrittenAsEmptyBytesAndKeepsStoredBits() throws Exception {
+        byte[] written = bindReadChapters(new BitSet());
+
+        assertThat(written).isEmpty();
+        assertThat(BitSet.valueOf(mysqlRpadOr(bits(2).toByteArray(), written))).isEqualTo(bits(2));
+    }
+
+    @Test
+    void nothingToUpsertSkipsDatabase() {
+        assertThat(repository.upsertAll(List.of())).isZero();
+        assertThat(repository.upsertAll(null)).isZero();
+    }
+
+    /**
+     * Gọi upsertAll với 1 dòng, trả về giá trị được bind cho cột read_chapters
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] bindReadChapters(BitSet read) throws Exception {
+        ReadingProgress progress = ReadingProgress.builder()
+                .userId("user")
+                .comicId("comic")
+                .readChapters(read.toByteArray())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<ReadingProgress>> setter = ArgumentCaptor
+                .forClass(ParameterizedPreparedStatementSetter.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][] { { 1 } });
+
+        repository.upsertAll(List.of(progress));
+        verify(jdbcTemplate).batchUpdate(sql.capture(), eq(List.of(progress)), eq(500), setter.capture());
+        // Phép gộp mô phỏng ở mysqlRpadOr phải đúng là phép mà câu lệnh dùng
+        assertThat(sql.getValue()).contains(
+                "RPAD(read_chapters, GREATEST(LENGTH(read_chapters), LENGTH(VALUES(read_chapters))), X'00')",
+                "| RPAD(VALUES(read_chapters), GREATEST(LENGTH(read_chapters), LENGTH(VALUES(read_chapters))), X'00')");
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, progress);
+        ArgumentCaptor<byte[]> bytes = ArgumentCaptor.forClass(byte[].class);
+        verify(ps).setBytes(eq(4), bytes.capture());
+        return bytes.getValue();
+    }
+
+    /**
+     * Cùng phép tính với câu upsert: đệm byte 0 bên phải tới độ dài lớn hơn rồi OR từng byte
+     */
+    private static byte[] mysqlRpadOr(byte[] stored, byte[] incoming) {
+        int length = Math.max(stored.length, incoming.length);
+        byte[] left = Arrays.copyOf(stored, length);
+        byte[] right = Arrays.copyOf(incoming, length);
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) (left[i] | right[i]);
+        }
+        return result;
+    }
+
+    private static BitSet bits(int... ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+}
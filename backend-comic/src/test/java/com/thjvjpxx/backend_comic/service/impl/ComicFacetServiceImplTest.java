@@ -0,0 +1,196 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.thjvjpxx.backend_comic.enums.ComicStatus;
+import com.thjvjpxx.backend_comic.model.Category;
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.repository.CategoryRepository;
+import com.thjvjpxx.backend_comic.repository.ComicRepository;
+
+class ComicFacetServiceImplTest {
+
+    ComicRepository comicRepository;
+    CategoryRepository categoryRepository;
+    ComicFacetServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        comicRepository = mock(ComicRepository.class);
+        categoryRepository = mock(CategoryRepository.class);
+        service = new ComicFacetServiceImpl(comicRepository, categoryRepository);
+        ReflectionTestUtils.setField(service, "rebuildBatchSize", 100);
+
+        when(comicRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Comic> comics = new ArrayList<>();
+            for (String id : (Iterable<String>) invocation.getArgument(0)) {
+                comics.add(comic(id, null));
+            }
+            return comics;
+        });
+    }
+
+    @Test
+    void matchAllIntersectsCategoriesInViewOrder() {
+        rebuildSample();
+
+        Page<Comic> page = service.browse(List.of("action", "fantasy"), true, null, PageRequest.of(0, 10));
+
+        assertThat(ids(page)).containsExactly("b", "d");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void matchAnyUnitesCategoriesInViewOrder() {
+        rebuildSample();
+
+        Page<Comic> page = service.browse(List.of("romance", "fantasy"), false, null, PageRequest.of(0, 10));
+
+        assertThat(ids(page)).containsExactly("b", "d", "c", "e");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void statusIsIntersectedWithCategories() {
+        rebuildSample();
+
+        Page<Comic> page = service.browse(List.of("action"), true, ComicStatus.COMPLETED, PageRequest.of(0, 10));
+
+        assertThat(ids(page)).containsExactly("d");
+    }
+
+    @Test
+    void noFilterReturnsEveryComic() {
+        rebuildSample();
+
+        assertThat(ids(service.browse(null, true, null, PageRequest.of(0, 10))))
+                .containsExactly("b", "a", "d", "c", "e");
+    }
+
+    @Test
+    void pagesWalkSetBitsAndKeepTotal() {
+        rebuildSample();
+
+        Page<Comic> second = service.browse(List.of("romance", "fantasy"), false, null, PageRequest.of(1, 2));
+        Page<Comic> past = service.browse(List.of("romance", "fantasy"), false, null, PageRequest.of(3, 2));
+
+        assertThat(ids(second)).containsExactly("c", "e");
+        assertThat(second.getTotalElements()).isEqualTo(4);
+        assertThat(second.getTotalPages()).isEqualTo(2);
+        assertThat(ids(past)).isEmpty();
+        assertThat(past.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void unknownCategoryMatchesNothing() {
+        rebuildSample();
+
+        assertThat(ids(service.browse(List.of("action", "missing"), true, null, PageRequest.of(0, 10)))).isEmpty();
+        assertThat(ids(service.browse(List.of("action", "missing"), false, null, PageRequest.of(0, 10))))
+                .containsExactly("b", "a", "d");
+    }
+
+    @Test
+    void indexAndRemoveUpdateBitsImmediately() {
+        rebuildSample();
+
+        Comic added = comic("f", ComicStatus.ONGOING);
+        added.setCategories(List.of(category("action", "hanh-dong")));
+        service.index(added);
+        service.remove("a");
+        // Đổi category của "b": không còn thuộc action
+        Comic moved = comic("b", ComicStatus.ONGOING);
+        moved.setCategories(List.of(category("romance", "tinh-cam")));
+        service.index(moved);
+
+        assertThat(ids(service.browse(List.of("action"), true, null, PageRequest.of(0, 10))))
+                .containsExactly("d", "f");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fallsBackToRepositoryUntilIndexIsBuilt() {
+        Page<Comic> fromDatabase = new PageImpl<>(List.of(comic("a", null)));
+        when(comicRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(fromDatabase);
+
+        Page<Comic> page = service.browse(List.of("action"), true, null, PageRequest.of(0, 10));
+
+        assertThat(page).isSameAs(fromDatabase);
+        verify(comicRepository, never()).findFacetDocuments(anyString(), anyInt());
+    }
+
+    @Test
+    void resolvesSlugsFromIndexThenRepository() {
+        rebuildSample();
+        when(categoryRepository.findBySlug("moi")).thenReturn(Optional.of(category("new", "moi")));
+        when(categoryRepository.findBySlug("khong-co")).thenReturn(Optional.empty());
+
+        assertThat(service.resolveCategorySlugs(List.of("hanh-dong", "moi", "khong-co")))
+                .containsExactly("action", "new", "khong-co");
+    }
+
+    /**
+     * Lượt xem: b(50) > a(40) > d(30) > c(20) > e(10)
+     */
+    private void rebuildSample() {
+        when(comicRepository.findFacetDocuments(anyString(), anyInt())).thenReturn(List.of(
+                new Object[] { "a", "ONGOING", 40L },
+                new Object[] { "b", "ONGOING", 50L },
+                new Object[] { "c", "COMPLETED", 20L },
+                new Object[] { "d", "COMPLETED", 30L },
+                new Object[] { "e", "ONGOING", 10L }));
+        when(comicRepository.findAllCategoryLinks()).thenReturn(List.of(
+                new Object[] { "a", "action" },
+                new Object[] { "b", "action" },
+                new Object[] { "b", "fantasy" },
+                new Object[] { "c", "romance" },
+                new Object[] { "d", "action" },
+                new Object[] { "d", "fantasy" },
+                new Object[] { "d", "romance" },
+                new Object[] { "e", "romance" }));
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                category("action", "hanh-dong"),
+                category("fantasy", "ky-ao"),
+                category("romance", "tinh-cam")));
+        service.rebuild();
+    }
+
+    private static Comic comic(String id, ComicStatus status) {
+        Comic comic = new Comic();
+        comic.setId(id);
+        comic.setStatus(status);
+        return comic;
+    }
+
+    private static Category category(String id, String slug) {
+        Category category = new Category();
+        category.setId(id);
+        category.setSlug(slug);
+        return category;
+    }
+
+    private static List<String> ids(Page<Comic> page) {
+        return page.getContent().stream().map(Comic::getId).toList();
+    }
+}
@@ -0,0 +1,148 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.repository.ComicRepository;
+import com.thjvjpxx.backend_comic.service.ComicSearchService.SearchResult;
+
+class ComicSearchServiceImplTest {
+
+    ComicRepository comicRepository;
+    ComicSearchServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        comicRepository = mock(ComicRepository.class);
+        service = new ComicSearchServiceImpl(comicRepository);
+        ReflectionTestUtils.setField(service, "rebuildBatchSize", 100);
+    }
+
+    @Test
+    void nameMatchRanksAboveDescriptionMatch() {
+        rebuildWith(
+                row("in-description", "Tru tien", "Mot truyen ve dragon"),
+                row("in-name", "Dragon", "Mot truyen tu tien"));
+
+        SearchResult result = service.search("dragon", 0, 10);
+
+        assertThat(result.comicIds()).containsExactly("in-name", "in-description");
+        assertThat(result.total()).isEqualTo(2);
+    }
+
+    @Test
+    void shorterDocumentRanksAboveLongerWithSameTermFrequency() {
+        rebuildWith(
+                row("long", "Dragon", "Mot cau chuyen rat dai ve vo lam giang ho va nhieu nhan vat khac nhau"),
+                row("short", "Dragon", "Ngan"));
+
+        assertThat(service.search("dragon", 0, 10).comicIds()).containsExactly("short", "long");
+    }
+
+    @Test
+    void comicMatchingMoreTermsRanksFirst() {
+        rebuildWith(
+                row("one-term", "Ball Ball Ball", null),
+                row("two-terms", "Dragon Ball", null));
+
+        assertThat(service.search("dragon ball", 0, 10).comicIds()).containsExactly("two-terms", "one-term");
+    }
+
+    @Test
+    void offsetAndLimitPageRankedResults() {
+        rebuildWith(
+                row("a", "Dragon", null),
+                row("b", "Dragon", "Dai hon mot chut"),
+                row("c", "Dragon", "Dai hon rat nhieu so voi hai truyen con lai"));
+
+        SearchResult result = service.search("dragon", 1, 1);
+
+        assertThat(result.comicIds()).containsExactly("b");
+        assertThat(result.total()).isEqualTo(3);
+    }
+
+    @Test
+    void lastTermIsExpandedByPrefix() {
+        rebuildWith(row("dragon", "Dragon", null), row("other", "Tru tien", null));
+
+        assertThat(service.search("dra", 0, 10).comicIds()).containsExactly("dragon");
+    }
+
+    @Test
+    void exactTermRanksAbovePrefixExpansion() {
+        rebuildWith(row("expanded", "Dragons", null), row("exact", "Dragon", null));
+
+        assertThat(service.search("dragon", 0, 10).comicIds()).containsExactly("exact", "expanded");
+    }
+
+    @Test
+    void onlyLastTermIsExpandedByPrefix() {
+        rebuildWith(row("dragon", "Dragon", null), row("ball", "Ball", null));
+
+        assertThat(service.search("dra ball", 0, 10).comicIds()).containsExactly("ball");
+    }
+
+    @Test
+    void singleCharacterLastTermIsNotExpanded() {
+        rebuildWith(row("dragon", "Dragon", null));
+
+        assertThat(service.search("d", 0, 10).comicIds()).isEmpty();
+    }
+
+    @Test
+    void changesDuringRebuildAreReplayedOnNewIndex() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row("removed", "Dragon", null));
+        rows.add(row("kept", "Dragon Ball", null));
+        when(comicRepository.findSearchDocuments(anyString(), anyInt())).thenAnswer(invocation -> {
+            // Comic được thêm và xoá trong lúc đang đọc DB
+            service.index(comic("added", "Dragon Quest"));
+            service.remove("removed");
+            return rows;
+        });
+
+        service.rebuild();
+
+        assertThat(service.isReady()).isTrue();
+        assertThat(service.search("dragon", 0, 10).comicIds()).containsExactlyInAnyOrder("kept", "added");
+        assertThat(service.search("quest", 0, 10).comicIds()).containsExactly("added");
+    }
+
+    @Test
+    void changesAfterRebuildAreAppliedImmediately() {
+        rebuildWith(row("a", "Dragon", null));
+
+        service.index(comic("a", "Tru tien"));
+        service.index(comic("b", "Dragon"));
+
+        assertThat(service.search("dragon", 0, 10).comicIds()).containsExactly("b");
+        assertThat(service.search("tien", 0, 10).comicIds()).containsExactly("a");
+    }
+
+    private void rebuildWith(Object[]... rows) {
+        when(comicRepository.findSearchDocuments(anyString(), anyInt())).thenReturn(List.of(rows));
+        service.rebuild();
+    }
+
+    private static Object[] row(String id, String name, String description) {
+        return new Object[] { id, name, null, null, description };
+    }
+
+    private static Comic comic(String id, String name) {
+        Comic comic = new Comic();
+        comic.setId(id);
+        comic.setName(name);
+        return comic;
+    }
+}
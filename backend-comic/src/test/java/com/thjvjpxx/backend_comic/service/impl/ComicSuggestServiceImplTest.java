@@ -0,0 +1,174 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.thjvjpxx.backend_comic.dto.response.HomeResponse.PopulerToday;
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.repository.ComicRepository;
+
+class ComicSuggestServiceImplTest {
+
+    ComicRepository comicRepository;
+    ComicSuggestServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        comicRepository = mock(ComicRepository.class);
+        service = new ComicSuggestServiceImpl(comicRepository);
+        ReflectionTestUtils.setField(service, "maxLimit", 3);
+        ReflectionTestUtils.setField(service, "reloadBatchSize", 100);
+    }
+
+    @Test
+    void shortPrefixReturnsMostViewedFirst() {
+        reloadWith(
+                row("a", "Dau Pha Thuong Khung", 10),
+                row("b", "Dao Hai Tac", 30),
+                row("c", "Tru Tien", 50),
+                row("d", "Dai Chua Te", 20));
+
+        assertThat(ids(service.suggest("d", 10))).containsExactly("b", "d", "a");
+        assertThat(ids(service.suggest("da", 2))).containsExactly("b", "d");
+    }
+
+    @Test
+    void shortPrefixTopIsCappedByMaxLimit() {
+        reloadWith(
+                row("a", "Dragon 1", 1),
+                row("b", "Dragon 2", 2),
+                row("c", "Dragon 3", 3),
+                row("d", "Dragon 4", 4));
+
+        assertThat(ids(service.suggest("dr", 10))).containsExactly("d", "c", "b");
+    }
+
+    @Test
+    void shortPrefixMatchesWordInsideNameOnce() {
+        reloadWith(
+                row("a", "Dau Pha Thuong Khung", 10),
+                row("b", "Khung Long", 5));
+
+        // "Dau Pha Thuong Khung" có cả khoá "dau-pha-..." lẫn hậu tố "khung" nhưng chỉ xuất hiện 1 lần
+        assertThat(ids(service.suggest("k", 10))).containsExactly("a", "b");
+        assertThat(ids(service.suggest("Đ", 10))).containsExactly("a");
+    }
+
+    @Test
+    void shortPrefixBreaksViewTiesById() {
+        reloadWith(row("b", "Dragon", 7), row("a", "Dragon Ball", 7));
+
+        assertThat(ids(service.suggest("d", 10))).containsExactly("a", "b");
+    }
+
+    @Test
+    void longPrefixScansSortedKeys() {
+        reloadWith(
+                row("a", "Dragon Ball", 10),
+                row("b", "Dragon Quest", 30),
+                row("c", "Drama", 50));
+
+        assertThat(ids(service.suggest("drag", 10))).containsExactly("b", "a");
+        assertThat(ids(service.suggest("ball", 10))).containsExactly("a");
+        assertThat(ids(service.suggest("dragon-q", 10))).containsExactly("b");
+    }
+
+    @Test
+    void emptyQueryReturnsNothing() {
+        reloadWith(row("a", "Dragon", 1));
+
+        assertThat(service.suggest("  ", 10)).isEmpty();
+        assertThat(service.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    void indexedChangesAreVisibleAfterDebouncedRebuild() {
+        reloadWith(row("a", "Dragon", 10));
+
+        service.index(comic("b", "Dragon Ball", 20));
+        service.remove("a");
+        assertThat(ids(service.suggest("dr", 10))).containsExactly("a");
+
+        service.rebuildIfStale();
+        assertThat(ids(service.suggest("dr", 10))).containsExactly("b");
+        assertThat(ids(service.suggest("drag", 10))).containsExactly("b");
+    }
+
+    @Test
+    void deltaUpdatesShortPrefixTopAndSortedKeys() {
+        reloadWith(
+                row("a", "Dragon Ball", 10),
+                row("b", "Dragon Quest", 20),
+                row("c", "Tru Tien", 30));
+
+        // Đổi lượt xem, đổi tên và xoá: chỉ các tiền tố bị ảnh hưởng được tính lại
+        service.index(comic("a", "Dragon Ball", 40));
+        service.index(comic("c", "Dai Chua Te", 30));
+        service.remove("b");
+        service.rebuildIfStale();
+
+        assertThat(ids(service.suggest("d", 10))).containsExactly("a", "c");
+        assertThat(ids(service.suggest("dr", 10))).containsExactly("a");
+        assertThat(ids(service.suggest("t", 10))).containsExactly("c");
+        assertThat(ids(service.suggest("tru", 10))).isEmpty();
+        assertThat(ids(service.suggest("quest", 10))).isEmpty();
+        assertThat(ids(service.suggest("dai-chua", 10))).containsExactly("c");
+    }
+
+    @Test
+    void duplicateKeysAreAllFoundByLongPrefix() {
+        reloadWith(
+                row("a", "Dragon Ball", 10),
+                row("b", "Dragon Ball", 20),
+                row("c", "Dragon Ball", 30));
+
+        assertThat(ids(service.suggest("dragon-ball", 10))).containsExactly("c", "b", "a");
+    }
+
+    @Test
+    void changesPublishedDuringReloadAreKept() {
+        reloadWith(row("a", "Dragon", 10));
+        when(comicRepository.findSuggestDocuments(anyString(), anyInt())).thenAnswer(invocation -> {
+            // Thay đổi được áp bằng delta trong lúc đang đọc DB (DB chưa có comic này)
+            service.index(comic("b", "Dragon Ball", 20));
+            service.rebuildIfStale();
+            return List.<Object[]>of(row("a", "Dragon", 15));
+        });
+
+        service.reload();
+        service.rebuildIfStale();
+
+        assertThat(ids(service.suggest("dr", 10))).containsExactly("b", "a");
+        assertThat(service.suggest("dr", 10).get(1).getViewCount()).isEqualTo(15);
+    }
+
+    private void reloadWith(Object[]... rows) {
+        when(comicRepository.findSuggestDocuments(anyString(), anyInt())).thenReturn(List.of(rows));
+        service.reload();
+    }
+
+    private static Object[] row(String id, String name, long viewsCount) {
+        return new Object[] { id, name, null, null, null, viewsCount };
+    }
+
+    private static Comic comic(String id, String name, int viewsCount) {
+        Comic comic = new Comic();
+        comic.setId(id);
+        comic.setName(name);
+        comic.setViewsCount(viewsCount);
+        return comic;
+    }
+
+    private static List<String> ids(List<PopulerToday> suggestions) {
+        return suggestions.stream().map(PopulerToday::getId).toList();
+    }
+}
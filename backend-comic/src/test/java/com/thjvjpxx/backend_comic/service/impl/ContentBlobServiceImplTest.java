@@ -0,0 +1,182 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thjvjpxx.backend_comic.constant.B2Constants;
+import com.thjvjpxx.backend_comic.dto.response.BaseResponse;
+import com.thjvjpxx.backend_comic.model.ContentBlob;
+import com.thjvjpxx.backend_comic.repository.ContentBlobRepository;
+import com.thjvjpxx.backend_comic.service.ContentBlobService.StoredBlob;
+import com.thjvjpxx.backend_comic.service.StorageCleanupService;
+import com.thjvjpxx.backend_comic.service.StorageService;
+import com.thjvjpxx.backend_comic.utils.ParallelUploader;
+
+class ContentBlobServiceImplTest {
+
+    static final String URL_PREFIX = B2Constants.URL_PREFIX + "bucket/";
+
+    ContentBlobRepository contentBlobRepository;
+    StorageService storageService;
+    StorageCleanupService storageCleanupService;
+    ContentBlobServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        contentBlobRepository = mock(ContentBlobRepository.class);
+        storageService = mock(StorageService.class);
+        storageCleanupService = mock(StorageCleanupService.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        service = new ContentBlobServiceImpl(contentBlobRepository, storageService, storageCleanupService,
+                transactionTemplate, mock(ParallelUploader.class));
+        ReflectionTestUtils.setField(service, "bucketName", "bucket");
+        ReflectionTestUtils.setField(service, "gcGraceMillis", 86400000L);
+        ReflectionTestUtils.setField(service, "gcBatchSize", 100);
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        doReturn(BaseResponse.success("ok")).when(storageService)
+                .uploadStream(any(), anyLong(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void existingContentIsNotUploadedAgain() throws Exception {
+        String hash = sha256("page");
+        when(contentBlobRepository.touch(eq(hash), any())).thenReturn(1);
+        when(contentBlobRepository.findById(hash)).thenReturn(Optional.of(blob(hash, "comics/_blobs/old.jpg")));
+
+        StoredBlob stored = store("page");
+
+        assertThat(stored.uploaded()).isFalse();
+        assertThat(stored.hash()).isEqualTo(hash);
+        assertThat(stored.url()).isEqualTo(URL_PREFIX + "comics/_blobs/old.jpg");
+        verify(storageService, never()).uploadStream(any(), anyLong(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void newContentIsUploadedUnderHashKeyWithUniqueSuffix() throws Exception {
+        String hash = sha256("page");
+        // Không có upload nào khác: bản ghi sau upsert mang đúng key vừa ghi
+        AtomicReference<String> savedKey = new AtomicReference<>();
+        doAnswer(invocation -> {
+            savedKey.set(invocation.getArgument(1));
+            return 1;
+        }).when(contentBlobRepository).upsert(anyString(), anyString(), anyLong(), anyString(), any());
+        when(contentBlobRepository.findById(hash)).thenAnswer(invocation -> Optional.of(blob(hash, savedKey.get())));
+
+        StoredBlob stored = store("page");
+
+        ArgumentCaptor<String> storageKey = ArgumentCaptor.forClass(String.class);
+        verify(contentBlobRepository).upsert(eq(hash), storageKey.capture(), eq(4L), eq("image/jpeg"), any());
+        assertThat(storageKey.getValue()).matches("comics/_blobs/" + hash.substring(0, 2) + "/" + hash + "-[0-9a-f]{8}\\.jpg");
+        assertThat(stored.uploaded()).isTrue();
+        assertThat(stored.url()).isEqualTo(URL_PREFIX + storageKey.getValue());
+        assertThat(service.hashFromUrl(stored.url())).isEqualTo(hash);
+    }
+
+    @Test
+    void losingConcurrentUploadReusesWinnerAndQueuesOwnObjectForCleanup() throws Exception {
+        String hash = sha256("page");
+        when(contentBlobRepository.findById(hash)).thenReturn(Optional.of(blob(hash, "comics/_blobs/winner.jpg")));
+
+        StoredBlob stored = store("page");
+
+        ArgumentCaptor<String> storageKey = ArgumentCaptor.forClass(String.class);
+        verify(contentBlobRepository).upsert(eq(hash), storageKey.capture(), anyLong(), anyString(), any());
+        verify(storageCleanupService).enqueue(storageKey.getValue());
+        assertThat(stored.uploaded()).isFalse();
+        assertThat(stored.url()).isEqualTo(URL_PREFIX + "comics/_blobs/winner.jpg");
+    }
+
+    @Test
+    void hashIsReadFromNewAndLegacyBlobUrls() throws Exception {
+        String hash = sha256("page");
+
+        assertThat(service.hashFromUrl(URL_PREFIX + "comics/_blobs/ab/" + hash + "-0a1b2c3d.jpg")).isEqualTo(hash);
+        assertThat(service.hashFromUrl(URL_PREFIX + "comics/_blobs/ab/" + hash + ".jpg")).isEqualTo(hash);
+        assertThat(service.hashFromUrl(URL_PREFIX + "comics/slug/chapter-1.0/1.jpg")).isNull();
+        assertThat(service.hashFromUrl(URL_PREFIX + "comics/_blobs/ab/not-a-hash.jpg")).isNull();
+        assertThat(service.hashFromUrl(null)).isNull();
+    }
+
+    @Test
+    void garbageCollectionSkipsBlobsReferencedSinceScan() {
+        when(contentBlobRepository.findUnreferencedHashes(any(), anyInt())).thenReturn(List.of("referenced"));
+        when(contentBlobRepository.findById("referenced")).thenReturn(Optional.of(blob("referenced", "key")));
+        // Chương vừa gắn ảnh này sau lượt quét: câu DELETE kiểm tra lại nên không xoá
+        when(contentBlobRepository.deleteIfUnreferenced(eq("referenced"), any())).thenReturn(0);
+
+        service.collectGarbage();
+
+        verify(storageService, never()).remove(anyString());
+        verify(storageCleanupService, never()).enqueue(anyString());
+    }
+
+    @Test
+    void garbageCollectionRemovesObjectAfterRowIsDeleted() {
+        when(contentBlobRepository.findUnreferencedHashes(any(), anyInt())).thenReturn(List.of("orphan"));
+        when(contentBlobRepository.findById("orphan")).thenReturn(Optional.of(blob("orphan", "comics/_blobs/orphan.jpg")));
+        when(contentBlobRepository.deleteIfUnreferenced(eq("orphan"), any())).thenReturn(1);
+
+        service.collectGarbage();
+
+        verify(storageService).remove("comics/_blobs/orphan.jpg");
+        verify(storageCleanupService, never()).enqueue(anyString());
+    }
+
+    @Test
+    void failedObjectRemovalIsQueuedForRetry() {
+        when(contentBlobRepository.findUnreferencedHashes(any(), anyInt())).thenReturn(List.of("orphan"));
+        when(contentBlobRepository.findById("orphan")).thenReturn(Optional.of(blob("orphan", "comics/_blobs/orphan.jpg")));
+        when(contentBlobRepository.deleteIfUnreferenced(eq("orphan"), any())).thenReturn(1);
+        when(storageService.remove("comics/_blobs/orphan.jpg")).thenThrow(new RuntimeException("B2 unavailable"));
+
+        service.collectGarbage();
+
+        verify(storageCleanupService).enqueue("comics/_blobs/orphan.jpg");
+    }
+
+    private StoredBlob store(String content) {
+        return service.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "JPG", "image/jpeg");
+    }
+
+    private static ContentBlob blob(String hash, String storageKey) {
+        return ContentBlob.builder()
+                .hash(hash)
+                .storageKey(storageKey)
+                .size(4)
+                .contentType("image/jpeg")
+                .build();
+    }
+
+    private static String sha256(String content) throws Exception {
+        return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
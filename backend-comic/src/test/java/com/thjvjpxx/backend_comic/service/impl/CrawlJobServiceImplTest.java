@@ -0,0 +1,207 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thjvjpxx.backend_comic.enums.CrawlItemStatus;
+import com.thjvjpxx.backend_comic.enums.CrawlItemType;
+import com.thjvjpxx.backend_comic.model.CrawlJob;
+import com.thjvjpxx.backend_comic.model.CrawlJobItem;
+import com.thjvjpxx.backend_comic.repository.CrawlJobItemRepository;
+import com.thjvjpxx.backend_comic.repository.CrawlJobRepository;
+import com.thjvjpxx.backend_comic.service.CrawlerService;
+import com.thjvjpxx.backend_comic.utils.CrawlEngine;
+
+class CrawlJobServiceImplTest {
+
+    CrawlJobRepository crawlJobRepository;
+    CrawlJobItemRepository crawlJobItemRepository;
+    CrawlerService crawlerService;
+    CrawlEngine crawlEngine;
+    CrawlJobServiceImpl service;
+
+    CrawlJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        crawlJobRepository = mock(CrawlJobRepository.class);
+        crawlJobItemRepository = mock(CrawlJobItemRepository.class);
+        crawlerService = mock(CrawlerService.class);
+        crawlEngine = mock(CrawlEngine.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        service = new CrawlJobServiceImpl(crawlJobRepository, crawlJobItemRepository, crawlerService, crawlEngine,
+                transactionTemplate, mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "leaseMillis", 600000L);
+        ReflectionTestUtils.setField(service, "maxInFlight", 50);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryDelayMillis", 30000L);
+
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        // Engine chạy task ngay trên thread gọi
+        when(crawlEngine.submit(any(), any())).thenAnswer(invocation -> {
+            try {
+                return CompletableFuture.completedFuture(((Callable<Object>) invocation.getArgument(1)).call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+
+        job = new CrawlJob();
+        job.setId("job");
+        when(crawlJobRepository.getReferenceById("job")).thenReturn(job);
+    }
+
+    @Test
+    void claimedItemIsFinishedWithSameLeaseToken() throws Exception {
+        CrawlJobItem item = item("item", 1);
+        claim(item);
+        when(crawlerService.processJobItem(item)).thenReturn(List.of());
+
+        service.poll();
+
+        String owner = claimedOwner();
+        verify(crawlJobItemRepository).finish(eq("item"), eq(owner), eq("DONE"), isNull(), isNull(), any());
+    }
+
+    @Test
+    void childrenAreQueuedOnlyWhileLeaseIsHeld() throws Exception {
+        CrawlJobItem item = item("item", 1);
+        claim(item);
+        CrawlJobItem child = CrawlJobItem.builder().type(CrawlItemType.CHAPTER).target("chapter-1").build();
+        when(crawlerService.processJobItem(item)).thenReturn(List.of(child));
+        when(crawlJobItemRepository.finish(anyString(), anyString(), anyString(), any(), any(), any())).thenReturn(1);
+
+        service.poll();
+
+        verify(crawlJobItemRepository).saveAll(List.of(child));
+        assertThat(child.getJob()).isSameAs(job);
+        assertThat(child.getStatus()).isEqualTo(CrawlItemStatus.PENDING);
+        assertThat(child.isSaveDrive()).isTrue();
+    }
+
+    @Test
+    void lostLeaseDoesNotQueueDuplicateChildren() throws Exception {
+        CrawlJobItem item = item("item", 1);
+        claim(item);
+        when(crawlerService.processJobItem(item)).thenReturn(List.of(CrawlJobItem.builder().build()));
+        // Instance khác đã nhận lại item sau khi lease hết hạn
+        when(crawlJobItemRepository.finish(anyString(), anyString(), anyString(), any(), any(), any())).thenReturn(0);
+
+        service.poll();
+
+        verify(crawlJobItemRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void failedItemIsReleasedForRetryWithBackoff() throws Exception {
+        CrawlJobItem item = item("item", 2);
+        claim(item);
+        when(crawlerService.processJobItem(item)).thenThrow(new IllegalStateException("timeout"));
+
+        service.poll();
+
+        String owner = claimedOwner();
+        ArgumentCaptor<LocalDateTime> retryAfter = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(crawlJobItemRepository).finish(eq("item"), eq(owner), eq("PENDING"), eq("timeout"),
+                retryAfter.capture(), any());
+        // Lần thử thứ 2: chờ retryDelay * 2
+        assertThat(retryAfter.getValue()).isCloseTo(LocalDateTime.now().plusSeconds(60),
+                within(5, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    void exhaustedItemIsFailedWithoutRetry() throws Exception {
+        CrawlJobItem item = item("item", 3);
+        claim(item);
+        when(crawlerService.processJobItem(item)).thenThrow(new IllegalStateException("timeout"));
+
+        service.poll();
+
+        String owner = claimedOwner();
+        verify(crawlJobItemRepository).finish(eq("item"), eq(owner), eq("FAILED"), eq("timeout"), isNull(),
+                any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void inFlightLeasesAreRenewedWithTheirOwnerTokens() {
+        ReflectionTestUtils.setField(service, "maxInFlight", 1);
+        CrawlJobItem item = item("item", 1);
+        claim(item);
+        // Item chưa xử lý xong
+        when(crawlEngine.submit(any(), any())).thenReturn(new CompletableFuture<>());
+
+        service.poll();
+        service.poll();
+
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<String>> owners = ArgumentCaptor.forClass(Collection.class);
+        verify(crawlJobItemRepository).renewLeases(ids.capture(), owners.capture(), any(), any());
+        assertThat(ids.getValue()).containsExactly("item");
+        // Đã đủ maxInFlight nên lượt poll thứ 2 không nhận thêm
+        assertThat(owners.getValue()).containsExactly(claimedOwner());
+    }
+
+    /**
+     * Lượt claim đầu tiên nhận được item, các lượt sau không còn item nào
+     */
+    private void claim(CrawlJobItem item) {
+        when(crawlJobItemRepository.claim(anyString(), any(), any(), anyInt(), anyInt())).thenReturn(1, 0);
+        when(crawlJobItemRepository.findByLeaseOwnerAndStatus(anyString(), eq(CrawlItemStatus.RUNNING)))
+                .thenReturn(List.of(item));
+    }
+
+    /**
+     * Token lease của lượt claim đã nhận item, cũng là token dùng để tìm các item vừa nhận
+     */
+    private String claimedOwner() {
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        verify(crawlJobItemRepository, times(1)).claim(owner.capture(), any(), any(), anyInt(), anyInt());
+        verify(crawlJobItemRepository).findByLeaseOwnerAndStatus(owner.getValue(), CrawlItemStatus.RUNNING);
+        return owner.getValue();
+    }
+
+    private CrawlJobItem item(String id, int attempts) {
+        return CrawlJobItem.builder()
+                .id(id)
+                .job(job)
+                .type(CrawlItemType.COMIC)
+                .status(CrawlItemStatus.RUNNING)
+                .target("comic-slug")
+                .saveDrive(true)
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,208 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thjvjpxx.backend_comic.model.Chapter;
+import com.thjvjpxx.backend_comic.model.Comic;
+import com.thjvjpxx.backend_comic.model.ReadingProgress;
+import com.thjvjpxx.backend_comic.repository.ChapterRepository;
+import com.thjvjpxx.backend_comic.repository.ComicRepository;
+import com.thjvjpxx.backend_comic.repository.ReadingHistoryRepository;
+import com.thjvjpxx.backend_comic.repository.ReadingProgressRepository;
+import com.thjvjpxx.backend_comic.utils.ComicDetailCache;
+
+class ReadingProgressServiceImplTest {
+
+    ReadingProgressRepository readingProgressRepo;
+    ChapterRepository chapterRepo;
+    ComicRepository comicRepo;
+    TransactionTemplate transactionTemplate;
+    ComicDetailCache comicDetailCache;
+    ReadingProgressServiceImpl service;
+
+    Comic comic;
+
+    @BeforeEach
+    void setUp() {
+        readingProgressRepo = mock(ReadingProgressRepository.class);
+        chapterRepo = mock(ChapterRepository.class);
+        comicRepo = mock(ComicRepository.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        comicDetailCache = mock(ComicDetailCache.class);
+        service = new ReadingProgressServiceImpl(readingProgressRepo, mock(ReadingHistoryRepository.class),
+                chapterRepo, comicRepo, transactionTemplate, comicDetailCache);
+
+        comic = new Comic();
+        comic.setId("comic");
+        comic.setSlug("comic-slug");
+        when(readingProgressRepo.findByUserIdAndComicId(anyString(), anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void bufferedReadsAreMergedIntoProgress() {
+        service.recordRead("user", chapter("c3", 3.0, 2));
+        service.recordRead("user", chapter("c1", 1.0, 0));
+
+        ReadingProgress progress = service.getProgress("user", "comic").orElseThrow();
+
+        assertThat(progress.readChapterBits()).isEqualTo(bits(0, 2));
+        assertThat(progress.getLastChapterId()).isEqualTo("c1");
+        assertThat(progress.getMaxChapterNumber()).isEqualTo(3.0);
+    }
+
+    @Test
+    void bufferedReadsAreMergedWithStoredRow() {
+        ReadingProgress stored = stored(bits(0, 9), "c2", 2.0, 10.0, LocalDateTime.now().minusHours(1));
+        when(readingProgressRepo.findByUserIdAndComicId("user", "comic")).thenReturn(Optional.of(stored));
+
+        service.recordRead("user", chapter("c12", 12.0, 11));
+        ReadingProgress progress = service.getProgress("user", "comic").orElseThrow();
+
+        assertThat(progress.getId()).isEqualTo(stored.getId());
+        assertThat(progress.readChapterBits()).isEqualTo(bits(0, 9, 11));
+        assertThat(progress.getLastChapterId()).isEqualTo("c12");
+        assertThat(progress.getLastChapterNumber()).isEqualTo(12.0);
+        assertThat(progress.getMaxChapterNumber()).isEqualTo(12.0);
+    }
+
+    @Test
+    void newerStoredLastChapterIsKeptWhenMerging() {
+        // Instance khác vừa ghi 1 lượt đọc mới hơn lượt đang chờ ở đây
+        ReadingProgress stored = stored(bits(4), "c5", 5.0, 5.0, LocalDateTime.now().plusHours(1));
+        when(readingProgressRepo.findByUserIdAndComicId("user", "comic")).thenReturn(Optional.of(stored));
+
+        service.recordRead("user", chapter("c1", 1.0, 0));
+        ReadingProgress progress = service.getProgress("user", "comic").orElseThrow();
+
+        assertThat(progress.readChapterBits()).isEqualTo(bits(0, 4));
+        assertThat(progress.getLastChapterId()).isEqualTo("c5");
+        assertThat(progress.getMaxChapterNumber()).isEqualTo(5.0);
+    }
+
+    @Test
+    void storedRowIsReturnedAsIsWithoutBufferedReads() {
+        ReadingProgress stored = stored(bits(1), "c2", 2.0, 2.0, LocalDateTime.now());
+        when(readingProgressRepo.findByUserIdAndComicId("user", "comic")).thenReturn(Optional.of(stored));
+
+        assertThat(service.getProgress("user", "comic")).containsSame(stored);
+        assertThat(service.getProgress("other", "comic")).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushIsRetriedTogetherWithLaterReads() {
+        when(readingProgressRepo.upsertAll(anyList()))
+                .thenThrow(new RuntimeException("deadlock"))
+                .thenReturn(1);
+
+        service.recordRead("user", chapter("c2", 2.0, 1));
+        service.flush();
+        service.recordRead("user", chapter("c4", 4.0, 3));
+        service.flush();
+
+        ArgumentCaptor<List<ReadingProgress>> batches = ArgumentCaptor.forClass(List.class);
+        verify(readingProgressRepo, times(2)).upsertAll(batches.capture());
+        List<ReadingProgress> retried = batches.getAllValues().get(1);
+        assertThat(retried).hasSize(1);
+        assertThat(retried.get(0).readChapterBits()).isEqualTo(bits(1, 3));
+        assertThat(retried.get(0).getLastChapterId()).isEqualTo("c4");
+        assertThat(retried.get(0).getMaxChapterNumber()).isEqualTo(4.0);
+
+        // Đã ghi xong thì không còn gì để ghi
+        service.flush();
+        verify(readingProgressRepo, times(2)).upsertAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void historyFlushesOnlyThatUser() {
+        when(readingProgressRepo.findHistoryByUserId(anyString(), any())).thenReturn(Page.empty());
+        service.recordRead("user", chapter("c1", 1.0, 0));
+        service.recordRead("other", chapter("c1", 1.0, 0));
+
+        service.getHistory("user", PageRequest.of(0, 10));
+        service.flush();
+
+        ArgumentCaptor<List<ReadingProgress>> batches = ArgumentCaptor.forClass(List.class);
+        verify(readingProgressRepo, times(2)).upsertAll(batches.capture());
+        assertThat(batches.getAllValues().get(0)).extracting(ReadingProgress::getUserId).containsExactly("user");
+        assertThat(batches.getAllValues().get(1)).extracting(ReadingProgress::getUserId).containsExactly("other");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void missingReadOrdinalIsAssignedOnceAndEvictsDetailCache() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(chapterRepo.findReadOrdinal("c1")).thenReturn(7);
+        Chapter chapter = chapter("c1", 1.0, null);
+
+        service.recordRead("user", chapter);
+        service.recordRead("user", chapter);
+
+        assertThat(chapter.getReadOrdinal()).isEqualTo(7);
+        verify(comicRepo, times(1)).incrementChapterOrdinalSeq("comic");
+        verify(comicDetailCache, times(1)).evict("comic-slug");
+        assertThat(service.getProgress("user", "comic").orElseThrow().readChapterBits()).isEqualTo(bits(7));
+    }
+
+    @Test
+    void knownReadOrdinalDoesNotTouchDatabase() {
+        service.recordRead("user", chapter("c1", 1.0, 0));
+
+        verify(transactionTemplate, never()).execute(any());
+        verify(comicDetailCache, never()).evict(anyString());
+    }
+
+    private Chapter chapter(String id, double number, Integer readOrdinal) {
+        return Chapter.builder()
+                .id(id)
+                .chapterNumber(number)
+                .readOrdinal(readOrdinal)
+                .comic(comic)
+                .build();
+    }
+
+    private static ReadingProgress stored(BitSet read, String lastChapterId, double lastChapterNumber,
+            double maxChapterNumber, LocalDateTime updatedAt) {
+        return ReadingProgress.builder()
+                .id("stored")
+                .userId("user")
+                .comicId("comic")
+                .readChapters(read.toByteArray())
+                .lastChapterId(lastChapterId)
+                .lastChapterNumber(lastChapterNumber)
+                .maxChapterNumber(maxChapterNumber)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static BitSet bits(int... ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+}
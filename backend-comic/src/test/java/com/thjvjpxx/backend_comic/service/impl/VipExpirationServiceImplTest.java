@@ -0,0 +1,128 @@
+package com.thjvjpxx.backend_comic.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thjvjpxx.backend_comic.dto.response.VipExpiryStatsResponse;
+import com.thjvjpxx.backend_comic.repository.UserRepository;
+import com.thjvjpxx.backend_comic.repository.UserVipSubscriptionRepository;
+import com.thjvjpxx.backend_comic.utils.UserPrincipalCache;
+
+class VipExpirationServiceImplTest {
+
+    UserVipSubscriptionRepository subscriptionRepository;
+    UserRepository userRepository;
+    UserPrincipalCache userPrincipalCache;
+    TransactionTemplate transactionTemplate;
+    VipExpirationServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        subscriptionRepository = mock(UserVipSubscriptionRepository.class);
+        userRepository = mock(UserRepository.class);
+        userPrincipalCache = mock(UserPrincipalCache.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        service = new VipExpirationServiceImpl(subscriptionRepository, userRepository, userPrincipalCache,
+                transactionTemplate);
+        ReflectionTestUtils.setField(service, "horizonMillis", 86400000L);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(userRepository.clearVipWithoutActiveSubscription(anyCollection(), any())).thenReturn(1);
+    }
+
+    @Test
+    void dueExpiryIsSweptAndEvictsCachedPrincipal() {
+        reloadWith(new Object[] { "user", LocalDateTime.now().minusMinutes(1) });
+
+        service.sweepExpired();
+
+        assertThat(sweptUsers()).containsExactly("user");
+        verify(userPrincipalCache).evict("user");
+        VipExpiryStatsResponse stats = service.getExpiryStats();
+        assertThat(stats.getPendingExpirations()).isZero();
+        assertThat(stats.getTotalExpiredUsers()).isEqualTo(1);
+    }
+
+    @Test
+    void renewedExpiryIsNotSweptAtOldTime() {
+        reloadWith(new Object[] { "user", LocalDateTime.now().minusMinutes(1) });
+        // Gia hạn trước khi lượt quét chạy
+        service.trackExpiry("user", LocalDateTime.now().plusHours(2));
+
+        service.sweepExpired();
+
+        verify(subscriptionRepository, never()).expireSubscriptionsOfUsers(anyCollection(), any());
+    }
+
+    @Test
+    void staleTokenDoesNotOverwriteRenewedExpiry() {
+        LocalDateTime renewed = LocalDateTime.now().plusHours(2);
+        service.trackExpiry("user", renewed);
+
+        // JWT cũ (cấp trước lúc gia hạn) mang mốc sớm hơn
+        service.trackExpiry("user", LocalDateTime.now().plusHours(1));
+        service.trackExpiry("user", renewed);
+
+        VipExpiryStatsResponse stats = service.getExpiryStats();
+        assertThat(stats.getPendingExpirations()).isEqualTo(1);
+        assertThat(stats.getNextExpiration()).isEqualTo(renewed);
+    }
+
+    @Test
+    void passedOrFarExpiriesFromRequestsAreIgnored() {
+        service.trackExpiry("passed", LocalDateTime.now().minusMinutes(1));
+        service.trackExpiry("far", LocalDateTime.now().plusDays(3));
+        service.trackExpiry("none", null);
+
+        assertThat(service.getExpiryStats().getPendingExpirations()).isZero();
+    }
+
+    @Test
+    void failedSweepIsRetriedOnNextTick() {
+        reloadWith(new Object[] { "user", LocalDateTime.now().minusMinutes(1) });
+        when(subscriptionRepository.expireSubscriptionsOfUsers(anyCollection(), any()))
+                .thenThrow(new RuntimeException("deadlock"))
+                .thenReturn(1);
+
+        service.sweepExpired();
+        assertThat(service.getExpiryStats().getPendingExpirations()).isEqualTo(1);
+        verify(userPrincipalCache, never()).evict("user");
+
+        service.sweepExpired();
+        verify(subscriptionRepository, times(2)).expireSubscriptionsOfUsers(anyCollection(), any());
+        verify(userPrincipalCache).evict("user");
+        assertThat(service.getExpiryStats().getPendingExpirations()).isZero();
+    }
+
+    private void reloadWith(Object[]... rows) {
+        when(subscriptionRepository.findActiveExpiriesBefore(any())).thenReturn(List.of(rows));
+        service.reloadUpcomingExpirations();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> sweptUsers() {
+        ArgumentCaptor<Collection<String>> userIds = ArgumentCaptor.forClass(Collection.class);
+        verify(subscriptionRepository).expireSubscriptionsOfUsers(userIds.capture(), any());
+        return userIds.getValue();
+    }
+}
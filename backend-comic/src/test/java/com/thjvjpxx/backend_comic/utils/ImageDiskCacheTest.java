@@ -0,0 +1,185 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+
+import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.exception.BaseException;
+import com.thjvjpxx.backend_comic.service.StorageService;
+import com.thjvjpxx.backend_comic.utils.ImageDiskCache.CachedImage;
+
+class ImageDiskCacheTest {
+
+    static final String KEY = "comics/slug/chapter-1.0/1.jpg";
+
+    @TempDir
+    Path directory;
+
+    StorageService storageService = mock(StorageService.class);
+
+    @Test
+    void keysOutsideImageFoldersOrWithTraversalAreRejected() throws IOException {
+        ImageDiskCache cache = cache(1000, 60000, 60000);
+
+        for (String key : new String[] { null, "avatars/a.jpg", "comics/../secret", "comics//a.jpg", "comics/dir/",
+                "thumbnails/a/../../b.jpg" }) {
+            assertThatThrownBy(() -> cache.get(key)).isInstanceOfSatisfying(BaseException.class,
+                    e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.INVALID_ARGUMENT));
+        }
+        verify(storageService, never()).downloadFile(anyString(), any());
+    }
+
+    @Test
+    void imageIsDownloadedOnceThenServedFromDisk() throws IOException {
+        ImageDiskCache cache = cache(1000, 60000, 60000);
+        download("hello");
+
+        CachedImage first = cache.get(KEY);
+        CachedImage second = cache.get(KEY);
+
+        verify(storageService, times(1)).downloadFile(eq(KEY), any());
+        assertThat(second.path()).isEqualTo(first.path());
+        assertThat(Files.readString(first.path())).isEqualTo("hello");
+        assertThat(first.size()).isEqualTo(5);
+        assertThat(first.contentType()).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(second.etag()).isEqualTo(first.etag());
+    }
+
+    @Test
+    void concurrentMissesShareOneDownload() throws Exception {
+        ImageDiskCache cache = cache(1000, 60000, 60000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(storageService.downloadFile(eq(KEY), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            Files.writeString(invocation.getArgument(1), "hello");
+            return 5L;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CachedImage>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get(KEY)));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> cache.get(KEY)));
+            }
+            // Cho các request sau kịp chờ lượt tải đang chạy
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<CachedImage> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).path()).isEqualTo(results.get(0).get().path());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(storageService, times(1)).downloadFile(eq(KEY), any());
+    }
+
+    @Test
+    void failedDownloadIsNotCachedAndIsRetried() throws IOException {
+        ImageDiskCache cache = cache(1000, 60000, 60000);
+        when(storageService.downloadFile(eq(KEY), any()))
+                .thenThrow(new BaseException(ErrorCode.FILE_NOT_FOUND))
+                .thenAnswer(invocation -> {
+                    Files.writeString(invocation.getArgument(1), "hello");
+                    return 5L;
+                });
+
+        assertThatThrownBy(() -> cache.get(KEY)).isInstanceOfSatisfying(BaseException.class,
+                e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.FILE_NOT_FOUND));
+        assertThat(cache.get(KEY).size()).isEqualTo(5);
+    }
+
+    @Test
+    void expiredImageIsDownloadedToNewFileAndOldFileIsDeletedLater() throws Exception {
+        // TTL âm: mọi file đều đã hết hạn
+        ImageDiskCache cache = cache(1000, -1, 0);
+        download("hello");
+
+        CachedImage first = cache.get(KEY);
+        Thread.sleep(5);
+        CachedImage second = cache.get(KEY);
+
+        verify(storageService, times(2)).downloadFile(eq(KEY), any());
+        assertThat(second.path()).isNotEqualTo(first.path());
+        // File cũ vẫn còn cho request đang gửi, chỉ bị xoá khi tới hạn
+        assertThat(first.path()).exists();
+        cache.purgeRetired();
+        assertThat(first.path()).doesNotExist();
+        assertThat(second.path()).exists();
+    }
+
+    @Test
+    void leastRecentlyUsedImageIsEvictedWhenOverBudget() throws Exception {
+        ImageDiskCache cache = cache(10, 60000, 0);
+        download("12345");
+
+        CachedImage a = cache.get("comics/a.jpg");
+        cache.get("comics/b.jpg");
+        // Dùng lại "a" nên "b" bị đẩy ra khi thêm "c"
+        cache.get("comics/a.jpg");
+        cache.get("comics/c.jpg");
+        cache.purgeRetired();
+
+        cache.get("comics/a.jpg");
+        cache.get("comics/b.jpg");
+        verify(storageService, times(1)).downloadFile(eq("comics/a.jpg"), any());
+        verify(storageService, times(2)).downloadFile(eq("comics/b.jpg"), any());
+        assertThat(a.path()).exists();
+    }
+
+    @Test
+    void initRebuildsIndexFromDiskAndDropsTempFiles() throws IOException {
+        ImageDiskCache cache = cache(1000, 60000, 60000);
+        download("hello");
+        CachedImage cached = cache.get(KEY);
+        Path leftover = Files.writeString(directory.resolve("tmp").resolve("partial"), "x");
+
+        ImageDiskCache restarted = cache(1000, 60000, 60000);
+
+        assertThat(restarted.get(KEY).path()).isEqualTo(cached.path());
+        verify(storageService, times(1)).downloadFile(eq(KEY), any());
+        assertThat(leftover).doesNotExist();
+    }
+
+    private ImageDiskCache cache(long maxBytes, long ttlMillis, long deleteDelayMillis) throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(storageService, directory.toString(), maxBytes, ttlMillis,
+                deleteDelayMillis);
+        cache.init();
+        return cache;
+    }
+
+    private void download(String content) {
+        when(storageService.downloadFile(anyString(), any())).thenAnswer(invocation -> {
+            Files.writeString(invocation.getArgument(1), content);
+            return (long) content.getBytes(StandardCharsets.UTF_8).length;
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImageTilerTest {
+
+    static final int WIDTH = 7;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void remainderBelowQuarterSegmentIsMergedIntoLastSegment() throws IOException {
+        Path file = writeImage(960);
+
+        List<int[]> segments = split(new ImageTiler(300, 0, Long.MAX_VALUE), file);
+
+        // 960 = 300 + 300 + 360 (phần dư 60 < 300/4 được gộp)
+        assertThat(segments).extracting(segment -> segment[1]).containsExactly(0, 300, 600);
+        assertThat(segments).extracting(segment -> segment[2]).containsExactly(300, 300, 360);
+    }
+
+    @Test
+    void shortRemainderIsKeptAsOwnSegment() throws IOException {
+        Path file = writeImage(1000);
+
+        List<int[]> segments = split(new ImageTiler(300, 0, Long.MAX_VALUE), file);
+
+        assertThat(segments).extracting(segment -> segment[2]).containsExactly(300, 300, 300, 100);
+    }
+
+    @Test
+    void bandsWithinBudgetGiveSameSegmentsAsSingleDecode() throws IOException {
+        Path file = writeImage(1000);
+
+        List<int[]> whole = split(new ImageTiler(300, 0, Long.MAX_VALUE), file);
+        // Mỗi dải tối đa 2 đoạn, rồi tối đa 1 đoạn
+        List<int[]> twoPerBand = split(new ImageTiler(300, 0, WIDTH * 600L), file);
+        List<int[]> onePerBand = split(new ImageTiler(300, 0, 1), file);
+
+        assertThat(twoPerBand).usingRecursiveFieldByFieldElementComparator().isEqualTo(whole);
+        assertThat(onePerBand).usingRecursiveFieldByFieldElementComparator().isEqualTo(whole);
+    }
+
+    @Test
+    void shouldSplitOnlyTallImages() {
+        ImageTiler tiler = new ImageTiler(1280, 4000, Long.MAX_VALUE);
+
+        assertThat(tiler.shouldSplit(new Dimension(800, 3999))).isFalse();
+        assertThat(tiler.shouldSplit(new Dimension(800, 4000))).isTrue();
+    }
+
+    /**
+     * Cắt ảnh và kiểm tra từng dòng của đoạn đúng là dòng tương ứng của ảnh gốc
+     *
+     * @return Mỗi đoạn: {index, offsetY, height}
+     */
+    private List<int[]> split(ImageTiler tiler, Path file) throws IOException {
+        List<int[]> segments = new ArrayList<>();
+        int count = tiler.split(file, (index, offsetY, segment) -> {
+            assertThat(index).isEqualTo(segments.size());
+            assertThat(segment.getWidth()).isEqualTo(WIDTH);
+            for (int y = 0; y < segment.getHeight(); y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    assertThat(segment.getRGB(x, y) & 0xFFFFFF).isEqualTo(color(x, offsetY + y));
+                }
+            }
+            segments.add(new int[] { index, offsetY, segment.getHeight() });
+        });
+        assertThat(count).isEqualTo(segments.size());
+
+        // Các đoạn nối tiếp nhau, phủ hết chiều cao ảnh
+        int expectedOffset = 0;
+        for (int[] segment : segments) {
+            assertThat(segment[1]).isEqualTo(expectedOffset);
+            expectedOffset += segment[2];
+        }
+        assertThat(expectedOffset).isEqualTo(tiler.readSize(file).height);
+        return segments;
+    }
+
+    /**
+     * Ảnh PNG (không nén mất dữ liệu) có màu mỗi điểm xác định bởi toạ độ
+     */
+    private Path writeImage(int height) throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, color(x, y));
+            }
+        }
+        Path file = tempDir.resolve("page-" + height + ".png");
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    private static int color(int x, int y) {
+        return (y & 0xFF) << 16 | (y >> 8 & 0xFF) << 8 | x * 30;
+    }
+}
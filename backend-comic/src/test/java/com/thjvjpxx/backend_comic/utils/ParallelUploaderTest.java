@@ -0,0 +1,117 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.thjvjpxx.backend_comic.enums.ErrorCode;
+import com.thjvjpxx.backend_comic.exception.BaseException;
+
+class ParallelUploaderTest {
+
+    ParallelUploader uploader;
+
+    @AfterEach
+    void tearDown() {
+        uploader.shutdown();
+    }
+
+    @Test
+    void resultsKeepInputOrder() {
+        uploader = new ParallelUploader(4);
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+
+        // Phần tử sau xong trước
+        List<String> results = uploader.uploadAll(items, item -> {
+            sleep(20 - item);
+            return "page-" + item;
+        });
+
+        assertThat(results).containsExactlyElementsOf(items.stream().map(item -> "page-" + item).toList());
+    }
+
+    @Test
+    void concurrentUploadsAreBoundedByWindow() {
+        uploader = new ParallelUploader(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        uploader.uploadAll(IntStream.range(0, 30).boxed().toList(), item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(5);
+            running.decrementAndGet();
+            return item;
+        });
+
+        assertThat(maxRunning.get()).isBetween(2, 3);
+    }
+
+    @Test
+    void failureStopsSubmittingRemainingItems() {
+        uploader = new ParallelUploader(1);
+        Set<Integer> started = ConcurrentHashMap.newKeySet();
+
+        assertThatThrownBy(() -> uploader.uploadAll(List.of(0, 1, 2, 3), item -> {
+            started.add(item);
+            if (item == 1) {
+                throw new IllegalStateException("network");
+            }
+            return item;
+        })).isInstanceOfSatisfying(BaseException.class,
+                e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.UPLOAD_FILE_FAILED));
+
+        assertThat(started).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    void baseExceptionIsRethrownAsIs() {
+        uploader = new ParallelUploader(2);
+        BaseException error = new BaseException(ErrorCode.INVALID_ARGUMENT);
+
+        assertThatThrownBy(() -> uploader.uploadAll(List.of(0), item -> {
+            throw error;
+        })).isSameAs(error);
+    }
+
+    @Test
+    void failureCancelsEarlierSlowUploads() throws InterruptedException {
+        uploader = new ParallelUploader(2);
+        CountDownLatch never = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> uploader.uploadAll(List.of(0, 1), item -> {
+            if (item == 1) {
+                throw new IllegalStateException("network");
+            }
+            // File đầu upload rất lâu, phải bị huỷ khi file sau lỗi
+            try {
+                never.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return item;
+        })).isInstanceOf(BaseException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(10);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
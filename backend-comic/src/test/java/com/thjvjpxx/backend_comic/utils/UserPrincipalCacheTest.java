@@ -0,0 +1,97 @@
+package com.thjvjpxx.backend_comic.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.thjvjpxx.backend_comic.model.User;
+
+class UserPrincipalCacheTest {
+
+    @Test
+    void cachedUserIsReturnedUntilTtlPasses() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 60000);
+        cache.put(user("a", "alice"));
+
+        assertThat(cache.get("a").getUsername()).isEqualTo("alice");
+        assertThat(cache.get("missing")).isNull();
+    }
+
+    @Test
+    void expiredUserIsNotReturned() {
+        // TTL âm: hết hạn ngay khi được thêm
+        UserPrincipalCache cache = new UserPrincipalCache(10, -1);
+        cache.put(user("a", "alice"));
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsEvictedFirst() {
+        UserPrincipalCache cache = new UserPrincipalCache(2, 60000);
+        cache.put(user("a", "alice"));
+        cache.put(user("b", "bob"));
+
+        // Đọc "a" nên "b" thành phần tử ít dùng nhất
+        cache.get("a");
+        cache.put(user("c", "carol"));
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void cacheStoresAndReturnsCopies() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 60000);
+        User original = user("a", "alice");
+        cache.put(original);
+
+        original.setUsername("changed-after-put");
+        User first = cache.get("a");
+        first.setUsername("changed-by-request");
+
+        assertThat(cache.get("a").getUsername()).isEqualTo("alice");
+        assertThat(cache.get("a")).isNotSameAs(cache.get("a"));
+    }
+
+    @Test
+    void evictAfterCommitEvictsAgainWhenTransactionCommits() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 60000);
+        cache.put(user("a", "alice"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictAfterCommit("a");
+            assertThat(cache.get("a")).isNull();
+
+            // Request khác đọc dòng cũ trước khi commit và đưa lại vào cache
+            cache.put(user("a", "stale"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            assertThat(cache.get("a")).isNull();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictAfterCommitWithoutTransactionEvictsImmediately() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 60000);
+        cache.put(user("a", "alice"));
+
+        cache.evictAfterCommit("a");
+        cache.evictAfterCommit(null);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    private static User user(String id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -36,6 +36,17 @@ export const getComicBySearch = async (search: string, page: number, limit: numb
   return response;
 }
 
+/**
+ * Gợi ý truyện khi đang gõ ô tìm kiếm
+ * @param query - Chuỗi đang gõ
+ * @param limit - Số lượng gợi ý tối đa
+ * @returns Danh sách truyện, lượt xem giảm dần
+ */
+export const getComicSuggestions = async (query: string, limit: number = 8) => {
+  const response = await fetchApi<PopulerToday[]>(`/search/suggest?query=${encodeURIComponent(query)}&limit=${limit}`);
+  return response;
+}
+
 /**
  * Lấy danh sách truyện yêu thích của user
  * @param page - Trang hiện tại
@@ -9,6 +9,8 @@ export interface PopulerToday {
   viewCount: number;
   latestChapter: number;
   alreadyRead: number;
+  lastChapterId?: string;
+  lastChapterNumber?: number;
 }
 
 export interface ComicHome {
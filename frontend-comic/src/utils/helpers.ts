@@ -32,7 +32,8 @@ export const formatDate = (dateString: string) => {
  * @returns URL ảnh đã được tạo
  */
 export const constructImageUrl = (chapter: Chapter, imgUrl: string) => {
-  if (!chapter.domainCdn || !chapter.chapterPath) {
+  // Ảnh lưu theo hash nội dung đã là URL đầy đủ
+  if (!chapter.domainCdn || !chapter.chapterPath || /^https?:\/\//.test(imgUrl)) {
     return imgUrl;
   }
   return `${chapter.domainCdn}/${chapter.chapterPath}/${imgUrl}`;